@@ -0,0 +1,97 @@
+package com.cashcontrol.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Cliente HTTP da API que mede cada chamada e a registra em {@link Metricas} sob um nome de endpoint
+ * (com o path "modelo", ex.: {@code GET /api/dashboard/{id}}), para que os percentis agrupem
+ * requisições equivalentes.
+ */
+class ClienteApi {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ConfiguracaoCarga config;
+    private final Metricas metricas;
+    private final HttpClient http;
+
+    ClienteApi(ConfiguracaoCarga config, Metricas metricas) {
+        this.config = config;
+        this.metricas = metricas;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(config.timeout())
+                .executor(Executors.newCachedThreadPool(r -> {
+                    Thread t = new Thread(r, "http-cliente");
+                    t.setDaemon(true);
+                    return t;
+                }))
+                .build();
+    }
+
+    Resposta post(String endpoint, String path, String token, Map<String, ?> corpo) {
+        HttpRequest.Builder req = requisicao(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(escrever(corpo)));
+        return enviar(endpoint, req.build());
+    }
+
+    Resposta get(String endpoint, String path, String token) {
+        return enviar(endpoint, requisicao(path, token).GET().build());
+    }
+
+    private HttpRequest.Builder requisicao(String path, String token) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(config.url().resolve(path))
+                .timeout(config.timeout())
+                .header("Accept", "application/json");
+        if (token != null) {
+            req.header("Authorization", token);
+        }
+        return req;
+    }
+
+    private Resposta enviar(String endpoint, HttpRequest req) {
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            metricas.registrar(endpoint, System.nanoTime() - inicio, resp.statusCode());
+            return new Resposta(resp.statusCode(), resp.body());
+        } catch (IOException e) {
+            metricas.registrar(endpoint, System.nanoTime() - inicio, 0);
+            return new Resposta(0, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Resposta(0, "interrompido");
+        }
+    }
+
+    private static String escrever(Map<String, ?> corpo) {
+        try {
+            return JSON.writeValueAsString(corpo);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    record Resposta(int status, String corpo) {
+
+        boolean sucesso() {
+            return status >= 200 && status < 300;
+        }
+
+        JsonNode json() {
+            try {
+                return JSON.readTree(corpo);
+            } catch (IOException e) {
+                throw new IllegalStateException("Resposta não é JSON: " + corpo, e);
+            }
+        }
+    }
+}
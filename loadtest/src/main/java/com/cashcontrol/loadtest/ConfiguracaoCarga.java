@@ -0,0 +1,56 @@
+package com.cashcontrol.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do gerador de carga, lidos da linha de comando no formato {@code --chave=valor}.
+ *
+ * <ul>
+ *     <li>{@code --url}: endereço base da API (padrão {@code http://localhost:8080});</li>
+ *     <li>{@code --taxa}: jornadas iniciadas por segundo, com chegadas de Poisson (padrão 5);</li>
+ *     <li>{@code --duracao}: tempo de geração de novas jornadas, em segundos (padrão 60);</li>
+ *     <li>{@code --concorrencia}: número máximo de jornadas simultâneas (padrão 50);</li>
+ *     <li>{@code --fila}: jornadas aguardando um executor antes de serem descartadas (padrão 1000);</li>
+ *     <li>{@code --passos}: operações por jornada após o login (padrão 10);</li>
+ *     <li>{@code --pausa-ms}: tempo médio de "pensar" entre operações (padrão 200, 0 desliga);</li>
+ *     <li>{@code --timeout-ms}: tempo limite de cada requisição (padrão 10000).</li>
+ * </ul>
+ */
+record ConfiguracaoCarga(URI url,
+                         double taxa,
+                         Duration duracao,
+                         int concorrencia,
+                         int fila,
+                         int passos,
+                         long pausaMs,
+                         Duration timeout) {
+
+    static ConfiguracaoCarga ler(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --chave=valor)");
+            }
+            int igual = arg.indexOf('=');
+            valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+
+        String url = valores.getOrDefault("url", "http://localhost:8080");
+        ConfiguracaoCarga config = new ConfiguracaoCarga(
+                URI.create(url.endsWith("/") ? url.substring(0, url.length() - 1) : url),
+                Double.parseDouble(valores.getOrDefault("taxa", "5")),
+                Duration.ofSeconds(Long.parseLong(valores.getOrDefault("duracao", "60"))),
+                Integer.parseInt(valores.getOrDefault("concorrencia", "50")),
+                Integer.parseInt(valores.getOrDefault("fila", "1000")),
+                Integer.parseInt(valores.getOrDefault("passos", "10")),
+                Long.parseLong(valores.getOrDefault("pausa-ms", "200")),
+                Duration.ofMillis(Long.parseLong(valores.getOrDefault("timeout-ms", "10000"))));
+        if (config.taxa <= 0 || config.concorrencia <= 0 || config.fila <= 0) {
+            throw new IllegalArgumentException("taxa, concorrencia e fila devem ser positivos");
+        }
+        return config;
+    }
+}
@@ -0,0 +1,88 @@
+package com.cashcontrol.loadtest;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga HTTP da CashControl API em modelo aberto.
+ *
+ * <p>
+ * As jornadas ({@link Jornada}) chegam em instantes sorteados de uma distribuição exponencial
+ * (processo de Poisson com a taxa configurada), independentemente de quantas ainda estão em
+ * andamento. Assim, uma API lenta acumula jornadas simultâneas em vez de reduzir a carga
+ * oferecida, como acontece com clientes reais. Jornadas que não encontram executor livre nem
+ * espaço na fila são descartadas e contabilizadas.
+ * </p>
+ *
+ * <p>Execução (com a API rodando):</p>
+ * <pre>
+ * mvn -f loadtest/pom.xml compile exec:java -Dexec.args="--taxa=20 --duracao=120 --concorrencia=200"
+ * </pre>
+ *
+ * @see ConfiguracaoCarga
+ */
+public class GeradorCarga {
+
+    public static void main(String[] args) throws InterruptedException {
+        ConfiguracaoCarga config = ConfiguracaoCarga.ler(args);
+        Metricas metricas = new Metricas();
+        ClienteApi api = new ClienteApi(config, metricas);
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executores = new ThreadPoolExecutor(
+                config.concorrencia(), config.concorrencia(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.fila()),
+                r -> new Thread(r, "jornada-" + threads.incrementAndGet()),
+                (r, executor) -> metricas.jornadaDescartada());
+
+        ScheduledExecutorService progresso = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "progresso");
+            t.setDaemon(true);
+            return t;
+        });
+        long inicio = System.nanoTime();
+        progresso.scheduleAtFixedRate(() -> System.out.printf("[%3ds] jornadas ativas=%d concluídas=%d requisições=%d%n",
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio), executores.getActiveCount(),
+                        metricas.jornadasConcluidas(), metricas.totalRequisicoes()),
+                10, 10, TimeUnit.SECONDS);
+
+        System.out.printf("Gerando %.1f jornadas/s por %ds contra %s (concorrência máx. %d)%n",
+                config.taxa(), config.duracao().toSeconds(), config.url(), config.concorrencia());
+
+        String execucao = Long.toString(System.currentTimeMillis(), 36);
+        long fim = inicio + config.duracao().toNanos();
+        long proxima = inicio;
+        long sequencia = 0;
+        while (proxima < fim) {
+            long espera = proxima - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            long agendada = proxima;
+            String email = "carga-" + execucao + "-" + (sequencia++) + "@carga.local";
+            Jornada jornada = new Jornada(api, metricas, config, email);
+            executores.execute(() -> {
+                metricas.registrarAtrasoInicio(System.nanoTime() - agendada);
+                jornada.run();
+            });
+            double intervalo = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / config.taxa();
+            proxima += (long) (intervalo * TimeUnit.SECONDS.toNanos(1));
+        }
+
+        System.out.println("Fim da geração; aguardando jornadas em andamento...");
+        executores.shutdown();
+        if (!executores.awaitTermination(config.timeout().toSeconds() * config.passos() + 60, TimeUnit.SECONDS)) {
+            System.out.println("Jornadas ainda em andamento foram interrompidas.");
+            executores.shutdownNow();
+        }
+        progresso.shutdownNow();
+
+        metricas.imprimir(System.out, (System.nanoTime() - inicio) / 1e9);
+    }
+}
@@ -0,0 +1,170 @@
+package com.cashcontrol.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Jornada de um usuário novo: cadastro, login e uma sequência de operações sorteadas.
+ *
+ * <p>Distribuição das operações após o login:</p>
+ * <ul>
+ *     <li>35% investimento;</li>
+ *     <li>20% aposta pequena (até 10% do saldo);</li>
+ *     <li>10% aposta acima de 20% do saldo, seguida de nova aposta, que esbarra no cooldown;</li>
+ *     <li>10% retorno;</li>
+ *     <li>20% consulta ao dashboard;</li>
+ *     <li>5% simulação "apostei vs investi".</li>
+ * </ul>
+ *
+ * <p>
+ * O saldo é acompanhado localmente para que as apostas "grandes" e "pequenas" caiam do lado
+ * certo da regra dos 20%. Respostas 400 de intervenção e cooldown são esperadas e não contam
+ * como erro da jornada.
+ * </p>
+ *
+ * <p>
+ * A jornada não presume as regras de acesso da API: se uma operação for recusada (401/403), ela é
+ * encerrada com erro em vez de repetir chamadas que a API não vai aceitar. As recusas aparecem no
+ * relatório como códigos de status do endpoint.
+ * </p>
+ */
+class Jornada implements Runnable {
+
+    private static final String TRANSACOES = "/api/transacoes";
+
+    private final ClienteApi api;
+    private final Metricas metricas;
+    private final ConfiguracaoCarga config;
+    private final String email;
+
+    private String token;
+    private long userId;
+    private double saldo;
+    private boolean erro;
+    private boolean recusada;
+
+    Jornada(ClienteApi api, Metricas metricas, ConfiguracaoCarga config, String email) {
+        this.api = api;
+        this.metricas = metricas;
+        this.config = config;
+        this.email = email;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (cadastrarEEntrar()) {
+                for (int i = 0; i < config.passos() && !recusada; i++) {
+                    pensar();
+                    executarPasso();
+                }
+            }
+        } catch (RuntimeException e) {
+            erro = true;
+        } finally {
+            metricas.jornadaConcluida(erro);
+        }
+    }
+
+    private boolean cadastrarEEntrar() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        double renda = Math.round(rnd.nextDouble(1500, 12000));
+        String senha = "carga-" + rnd.nextInt(1_000_000);
+
+        ClienteApi.Resposta cadastro = api.post("POST /api/users/register", "/api/users/register", null,
+                Map.of("nome", "Carga " + email, "email", email, "senha", senha, "rendaMensal", renda));
+        if (!cadastro.sucesso()) {
+            erro = true;
+            return false;
+        }
+        saldo = renda;
+
+        ClienteApi.Resposta login = api.post("POST /api/users/login", "/api/users/login", null,
+                Map.of("email", email, "senha", senha));
+        if (!login.sucesso()) {
+            erro = true;
+            return false;
+        }
+        JsonNode corpo = login.json();
+        token = corpo.get("token").asText();
+        userId = corpo.get("userId").asLong();
+        return true;
+    }
+
+    private void executarPasso() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int sorteio = rnd.nextInt(100);
+        if (sorteio < 35) {
+            transacao("INVESTIMENTO", arredondar(saldo * rnd.nextDouble(0.01, 0.1)));
+        } else if (sorteio < 55) {
+            transacao("APOSTA", arredondar(saldo * rnd.nextDouble(0.01, 0.1)));
+        } else if (sorteio < 65) {
+            // Acima de 20%: a API bloqueia e aplica cooldown; a aposta seguinte deve ser recusada
+            transacao("APOSTA", arredondar(saldo * rnd.nextDouble(0.25, 0.6)));
+            transacao("APOSTA", arredondar(saldo * 0.01));
+        } else if (sorteio < 75) {
+            transacao("RETORNO", arredondar(rnd.nextDouble(10, 500)));
+        } else if (sorteio < 95) {
+            verificar(api.get("GET /api/dashboard/{id}", "/api/dashboard/" + userId, token));
+        } else {
+            verificar(api.post("POST /api/simulador/usuario/{id}", "/api/simulador/usuario/" + userId, token,
+                    Map.of("valorInicial", arredondar(rnd.nextDouble(50, 1000)), "meses", rnd.nextInt(1, 36))));
+        }
+    }
+
+    private void transacao(String tipo, double valor) {
+        if (recusada) {
+            return;
+        }
+        if (valor <= 0) {
+            valor = 1;
+        }
+        ClienteApi.Resposta resp = api.post("POST " + TRANSACOES + " (" + tipo + ")", TRANSACOES, token,
+                Map.of("valor", valor, "tipo", tipo, "userId", userId));
+        if (recusou(resp)) {
+            return;
+        }
+        if (resp.sucesso()) {
+            if (tipo.equals("APOSTA")) {
+                saldo -= valor;
+            } else if (tipo.equals("RETORNO")) {
+                saldo += valor;
+            }
+        } else if (resp.status() != 400 && resp.status() != 429) {
+            // 400: intervenção/cooldown; 429: limite de taxa — ambos fazem parte do comportamento esperado
+            erro = true;
+        }
+    }
+
+    private void verificar(ClienteApi.Resposta resp) {
+        if (!recusou(resp) && !resp.sucesso()) {
+            erro = true;
+        }
+    }
+
+    /**
+     * Marca a jornada como recusada quando a API não aceita as credenciais enviadas (401/403).
+     */
+    private boolean recusou(ClienteApi.Resposta resp) {
+        if (resp.status() == 401 || resp.status() == 403) {
+            recusada = true;
+            erro = true;
+        }
+        return recusada;
+    }
+
+    private void pensar() {
+        if (config.pausaMs() > 0) {
+            double media = TimeUnit.MILLISECONDS.toNanos(config.pausaMs());
+            LockSupport.parkNanos((long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * media));
+        }
+    }
+
+    private static double arredondar(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.cashcontrol.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências e códigos de status por endpoint, acumulados em histogramas HdrHistogram (microssegundos).
+ *
+ * <p>
+ * Além das requisições, registra o atraso de início de cada jornada em relação ao horário agendado:
+ * num modelo aberto, esse atraso mostra quando o gerador (e não a API) virou o gargalo.
+ * </p>
+ */
+class Metricas {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Histogram atrasoInicio = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final LongAdder jornadasIniciadas = new LongAdder();
+    private final LongAdder jornadasConcluidas = new LongAdder();
+    private final LongAdder jornadasDescartadas = new LongAdder();
+    private final LongAdder jornadasComErro = new LongAdder();
+
+    void registrar(String endpoint, long nanos, int status) {
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        e.latencia.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_MICROS));
+        e.status.computeIfAbsent(status, k -> new LongAdder()).increment();
+    }
+
+    void registrarAtrasoInicio(long nanos) {
+        atrasoInicio.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0)), MAX_MICROS));
+        jornadasIniciadas.increment();
+    }
+
+    void jornadaConcluida(boolean comErro) {
+        jornadasConcluidas.increment();
+        if (comErro) {
+            jornadasComErro.increment();
+        }
+    }
+
+    void jornadaDescartada() {
+        jornadasDescartadas.increment();
+    }
+
+    long totalRequisicoes() {
+        long total = 0;
+        for (Endpoint e : endpoints.values()) {
+            total += e.latencia.getTotalCount();
+        }
+        return total;
+    }
+
+    long jornadasConcluidas() {
+        return jornadasConcluidas.sum();
+    }
+
+    /**
+     * Imprime o relatório final: vazão e percentis de latência (ms) por endpoint.
+     *
+     * @param segundos duração total medida, usada no cálculo da vazão.
+     */
+    void imprimir(PrintStream out, double segundos) {
+        out.printf("%nJornadas: iniciadas=%d concluídas=%d com erro=%d descartadas=%d (%.1f/s)%n",
+                jornadasIniciadas.sum(), jornadasConcluidas.sum(), jornadasComErro.sum(),
+                jornadasDescartadas.sum(), jornadasConcluidas.sum() / segundos);
+        out.printf("Atraso de início (ms): p50=%.1f p99=%.1f max=%.1f%n%n",
+                ms(atrasoInicio.getValueAtPercentile(50)), ms(atrasoInicio.getValueAtPercentile(99)),
+                ms(atrasoInicio.getMaxValue()));
+
+        out.printf("%-34s %8s %8s %8s %8s %8s %8s %8s  %s%n",
+                "Endpoint", "Reqs", "Req/s", "p50", "p90", "p99", "p99.9", "max", "Status");
+        for (Map.Entry<String, Endpoint> entrada : new TreeMap<>(endpoints).entrySet()) {
+            Histogram h = entrada.getValue().latencia;
+            out.printf("%-34s %8d %8.1f %8.1f %8.1f %8.1f %8.1f %8.1f  %s%n",
+                    entrada.getKey(), h.getTotalCount(), h.getTotalCount() / segundos,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)),
+                    ms(h.getMaxValue()), entrada.getValue().resumoStatus());
+        }
+        out.printf("%nTotal: %d requisições (%.1f req/s). Status 0 = erro de conexão ou timeout.%n",
+                totalRequisicoes(), totalRequisicoes() / segundos);
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Endpoint {
+        final Histogram latencia = new ConcurrentHistogram(MAX_MICROS, 3);
+        final Map<Integer, LongAdder> status = new ConcurrentSkipListMap<>();
+
+        String resumoStatus() {
+            StringBuilder sb = new StringBuilder();
+            status.forEach((codigo, total) -> sb.append(codigo).append('=').append(total.sum()).append(' '));
+            return sb.toString().trim();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Cache de segundo nível do Hibernate com JCache (Ehcache em memória local).
+ *
+ * <p>
+ * As regiões e seus limites estão em {@code ehcache.xml}; as entidades em cache são marcadas com
+ * {@code @Cache}. Cada contexto Spring recebe o próprio {@link CacheManager} (URI única), em vez
+ * do gerenciador compartilhado por JVM do JCache: dois contextos na mesma JVM (ex: testes com
+ * bancos diferentes) nunca veem as entradas um do outro.
+ * </p>
+ *
+ * <p>
+ * Escritas feitas por JDBC direto (jobs em lote) não passam pelo Hibernate e precisam invalidar
+ * as entradas afetadas (ver {@code DiasSemApostarJob}).
+ * </p>
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerHibernate() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        XmlConfiguration configuracao = new XmlConfiguration(getClass().getResource("/ehcache.xml"));
+        return provider.getCacheManager(URI.create("cashcontrol:" + UUID.randomUUID()), configuracao);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerHibernate) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerHibernate);
+    }
+}
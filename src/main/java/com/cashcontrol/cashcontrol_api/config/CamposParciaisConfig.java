@@ -0,0 +1,112 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.dto.DashboardDto;
+import com.cashcontrol.cashcontrol_api.dto.TransacaoDto;
+import com.cashcontrol.cashcontrol_api.dto.UserDto;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Respostas parciais com o parâmetro {@code fields} (ex: {@code GET /api/users/3?fields=nome,saldo}).
+ *
+ * <p>
+ * {@link UserDto}, {@link TransacaoDto} e {@link DashboardDto} recebem um filtro Jackson
+ * ({@link #FILTRO}) por mix-in, sem anotação nos próprios DTOs. Sem o parâmetro o filtro não é
+ * configurado e todos os campos são escritos; com o parâmetro, só os campos pedidos (os nomes
+ * desconhecidos são ignorados). O filtro vale para JSON e CBOR.
+ * </p>
+ */
+@Configuration
+public class CamposParciaisConfig {
+
+    /**
+     * Identificador do filtro Jackson dos DTOs com campos selecionáveis.
+     */
+    public static final String FILTRO = "campos";
+
+    /**
+     * Nome do parâmetro de consulta com os campos pedidos.
+     */
+    public static final String PARAMETRO = "fields";
+
+    private static final List<Class<?>> FILTRAVEIS = List.of(UserDto.class, TransacaoDto.class, DashboardDto.class);
+
+    /**
+     * Aplica o filtro ao ObjectMapper JSON da aplicação.
+     *
+     * @return customizador do builder do Spring
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer camposParciaisCustomizer() {
+        return builder -> {
+            FILTRAVEIS.forEach(tipo -> builder.mixIn(tipo, Filtravel.class));
+            builder.filters(semFiltro());
+        };
+    }
+
+    /**
+     * Aplica o filtro a um ObjectMapper criado fora do builder do Spring (ex: o mapper CBOR).
+     *
+     * @param mapper mapper a configurar
+     * @return o mesmo mapper
+     */
+    public static ObjectMapper aplicar(ObjectMapper mapper) {
+        FILTRAVEIS.forEach(tipo -> mapper.addMixIn(tipo, Filtravel.class));
+        return mapper.setFilterProvider(semFiltro());
+    }
+
+    /**
+     * Lê o parâmetro {@code fields}.
+     *
+     * @param fields nomes separados por vírgula
+     * @return campos pedidos, ou null para todos (parâmetro ausente ou vazio)
+     */
+    public static Set<String> campos(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(campo -> !campo.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Indica se um campo deve ser incluído na resposta.
+     *
+     * @param campos resultado de {@link #campos(String)}
+     */
+    public static boolean incluir(Set<String> campos, String campo) {
+        return campos == null || campos.contains(campo);
+    }
+
+    /**
+     * Filtros para uma requisição com o parâmetro {@code fields}.
+     */
+    public static FilterProvider somente(Set<String> campos) {
+        return new SimpleFilterProvider().addFilter(FILTRO, SimpleBeanPropertyFilter.filterOutAllExcept(campos));
+    }
+
+    /**
+     * Sem filtro registrado, o Jackson escreve todos os campos.
+     */
+    private static FilterProvider semFiltro() {
+        return new SimpleFilterProvider().setFailOnUnknownId(false);
+    }
+
+    @JsonFilter(FILTRO)
+    interface Filtravel {
+    }
+}
@@ -0,0 +1,95 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Configuração da serialização binária (CBOR) das respostas da API.
+ *
+ * <p>
+ * Clientes que enviam <b>Accept: application/cbor</b> recebem o mesmo conteúdo do JSON
+ * em formato binário compacto. Nesse modo:
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link LocalDateTime} é escrito como epoch em milissegundos;</li>
+ *     <li>{@link LocalDate} é escrito como epoch em dias;</li>
+ *     <li>enums (ex: tipo da transação) são escritos pelo ordinal.</li>
+ * </ul>
+ *
+ * <p>O JSON continua sendo o formato padrão, sem nenhuma alteração.</p>
+ */
+@Configuration
+public class CborConfig {
+
+    /**
+     * Conversor HTTP para application/cbor, substituindo o conversor padrão do Spring.
+     *
+     * @return conversor CBOR configurado
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper());
+    }
+
+    /**
+     * Cria o ObjectMapper usado no modo CBOR (também utilizado nos benchmarks).
+     *
+     * @return ObjectMapper CBOR com datas numéricas e enums por ordinal
+     */
+    public static ObjectMapper cborMapper() {
+        SimpleModule epochModule = new SimpleModule("cashcontrol-epoch");
+        epochModule.addSerializer(LocalDateTime.class, new EpochMillisSerializer());
+        epochModule.addSerializer(LocalDate.class, new EpochDaySerializer());
+
+        return CamposParciaisConfig.aplicar(CBORMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(epochModule)
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .build());
+    }
+
+    /**
+     * Escreve LocalDateTime como epoch em milissegundos no fuso do servidor
+     * (o mesmo usado em {@code LocalDateTime.now()} ao gravar as transações).
+     */
+    static class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+        EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    /**
+     * Escreve LocalDate como número de dias desde 1970-01-01.
+     */
+    static class EpochDaySerializer extends StdSerializer<LocalDate> {
+        EpochDaySerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toEpochDay());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool das consultas paralelas do dashboard ({@code DashboardService}).
+ *
+ * <p>
+ * As consultas são curtas e passam a maior parte do tempo esperando o banco, por isso o pool é
+ * separado das threads do Tomcat e limitado: com a fila cheia a tarefa é recusada e o componente
+ * correspondente sai como indisponível na resposta, em vez de atrasar o dashboard inteiro.
+ * </p>
+ */
+@Configuration
+public class DashboardConfig {
+
+    /**
+     * Pool exclusivo para as consultas do dashboard.
+     *
+     * @param threads  quantidade de threads
+     * @param fila     capacidade da fila de espera
+     * @param registry registro de métricas
+     * @return executor limitado
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService dashboardExecutor(@Value("${cashcontrol.dashboard.threads:8}") int threads,
+                                             @Value("${cashcontrol.dashboard.fila:200}") int fila,
+                                             MeterRegistry registry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setDaemon(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(propagarContexto());
+        executor.initialize();
+        return ExecutorServiceMetrics.monitor(registry, executor.getThreadPoolExecutor(), "dashboard");
+    }
+
+    /**
+     * Leva para a thread do pool o contexto da requisição: a marcação de leitura no primário
+     * (ver {@link LeituraPrimaria}), para que as consultas paralelas vejam as escritas recentes, o
+     * shard do usuário (ver {@link Shards}) e a contagem de comandos SQL (ver {@link MonitorConsultas}).
+     */
+    static TaskDecorator propagarContexto() {
+        return tarefa -> {
+            boolean forcar = LeituraPrimaria.primarioForcado();
+            Integer shard = Shards.atual();
+            MonitorConsultas.Requisicao requisicao = MonitorConsultas.requisicaoAtual();
+            return () -> {
+                LeituraPrimaria.forcarPrimario(forcar);
+                Shards.definirAtual(shard);
+                MonitorConsultas.associar(requisicao);
+                try {
+                    tarefa.run();
+                } finally {
+                    LeituraPrimaria.forcarPrimario(false);
+                    Shards.definirAtual(null);
+                    MonitorConsultas.associar(null);
+                }
+            };
+        };
+    }
+}
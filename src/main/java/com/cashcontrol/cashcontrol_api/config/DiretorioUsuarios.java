@@ -0,0 +1,170 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Diretório global de usuários, no shard 0: gera os IDs de usuário (únicos entre todos os shards)
+ * e garante a unicidade do email, que nenhum shard sozinho consegue garantir.
+ *
+ * <p>
+ * O login e o cadastro chegam só com o email: o diretório informa o ID e, pelo anel, o shard dono.
+ * As operações usam o pool do shard 0 diretamente, em auto-commit, fora das transações da
+ * aplicação (que podem estar em outro shard). Não há transação distribuída: o cadastro reserva o
+ * ID primeiro e libera a reserva se a gravação no shard dono falhar.
+ * </p>
+ *
+ * <p>
+ * IDs liberados nunca são reutilizados: linhas que sobrevivem ao usuário (chaves de idempotência,
+ * registro de alterações, caches de outras instâncias) seriam atribuídas a outra pessoa. O DDL de
+ * {@link #preparar} (identity, {@code restart with}) é o do H2.
+ * </p>
+ */
+public class DiretorioUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(DiretorioUsuarios.class);
+
+    private static final String SQL_CRIAR =
+            "create table if not exists usuario_diretorio (" +
+            "id bigint generated by default as identity primary key, email varchar(255) not null unique)";
+
+    private static final String SQL_RESERVAR = "insert into usuario_diretorio (email) values (?)";
+
+    private static final String SQL_ID_POR_EMAIL = "select id from usuario_diretorio where email = ?";
+
+    private static final String SQL_IDS_POR_EMAIL = "select email, id from usuario_diretorio where email in (:emails)";
+
+    private static final String SQL_EMAILS_CADASTRADOS =
+            "select lower(email) from usuario_diretorio where lower(email) in (:emails)";
+
+    private static final String SQL_LIBERAR = "delete from usuario_diretorio where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transacao;
+
+    /**
+     * @param catalogo pool do shard 0, sem roteamento
+     */
+    public DiretorioUsuarios(DataSource catalogo) {
+        this.jdbcTemplate = new JdbcTemplate(catalogo);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transacao = new TransactionTemplate(new DataSourceTransactionManager(catalogo));
+    }
+
+    /**
+     * Cria a tabela, se necessário, e a preenche com os usuários já gravados nos shards (primeira
+     * subida com sharding sobre uma base existente). O próximo ID gerado fica acima de todos eles,
+     * e nunca volta para trás: se os maiores IDs foram liberados, continua de onde estava.
+     *
+     * @param shards pools de todos os shards
+     */
+    void preparar(List<DataSource> shards) {
+        jdbcTemplate.execute(SQL_CRIAR);
+        Integer registrados = jdbcTemplate.queryForObject("select count(*) from usuario_diretorio", Integer.class);
+        if (registrados != null && registrados == 0) {
+            int importados = 0;
+            for (DataSource shard : shards) {
+                List<Object[]> usuarios = new JdbcTemplate(shard).query("select id, email from usuario",
+                        (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)});
+                jdbcTemplate.batchUpdate("insert into usuario_diretorio (id, email) values (?, ?)", usuarios);
+                importados += usuarios.size();
+            }
+            if (importados > 0) {
+                log.info("Diretório de usuários preenchido com {} usuários dos shards", importados);
+            }
+        }
+        Long maior = jdbcTemplate.queryForObject("select max(id) from usuario_diretorio", Long.class);
+        long proximo = PreparacaoShards.identidade(jdbcTemplate, "usuario_diretorio")[0];
+        if (maior != null && maior >= proximo) {
+            jdbcTemplate.execute("alter table usuario_diretorio alter column id restart with " + (maior + 1));
+        }
+    }
+
+    /**
+     * Reserva um ID para o email.
+     *
+     * @return ID do novo usuário
+     * @throws org.springframework.dao.DuplicateKeyException se o email já estiver cadastrado
+     */
+    public long reservar(String email) {
+        GeneratedKeyHolder chave = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_RESERVAR, new String[]{"id"});
+            ps.setString(1, email);
+            return ps;
+        }, chave);
+        return chave.getKey().longValue();
+    }
+
+    /**
+     * Reserva IDs para vários emails de uma vez (importação em lote), numa única transação.
+     *
+     * @return ID de cada email
+     * @throws org.springframework.dao.DuplicateKeyException se algum email já estiver cadastrado
+     *                                                       (nenhum ID é reservado)
+     */
+    public Map<String, Long> reservar(List<String> emails) {
+        return transacao.execute(status -> {
+            jdbcTemplate.batchUpdate(SQL_RESERVAR, emails, emails.size(), (ps, email) -> ps.setString(1, email));
+            return idsPorEmail(emails);
+        });
+    }
+
+    /**
+     * @return ID do usuário com o email, se cadastrado
+     */
+    public Optional<Long> idPorEmail(String email) {
+        return jdbcTemplate.query(SQL_ID_POR_EMAIL, (rs, i) -> rs.getLong(1), email).stream().findFirst();
+    }
+
+    /**
+     * @return ID de cada email cadastrado (os ausentes ficam fora do mapa)
+     */
+    public Map<String, Long> idsPorEmail(List<String> emails) {
+        Map<String, Long> ids = new HashMap<>();
+        namedParameterJdbcTemplate.query(SQL_IDS_POR_EMAIL, new MapSqlParameterSource("emails", emails),
+                rs -> {
+                    ids.put(rs.getString(1), rs.getLong(2));
+                });
+        return ids;
+    }
+
+    /**
+     * @param emails emails em minúsculas
+     * @return os que já estão cadastrados, sem diferenciar maiúsculas (em minúsculas)
+     */
+    public Set<String> emailsCadastrados(List<String> emails) {
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                SQL_EMAILS_CADASTRADOS, new MapSqlParameterSource("emails", emails), String.class));
+    }
+
+    /**
+     * Remove o registro (usuário excluído ou cadastro que falhou no shard dono).
+     */
+    public void liberar(long id) {
+        jdbcTemplate.update(SQL_LIBERAR, id);
+    }
+
+    /**
+     * Remove os registros de vários usuários.
+     */
+    public void liberar(List<Long> ids) {
+        jdbcTemplate.batchUpdate(SQL_LIBERAR, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+}
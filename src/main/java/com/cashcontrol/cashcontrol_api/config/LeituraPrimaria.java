@@ -0,0 +1,89 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controle de leitura consistente ("read-your-writes") quando há réplica de leitura.
+ *
+ * <p>
+ * Cada escrita feita em nome de um usuário registra o token dele. Durante a janela de tolerância
+ * ao atraso da réplica, as requisições com esse token leem do banco primário, para que o cliente
+ * veja imediatamente o que acabou de gravar (saldo após um POST, token após o login, etc).
+ * </p>
+ *
+ * <p>Sem réplica configurada, todos os métodos são no-op.</p>
+ */
+@Component
+public class LeituraPrimaria {
+
+    private static final ThreadLocal<Boolean> FORCAR_PRIMARIO = new ThreadLocal<>();
+
+    private final boolean habilitado;
+    private final long toleranciaNanos;
+    private final ConcurrentHashMap<String, Long> ultimasEscritas = new ConcurrentHashMap<>();
+
+    public LeituraPrimaria(@Value("${cashcontrol.datasource.replica.url:}") String urlReplica,
+                           @Value("${cashcontrol.datasource.replica.tolerancia-atraso-ms:5000}") long toleranciaMs) {
+        this.habilitado = !urlReplica.isBlank();
+        this.toleranciaNanos = TimeUnit.MILLISECONDS.toNanos(toleranciaMs);
+    }
+
+    /**
+     * Registra que houve escrita para o usuário dono do token.
+     *
+     * @param token token do usuário (ignorado se null)
+     */
+    public void registrarEscrita(String token) {
+        if (habilitado && token != null) {
+            ultimasEscritas.put(token, System.nanoTime());
+        }
+    }
+
+    /**
+     * Indica se as leituras deste token ainda devem ir ao primário.
+     *
+     * @param token token recebido na requisição
+     * @return true se houve escrita dentro da janela de tolerância
+     */
+    public boolean exigePrimario(String token) {
+        if (!habilitado || token == null) {
+            return false;
+        }
+        Long escrita = ultimasEscritas.get(token);
+        return escrita != null && System.nanoTime() - escrita < toleranciaNanos;
+    }
+
+    /**
+     * Remove registros de escrita que já saíram da janela de tolerância.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.datasource.replica.tolerancia-atraso-ms:5000}")
+    public void removerExpirados() {
+        long agora = System.nanoTime();
+        ultimasEscritas.values().removeIf(escrita -> agora - escrita >= toleranciaNanos);
+    }
+
+    /**
+     * Marca (ou desmarca) a thread atual para ler do primário.
+     *
+     * @param forcar true para direcionar as transações somente leitura ao primário
+     */
+    public static void forcarPrimario(boolean forcar) {
+        if (forcar) {
+            FORCAR_PRIMARIO.set(Boolean.TRUE);
+        } else {
+            FORCAR_PRIMARIO.remove();
+        }
+    }
+
+    /**
+     * @return true se a thread atual deve ler do primário
+     */
+    public static boolean primarioForcado() {
+        return FORCAR_PRIMARIO.get() != null;
+    }
+}
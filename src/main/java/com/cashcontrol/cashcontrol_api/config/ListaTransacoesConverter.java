@@ -0,0 +1,58 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.dto.ListaTransacoes;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Conversor HTTP das listagens de transações em streaming ({@link ListaTransacoes}).
+ *
+ * <p>
+ * Atende JSON (padrão) e CBOR, como os conversores Jackson, mas escreve cada linha direto no
+ * corpo da resposta enquanto a consulta é lida. Registrado antes dos conversores padrão do Spring.
+ * </p>
+ */
+@Component
+public class ListaTransacoesConverter extends AbstractHttpMessageConverter<ListaTransacoes> {
+
+    private final JsonFactory json;
+    private final JsonFactory cbor = new CBORFactory();
+
+    public ListaTransacoesConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+        this.json = objectMapper.getFactory();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ListaTransacoes.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ListaTransacoes readInternal(Class<? extends ListaTransacoes> clazz, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Listagens de transações não são lidas do corpo da requisição");
+    }
+
+    @Override
+    protected void writeInternal(ListaTransacoes lista, HttpOutputMessage outputMessage) throws IOException {
+        boolean binario = MediaType.APPLICATION_CBOR.isCompatibleWith(outputMessage.getHeaders().getContentType());
+        try (JsonGenerator gen = (binario ? cbor : json).createGenerator(StreamUtils.nonClosing(outputMessage.getBody()))) {
+            lista.escrever(gen, binario);
+        }
+    }
+}
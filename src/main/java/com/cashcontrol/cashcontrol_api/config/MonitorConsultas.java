@@ -0,0 +1,316 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.dto.ConsultaEstatisticaDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Instrumentação dos comandos SQL executados pela aplicação (JPA e JdbcTemplate), no lugar do
+ * antigo {@code spring.jpa.show-sql}.
+ *
+ * <p>
+ * Cada comando é agrupado pela sua forma (SQL com literais e listas de parâmetros normalizados)
+ * e acumulado em memória: execuções, tempo total e tempo máximo, consultados em
+ * {@code GET /api/admin/consultas}. Só é logado o comando que passar de
+ * {@code cashcontrol.consultas.limiar-lenta-ms}, com os tipos dos parâmetros (nunca os valores).
+ * </p>
+ *
+ * <p>
+ * Durante uma requisição HTTP ({@link com.cashcontrol.cashcontrol_api.filter.MonitorConsultasFilter})
+ * os comandos também são contados por requisição. Ao final, se uma mesma forma foi executada mais
+ * de {@code cashcontrol.consultas.n-mais-um.repeticoes} vezes, a requisição é registrada como
+ * possível N+1 (ex: um SELECT do usuário para cada transação listada).
+ * </p>
+ *
+ * <p>
+ * Com {@code cashcontrol.consultas.contar-linhas} ligado, os ResultSets também são instrumentados
+ * e cada linha lida é contada na requisição ({@link Requisicao#linhas()}). Fica desligado por
+ * padrão, já que cada chamada JDBC passa pelo proxy; a suíte de orçamento de consultas liga.
+ * </p>
+ */
+@Component
+public class MonitorConsultas implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorConsultas.class);
+
+    private static final ThreadLocal<Requisicao> REQUISICAO = new ThreadLocal<>();
+
+    private static final Pattern TEXTO = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERO = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?");
+    private static final Pattern LISTA = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private final long limiarLentaMs;
+    private final int repeticoesNMaisUm;
+    private final int maxFormas;
+    private final boolean contarLinhas;
+    private final Map<String, Estatistica> porForma = new ConcurrentHashMap<>();
+    private final DistributionSummary comandosPorRequisicao;
+    private final Timer tempoPorRequisicao;
+
+    public MonitorConsultas(MeterRegistry meterRegistry,
+                            @Value("${cashcontrol.consultas.limiar-lenta-ms:200}") long limiarLentaMs,
+                            @Value("${cashcontrol.consultas.n-mais-um.repeticoes:10}") int repeticoesNMaisUm,
+                            @Value("${cashcontrol.consultas.max-formas:1000}") int maxFormas,
+                            @Value("${cashcontrol.consultas.contar-linhas:false}") boolean contarLinhas) {
+        this.limiarLentaMs = limiarLentaMs;
+        this.repeticoesNMaisUm = repeticoesNMaisUm;
+        this.maxFormas = maxFormas;
+        this.contarLinhas = contarLinhas;
+        this.comandosPorRequisicao = DistributionSummary.builder("cashcontrol.consultas.por-requisicao")
+                .description("Comandos SQL executados por requisição HTTP")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.tempoPorRequisicao = Timer.builder("cashcontrol.consultas.tempo-por-requisicao")
+                .description("Tempo total em comandos SQL por requisição HTTP")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long ms = execInfo.getElapsedTime();
+        Requisicao requisicao = REQUISICAO.get();
+        for (QueryInfo queryInfo : queryInfoList) {
+            String forma = forma(queryInfo.getQuery());
+            Estatistica estatistica = porForma.get(forma);
+            if (estatistica == null && porForma.size() < maxFormas) {
+                estatistica = porForma.computeIfAbsent(forma, f -> new Estatistica());
+            }
+            if (estatistica != null) {
+                estatistica.registrar(ms);
+            }
+            if (requisicao != null) {
+                requisicao.registrar(forma, ms);
+            }
+            if (ms >= limiarLentaMs) {
+                log.warn("Comando SQL lento ({} ms): {} parâmetros {}", ms, forma, tiposParametros(queryInfo));
+            }
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            Requisicao requisicao = REQUISICAO.get();
+            if (requisicao != null) {
+                requisicao.linhas.increment();
+            }
+        }
+    }
+
+    /**
+     * Indica se as linhas lidas devem ser contadas (ver {@link MonitorConsultasConfig}).
+     */
+    public boolean contaLinhas() {
+        return contarLinhas;
+    }
+
+    /**
+     * Começa a contar os comandos da requisição na thread atual. Se a thread já estiver contando
+     * outra (ex: um teste medindo uma chamada HTTP), os comandos continuam indo para ela.
+     *
+     * @param rota método e caminho da requisição (ex: {@code GET /api/transacoes})
+     * @return requisição iniciada, ou null se já havia uma em andamento
+     */
+    public Requisicao iniciar(String rota) {
+        if (REQUISICAO.get() != null) {
+            return null;
+        }
+        Requisicao requisicao = new Requisicao(rota);
+        REQUISICAO.set(requisicao);
+        return requisicao;
+    }
+
+    /**
+     * Encerra a contagem da requisição na thread atual, registrando as métricas e o N+1.
+     *
+     * @param rotaMapeada rota pelo padrão do controller (ex: {@code GET /api/transacoes/{id}}),
+     *                    ou null para manter a informada em {@link #iniciar}
+     * @return requisição encerrada, ou null se não havia uma em andamento
+     */
+    public Requisicao encerrar(String rotaMapeada) {
+        Requisicao requisicao = REQUISICAO.get();
+        REQUISICAO.remove();
+        if (requisicao == null) {
+            return null;
+        }
+        String rota = rotaMapeada != null ? rotaMapeada : requisicao.rota;
+        comandosPorRequisicao.record(requisicao.comandos.sum());
+        tempoPorRequisicao.record(requisicao.tempoMs.sum(), TimeUnit.MILLISECONDS);
+        requisicao.porForma.forEach((forma, execucoes) -> {
+            if (execucoes.get() > repeticoesNMaisUm) {
+                log.warn("Possível N+1 em {}: comando executado {} vezes: {}", rota, execucoes.get(), forma);
+                Estatistica estatistica = porForma.get(forma);
+                if (estatistica != null) {
+                    estatistica.registrarNMaisUm(rota);
+                }
+            }
+        });
+        return requisicao;
+    }
+
+    /**
+     * Requisição em andamento na thread atual, para ser levada a tarefas em outras threads.
+     */
+    public static Requisicao requisicaoAtual() {
+        return REQUISICAO.get();
+    }
+
+    /**
+     * Associa (ou desassocia, com null) a thread atual a uma requisição em andamento.
+     */
+    public static void associar(Requisicao requisicao) {
+        if (requisicao != null) {
+            REQUISICAO.set(requisicao);
+        } else {
+            REQUISICAO.remove();
+        }
+    }
+
+    /**
+     * Formas de comando com maior tempo total acumulado.
+     *
+     * @param limite quantidade máxima de formas
+     */
+    public List<ConsultaEstatisticaDto> maisCustosas(int limite) {
+        return porForma.entrySet().stream()
+                .map(e -> e.getValue().paraDto(e.getKey()))
+                .sorted(Comparator.comparingLong(ConsultaEstatisticaDto::getTempoTotalMs)
+                        .thenComparingLong(ConsultaEstatisticaDto::getExecucoes).reversed())
+                .limit(limite)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Descarta as estatísticas acumuladas.
+     */
+    public void limpar() {
+        porForma.clear();
+    }
+
+    static String forma(String sql) {
+        String forma = TEXTO.matcher(sql).replaceAll("?");
+        forma = NUMERO.matcher(forma).replaceAll("?");
+        forma = LISTA.matcher(forma).replaceAll("(?...)");
+        return ESPACOS.matcher(forma).replaceAll(" ").trim();
+    }
+
+    /**
+     * Tipos dos parâmetros do primeiro conjunto (ex: {@code [Long, String, Timestamp]}).
+     */
+    private static String tiposParametros(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return "[]";
+        }
+        return queryInfo.getParametersList().get(0).stream()
+                .map(operacao -> {
+                    Object[] args = operacao.getArgs();
+                    if (ParameterSetOperation.isSetNullParameterOperation(operacao) || args.length < 2 || args[1] == null) {
+                        return "null";
+                    }
+                    return args[1].getClass().getSimpleName();
+                })
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * Comandos de uma requisição; pode receber comandos de mais de uma thread.
+     */
+    public static final class Requisicao {
+
+        private final String rota;
+        private final LongAdder comandos = new LongAdder();
+        private final LongAdder tempoMs = new LongAdder();
+        private final LongAdder linhas = new LongAdder();
+        private final Map<String, AtomicInteger> porForma = new ConcurrentHashMap<>();
+
+        Requisicao(String rota) {
+            this.rota = rota;
+        }
+
+        /**
+         * Comandos SQL executados.
+         */
+        public long comandos() {
+            return comandos.sum();
+        }
+
+        /**
+         * Linhas lidas dos ResultSets (zero se {@code cashcontrol.consultas.contar-linhas} estiver desligado).
+         */
+        public long linhas() {
+            return linhas.sum();
+        }
+
+        void registrar(String forma, long ms) {
+            comandos.increment();
+            tempoMs.add(ms);
+            porForma.computeIfAbsent(forma, f -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Totais acumulados de uma forma de comando.
+     */
+    private static final class Estatistica {
+
+        private final LongAdder execucoes = new LongAdder();
+        private final LongAdder tempoTotalMs = new LongAdder();
+        private final LongAccumulator tempoMaximoMs = new LongAccumulator(Math::max, 0);
+        private final AtomicLong ocorrenciasNMaisUm = new AtomicLong();
+        private volatile String rotaNMaisUm;
+
+        void registrar(long ms) {
+            execucoes.increment();
+            tempoTotalMs.add(ms);
+            tempoMaximoMs.accumulate(ms);
+        }
+
+        void registrarNMaisUm(String rota) {
+            ocorrenciasNMaisUm.incrementAndGet();
+            rotaNMaisUm = rota;
+        }
+
+        ConsultaEstatisticaDto paraDto(String forma) {
+            long total = execucoes.sum();
+            long tempo = tempoTotalMs.sum();
+            return new ConsultaEstatisticaDto(forma, total, tempo, tempoMaximoMs.get(),
+                    total > 0 ? (double) tempo / total : 0, ocorrenciasNMaisUm.get(), rotaNMaisUm);
+        }
+    }
+}
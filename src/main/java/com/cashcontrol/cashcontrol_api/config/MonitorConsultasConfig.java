@@ -0,0 +1,45 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Envolve o DataSource da aplicação com a instrumentação de {@link MonitorConsultas}.
+ *
+ * <p>
+ * Só o bean {@code dataSource} (usado pelo JPA e pelo JdbcTemplate) é instrumentado; com réplica
+ * configurada, o proxy fica por fora do roteamento, então os comandos dos dois bancos são contados.
+ * Os pools internos e o replicador local não passam pela instrumentação. A contagem de linhas
+ * (proxy nos ResultSets) só é ligada com {@code cashcontrol.consultas.contar-linhas}.
+ * </p>
+ */
+@Configuration
+public class MonitorConsultasConfig {
+
+    private static final String DATA_SOURCE = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor instrumentacaoDataSource(ObjectProvider<MonitorConsultas> monitorConsultas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nome) {
+                if (bean instanceof DataSource dataSource && DATA_SOURCE.equals(nome)) {
+                    MonitorConsultas monitor = monitorConsultas.getObject();
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                            .name(nome)
+                            .listener(monitor);
+                    if (monitor.contaLinhas()) {
+                        builder.proxyResultSet().methodListener(monitor);
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+}
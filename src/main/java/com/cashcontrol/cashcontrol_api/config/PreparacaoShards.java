@@ -0,0 +1,107 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prepara todos os shards durante a criação do EntityManagerFactory, antes de qualquer uso.
+ *
+ * <ul>
+ *     <li>Schema: a ação de {@code spring.jpa.hibernate.ddl-auto} (ex: update) é aplicada em cada
+ *     shard, e não só no shard 0;</li>
+ *     <li>IDs: as colunas identity das tabelas por usuário passam a gerar, no shard {@code k}, só
+ *     valores {@code ≡ k + 1 (mod max-shards)}, acima de todos os existentes. Assim um ID nunca se
+ *     repete entre shards, inclusive depois que o rebalanceamento move linhas;</li>
+ *     <li>Diretório global de usuários ({@link DiretorioUsuarios}).</li>
+ * </ul>
+ *
+ * <p>
+ * As identities só andam para frente: o próximo valor nunca fica abaixo do que o banco já iria
+ * gerar, mesmo que as linhas de IDs maiores tenham sido apagadas (um ID já entregue não volta a
+ * ser usado). Os comandos de identity ({@code information_schema.columns.identity_base},
+ * {@code alter column ... restart with}) são os do H2.
+ * </p>
+ */
+class PreparacaoShards implements Integrator {
+
+    /**
+     * Tabelas com IDs gerados em cada shard, e as tabelas que também guardam esses IDs.
+     */
+    private static final List<List<String>> IDENTIDADES = List.of(
+            List.of("transacao", "transacao_arquivo"),
+            List.of("badge"),
+            List.of("chave_idempotencia"));
+
+    private final List<DataSource> shards;
+    private final int maxShards;
+    private final DiretorioUsuarios diretorio;
+
+    PreparacaoShards(List<DataSource> shards, int maxShards, DiretorioUsuarios diretorio) {
+        this.shards = shards;
+        this.maxShards = maxShards;
+        this.diretorio = diretorio;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Integer anterior = Shards.atual();
+            Shards.definirAtual(shard);
+            try {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        sessionFactory.getProperties(), acao -> { });
+            } finally {
+                Shards.definirAtual(anterior);
+            }
+            ajustarIdentidades(new JdbcTemplate(shards.get(shard)), shard);
+        }
+        diretorio.preparar(shards);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private void ajustarIdentidades(JdbcTemplate jdbcTemplate, int shard) {
+        for (List<String> tabelas : IDENTIDADES) {
+            String tabela = tabelas.get(0);
+            long[] identidade = identidade(jdbcTemplate, tabela);
+            long maior = identidade[0] - 1;
+            for (String outra : tabelas) {
+                Long max = jdbcTemplate.queryForObject("select max(id) from " + outra, Long.class);
+                maior = Math.max(maior, max != null ? max : 0);
+            }
+            long proximo = shard + 1;
+            if (maior >= proximo) {
+                proximo += ((maior - proximo) / maxShards + 1) * maxShards;
+            }
+            if (proximo != identidade[0]) {
+                jdbcTemplate.execute("alter table " + tabela + " alter column id restart with " + proximo);
+            }
+            if (identidade[1] != maxShards) {
+                jdbcTemplate.execute("alter table " + tabela + " alter column id set increment by " + maxShards);
+            }
+        }
+    }
+
+    /**
+     * Estado atual da coluna identity {@code id} da tabela (H2).
+     *
+     * @return próximo valor que seria gerado e incremento
+     */
+    static long[] identidade(JdbcTemplate jdbcTemplate, String tabela) {
+        return jdbcTemplate.queryForObject(
+                "select identity_base, identity_increment from information_schema.columns " +
+                "where table_schema = current_schema and table_name = ? and column_name = 'ID'",
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)}, tabela.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,74 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Separação de leitura e escrita entre banco primário e réplica.
+ *
+ * <p>
+ * Ativada apenas quando {@code cashcontrol.datasource.replica.url} é informada. O DataSource
+ * usado pela aplicação é um {@link LazyConnectionDataSourceProxy}: a conexão física só é obtida
+ * no primeiro comando, quando já se sabe se a transação é somente leitura.
+ * </p>
+ *
+ * <ul>
+ *     <li>Métodos {@code @Transactional(readOnly = true)} dos services → réplica;</li>
+ *     <li>Demais transações (escritas) → primário;</li>
+ *     <li>Leituras de um token que escreveu há pouco → primário (ver {@link LeituraPrimaria}).</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(name = "cashcontrol.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Pool do banco primário, configurado pelas propriedades padrão {@code spring.datasource.*}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Pool da réplica de leitura, configurado por {@code cashcontrol.datasource.replica.*}.
+     */
+    @Bean
+    @ConfigurationProperties("cashcontrol.datasource.replica.hikari")
+    public HikariDataSource dataSourceReplica(@Value("${cashcontrol.datasource.replica.url}") String url,
+                                              @Value("${cashcontrol.datasource.replica.username:sa}") String username,
+                                              @Value("${cashcontrol.datasource.replica.password:}") String password,
+                                              DataSourceProperties properties) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    /**
+     * DataSource principal da aplicação (JPA, JdbcTemplate), com roteamento por tipo de transação.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario,
+                                 @Qualifier("dataSourceReplica") DataSource replica) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primario);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primario, replica));
+        return proxy;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource usado pelas transações somente leitura: escolhe a réplica, exceto quando a
+ * thread atual foi marcada para ler do primário (ver {@link LeituraPrimaria}).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARIO = "primario";
+    private static final String REPLICA = "replica";
+
+    public ReplicaRoutingDataSource(DataSource primario, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARIO, primario, REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return LeituraPrimaria.primarioForcado() ? PRIMARIO : REPLICA;
+    }
+}
@@ -0,0 +1,93 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Replicador substituto para desenvolvimento local com duas instâncias H2.
+ *
+ * <p>
+ * Em produção a réplica é mantida pelo próprio banco (streaming replication). Localmente, este
+ * componente copia periodicamente o primário para a réplica usando o comando {@code SCRIPT} do H2,
+ * simulando o atraso de replicação com o intervalo configurado:
+ * </p>
+ *
+ * <ul>
+ *     <li>se o esquema mudou, a réplica é recriada por inteiro;</li>
+ *     <li>caso contrário, os dados de todas as tabelas são substituídos em uma única transação,
+ *     de modo que os leitores da réplica nunca veem tabelas vazias.</li>
+ * </ul>
+ *
+ * <p>Ativado com {@code cashcontrol.datasource.replica.replicador-local=true}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "cashcontrol.datasource.replica.replicador-local", havingValue = "true")
+public class ReplicadorLocalH2 {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicadorLocalH2.class);
+
+    private final JdbcTemplate primario;
+    private final DataSource replica;
+    private String esquemaAtual;
+
+    public ReplicadorLocalH2(@Qualifier("dataSourcePrimario") DataSource primario,
+                             @Qualifier("dataSourceReplica") DataSource replica) {
+        this.primario = new JdbcTemplate(primario);
+        this.replica = replica;
+    }
+
+    /**
+     * Copia o estado atual do primário para a réplica.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.datasource.replica.intervalo-replicacao-ms:1000}")
+    public synchronized void replicar() {
+        String esquema = String.join("\n", primario.queryForList("SCRIPT NODATA NOPASSWORDS NOSETTINGS", String.class));
+        List<String> script = primario.queryForList("SCRIPT NOPASSWORDS NOSETTINGS", String.class);
+
+        try (Connection con = replica.getConnection(); Statement st = con.createStatement()) {
+            if (!esquema.equals(esquemaAtual)) {
+                st.execute("DROP ALL OBJECTS");
+                for (String comando : script) {
+                    st.execute(comando);
+                }
+                // A réplica só espelha o primário: a integridade já foi garantida lá
+                st.execute("SET REFERENTIAL_INTEGRITY FALSE");
+                esquemaAtual = esquema;
+                return;
+            }
+
+            con.setAutoCommit(false);
+            try {
+                List<String> tabelas = new JdbcTemplate(replica).queryForList(
+                        "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'", String.class);
+                for (String tabela : tabelas) {
+                    st.execute("DELETE FROM \"PUBLIC\".\"" + tabela + "\"");
+                }
+                for (String comando : script) {
+                    if (comando.startsWith("INSERT INTO")) {
+                        st.execute(comando);
+                    }
+                }
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Falha ao replicar o banco primário para a réplica local", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.cashcontrol.cashcontrol_api.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -16,7 +17,12 @@ import org.springframework.security.web.SecurityFilterChain;
  * <ul>
  *     <li>Desabilita CSRF para facilitar testes com Postman/Insomnia (não recomendado para produção).</li>
  *     <li>Permite acesso a <b>/api/users/register</b> e <b>/api/users/login</b> sem autenticação.</li>
- *     <li>Exige autenticação HTTP Basic para todos os outros endpoints.</li>
+ *     <li>Libera os endpoints que validam o token do usuário no próprio controller (header Authorization),
+ *     já que o mesmo header não pode carregar também credenciais HTTP Basic. Todos exigem o token e
+ *     só devolvem dados do próprio usuário.</li>
+ *     <li>Permite o top do ranking de XP sem autenticação: ele traz só posições e XP, sem identificar usuários.</li>
+ *     <li>Exige autenticação HTTP Basic para todos os outros endpoints, inclusive as listagens globais
+ *     de transações e badges (importação, administração, actuator).</li>
  * </ul>
  */
 @Configuration
@@ -34,7 +40,14 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/users/register", "/api/users/login").permitAll()
+                        .requestMatchers("/api/users/register", "/api/users/login", "/api/auth/login").permitAll()
+                        // Validação por token feita nos controllers (dados de um único usuário)
+                        .requestMatchers(HttpMethod.POST, "/api/transacoes").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/transacoes/*", "/api/transacoes/usuario/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/badges/usuario/**").permitAll()
+                        .requestMatchers("/api/dashboard/**", "/api/simulador/**").permitAll()
+                        // Top sem identificar usuários; a posição valida o token no controller
+                        .requestMatchers(HttpMethod.GET, "/api/ranking/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .httpBasic(); // Permite testar com Basic Auth no Postman
@@ -0,0 +1,131 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuração do hash de senhas.
+ *
+ * <ul>
+ *     <li>Novas senhas são gravadas com BCrypt, no formato {@code {bcrypt}$2a$...}.</li>
+ *     <li>Senhas legadas (texto puro, sem prefixo) ainda são aceitas e são convertidas no próximo login.
+ *     Os logins que ainda passam por elas são contados em {@code cashcontrol.senha.legadas}; quando a
+ *     contagem parar de crescer, {@code cashcontrol.senha.aceitar-legadas=false} desliga a conversão
+ *     e essas senhas deixam de conferir.</li>
+ *     <li>O hash roda em um pool dedicado e limitado, para que uma onda de logins
+ *     não ocupe as threads do Tomcat que atendem apostas e dashboards.</li>
+ *     <li>A importação em lote usa outro pool, para não disputar o pool do login.</li>
+ * </ul>
+ */
+@Configuration
+public class SenhaConfig {
+
+    /**
+     * Encoder de senhas: BCrypt para gravação, texto puro apenas para validar valores legados.
+     *
+     * @param custo            fator de custo do BCrypt (log2 das rodadas)
+     * @param aceitarLegadas   se valores sem prefixo ainda conferem como texto puro
+     * @return PasswordEncoder delegante
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    public PasswordEncoder passwordEncoder(@Value("${cashcontrol.senha.bcrypt-custo:10}") int custo,
+                                           @Value("${cashcontrol.senha.aceitar-legadas:true}") boolean aceitarLegadas) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(custo);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(aceitarLegadas
+                ? NoOpPasswordEncoder.getInstance()
+                : new SenhaLegadaRecusada(bcrypt));
+        return encoder;
+    }
+
+    /**
+     * Pool exclusivo para cálculo e verificação de hashes.
+     * Quando a fila enche, novas tarefas são rejeitadas imediatamente.
+     *
+     * @param threads quantidade de threads (0 = metade dos processadores)
+     * @param fila    capacidade da fila de espera
+     * @param registry registro de métricas
+     * @return executor limitado
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService senhaExecutor(@Value("${cashcontrol.senha.threads:0}") int threads,
+                                         @Value("${cashcontrol.senha.fila:100}") int fila,
+                                         MeterRegistry registry) {
+        int tamanho = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila),
+                r -> {
+                    Thread t = new Thread(r, "senha-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(registry, executor, "senha");
+    }
+
+    /**
+     * Pool para gerar os hashes das senhas da importação em lote, um lote por vez.
+     * Quando a fila enche, a própria thread da importação calcula o hash (contenção natural).
+     *
+     * @param threads quantidade de threads (0 = metade dos processadores)
+     * @param fila    capacidade da fila de espera
+     * @param registry registro de métricas
+     * @return executor limitado
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService importacaoSenhaExecutor(@Value("${cashcontrol.importacao.threads-hash:0}") int threads,
+                                                   @Value("${cashcontrol.importacao.tamanho-lote:1000}") int fila,
+                                                   MeterRegistry registry) {
+        int tamanho = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila),
+                r -> {
+                    Thread t = new Thread(r, "importacao-senha-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        return ExecutorServiceMetrics.monitor(registry, executor, "importacao-senha");
+    }
+
+    /**
+     * Usado no lugar do texto puro depois que as senhas legadas deixam de ser aceitas:
+     * valores sem prefixo nunca conferem (em vez de erro por falta de encoder). A geração
+     * de hash continua sendo BCrypt, no mesmo formato das senhas novas.
+     */
+    private static class SenhaLegadaRecusada implements PasswordEncoder {
+
+        private final PasswordEncoder bcrypt;
+
+        SenhaLegadaRecusada(PasswordEncoder bcrypt) {
+            this.bcrypt = bcrypt;
+        }
+
+        @Override
+        public String encode(CharSequence senha) {
+            return "{bcrypt}" + bcrypt.encode(senha);
+        }
+
+        @Override
+        public boolean matches(CharSequence senha, String gravada) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding por usuário entre vários bancos (ver {@link Shards}).
+ *
+ * <p>
+ * Ativado apenas quando {@code cashcontrol.sharding.urls} é informada. O shard 0 é o banco de
+ * {@code spring.datasource.*} e guarda também o diretório global de usuários
+ * ({@link DiretorioUsuarios}); os demais usam as URLs da lista, com o mesmo usuário, senha e
+ * driver. O catálogo de badges é replicado em todos, e cada shard tem os seus checkpoints de jobs.
+ * </p>
+ *
+ * <p>
+ * O DataSource usado pela aplicação é um {@link LazyConnectionDataSourceProxy} sobre o roteamento
+ * por shard: a conexão física só é obtida no primeiro comando, com o shard da thread já definido.
+ * Não pode ser combinado com a réplica de leitura ({@link ReplicaDataSourceConfig}).
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "cashcontrol.sharding.urls")
+public class ShardDataSourceConfig {
+
+    /**
+     * Pool do shard 0, configurado pelas propriedades padrão {@code spring.datasource.*}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourceShard0(DataSourceProperties properties,
+                                             @Value("${cashcontrol.datasource.replica.url:}") String urlReplica) {
+        if (!urlReplica.isBlank()) {
+            throw new IllegalStateException("cashcontrol.sharding.urls e cashcontrol.datasource.replica.url não podem ser usadas juntas");
+        }
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Um pool por shard, escolhido pelo shard da thread atual.
+     */
+    @Bean
+    public ShardRoutingDataSource dataSourceShards(@Qualifier("dataSourceShard0") DataSource shard0,
+                                                   @Value("${cashcontrol.sharding.urls}") String urls,
+                                                   DataSourceProperties properties) {
+        List<DataSource> pools = new ArrayList<>();
+        pools.add(shard0);
+        List<String> adicionais = Shards.urlsAdicionais(urls);
+        for (int i = 0; i < adicionais.size(); i++) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(adicionais.get(i))
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            pool.setPoolName("shard-" + (i + 1));
+            pools.add(pool);
+        }
+        return new ShardRoutingDataSource(pools);
+    }
+
+    /**
+     * DataSource principal da aplicação (JPA, JdbcTemplate), com roteamento por shard.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource dataSourceShards) {
+        return new LazyConnectionDataSourceProxy(dataSourceShards);
+    }
+
+    @Bean
+    public DiretorioUsuarios diretorioUsuarios(ShardRoutingDataSource dataSourceShards) {
+        return new DiretorioUsuarios(dataSourceShards.shard(0));
+    }
+
+    /**
+     * Aplica o schema e ajusta as identities em todos os shards ao criar o EntityManagerFactory.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer preparacaoShards(ShardRoutingDataSource dataSourceShards, Shards shards,
+                                                          DiretorioUsuarios diretorioUsuarios) {
+        List<DataSource> pools = new ArrayList<>();
+        for (int i = 0; i < shards.quantidade(); i++) {
+            pools.add(dataSourceShards.shard(i));
+        }
+        PreparacaoShards preparacao = new PreparacaoShards(pools, shards.maxShards(), diretorioUsuarios);
+        return propriedades -> propriedades.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(preparacao));
+    }
+}
@@ -0,0 +1,58 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource com um pool por shard: escolhe o shard da transação em andamento ou, se ela ainda não
+ * tiver um, o da thread atual (ver {@link Shards}), ou o shard 0 se nenhum foi definido.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final List<DataSource> shards;
+
+    /**
+     * @param shards pools na ordem dos shards (o primeiro é o shard 0)
+     */
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> alvos = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            alvos.put(i, shards.get(i));
+        }
+        setTargetDataSources(alvos);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Pool de um shard, sem roteamento (conexões fora das transações da aplicação).
+     */
+    public DataSource shard(int indice) {
+        return shards.get(indice);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Shards.daConexao();
+    }
+
+    /**
+     * Fecha os pools dos shards adicionais (o do shard 0 é um bean próprio).
+     */
+    @Override
+    public void close() {
+        for (int i = 1; i < shards.size(); i++) {
+            if (shards.get(i) instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.filter.ShardUsuarioInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registra o roteamento das rotas de usuário para o shard dono (ver {@link ShardUsuarioInterceptor}).
+ */
+@Configuration
+public class ShardWebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ShardUsuarioInterceptor shardUsuarioInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(shardUsuarioInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,408 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Distribuição de usuários (e de tudo que pertence a eles) entre vários bancos.
+ *
+ * <p>
+ * O shard 0 é o banco de {@code spring.datasource.*}; os demais são as URLs de
+ * {@code cashcontrol.sharding.urls}, na ordem informada (novos shards entram sempre no fim da lista).
+ * Cada usuário pertence ao shard indicado por um anel de hash consistente sobre o seu ID, com
+ * {@code cashcontrol.sharding.nos-virtuais} pontos por shard: ao acrescentar um shard, só cerca de
+ * 1/N dos usuários mudam de dono (ver {@code RebalanceamentoShardsService}).
+ * </p>
+ *
+ * <p>
+ * Até o rebalanceamento, os dados desses usuários continuam no dono anterior. Com
+ * {@code cashcontrol.sharding.quantidade-anterior} (quantidade de shards antes do acréscimo), cada
+ * usuário que mudou de dono é procurado primeiro no novo dono e, se ainda não estiver lá, roteado
+ * para o anterior ({@link #shardComDados}). Ao fim do rebalanceamento, a propriedade é removida.
+ * </p>
+ *
+ * <p>
+ * O shard das próximas conexões é o da thread atual ({@link ShardRoutingDataSource}); sem nenhum
+ * definido, vale o shard 0. Como o DataSource é preguiçoso, basta definir o shard antes do
+ * primeiro comando da transação.
+ * </p>
+ *
+ * <p>
+ * Uma transação nunca troca de shard no meio: ela fica presa ao shard da thread no início dela ou,
+ * se nenhum estava definido, ao primeiro {@link #noShard} executado dentro dela (ou ao shard 0, na
+ * primeira conexão). A partir daí toda conexão da transação vai a esse shard, inclusive o flush do
+ * commit feito depois de sair do bloco roteado, e {@link #noShard} para outro shard falha.
+ * Leituras em outros shards precisam de transação própria (como em {@link #juntar}).
+ * </p>
+ *
+ * <p>Sem sharding configurado existe um único shard, e todos os métodos executam direto.</p>
+ */
+@Component
+public class Shards {
+
+    private static final ThreadLocal<Integer> SHARD_ATUAL = new ThreadLocal<>();
+
+    /**
+     * Prefixo das chaves dos pontos do anel, para que nunca coincidam com IDs de usuário.
+     */
+    private static final long PREFIXO_PONTOS = 0x7A5E_0000_0000_0000L;
+
+    private static final String SQL_EXISTE = "select count(*) from usuario where id = ?";
+
+    private final int quantidade;
+    private final int maxShards;
+    private final Anel anel;
+    private final Anel anelAnterior;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<ShardRoutingDataSource> dataSourceShards;
+
+    @Autowired
+    public Shards(@Value("${cashcontrol.sharding.urls:}") String urls,
+                  @Value("${cashcontrol.sharding.quantidade-anterior:0}") int quantidadeAnterior,
+                  @Value("${cashcontrol.sharding.nos-virtuais:64}") int nosVirtuais,
+                  @Value("${cashcontrol.sharding.max-shards:64}") int maxShards,
+                  ObjectProvider<PlatformTransactionManager> transactionManager,
+                  ObjectProvider<ShardRoutingDataSource> dataSourceShards) {
+        this(1 + urlsAdicionais(urls).size(), quantidadeAnterior, nosVirtuais, maxShards, transactionManager, dataSourceShards);
+    }
+
+    Shards(int quantidade, int nosVirtuais, int maxShards, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this(quantidade, 0, nosVirtuais, maxShards, transactionManager, null);
+    }
+
+    Shards(int quantidade, int quantidadeAnterior, int nosVirtuais, int maxShards,
+           ObjectProvider<PlatformTransactionManager> transactionManager,
+           ObjectProvider<ShardRoutingDataSource> dataSourceShards) {
+        if (quantidade > maxShards) {
+            throw new IllegalStateException("Quantidade de shards (" + quantidade
+                    + ") acima de cashcontrol.sharding.max-shards (" + maxShards + ")");
+        }
+        if (quantidadeAnterior < 0 || quantidadeAnterior > 0 && quantidadeAnterior >= quantidade) {
+            throw new IllegalStateException("cashcontrol.sharding.quantidade-anterior (" + quantidadeAnterior
+                    + ") deve ser menor que a quantidade de shards (" + quantidade + ")");
+        }
+        this.quantidade = quantidade;
+        this.maxShards = maxShards;
+        this.transactionManager = transactionManager;
+        this.dataSourceShards = dataSourceShards;
+        this.anel = new Anel(quantidade, nosVirtuais);
+        this.anelAnterior = quantidadeAnterior > 0 ? new Anel(quantidadeAnterior, nosVirtuais) : null;
+    }
+
+    /**
+     * URLs dos shards além do 0, na ordem configurada.
+     */
+    public static List<String> urlsAdicionais(String urls) {
+        List<String> lista = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                lista.add(url.trim());
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * @return true se há mais de um banco
+     */
+    public boolean habilitado() {
+        return quantidade > 1;
+    }
+
+    /**
+     * @return quantidade de shards (1 sem sharding)
+     */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Passo das colunas identity nos shards: o shard {@code k} gera os IDs {@code k + 1},
+     * {@code k + 1 + maxShards}, ... e assim os IDs nunca se repetem entre shards.
+     */
+    public int maxShards() {
+        return maxShards;
+    }
+
+    /**
+     * Shard dono de um usuário: primeiro ponto do anel a partir do hash do ID.
+     *
+     * @param userId ID do usuário
+     * @return índice do shard
+     */
+    public int shardDoUsuario(long userId) {
+        return quantidade == 1 ? 0 : anel.dono(userId);
+    }
+
+    /**
+     * Shard em que os dados do usuário estão agora: o dono ou, durante uma migração
+     * ({@code cashcontrol.sharding.quantidade-anterior}), o dono anterior enquanto o usuário não
+     * tiver sido movido. Só os usuários que mudaram de dono custam uma consulta a mais, feita no
+     * novo dono fora da transação em andamento.
+     *
+     * @param userId ID do usuário
+     * @return índice do shard
+     */
+    public int shardComDados(long userId) {
+        int dono = shardDoUsuario(userId);
+        if (anelAnterior == null) {
+            return dono;
+        }
+        int anterior = anelAnterior.dono(userId);
+        if (anterior == dono) {
+            return dono;
+        }
+        Integer noDono = new JdbcTemplate(dataSourceShards.getObject().shard(dono))
+                .queryForObject(SQL_EXISTE, Integer.class, userId);
+        return noDono != null && noDono > 0 ? dono : anterior;
+    }
+
+    /**
+     * Executa a operação com as conexões apontando para o shard informado.
+     *
+     * @throws IllegalStateException se houver uma transação em andamento presa a outro shard
+     */
+    public <T> T noShard(int shard, Supplier<T> operacao) {
+        Integer anterior = SHARD_ATUAL.get();
+        if (quantidade > 1) {
+            Integer daTransacao = vincular(anterior != null ? anterior : shard);
+            if (daTransacao != null && daTransacao != shard) {
+                throw new IllegalStateException("Transação em andamento no shard " + daTransacao
+                        + " não pode passar para o shard " + shard);
+            }
+        }
+        SHARD_ATUAL.set(shard);
+        try {
+            return operacao.get();
+        } finally {
+            definirAtual(anterior);
+        }
+    }
+
+    /**
+     * Executa a operação no shard com os dados do usuário (no shard atual, se o ID for null).
+     *
+     * @see #shardComDados
+     */
+    public <T> T doUsuario(Long userId, Supplier<T> operacao) {
+        return userId != null ? noShard(shardComDados(userId), operacao) : operacao.get();
+    }
+
+    /**
+     * Executa a operação uma vez em cada shard, em sequência (cada chamada deve abrir a sua própria
+     * transação).
+     */
+    public void emCadaShard(IntConsumer operacao) {
+        for (int shard = 0; shard < quantidade; shard++) {
+            int atual = shard;
+            noShard(shard, () -> {
+                operacao.accept(atual);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Executa a consulta em cada shard e devolve os resultados, na ordem dos shards.
+     */
+    public <T> List<T> deCadaShard(IntFunction<T> consulta) {
+        List<T> resultados = new ArrayList<>(quantidade);
+        emCadaShard(shard -> resultados.add(consulta.apply(shard)));
+        return resultados;
+    }
+
+    /**
+     * Concatena as listas devolvidas pela consulta em cada shard (listagens administrativas).
+     * Com sharding, cada shard é lido na sua própria transação somente leitura, mesmo se já houver
+     * uma transação em andamento.
+     */
+    public <T> List<T> juntar(Supplier<List<T>> consulta) {
+        if (quantidade == 1) {
+            return consulta.get();
+        }
+        List<T> todos = new ArrayList<>();
+        for (int shard = 0; shard < quantidade; shard++) {
+            todos.addAll(lerIsolado(shard, consulta));
+        }
+        return todos;
+    }
+
+    /**
+     * Busca por uma chave que não identifica o usuário (ID de transação, de badge...): devolve o
+     * primeiro shard que encontrar, lido como em {@link #juntar}.
+     */
+    public <T> Optional<T> procurar(Supplier<Optional<T>> consulta) {
+        if (quantidade == 1) {
+            return consulta.get();
+        }
+        for (int shard = 0; shard < quantidade; shard++) {
+            Optional<T> encontrado = lerIsolado(shard, consulta);
+            if (encontrado.isPresent()) {
+                return encontrado;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Executa a leitura em cada shard (listagens em streaming), como em {@link #juntar}.
+     */
+    public void lerEmCadaShard(Runnable leitura) {
+        if (quantidade == 1) {
+            leitura.run();
+            return;
+        }
+        for (int shard = 0; shard < quantidade; shard++) {
+            lerIsolado(shard, () -> {
+                leitura.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Abre a transação de leitura antes de escolher o shard, para que ela (e não a que estiver em
+     * andamento) fique presa a ele.
+     */
+    private <T> T lerIsolado(int shard, Supplier<T> consulta) {
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager.getObject());
+        leitura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        leitura.setReadOnly(true);
+        return leitura.execute(status -> noShard(shard, consulta));
+    }
+
+    /**
+     * Leva o shard da thread atual para a tarefa, que será executada em outra thread (pools dos jobs).
+     */
+    public static <T> Callable<T> propagar(Callable<T> tarefa) {
+        Integer shard = SHARD_ATUAL.get();
+        return () -> {
+            definirAtual(shard);
+            try {
+                return tarefa.call();
+            } finally {
+                SHARD_ATUAL.remove();
+            }
+        };
+    }
+
+    /**
+     * Define (ou remove, com null) o shard da thread atual.
+     */
+    public static void definirAtual(Integer shard) {
+        if (shard == null) {
+            SHARD_ATUAL.remove();
+        } else {
+            SHARD_ATUAL.set(shard);
+        }
+    }
+
+    /**
+     * @return shard da thread atual, ou null se nenhum foi definido (shard 0)
+     */
+    public static Integer atual() {
+        return SHARD_ATUAL.get();
+    }
+
+    /**
+     * Shard de uma nova conexão física: o da transação em andamento, se ela já estiver presa a um,
+     * ou o da thread (shard 0 se nenhum), que passa a ser o da transação.
+     */
+    static int daConexao() {
+        Integer atual = SHARD_ATUAL.get();
+        int shard = atual != null ? atual : 0;
+        Integer daTransacao = vincular(shard);
+        return daTransacao != null ? daTransacao : shard;
+    }
+
+    /**
+     * Prende a transação em andamento ao shard, se ela ainda não estiver presa a nenhum.
+     *
+     * @return shard da transação, ou null fora de transação
+     */
+    private static Integer vincular(int shard) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization sincronizacao : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacao instanceof ShardDaTransacao daTransacao) {
+                return daTransacao.shard();
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new ShardDaTransacao(shard));
+        return shard;
+    }
+
+    /**
+     * Finalizador do SplitMix64: espalha IDs sequenciais por todo o anel.
+     */
+    static long misturar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Anel de hash consistente de uma quantidade de shards: pontos ordenados por posição, cada um
+     * com o shard dono. Os pontos de um shard não dependem da quantidade, e por isso um anel com um
+     * shard a mais só muda o dono dos usuários que passam para o shard novo.
+     */
+    private static final class Anel {
+
+        private final long[] posicoes;
+        private final int[] donos;
+
+        Anel(int quantidade, int nosVirtuais) {
+            long[][] pontos = new long[quantidade * nosVirtuais][];
+            for (int shard = 0; shard < quantidade; shard++) {
+                for (int v = 0; v < nosVirtuais; v++) {
+                    pontos[shard * nosVirtuais + v] = new long[]{misturar(PREFIXO_PONTOS | ((long) shard << 32) | v), shard};
+                }
+            }
+            Arrays.sort(pontos, (a, b) -> Long.compare(a[0], b[0]));
+            posicoes = new long[pontos.length];
+            donos = new int[pontos.length];
+            for (int i = 0; i < pontos.length; i++) {
+                posicoes[i] = pontos[i][0];
+                donos[i] = (int) pontos[i][1];
+            }
+        }
+
+        /**
+         * Primeiro ponto do anel a partir do hash do ID.
+         */
+        int dono(long userId) {
+            int i = Arrays.binarySearch(posicoes, misturar(userId));
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return donos[i == posicoes.length ? 0 : i];
+        }
+    }
+
+    /**
+     * Shard de uma transação, guardado entre as sincronizações dela: é suspenso e retomado junto
+     * com a transação (REQUIRES_NEW) e descartado no fim dela.
+     */
+    private record ShardDaTransacao(int shard) implements TransactionSynchronization {
+    }
+}
@@ -0,0 +1,34 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.controller.DashboardEventosServlet;
+import com.cashcontrol.cashcontrol_api.service.DashboardEventosService;
+import com.cashcontrol.cashcontrol_api.service.TicketEventosService;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registro do endpoint de Server-Sent Events do dashboard ({@code /api/dashboard/eventos/{userId}}).
+ *
+ * <p>
+ * O servlet é assíncrono: cada conexão aberta ocupa um socket e os buffers do Tomcat
+ * (cerca de 100 KB de heap com a configuração padrão), sem thread. Para dezenas de milhares
+ * de conexões por nó, dimensione o heap de acordo e ajuste {@code server.tomcat.max-connections}
+ * e o limite de arquivos abertos do sistema operacional.
+ * </p>
+ */
+@Configuration
+public class SseConfig {
+
+    @Bean
+    public ServletRegistrationBean<DashboardEventosServlet> dashboardEventosServlet(UserService userService,
+                                                                                  DashboardEventosService eventosService,
+                                                                                  TicketEventosService ticketService) {
+        ServletRegistrationBean<DashboardEventosServlet> registro = new ServletRegistrationBean<>(
+                new DashboardEventosServlet(userService, eventosService, ticketService), "/api/dashboard/eventos/*");
+        registro.setAsyncSupported(true);
+        registro.setLoadOnStartup(1);
+        return registro;
+    }
+}
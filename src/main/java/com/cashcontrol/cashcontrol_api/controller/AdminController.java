@@ -0,0 +1,123 @@
+package com.cashcontrol.cashcontrol_api.controller;
+
+import com.cashcontrol.cashcontrol_api.config.MonitorConsultas;
+import com.cashcontrol.cashcontrol_api.dto.CacheEstatisticasDto;
+import com.cashcontrol.cashcontrol_api.dto.ConsultaEstatisticaDto;
+import com.cashcontrol.cashcontrol_api.dto.EstatisticasDto;
+import com.cashcontrol.cashcontrol_api.dto.RebalanceamentoDto;
+import com.cashcontrol.cashcontrol_api.dto.ShardDto;
+import com.cashcontrol.cashcontrol_api.service.CacheSegundoNivelService;
+import com.cashcontrol.cashcontrol_api.service.DiasSemApostarJob;
+import com.cashcontrol.cashcontrol_api.service.EstatisticasService;
+import com.cashcontrol.cashcontrol_api.service.RebalanceamentoShardsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller de endpoints administrativos (equipe de operações).
+ * <p>
+ * Protegido por autenticação HTTP Basic (ver {@code SecurityConfig}).
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private DiasSemApostarJob diasSemApostarJob;
+
+    @Autowired
+    private CacheSegundoNivelService cacheSegundoNivelService;
+
+    @Autowired
+    private MonitorConsultas monitorConsultas;
+
+    @Autowired
+    private RebalanceamentoShardsService rebalanceamentoShardsService;
+
+    /**
+     * Retorna as estatísticas globais da plataforma.
+     * <p>
+     * Os números vêm do último cálculo periódico (campo {@code geradoEm}); a requisição nunca
+     * dispara a varredura da tabela de transações.
+     * </p>
+     *
+     * @return EstatisticasDto, ou 503 se o primeiro cálculo ainda não terminou.
+     */
+    // @Operation(summary = "Estatísticas da plataforma", description = "Totais de apostas e investimentos, usuários ativos e apostas bloqueadas.")
+    @GetMapping("/estatisticas")
+    public ResponseEntity<EstatisticasDto> estatisticas() {
+        return estatisticasService.obter()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(503).header("Retry-After", "5").build());
+    }
+
+    /**
+     * Dispara o job de dias sem apostar para hoje fora do horário agendado (ex: após uma falha).
+     * Se o dia já foi calculado, a execução termina sem alterar nada.
+     *
+     * @return 202 Accepted; o job roda em segundo plano.
+     */
+    // @Operation(summary = "Executar job de dias sem apostar", description = "Recalcula dias sem apostar e badges de todos os usuários.")
+    @PostMapping("/dias-sem-apostar")
+    public ResponseEntity<Void> executarDiasSemApostar() {
+        diasSemApostarJob.agendar();
+        return ResponseEntity.status(202).build();
+    }
+
+    /**
+     * Retorna acertos, faltas e taxa de acerto do cache de segundo nível, por região e no total.
+     *
+     * @return CacheEstatisticasDto com os contadores desde a inicialização.
+     */
+    // @Operation(summary = "Estatísticas do cache", description = "Taxa de acerto do cache de segundo nível por região.")
+    @GetMapping("/cache")
+    public ResponseEntity<CacheEstatisticasDto> cache() {
+        return ResponseEntity.ok(cacheSegundoNivelService.estatisticas());
+    }
+
+    /**
+     * Retorna os comandos SQL com maior tempo total acumulado, com as ocorrências de N+1.
+     *
+     * @param limite quantidade máxima de comandos (padrão 20)
+     * @return lista ordenada pelo tempo total, do maior para o menor.
+     */
+    // @Operation(summary = "Comandos SQL mais custosos", description = "Tempo total, máximo e médio por forma de comando e ocorrências de N+1.")
+    @GetMapping("/consultas")
+    public ResponseEntity<List<ConsultaEstatisticaDto>> consultas(@RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(monitorConsultas.maisCustosas(Math.max(1, limite)));
+    }
+
+    /**
+     * Retorna a ocupação de cada shard (um único item sem sharding).
+     *
+     * @return lista com usuários, transações e usuários fora do shard dono, por shard.
+     */
+    // @Operation(summary = "Ocupação dos shards", description = "Usuários e transações por shard e usuários aguardando rebalanceamento.")
+    @GetMapping("/shards")
+    public ResponseEntity<List<ShardDto>> shards() {
+        return ResponseEntity.ok(rebalanceamentoShardsService.resumo());
+    }
+
+    /**
+     * Move para o shard dono os usuários gravados em outro shard (após acrescentar um shard).
+     * Roda na própria requisição; uma segunda chamada simultânea espera a primeira terminar.
+     *
+     * @return RebalanceamentoDto com as quantidades movidas.
+     */
+    // @Operation(summary = "Rebalancear shards", description = "Move usuários e seus dados para o shard indicado pelo anel de hash.")
+    @PostMapping("/shards/rebalancear")
+    public ResponseEntity<RebalanceamentoDto> rebalancearShards() {
+        return ResponseEntity.ok(rebalanceamentoShardsService.rebalancear());
+    }
+}
@@ -1,13 +1,15 @@
 package com.cashcontrol.cashcontrol_api.controller;
 
 import com.cashcontrol.cashcontrol_api.model.User;
-import com.cashcontrol.cashcontrol_api.repository.UserRepository;
+import com.cashcontrol.cashcontrol_api.service.SenhaService;
+import com.cashcontrol.cashcontrol_api.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller responsável pela autenticação de usuários.
@@ -19,14 +21,17 @@ import java.util.UUID;
 public class AuthController {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
+
+    @Autowired
+    private SenhaService senhaService;
 
     /**
      * Realiza login do usuário e retorna um token de sessão.
      *
      * @param request Objeto com email e senha do usuário.
      * @return ResponseEntity contendo o token, id, nome e email se login for válido;
-     *         ou erro 401 se não autenticado.
+     *         erro 401 se não autenticado; ou 503 se a verificação de senha estiver sobrecarregada.
      *
      * <p>Exemplo de requisição:
      * <pre>
@@ -51,19 +56,25 @@ public class AuthController {
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
+        Optional<User> userOpt = userService.buscarPorEmail(request.getEmail());
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(401).body("Usuário não encontrado");
         }
         User user = userOpt.get();
-        if (!user.getSenha().equals(request.getSenha())) {
-            return ResponseEntity.status(401).body("Senha incorreta");
+        try {
+            // Verifica o hash (e converte senha legada, se for o caso)
+            if (!senhaService.verificar(user, request.getSenha())) {
+                return ResponseEntity.status(401).body("Senha incorreta");
+            }
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).header("Retry-After", "1")
+                    .body("Muitas tentativas de login no momento. Tente novamente em instantes.");
         }
 
-        // Gera token aleatório e salva
+        // Gera token aleatório e salva (junto com o hash atualizado, se houver), publicando a escrita
         String token = UUID.randomUUID().toString();
         user.setToken(token);
-        userRepository.save(user);
+        userService.salvar(user);
 
         // Retorna token e dados básicos do usuário
         return ResponseEntity.ok(new LoginResponse(token, user.getId(), user.getNome(), user.getEmail()));
@@ -94,7 +94,7 @@ public class BadgeController {
     }
 
     /**
-     * Busca uma badge específica pelo seu ID (endpoint público).
+     * Busca uma badge específica pelo seu ID (uso administrativo, autenticação HTTP Basic).
      *
      * @param id Identificador único da badge.
      * @return BadgeDto encontrada ou 404 se não existir.
@@ -108,18 +108,12 @@ public class BadgeController {
     }
 
     /**
-     * Converte a entidade Badge para o DTO BadgeDto.
+     * Converte a entidade Badge para o DTO BadgeDto (nome e descrição vêm do catálogo em memória).
      *
      * @param b Badge do banco de dados.
      * @return BadgeDto preenchido.
      */
     private BadgeDto toDto(Badge b) {
-        BadgeDto dto = new BadgeDto();
-        dto.setId(b.getId());
-        dto.setNome(b.getNome());
-        dto.setDescricao(b.getDescricao());
-        dto.setDataConquista(b.getDataConquista());
-        dto.setUserId(b.getUser().getId());
-        return dto;
+        return badgeService.toDto(b, b.getUser().getId());
     }
 }
@@ -0,0 +1,36 @@
+package com.cashcontrol.cashcontrol_api.controller;
+
+import com.cashcontrol.cashcontrol_api.config.CamposParciaisConfig;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Set;
+
+/**
+ * Aplica o parâmetro {@code fields} às respostas serializadas pelo Jackson.
+ *
+ * @see CamposParciaisConfig
+ */
+@RestControllerAdvice
+public class CamposParciaisAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        Set<String> campos = CamposParciaisConfig.campos(
+                servletRequest.getServletRequest().getParameter(CamposParciaisConfig.PARAMETRO));
+        if (campos != null) {
+            bodyContainer.setFilters(CamposParciaisConfig.somente(campos));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.cashcontrol.cashcontrol_api.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Responde 409 quando a gravação de um usuário é recusada por ter partido de uma cópia
+ * desatualizada (versão do cache anterior à do banco, ver {@code User.versao}). Nada foi
+ * gravado; o cliente pode repetir a requisição.
+ */
+@RestControllerAdvice
+public class ConflitoVersaoAdvice {
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> conflito(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(409).body("Dados do usuário alterados por outra requisição. Tente novamente.");
+    }
+}
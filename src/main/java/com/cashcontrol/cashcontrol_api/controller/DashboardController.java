@@ -1,21 +1,16 @@
 package com.cashcontrol.cashcontrol_api.controller;
 
-import com.cashcontrol.cashcontrol_api.dto.BadgeDto;
+import com.cashcontrol.cashcontrol_api.config.CamposParciaisConfig;
 import com.cashcontrol.cashcontrol_api.dto.DashboardDto;
-import com.cashcontrol.cashcontrol_api.model.Badge;
-import com.cashcontrol.cashcontrol_api.model.Transacao;
-import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
 import com.cashcontrol.cashcontrol_api.model.User;
-import com.cashcontrol.cashcontrol_api.service.BadgeService;
-import com.cashcontrol.cashcontrol_api.service.TransacaoService;
+import com.cashcontrol.cashcontrol_api.service.DashboardService;
+import com.cashcontrol.cashcontrol_api.service.TicketEventosService;
 import com.cashcontrol.cashcontrol_api.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 // import io.swagger.v3.oas.annotations.Operation;
 // import io.swagger.v3.oas.annotations.Parameter;
@@ -37,16 +32,17 @@ public class DashboardController {
     private UserService userService;
 
     @Autowired
-    private TransacaoService transacaoService;
+    private DashboardService dashboardService;
 
     @Autowired
-    private BadgeService badgeService;
+    private TicketEventosService ticketEventosService;
 
     /**
      * Retorna o dashboard consolidado do usuário autenticado.
      *
      * @param userId ID do usuário.
      * @param token  Token de autenticação (enviado no header "Authorization").
+     * @param fields Campos desejados, separados por vírgula (opcional). Componentes não pedidos não são consultados.
      * @return Informações do dashboard: saldo, gastos, dias sem apostar, XP, badges.
      *
      * <p>Exemplo de requisição:
@@ -63,6 +59,8 @@ public class DashboardController {
      *   "gastosTotais": 300.00,
      *   "diasSemApostar": 7,
      *   "xp": 3,
+     *   "limiteAposta": 540.00,
+     *   "cooldownAposta": null,
      *   "badges": [
      *     {
      *       "id": 1,
@@ -80,7 +78,8 @@ public class DashboardController {
     @GetMapping("/{userId}")
     public ResponseEntity<DashboardDto> getDashboard(
             @PathVariable Long userId,
-            @RequestHeader("Authorization") String token
+            @RequestHeader("Authorization") String token,
+            @RequestParam(value = CamposParciaisConfig.PARAMETRO, required = false) String fields
     ) {
         Optional<User> userOpt = userService.buscarPorId(userId);
         if (userOpt.isEmpty()) return ResponseEntity.status(401).build(); // Não encontrado = 401 para evitar leak de existência
@@ -92,34 +91,45 @@ public class DashboardController {
             return ResponseEntity.status(401).build(); // Não autorizado
         }
 
-        // Buscar transações do usuário
-        List<Transacao> transacoes = transacaoService.listarPorUsuario(user);
-        double gastosTotais = transacoes.stream()
-                .filter(t -> t.getTipo() == TipoTransacao.APOSTA)
-                .mapToDouble(Transacao::getValor)
-                .sum();
+        // Soma das apostas e badges consultadas em paralelo, com prazo, e só se pedidas em fields
+        return ResponseEntity.ok(dashboardService.montar(user, CamposParciaisConfig.campos(fields)));
+    }
 
-        // Buscar badges do usuário e mapear para DTO
-        List<BadgeDto> badgeDtos = badgeService.listarPorUsuario(user)
-                .stream()
-                .map(b -> {
-                    BadgeDto dto = new BadgeDto();
-                    dto.setId(b.getId());
-                    dto.setNome(b.getNome());
-                    dto.setDescricao(b.getDescricao());
-                    dto.setDataConquista(b.getDataConquista());
-                    dto.setUserId(user.getId());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    /**
+     * Emite um ticket de uso único para abrir o SSE do dashboard ({@code /api/dashboard/eventos/{userId}?ticket=})
+     * a partir de clientes que não enviam headers, como o {@code EventSource} do navegador.
+     *
+     * @param userId ID do usuário.
+     * @param token  Token de autenticação (enviado no header "Authorization").
+     * @return TicketResponse com o ticket, válido por poucos segundos; 401 se o token não for do usuário.
+     *
+     * <p>Exemplo de requisição:
+     * <pre>
+     * POST /api/dashboard/1/ticket-eventos
+     * Header: Authorization: seu-token-aqui
+     * </pre>
+     * </p>
+     */
+    @PostMapping("/{userId}/ticket-eventos")
+    public ResponseEntity<TicketResponse> ticketEventos(@PathVariable Long userId,
+                                                        @RequestHeader("Authorization") String token) {
+        Optional<User> userOpt = userService.buscarPorId(userId);
+        if (userOpt.isEmpty() || userOpt.get().getToken() == null || !userOpt.get().getToken().equals(token)) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(new TicketResponse(ticketEventosService.emitir(userOpt.get())));
+    }
 
-        DashboardDto dto = new DashboardDto();
-        dto.setSaldo(user.getSaldo());
-        dto.setGastosTotais(gastosTotais);
-        dto.setDiasSemApostar(user.getDiasSemApostar());
-        dto.setXp(user.getXp());
-        dto.setBadges(badgeDtos);
+    /**
+     * DTO de resposta do ticket de conexão ao SSE.
+     */
+    public static class TicketResponse {
+        private String ticket;
+
+        public TicketResponse(String ticket) {
+            this.ticket = ticket;
+        }
 
-        return ResponseEntity.ok(dto);
+        public String getTicket() { return ticket; }
     }
 }
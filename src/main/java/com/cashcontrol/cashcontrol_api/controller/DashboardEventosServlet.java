@@ -0,0 +1,96 @@
+package com.cashcontrol.cashcontrol_api.controller;
+
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.DashboardEventosService;
+import com.cashcontrol.cashcontrol_api.service.TicketEventosService;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Endpoint de Server-Sent Events com as atualizações do dashboard do usuário.
+ * <p>
+ * Implementado como servlet assíncrono (e não como controller do Spring MVC) porque a escrita
+ * usa I/O não bloqueante do Servlet, gerenciado por {@link DashboardEventosService}.
+ * Requer autenticação por token.
+ * </p>
+ *
+ * <p>Exemplo de requisição:
+ * <pre>
+ * GET /api/dashboard/eventos/1
+ * Header: Authorization: seu-token-aqui
+ * </pre>
+ * Clientes {@code EventSource} de navegador, que não permitem headers customizados, pedem antes um
+ * ticket de uso único ({@code POST /api/dashboard/{userId}/ticket-eventos}, com o token no header)
+ * e o enviam no parâmetro {@code ?ticket=}. O token nunca vai na URL, onde ficaria em logs de
+ * acesso e de proxies.
+ * </p>
+ *
+ * <p>Eventos enviados:
+ * <pre>
+ * event: estado
+ * data: {"saldo":1000.0,"xp":0,"diasSemApostar":0}
+ *
+ * event: delta
+ * data: {"xp":15,"diasSemApostar":1}
+ *
+ * event: resync
+ * data: {}
+ * </pre>
+ * {@code delta} traz apenas os campos alterados (e {@code novasBadges}, quando houver);
+ * {@code resync} indica que atualizações foram descartadas e o dashboard deve ser recarregado.
+ * </p>
+ */
+public class DashboardEventosServlet extends HttpServlet {
+
+    private final UserService userService;
+    private final DashboardEventosService eventosService;
+    private final TicketEventosService ticketService;
+
+    public DashboardEventosServlet(UserService userService, DashboardEventosService eventosService,
+                                   TicketEventosService ticketService) {
+        this.userService = userService;
+        this.eventosService = eventosService;
+        this.ticketService = ticketService;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Long userId = lerUserId(request.getPathInfo());
+        if (userId == null) {
+            response.sendError(404);
+            return;
+        }
+        String token = request.getHeader("Authorization");
+
+        Optional<User> userOpt = userService.buscarPorId(userId);
+        // Não encontrado = 401 para evitar leak de existência (mesma regra do dashboard)
+        if (userOpt.isEmpty() || !autorizado(userOpt.get(), token, request.getParameter("ticket"))) {
+            response.sendError(401);
+            return;
+        }
+        eventosService.conectar(userOpt.get(), request, response);
+    }
+
+    private boolean autorizado(User user, String token, String ticket) {
+        if (token != null) {
+            return user.getToken() != null && user.getToken().equals(token);
+        }
+        return ticketService.consumir(user, ticket);
+    }
+
+    private static Long lerUserId(String pathInfo) {
+        if (pathInfo == null || pathInfo.length() < 2) {
+            return null;
+        }
+        try {
+            return Long.parseLong(pathInfo.substring(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.cashcontrol.cashcontrol_api.controller;
+
+import com.cashcontrol.cashcontrol_api.dto.RankingPosicaoDto;
+import com.cashcontrol.cashcontrol_api.dto.RankingUsuarioDto;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.RankingService;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Controller do ranking global de XP.
+ * <p>
+ * As consultas são respondidas pelo ranking mantido em memória, sem ordenar a tabela de usuários.
+ * O top é público e não identifica os usuários; a posição de um usuário exige o token dele e só
+ * identifica a ele próprio.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/ranking")
+public class RankingController {
+
+    private static final int MAX_LIMITE = 100;
+    private static final int MAX_VIZINHOS = 50;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Lista as maiores pontuações de XP (endpoint público, só posição e XP).
+     *
+     * @param limite quantidade de posições (padrão 10, máximo 100).
+     * @return Lista de RankingPosicaoDto em ordem de posição.
+     *
+     * <p>Exemplo de requisição:
+     * <pre>
+     * GET /api/ranking?limite=3
+     * </pre>
+     * </p>
+     */
+    // @Operation(summary = "Top do ranking", description = "Retorna os usuários com mais XP.")
+    @GetMapping
+    public List<RankingPosicaoDto> top(@RequestParam(defaultValue = "10") int limite) {
+        return rankingService.top(Math.max(1, Math.min(limite, MAX_LIMITE)));
+    }
+
+    /**
+     * Retorna a posição do usuário autenticado no ranking e as posições imediatamente acima e
+     * abaixo dele (sem identificar os vizinhos).
+     *
+     * @param userId   ID do usuário.
+     * @param token    Token de autenticação do próprio usuário.
+     * @param vizinhos quantidade de posições acima e abaixo (padrão 5, máximo 50).
+     * @return RankingUsuarioDto, ou 401 se o token não for do usuário.
+     *
+     * <p>Exemplo de requisição:
+     * <pre>
+     * GET /api/ranking/usuario/3?vizinhos=1
+     * Header: Authorization: seu-token-aqui
+     * </pre>
+     * </p>
+     */
+    // @Operation(summary = "Posição no ranking", description = "Retorna a posição do usuário e seus vizinhos no ranking de XP.")
+    @GetMapping("/usuario/{userId}")
+    public ResponseEntity<RankingUsuarioDto> posicao(@PathVariable Long userId,
+                                                     @RequestHeader("Authorization") String token,
+                                                     @RequestParam(defaultValue = "5") int vizinhos) {
+        Optional<User> userOpt = userService.buscarPorId(userId);
+        if (userOpt.isEmpty() || userOpt.get().getToken() == null || !userOpt.get().getToken().equals(token)) {
+            return ResponseEntity.status(401).build();
+        }
+        return rankingService.buscarPosicao(userId, Math.max(0, Math.min(vizinhos, MAX_VIZINHOS)))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
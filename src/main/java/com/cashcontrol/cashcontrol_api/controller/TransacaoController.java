@@ -1,13 +1,21 @@
 package com.cashcontrol.cashcontrol_api.controller;
 
+import com.cashcontrol.cashcontrol_api.config.CamposParciaisConfig;
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.ListaTransacoes;
 import com.cashcontrol.cashcontrol_api.dto.TransacaoCreateDto;
 import com.cashcontrol.cashcontrol_api.dto.TransacaoDto;
+import com.cashcontrol.cashcontrol_api.dto.TransacaoFiltroDto;
+import com.cashcontrol.cashcontrol_api.filter.LimiteTaxaUsuario;
+import com.cashcontrol.cashcontrol_api.model.Centavos;
 import com.cashcontrol.cashcontrol_api.model.Transacao;
 import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
 import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.IdempotenciaService;
 import com.cashcontrol.cashcontrol_api.service.TransacaoService;
 import com.cashcontrol.cashcontrol_api.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -36,17 +44,32 @@ public class TransacaoController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private LimiteTaxaUsuario limiteTaxaUsuario;
+
     /**
      * Cria uma nova transação para o usuário autenticado.
+     * <p>
+     * Com o header {@code Idempotency-Key}, repetições da mesma requisição (ex: reenvio após
+     * falha de rede) recebem a resposta original sem criar outra transação.
+     * </p>
      *
      * @param dto   DTO de criação de transação (valor, tipo, userId).
      * @param token Token de autenticação enviado no header Authorization.
+     * @param chaveIdempotencia Chave única da requisição, gerada pelo cliente. Opcional.
      * @return TransacaoDto salva ou mensagem de erro/intervenção.
      *
      * <p>Exemplo de requisição:
      * <pre>
      * POST /api/transacoes
      * Header: Authorization: seu-token-aqui
+     * Header: Idempotency-Key: 5f1c2b9e-7a1d-4a43-9a55-0d6b1e1f3c21
      * {
      *   "valor": 100,
      *   "tipo": "APOSTA",
@@ -58,7 +81,17 @@ public class TransacaoController {
     // @Operation(summary = "Criar transação", description = "Cria uma nova transação (aposta ou investimento) para o usuário autenticado.")
     @PostMapping
     public ResponseEntity<?> criar(@RequestBody TransacaoCreateDto dto,
-                                   @RequestHeader("Authorization") String token) {
+                                   @RequestHeader("Authorization") String token,
+                                   @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia) {
+        // Campo ausente chega como 0 (valor é primitivo); null já é recusado na desserialização
+        if (dto.getValor() <= 0) {
+            return ResponseEntity.badRequest().body("O valor da transação deve ser maior que zero.");
+        }
+        // O usuário vem no corpo: a requisição inteira vai ao shard dono dele
+        return shards.doUsuario(dto.getUserId(), () -> criarNoShard(dto, token, chaveIdempotencia));
+    }
+
+    private ResponseEntity<?> criarNoShard(TransacaoCreateDto dto, String token, String chaveIdempotencia) {
         Optional<User> userOpt = userService.buscarPorId(dto.getUserId());
         if (userOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("Usuário não encontrado.");
@@ -70,82 +103,138 @@ public class TransacaoController {
             return ResponseEntity.status(401).body("Token inválido ou não autorizado");
         }
 
-        // Verifica cooldown (impedido de apostar)
-        if (dto.getTipo().equalsIgnoreCase("APOSTA") && user.getCooldownAposta() != null) {
-            if (user.getCooldownAposta().isAfter(LocalDateTime.now())) {
-                long minutosRestantes = java.time.Duration.between(LocalDateTime.now(), user.getCooldownAposta()).toMinutes() + 1;
-                return ResponseEntity.badRequest().body(
-                        "Você precisa esperar " + minutosRestantes + " minuto(s) antes de apostar novamente devido a tentativa anterior acima do limite. Procure investir esse valor!"
-                );
-            } else {
-                // Cooldown expirou, libera aposta e limpa cooldown
-                user.setCooldownAposta(null);
-                userService.salvar(user);
-            }
+        // Limite por usuário, só depois de o token identificar quem é
+        long esperaSegundos = limiteTaxaUsuario.tentarConsumir(user.getId());
+        if (esperaSegundos > 0) {
+            return ResponseEntity.status(429).header("Retry-After", String.valueOf(esperaSegundos))
+                    .body("Muitas requisições. Tente novamente em instantes.");
+        }
+
+        if (chaveIdempotencia != null) {
+            String requisicao = dto.getTipo() + ":" + dto.getValor();
+            return idempotenciaService.executar(user.getId(), chaveIdempotencia, requisicao, TransacaoDto.class,
+                    () -> processar(user, dto));
         }
+        return processar(user, dto);
+    }
+
+    /**
+     * Grava a transação de um usuário já autenticado (uma única transação de banco, ver
+     * {@link TransacaoService#criar}) e monta a resposta da intervenção, se a aposta foi bloqueada.
+     */
+    private ResponseEntity<?> processar(User user, TransacaoCreateDto dto) {
+        Transacao salva = transacaoService.criar(user.getId(),
+                TipoTransacao.valueOf(dto.getTipo().toUpperCase()), dto.getValor());
+        User atualizado = salva.getUser();
 
-        // Intervenção: bloquear aposta maior que 20% do saldo
-        if (dto.getTipo().equalsIgnoreCase("APOSTA")) {
-            double percentual = dto.getValor() / user.getSaldo();
-            if (percentual > 0.2) {
-                // Adiciona cooldown de 5 minutos
-                user.setCooldownAposta(LocalDateTime.now().plusMinutes(5));
-                userService.salvar(user);
-
-                // Monta sugestão de investimento detalhada
-                String sugestaoInvestimento =
-                        "\nSugestão de Investimento:\n" +
-                                "- Tesouro Selic: Liquidez diária, risco baixíssimo, rendimento próximo de 100% do CDI\n" +
-                                "- Poupança: Rendimento baixo (~0,5% ao mês), mas resgate fácil\n" +
-                                "- CDB de grande banco: Rende mais que a poupança e tem proteção do FGC\n\n" +
-                                "Que tal simular quanto você teria daqui alguns meses investindo esse valor? Use a função Simulador no app!";
-
-                return ResponseEntity.badRequest().body(
-                        "Atenção: O valor desta aposta (" + dto.getValor() +
-                                ") representa " + String.format("%.1f", percentual * 100) +
-                                "% do seu saldo atual. Por sua segurança, você ficará impedido de apostar por 5 minutos.\n" +
-                                sugestaoInvestimento
-                );
-            }
+        // Verifica cooldown (impedido de apostar)
+        if (Transacao.STATUS_BLOQUEADA_COOLDOWN.equals(salva.getStatus())) {
+            long minutosRestantes = java.time.Duration.between(LocalDateTime.now(), atualizado.getCooldownAposta()).toMinutes() + 1;
+            return ResponseEntity.badRequest().body(
+                    "Você precisa esperar " + minutosRestantes + " minuto(s) antes de apostar novamente devido a tentativa anterior acima do limite. Procure investir esse valor!"
+            );
         }
 
-        Transacao transacao = new Transacao();
-        transacao.setUser(user);
-        transacao.setValor(dto.getValor());
-        transacao.setTipo(TipoTransacao.valueOf(dto.getTipo().toUpperCase()));
-        transacao.setData(LocalDateTime.now());
-        transacao.setStatus("REALIZADA");
+        // Intervenção: aposta maior que 20% do saldo
+        if (Transacao.STATUS_BLOQUEADA_LIMITE.equals(salva.getStatus())) {
+            double percentual = atualizado.getSaldo() > 0 ? (double) dto.getValor() / atualizado.getSaldo() : 1;
+
+            // Monta sugestão de investimento detalhada
+            String sugestaoInvestimento =
+                    "\nSugestão de Investimento:\n" +
+                            "- Tesouro Selic: Liquidez diária, risco baixíssimo, rendimento próximo de 100% do CDI\n" +
+                            "- Poupança: Rendimento baixo (~0,5% ao mês), mas resgate fácil\n" +
+                            "- CDB de grande banco: Rende mais que a poupança e tem proteção do FGC\n\n" +
+                            "Que tal simular quanto você teria daqui alguns meses investindo esse valor? Use a função Simulador no app!";
+
+            return ResponseEntity.badRequest().body(
+                    "Atenção: O valor desta aposta (" + Centavos.paraDecimal(dto.getValor()) +
+                            ") representa " + String.format("%.1f", percentual * 100) +
+                            "% do seu saldo atual. Por sua segurança, você ficará impedido de apostar por 5 minutos.\n" +
+                            sugestaoInvestimento
+            );
+        }
 
-        Transacao salva = transacaoService.salvar(transacao);
         TransacaoDto response = toDto(salva);
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Lista todas as transações existentes no sistema (endpoint público).
+     * Lista todas as transações existentes no sistema (uso administrativo, autenticação HTTP Basic).
+     * <p>
+     * A lista é escrita em streaming ({@link ListaTransacoes}), no mesmo formato de uma lista de
+     * TransacaoDto.
+     * </p>
      *
-     * @return Lista de TransacaoDto.
+     * @param fields Campos da resposta (ex: valor,tipo). Opcional.
+     * @return Lista de transações.
      */
     // @Operation(summary = "Listar todas as transações", description = "Retorna todas as transações do sistema.")
     @GetMapping
-    public List<TransacaoDto> listarTodas() {
-        return transacaoService.listarTodas()
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public ListaTransacoes listarTodas(@RequestParam(value = CamposParciaisConfig.PARAMETRO, required = false) String fields) {
+        return new ListaTransacoes(transacaoService::percorrerTodas, CamposParciaisConfig.campos(fields));
     }
 
     /**
-     * Lista todas as transações de um usuário autenticado.
+     * Lista as transações de um usuário autenticado, opcionalmente num período.
+     * <p>
+     * Transações antigas ficam no arquivo e só são lidas se o período pedido as alcançar
+     * (sem {@code desde}, o histórico completo é devolvido). A lista é escrita em streaming
+     * ({@link ListaTransacoes}), sem carregar o histórico inteiro na memória.
+     * </p>
      *
      * @param userId ID do usuário.
      * @param token  Token enviado no header Authorization.
-     * @return Lista de TransacaoDto.
+     * @param desde  Início do período (inclusivo, ISO-8601, ex: 2025-01-01T00:00:00). Opcional.
+     * @param ate    Fim do período (exclusivo, ISO-8601). Opcional.
+     * @param fields Campos da resposta (ex: valor,tipo). Opcional.
+     * @return Lista de transações, em ordem de data.
      */
-    // @Operation(summary = "Listar transações do usuário", description = "Retorna todas as transações do usuário autenticado (proteção por token).")
+    // @Operation(summary = "Listar transações do usuário", description = "Retorna as transações do usuário autenticado no período informado (proteção por token).")
     @GetMapping("/usuario/{userId}")
-    public ResponseEntity<List<TransacaoDto>> listarPorUsuario(@PathVariable Long userId,
-                                                               @RequestHeader("Authorization") String token) {
+    public ResponseEntity<ListaTransacoes> listarPorUsuario(@PathVariable Long userId,
+                                                            @RequestHeader("Authorization") String token,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+                                                            @RequestParam(value = CamposParciaisConfig.PARAMETRO, required = false) String fields) {
+        Optional<User> userOpt = userService.buscarPorId(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).build();
+        }
+        User user = userOpt.get();
+
+        if (user.getToken() == null || !user.getToken().equals(token)) {
+            return ResponseEntity.status(401).build();
+        }
+
+        return ResponseEntity.ok(new ListaTransacoes(
+                destino -> transacaoService.percorrerPorUsuario(user.getId(), desde, ate, destino),
+                CamposParciaisConfig.campos(fields)));
+    }
+
+    /**
+     * Busca as transações de um usuário autenticado por tipo, status, período e faixa de valor.
+     * <p>
+     * Todos os filtros são opcionais e combinados com "e"; a busca é feita no banco, com uma
+     * consulta que usa os índices por usuário/tipo/data, em vez de baixar o histórico completo.
+     * </p>
+     *
+     * <p>Exemplo:
+     * <pre>
+     * GET /api/transacoes/usuario/1/busca?tipo=APOSTA&status=REALIZADA&desde=2025-06-01T00:00:00&valorMinimo=50
+     * </pre>
+     * </p>
+     *
+     * @param userId ID do usuário.
+     * @param token  Token enviado no header Authorization.
+     * @param filtro Filtros da busca (parâmetros de query).
+     * @return Lista de TransacaoDto em ordem de data.
+     */
+    // @Operation(summary = "Buscar transações do usuário", description = "Filtra as transações do usuário autenticado por tipo, status, período e valor (proteção por token).")
+    @GetMapping("/usuario/{userId}/busca")
+    public ResponseEntity<List<TransacaoDto>> buscar(@PathVariable Long userId,
+                                                     @RequestHeader("Authorization") String token,
+                                                     TransacaoFiltroDto filtro) {
         Optional<User> userOpt = userService.buscarPorId(userId);
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(401).build();
@@ -156,7 +245,7 @@ public class TransacaoController {
             return ResponseEntity.status(401).build();
         }
 
-        List<TransacaoDto> lista = transacaoService.listarPorUsuario(user)
+        List<TransacaoDto> lista = transacaoService.buscar(user, filtro)
                 .stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
@@ -199,7 +288,7 @@ public class TransacaoController {
         TransacaoDto dto = new TransacaoDto();
         dto.setId(t.getId());
         dto.setValor(t.getValor());
-        dto.setTipo(t.getTipo().name());
+        dto.setTipo(t.getTipo());
         dto.setData(t.getData());
         dto.setStatus(t.getStatus());
         dto.setUserId(t.getUser().getId());
@@ -1,15 +1,21 @@
 package com.cashcontrol.cashcontrol_api.controller;
 
+import com.cashcontrol.cashcontrol_api.dto.ImportacaoResultadoDto;
 import com.cashcontrol.cashcontrol_api.dto.UserCreateDto;
 import com.cashcontrol.cashcontrol_api.dto.UserDto;
 import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.ImportacaoUsuarioService;
+import com.cashcontrol.cashcontrol_api.service.SenhaService;
 import com.cashcontrol.cashcontrol_api.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller responsável por cadastro, autenticação e consulta de usuários.
@@ -23,11 +29,17 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ImportacaoUsuarioService importacaoUsuarioService;
+
+    @Autowired
+    private SenhaService senhaService;
+
     /**
      * Registra um novo usuário no sistema.
      *
      * @param dto DTO contendo nome, email, senha e rendaMensal.
-     * @return UserDto cadastrado.
+     * @return UserDto cadastrado, ou 503 se o cálculo do hash da senha estiver sobrecarregado.
      *
      * <p>
      * Exemplo de requisição:
@@ -47,16 +59,12 @@ public class UserController {
         if (userService.existePorEmail(dto.getEmail())) {
             return ResponseEntity.badRequest().build();
         }
-        User user = new User();
-        user.setNome(dto.getNome());
-        user.setEmail(dto.getEmail());
-        user.setSenha(dto.getSenha());
-        user.setRendaMensal(dto.getRendaMensal());
-        user.setPerfilRisco("moderado");
-        user.setLimiteMensalAposta(dto.getRendaMensal() * 0.1); // 10% da renda
-        user.setSaldo(dto.getRendaMensal());
-        user.setXp(0);
-        user.setDiasSemApostar(0);
+        User user = userService.montarNovoUsuario(dto);
+        try {
+            user.setSenha(senhaService.gerarHash(dto.getSenha()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
+        }
 
         User salvo = userService.salvar(user);
 
@@ -64,11 +72,42 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Importa usuários em lote a partir de um arquivo CSV enviado no corpo da requisição.
+     *
+     * <p>
+     * Cada linha segue o formato {@code nome,email,senha,rendaMensal} (cabeçalho opcional, com exatamente esses nomes).
+     * Os campos derivados (limite mensal, saldo, perfil) são calculados como no cadastro individual.
+     * Linhas inválidas ou com email repetido/já cadastrado são rejeitadas e listadas no relatório.
+     * </p>
+     *
+     * <p>
+     * Exemplo de requisição:
+     * <pre>
+     * POST /api/users/import
+     * Content-Type: text/csv
+     *
+     * nome,email,senha,rendaMensal
+     * João,joao@email.com,123456,2000
+     * Maria,maria@email.com,abcdef,3500
+     * </pre>
+     * </p>
+     *
+     * @param csv corpo da requisição em CSV (UTF-8)
+     * @return ImportacaoResultadoDto com quantidades importadas e rejeições
+     * @throws IOException caso haja erro de leitura do corpo
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ImportacaoResultadoDto> importar(InputStream csv) throws IOException {
+        return ResponseEntity.ok(importacaoUsuarioService.importar(csv));
+    }
+
     /**
      * Realiza login de usuário e retorna um token de autenticação.
      *
      * @param dto DTO com email e senha.
-     * @return LoginResponse contendo token, id, nome e email.
+     * @return LoginResponse contendo token, id, nome e email; 401 se inválido;
+     *         ou 503 se a verificação de senha estiver sobrecarregada.
      *
      * <p>
      * Exemplo de requisição:
@@ -93,10 +132,16 @@ public class UserController {
     @PostMapping("/login")
     public ResponseEntity<LoginResponse> login(@RequestBody UserCreateDto dto) {
         Optional<User> userOpt = userService.buscarPorEmail(dto.getEmail());
-        if (userOpt.isPresent() && userOpt.get().getSenha().equals(dto.getSenha())) {
+        boolean senhaValida;
+        try {
+            senhaValida = userOpt.isPresent() && senhaService.verificar(userOpt.get(), dto.getSenha());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
+        }
+        if (senhaValida) {
             User user = userOpt.get();
 
-            // Gera token novo e salva
+            // Gera token novo e salva (junto com o hash atualizado, se houver)
             String token = UUID.randomUUID().toString();
             user.setToken(token);
             userService.salvar(user);
@@ -0,0 +1,92 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object com as estatísticas do cache de segundo nível do Hibernate (uso administrativo).
+ *
+ * <p>
+ * Os contadores são acumulados desde a inicialização da aplicação.
+ * </p>
+ *
+ * <p>
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *   "acertos": 91000,
+ *   "faltas": 9000,
+ *   "taxaAcerto": 0.91,
+ *   "regioes": [
+ *     { "nome": "com.cashcontrol.cashcontrol_api.model.User", "consulta": false,
+ *       "acertos": 60000, "faltas": 4000, "inclusoes": 4100, "elementosEmMemoria": 3900, "taxaAcerto": 0.94 },
+ *     { "nome": "badges-por-usuario", "consulta": true,
+ *       "acertos": 30000, "faltas": 5000, "inclusoes": 5000, "elementosEmMemoria": 2800, "taxaAcerto": 0.86 }
+ *   ]
+ * }
+ * </pre>
+ * </p>
+ */
+@Data
+public class CacheEstatisticasDto {
+    /**
+     * Total de acertos em todas as regiões.
+     */
+    private long acertos;
+
+    /**
+     * Total de faltas em todas as regiões.
+     */
+    private long faltas;
+
+    /**
+     * Acertos sobre o total de leituras (0 a 1); 0 se ainda não houve leituras.
+     */
+    private double taxaAcerto;
+
+    /**
+     * Estatísticas por região (entidades e consultas em cache).
+     */
+    private List<Regiao> regioes = new ArrayList<>();
+
+    /**
+     * Contadores de uma região do cache.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Regiao {
+        /**
+         * Nome da região (classe da entidade ou região de consulta).
+         */
+        private String nome;
+
+        /**
+         * Indica se a região guarda resultados de consulta.
+         */
+        private boolean consulta;
+
+        private long acertos;
+
+        private long faltas;
+
+        /**
+         * Quantidade de entradas gravadas no cache.
+         */
+        private long inclusoes;
+
+        /**
+         * Entradas atualmente em memória, ou -1 se o provedor não informar.
+         */
+        private long elementosEmMemoria;
+
+        /**
+         * Acertos sobre o total de leituras (0 a 1).
+         */
+        private double taxaAcerto;
+    }
+}
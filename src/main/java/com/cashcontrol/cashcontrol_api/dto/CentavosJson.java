@@ -0,0 +1,68 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.cashcontrol.cashcontrol_api.model.Centavos;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Serialização JSON/CBOR dos campos {@link Monetario}.
+ */
+final class CentavosJson {
+
+    private CentavosJson() {
+    }
+
+    /**
+     * Escreve centavos como reais ({@code 15075 -> 150.75}), no mesmo formato dos antigos
+     * campos {@code Double}.
+     */
+    static class Serializador extends StdSerializer<Long> {
+        Serializador() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long centavos, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(Centavos.paraReais(centavos));
+        }
+    }
+
+    /**
+     * Lê reais (número ou texto) e converte para centavos.
+     */
+    static class Desserializador extends StdDeserializer<Long> {
+        Desserializador() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            try {
+                if (p.currentToken() == JsonToken.VALUE_NUMBER_INT || p.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+                    return Centavos.deReais(p.getDecimalValue());
+                }
+                if (p.currentToken() == JsonToken.VALUE_STRING) {
+                    return Centavos.deReais(p.getText());
+                }
+            } catch (NumberFormatException | ArithmeticException e) {
+                return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), "valor monetário inválido");
+            }
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+
+        @Override
+        public Long getNullValue(DeserializationContext ctxt) throws JsonMappingException {
+            // Campos monetários são primitivos: null viraria 0 silenciosamente (400 na requisição)
+            return ctxt.reportInputMismatch(Long.class, "valor monetário obrigatório");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object com os totais de uma forma de comando SQL (uso administrativo).
+ *
+ * <p>
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *   "sql": "select u1_0.id,u1_0.cooldown_aposta,... from usuario u1_0 where u1_0.id=?",
+ *   "execucoes": 48210,
+ *   "tempoTotalMs": 5210,
+ *   "tempoMaximoMs": 41,
+ *   "tempoMedioMs": 0.11,
+ *   "ocorrenciasNMaisUm": 12,
+ *   "ultimaRotaNMaisUm": "GET /api/transacoes"
+ * }
+ * </pre>
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultaEstatisticaDto {
+    /**
+     * SQL com literais e listas de parâmetros normalizados.
+     */
+    private String sql;
+
+    /**
+     * Quantidade de execuções desde a inicialização.
+     */
+    private long execucoes;
+
+    /**
+     * Soma do tempo de execução, em milissegundos.
+     */
+    private long tempoTotalMs;
+
+    /**
+     * Maior tempo de uma execução, em milissegundos.
+     */
+    private long tempoMaximoMs;
+
+    /**
+     * Tempo médio por execução, em milissegundos.
+     */
+    private double tempoMedioMs;
+
+    /**
+     * Requisições em que o comando se repetiu acima do limite de N+1.
+     */
+    private long ocorrenciasNMaisUm;
+
+    /**
+     * Rota da requisição mais recente marcada como N+1, ou null.
+     */
+    private String ultimaRotaNMaisUm;
+}
@@ -0,0 +1,47 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object das atualizações do dashboard enviadas por Server-Sent Events.
+ *
+ * <p>
+ * Apenas os campos que mudaram desde o último envio são preenchidos; os demais são omitidos.
+ * O evento {@code estado}, enviado ao conectar, traz saldo, XP e dias sem apostar.
+ * </p>
+ *
+ * <p>
+ * Exemplo de evento:
+ * <pre>
+ * event: delta
+ * data: {"xp":35,"diasSemApostar":2}
+ * </pre>
+ * </p>
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDeltaDto {
+    /**
+     * Saldo atual do usuário.
+     */
+    @Monetario
+    private Long saldo;
+
+    /**
+     * XP acumulado.
+     */
+    private Integer xp;
+
+    /**
+     * Dias consecutivos sem apostar.
+     */
+    private Integer diasSemApostar;
+
+    /**
+     * Badges conquistadas desde o último envio.
+     */
+    private List<BadgeDto> novasBadges;
+}
@@ -1,6 +1,10 @@
 package com.cashcontrol.cashcontrol_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,6 +16,12 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * Se algum componente não puder ser consultado a tempo, ele vem {@code null} e seu nome aparece
+ * em {@code indisponiveis} (ex: {@code "indisponiveis": ["gastosTotais"]}); sem falhas, o campo
+ * é omitido.
+ * </p>
+ *
+ * <p>
  * Exemplo de resposta:
  * <pre>
  * {
@@ -19,6 +29,8 @@ import java.util.List;
  *   "gastosTotais": 350.0,
  *   "diasSemApostar": 5,
  *   "xp": 250,
+ *   "limiteAposta": 240.0,
+ *   "cooldownAposta": null,
  *   "badges": [
  *     {
  *       "id": 1,
@@ -37,12 +49,14 @@ public class DashboardDto {
     /**
      * Saldo atual do usuário.
      */
-    private Double saldo;
+    @Monetario
+    private long saldo;
 
     /**
-     * Soma total dos valores apostados pelo usuário.
+     * Soma total dos valores apostados pelo usuário (null se indisponível).
      */
-    private Double gastosTotais;
+    @Monetario
+    private Long gastosTotais;
 
     /**
      * Quantidade de dias consecutivos sem apostar.
@@ -55,9 +69,26 @@ public class DashboardDto {
     private Integer xp;
 
     /**
-     * Lista de conquistas (badges) do usuário.
+     * Maior aposta aceita agora pela intervenção (20% do saldo).
+     */
+    @Monetario
+    private long limiteAposta;
+
+    /**
+     * Fim do cooldown de apostas, ou null se o usuário pode apostar.
+     */
+    private LocalDateTime cooldownAposta;
+
+    /**
+     * Lista de conquistas (badges) do usuário (null se indisponível).
      */
     private List<BadgeDto> badges;
 
+    /**
+     * Componentes que não puderam ser consultados dentro do prazo.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> indisponiveis = new ArrayList<>();
+
     // Acrescente outros campos conforme desejar (exemplo: metas, gráficos, etc.)
 }
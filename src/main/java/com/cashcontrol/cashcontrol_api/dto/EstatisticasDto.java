@@ -0,0 +1,138 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object com as estatísticas globais da plataforma (uso administrativo).
+ *
+ * <p>
+ * Os valores consideram apenas transações realizadas, exceto as contagens de apostas bloqueadas.
+ * São calculados periodicamente; {@code geradoEm} indica a idade dos números.
+ * </p>
+ *
+ * <p>
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *   "geradoEm": "2025-06-10T12:00:00",
+ *   "duracaoMs": 840,
+ *   "transacoesAnalisadas": 1250000,
+ *   "totalApostado": 5300000.0,
+ *   "totalInvestido": 8100000.0,
+ *   "apostasRealizadas": 410000,
+ *   "apostasBloqueadasLimite": 21000,
+ *   "apostasBloqueadasCooldown": 9000,
+ *   "apostaMedia": 12.93,
+ *   "percentualApostasBloqueadas": 6.82,
+ *   "usuariosAtivos": 48000,
+ *   "janelaUsuariosAtivosDias": 30,
+ *   "porDia": [
+ *     { "data": "2025-06-09", "totalApostado": 17000.0, "totalInvestido": 26000.0 }
+ *   ]
+ * }
+ * </pre>
+ * </p>
+ */
+@Data
+public class EstatisticasDto {
+    /**
+     * Momento em que a varredura terminou.
+     */
+    private LocalDateTime geradoEm;
+
+    /**
+     * Duração da varredura, em milissegundos.
+     */
+    private long duracaoMs;
+
+    /**
+     * Quantidade de linhas da tabela de transações analisadas.
+     */
+    private long transacoesAnalisadas;
+
+    /**
+     * Soma das apostas realizadas.
+     */
+    @Monetario
+    private long totalApostado;
+
+    /**
+     * Soma dos investimentos realizados.
+     */
+    @Monetario
+    private long totalInvestido;
+
+    /**
+     * Quantidade de apostas realizadas.
+     */
+    private long apostasRealizadas;
+
+    /**
+     * Apostas recusadas por ultrapassarem 20% do saldo.
+     */
+    private long apostasBloqueadasLimite;
+
+    /**
+     * Apostas recusadas durante o cooldown (somadas ao banco a cada intervalo, ver
+     * {@code ApostasBloqueadasService}).
+     */
+    private long apostasBloqueadasCooldown;
+
+    /**
+     * Valor médio das apostas realizadas.
+     */
+    @Monetario
+    private long apostaMedia;
+
+    /**
+     * Percentual das tentativas de aposta que foram bloqueadas (limite ou cooldown).
+     */
+    private double percentualApostasBloqueadas;
+
+    /**
+     * Usuários distintos com ao menos uma transação na janela de atividade.
+     */
+    private long usuariosAtivos;
+
+    /**
+     * Tamanho da janela de atividade, em dias.
+     */
+    private int janelaUsuariosAtivosDias;
+
+    /**
+     * Totais por dia, em ordem cronológica (apenas dias com movimento).
+     */
+    private List<Dia> porDia = new ArrayList<>();
+
+    /**
+     * Totais realizados em um dia.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Dia {
+        /**
+         * Data do movimento.
+         */
+        private LocalDate data;
+
+        /**
+         * Soma das apostas realizadas no dia.
+         */
+        @Monetario
+        private long totalApostado;
+
+        /**
+         * Soma dos investimentos realizados no dia.
+         */
+        @Monetario
+        private long totalInvestido;
+    }
+}
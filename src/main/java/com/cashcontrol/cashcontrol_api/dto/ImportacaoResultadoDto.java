@@ -0,0 +1,77 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object com o resultado da importação em lote de usuários.
+ *
+ * <p>
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *   "linhasLidas": 3,
+ *   "importados": 2,
+ *   "rejeitados": 1,
+ *   "rejeicoes": [
+ *     { "linha": 3, "email": "joao@email.com", "motivo": "Email já cadastrado" }
+ *   ],
+ *   "rejeicoesOmitidas": 0
+ * }
+ * </pre>
+ * </p>
+ */
+@Data
+public class ImportacaoResultadoDto {
+    /**
+     * Quantidade de linhas de dados lidas do arquivo (sem contar o cabeçalho).
+     */
+    private long linhasLidas;
+
+    /**
+     * Quantidade de usuários inseridos no banco.
+     */
+    private long importados;
+
+    /**
+     * Quantidade de linhas rejeitadas.
+     */
+    private long rejeitados;
+
+    /**
+     * Detalhe das linhas rejeitadas (limitado para manter a resposta com tamanho constante).
+     */
+    private List<LinhaRejeitada> rejeicoes = new ArrayList<>();
+
+    /**
+     * Quantidade de rejeições que não couberam no relatório.
+     */
+    private long rejeicoesOmitidas;
+
+    /**
+     * Linha do CSV que não pôde ser importada.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LinhaRejeitada {
+        /**
+         * Número da linha no arquivo (a partir de 1, contando o cabeçalho).
+         */
+        private long linha;
+
+        /**
+         * Email informado na linha, se houver.
+         */
+        private String email;
+
+        /**
+         * Motivo da rejeição.
+         */
+        private String motivo;
+    }
+}
@@ -0,0 +1,206 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.cashcontrol.cashcontrol_api.config.CamposParciaisConfig;
+import com.cashcontrol.cashcontrol_api.model.Centavos;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Lista de transações escrita em streaming no corpo da resposta
+ * ({@link com.cashcontrol.cashcontrol_api.config.ListaTransacoesConverter}).
+ *
+ * <p>
+ * As linhas vão do ResultSet direto para o {@link JsonGenerator}, sem entidades nem
+ * {@link TransacaoDto} intermediários: uma única {@link TransacaoLinha} é reaproveitada, os nomes
+ * dos campos e dos tipos são tokens já codificados e a data é formatada num buffer reaproveitado.
+ * O resultado é o mesmo de uma {@code List<TransacaoDto>} serializada pelo Jackson, em JSON e em
+ * CBOR, inclusive com o parâmetro {@code fields}.
+ * </p>
+ *
+ * <p>
+ * A consulta só é executada durante a escrita da resposta; um erro no meio da listagem interrompe
+ * uma resposta já iniciada.
+ * </p>
+ */
+public final class ListaTransacoes {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString VALOR = new SerializedString("valor");
+    private static final SerializableString TIPO = new SerializedString("tipo");
+    private static final SerializableString DATA = new SerializedString("data");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+
+    private static final SerializableString[] TIPOS = new SerializableString[TipoTransacao.values().length];
+
+    static {
+        for (TipoTransacao tipo : TipoTransacao.values()) {
+            TIPOS[tipo.ordinal()] = new SerializedString(tipo.name());
+        }
+    }
+
+    /**
+     * Origem das linhas: entrega cada uma ao destino, em ordem.
+     */
+    @FunctionalInterface
+    public interface Fonte {
+        void percorrer(Consumer<TransacaoLinha> destino);
+    }
+
+    private final Fonte fonte;
+    private final Set<String> campos;
+
+    /**
+     * @param fonte  origem das linhas, consultada durante a escrita
+     * @param campos campos pedidos (ver {@link CamposParciaisConfig#campos}), ou null para todos
+     */
+    public ListaTransacoes(Fonte fonte, Set<String> campos) {
+        this.fonte = fonte;
+        this.campos = campos;
+    }
+
+    /**
+     * Escreve o array de transações.
+     *
+     * @param gen     gerador JSON ou CBOR
+     * @param binario true para CBOR (data em epoch millis e tipo pelo ordinal, como em
+     *                {@link com.cashcontrol.cashcontrol_api.config.CborConfig})
+     */
+    public void escrever(JsonGenerator gen, boolean binario) throws IOException {
+        Escritor escritor = new Escritor(gen, binario);
+        gen.writeStartArray();
+        try {
+            fonte.percorrer(escritor);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Escreve cada linha recebida; os campos incluídos são decididos uma vez por listagem.
+     */
+    private final class Escritor implements Consumer<TransacaoLinha> {
+
+        private final JsonGenerator gen;
+        private final boolean binario;
+        private final ZoneId fuso = ZoneId.systemDefault();
+        private final char[] data = new char[29];
+        private final boolean id = CamposParciaisConfig.incluir(campos, "id");
+        private final boolean valor = CamposParciaisConfig.incluir(campos, "valor");
+        private final boolean tipo = CamposParciaisConfig.incluir(campos, "tipo");
+        private final boolean dataHora = CamposParciaisConfig.incluir(campos, "data");
+        private final boolean status = CamposParciaisConfig.incluir(campos, "status");
+        private final boolean userId = CamposParciaisConfig.incluir(campos, "userId");
+
+        Escritor(JsonGenerator gen, boolean binario) {
+            this.gen = gen;
+            this.binario = binario;
+        }
+
+        @Override
+        public void accept(TransacaoLinha linha) {
+            try {
+                escrever(linha);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void escrever(TransacaoLinha linha) throws IOException {
+            gen.writeStartObject();
+            if (id) {
+                gen.writeFieldName(ID);
+                gen.writeNumber(linha.getId());
+            }
+            if (valor) {
+                gen.writeFieldName(VALOR);
+                gen.writeNumber(Centavos.paraReais(linha.getValor()));
+            }
+            if (tipo) {
+                gen.writeFieldName(TIPO);
+                if (linha.getTipo() == null) {
+                    gen.writeNull();
+                } else if (binario) {
+                    gen.writeNumber(linha.getTipo().ordinal());
+                } else {
+                    gen.writeString(TIPOS[linha.getTipo().ordinal()]);
+                }
+            }
+            if (dataHora) {
+                gen.writeFieldName(DATA);
+                escreverData(linha.getData());
+            }
+            if (status) {
+                gen.writeFieldName(STATUS);
+                gen.writeString(linha.getStatus());
+            }
+            if (userId) {
+                gen.writeFieldName(USER_ID);
+                gen.writeNumber(linha.getUserId());
+            }
+            gen.writeEndObject();
+        }
+
+        private void escreverData(LocalDateTime valor) throws IOException {
+            if (valor == null) {
+                gen.writeNull();
+            } else if (binario) {
+                gen.writeNumber(valor.toEpochSecond(fuso.getRules().getOffset(valor)) * 1000
+                        + valor.getNano() / 1_000_000);
+            } else if (valor.getYear() < 0 || valor.getYear() > 9999) {
+                gen.writeString(valor.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            } else {
+                gen.writeString(data, 0, formatarIso(valor));
+            }
+        }
+
+        /**
+         * Mesmo texto de {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} (usado pelo Jackson), para
+         * anos de 4 dígitos: segundos sempre presentes e fração sem zeros à direita.
+         *
+         * @return quantidade de caracteres escritos em {@link #data}
+         */
+        private int formatarIso(LocalDateTime valor) {
+            digitos(valor.getYear(), 0, 4);
+            data[4] = '-';
+            digitos(valor.getMonthValue(), 5, 2);
+            data[7] = '-';
+            digitos(valor.getDayOfMonth(), 8, 2);
+            data[10] = 'T';
+            digitos(valor.getHour(), 11, 2);
+            data[13] = ':';
+            digitos(valor.getMinute(), 14, 2);
+            data[16] = ':';
+            digitos(valor.getSecond(), 17, 2);
+            int nano = valor.getNano();
+            if (nano == 0) {
+                return 19;
+            }
+            data[19] = '.';
+            digitos(nano, 20, 9);
+            int fim = 29;
+            while (data[fim - 1] == '0') {
+                fim--;
+            }
+            return fim;
+        }
+
+        private void digitos(int numero, int inicio, int quantidade) {
+            for (int i = inicio + quantidade - 1; i >= inicio; i--) {
+                data[i] = (char) ('0' + numero % 10);
+                numero /= 10;
+            }
+        }
+    }
+}
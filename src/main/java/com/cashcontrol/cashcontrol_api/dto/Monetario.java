@@ -0,0 +1,27 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um campo {@code long} em centavos que aparece no JSON como número decimal em reais.
+ *
+ * <p>
+ * Ex: o campo {@code long saldo = 120050} é serializado como {@code "saldo": 1200.5}; na
+ * requisição, {@code "valor": 150.75} é lido como {@code 15075}. Frações de centavo são
+ * arredondadas.
+ * </p>
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = CentavosJson.Serializador.class)
+@JsonDeserialize(using = CentavosJson.Desserializador.class)
+public @interface Monetario {
+}
@@ -0,0 +1,50 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object de uma posição do ranking de XP.
+ *
+ * <p>
+ * ID e nome só são preenchidos na posição do próprio usuário autenticado; as demais posições
+ * trazem apenas posição e XP.
+ * </p>
+ *
+ * <p>
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *   "posicao": 1,
+ *   "xp": 250
+ * }
+ * </pre>
+ * </p>
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingPosicaoDto {
+    /**
+     * Posição no ranking (1 = maior XP). Empates são desfeitos pelo ID do usuário.
+     */
+    private Integer posicao;
+
+    /**
+     * ID do usuário (só na posição do próprio usuário).
+     */
+    private Long userId;
+
+    /**
+     * Nome do usuário (só na posição do próprio usuário).
+     */
+    private String nome;
+
+    /**
+     * XP acumulado.
+     */
+    private Integer xp;
+}
@@ -0,0 +1,53 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object com a posição de um usuário no ranking de XP e seus vizinhos.
+ *
+ * <p>
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *   "userId": 3,
+ *   "posicao": 42,
+ *   "totalUsuarios": 1500,
+ *   "xp": 120,
+ *   "vizinhos": [
+ *     { "posicao": 41, "xp": 125 },
+ *     { "posicao": 42, "userId": 3, "nome": "João", "xp": 120 },
+ *     { "posicao": 43, "xp": 120 }
+ *   ]
+ * }
+ * </pre>
+ * </p>
+ */
+@Data
+public class RankingUsuarioDto {
+    /**
+     * ID do usuário consultado.
+     */
+    private Long userId;
+
+    /**
+     * Posição do usuário no ranking (1 = maior XP).
+     */
+    private Integer posicao;
+
+    /**
+     * Quantidade de usuários no ranking.
+     */
+    private Integer totalUsuarios;
+
+    /**
+     * XP acumulado do usuário.
+     */
+    private Integer xp;
+
+    /**
+     * Posições imediatamente acima e abaixo do usuário, incluindo ele próprio, em ordem.
+     */
+    private List<RankingPosicaoDto> vizinhos;
+}
@@ -0,0 +1,32 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object com o resultado de um rebalanceamento de shards (uso administrativo).
+ *
+ * <p>
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *   "usuariosMovidos": 16530,
+ *   "transacoesMovidas": 601877,
+ *   "duracaoMs": 48210
+ * }
+ * </pre>
+ * </p>
+ */
+@Data
+public class RebalanceamentoDto {
+    /**
+     * Usuários copiados para o shard dono e removidos do anterior.
+     */
+    private long usuariosMovidos;
+
+    /**
+     * Transações movidas junto com os usuários (ativas e arquivadas).
+     */
+    private long transacoesMovidas;
+
+    private long duracaoMs;
+}
@@ -0,0 +1,42 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object com a ocupação de um shard (uso administrativo).
+ *
+ * <p>
+ * Exemplo de resposta (lista, um item por shard):
+ * <pre>
+ * [
+ *   { "shard": 0, "usuarios": 33412, "transacoes": 1204331, "usuariosForaDoShard": 0 },
+ *   { "shard": 1, "usuarios": 33187, "transacoes": 1198040, "usuariosForaDoShard": 0 },
+ *   { "shard": 2, "usuarios": 0, "transacoes": 0, "usuariosForaDoShard": 0 }
+ * ]
+ * </pre>
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardDto {
+    /**
+     * Índice do shard (0 é o banco de {@code spring.datasource}).
+     */
+    private int shard;
+
+    private long usuarios;
+
+    /**
+     * Transações ativas (sem contar as arquivadas).
+     */
+    private long transacoes;
+
+    /**
+     * Usuários gravados neste shard que pertencem a outro pelo anel atual (aguardando
+     * rebalanceamento).
+     */
+    private long usuariosForaDoShard;
+}
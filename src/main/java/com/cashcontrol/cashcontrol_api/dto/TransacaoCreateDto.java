@@ -21,9 +21,11 @@ import lombok.Data;
 @Data
 public class TransacaoCreateDto {
     /**
-     * Valor da transação (aposta, investimento ou retorno).
+     * Valor da transação (aposta, investimento ou retorno), em centavos.
+     * No JSON é informado em reais (ex: 150.75).
      */
-    private Double valor;
+    @Monetario
+    private long valor;
 
     /**
      * Tipo da transação.
@@ -1,5 +1,6 @@
 package com.cashcontrol.cashcontrol_api.dto;
 
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
 import lombok.Data;
 import java.time.LocalDateTime;
 
@@ -21,6 +22,11 @@ import java.time.LocalDateTime;
  * }
  * </pre>
  * </p>
+ *
+ * <p>
+ * Com <b>Accept: application/cbor</b>, "data" é enviado como epoch em milissegundos
+ * e "tipo" como ordinal (0 = APOSTA, 1 = INVESTIMENTO, 2 = RETORNO).
+ * </p>
  */
 @Data
 public class TransacaoDto {
@@ -32,13 +38,15 @@ public class TransacaoDto {
     /**
      * Valor da transação (aposta, investimento ou retorno).
      */
-    private Double valor;
+    @Monetario
+    private long valor;
 
     /**
      * Tipo da transação.
      * Valores aceitos: "APOSTA", "INVESTIMENTO", "RETORNO".
+     * No modo CBOR é serializado pelo ordinal do enum.
      */
-    private String tipo;
+    private TipoTransacao tipo;
 
     /**
      * Data e hora em que a transação foi realizada.
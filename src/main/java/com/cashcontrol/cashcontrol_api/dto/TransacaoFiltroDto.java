@@ -0,0 +1,53 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filtros da busca de transações de um usuário (parâmetros de query, todos opcionais).
+ *
+ * <p>
+ * Exemplo:
+ * <pre>
+ * GET /api/transacoes/usuario/3/busca?tipo=APOSTA&desde=2025-06-01T00:00:00&valorMinimo=50
+ * </pre>
+ * </p>
+ */
+@Data
+public class TransacaoFiltroDto {
+    /**
+     * Tipo da transação: "APOSTA", "INVESTIMENTO" ou "RETORNO".
+     */
+    private TipoTransacao tipo;
+
+    /**
+     * Status da transação (exemplo: "REALIZADA", "BLOQUEADA_LIMITE").
+     */
+    private String status;
+
+    /**
+     * Início do período (inclusivo, ISO-8601).
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime desde;
+
+    /**
+     * Fim do período (exclusivo, ISO-8601).
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime ate;
+
+    /**
+     * Valor mínimo, em reais (inclusivo).
+     */
+    private BigDecimal valorMinimo;
+
+    /**
+     * Valor máximo, em reais (inclusivo).
+     */
+    private BigDecimal valorMaximo;
+}
@@ -0,0 +1,42 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de uma transação lida direto do banco, usada nas listagens em streaming
+ * ({@link ListaTransacoes}).
+ *
+ * <p>
+ * Uma única instância é reaproveitada para todas as linhas de uma listagem: quem recebe a
+ * linha deve consumi-la na hora, sem guardar a referência.
+ * </p>
+ */
+@Getter
+public class TransacaoLinha {
+
+    private long id;
+    private long valor;
+    private TipoTransacao tipo;
+    private LocalDateTime data;
+    private String status;
+    private long userId;
+
+    /**
+     * Substitui o conteúdo pela próxima linha.
+     *
+     * @return esta mesma instância
+     */
+    public TransacaoLinha preencher(long id, long valor, TipoTransacao tipo, LocalDateTime data,
+                                    String status, long userId) {
+        this.id = id;
+        this.valor = valor;
+        this.tipo = tipo;
+        this.data = data;
+        this.status = status;
+        this.userId = userId;
+        return this;
+    }
+}
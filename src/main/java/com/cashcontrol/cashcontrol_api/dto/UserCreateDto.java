@@ -37,7 +37,9 @@ public class UserCreateDto {
     private String senha;
 
     /**
-     * Renda mensal declarada pelo usuário (utilizada para cálculos de limites).
+     * Renda mensal declarada pelo usuário (utilizada para cálculos de limites), em centavos.
+     * No JSON é informada em reais (ex: 3500.00).
      */
-    private Double rendaMensal;
+    @Monetario
+    private long rendaMensal;
 }
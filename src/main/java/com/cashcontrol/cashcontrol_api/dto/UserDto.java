@@ -45,7 +45,8 @@ public class UserDto {
     /**
      * Renda mensal informada pelo usuário.
      */
-    private Double rendaMensal;
+    @Monetario
+    private long rendaMensal;
 
     /**
      * Perfil de risco do usuário (baixo, moderado, alto).
@@ -55,12 +56,14 @@ public class UserDto {
     /**
      * Limite mensal para apostas, definido com base na renda.
      */
-    private Double limiteMensalAposta;
+    @Monetario
+    private long limiteMensalAposta;
 
     /**
      * Saldo atual do usuário na plataforma.
      */
-    private Double saldo;
+    @Monetario
+    private long saldo;
 
     /**
      * Pontuação de experiência (XP) acumulada.
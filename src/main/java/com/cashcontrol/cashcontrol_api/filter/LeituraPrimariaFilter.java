@@ -0,0 +1,42 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import com.cashcontrol.cashcontrol_api.config.LeituraPrimaria;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Direciona as leituras ao banco primário quando o token da requisição escreveu recentemente.
+ *
+ * @see LeituraPrimaria
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class LeituraPrimariaFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private LeituraPrimaria leituraPrimaria;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!leituraPrimaria.exigePrimario(request.getHeader("Authorization"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        LeituraPrimaria.forcarPrimario(true);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LeituraPrimaria.forcarPrimario(false);
+        }
+    }
+}
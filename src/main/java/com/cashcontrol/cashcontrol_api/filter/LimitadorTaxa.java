@@ -0,0 +1,97 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de taxa por chave (usuário, IP, ...) no modelo token bucket, sem locks.
+ *
+ * <p>
+ * Cada chave guarda um único {@link AtomicLong} com o "instante teórico de chegada" (TAT) da
+ * próxima requisição, na formulação GCRA do token bucket: o balde repõe uma ficha a cada
+ * {@code 1 / taxaPorSegundo} e comporta até {@code capacidade} fichas. Consumir uma ficha
+ * é um único compareAndSet, sem alocação quando a chave já existe.
+ * </p>
+ *
+ * <p>
+ * Baldes cheios (TAT no passado) equivalem a baldes novos e podem ser descartados por
+ * {@link #removerInativos()} sem alterar o comportamento do limitador.
+ * </p>
+ */
+public class LimitadorTaxa {
+
+    private final long intervaloNanos;
+    private final long janelaNanos;
+    private final ConcurrentHashMap<String, AtomicLong> baldes = new ConcurrentHashMap<>();
+
+    /**
+     * @param taxaPorSegundo fichas repostas por segundo
+     * @param capacidade     quantidade máxima de fichas acumuladas (rajada permitida)
+     */
+    public LimitadorTaxa(double taxaPorSegundo, int capacidade) {
+        if (taxaPorSegundo <= 0 || capacidade < 1) {
+            throw new IllegalArgumentException("Taxa e capacidade devem ser positivas");
+        }
+        this.intervaloNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / taxaPorSegundo));
+        this.janelaNanos = intervaloNanos * capacidade;
+    }
+
+    /**
+     * Tenta consumir uma ficha do balde da chave.
+     *
+     * @param chave identificador do cliente
+     * @return 0 se a requisição foi permitida; caso contrário, nanossegundos até haver ficha disponível
+     */
+    public long tentarConsumir(String chave) {
+        return tentarConsumir(chave, System.nanoTime());
+    }
+
+    long tentarConsumir(String chave, long agora) {
+        AtomicLong tat = baldes.get(chave);
+        if (tat == null) {
+            tat = baldes.computeIfAbsent(chave, k -> new AtomicLong(agora));
+        }
+        while (true) {
+            long atual = tat.get();
+            long novo = Math.max(atual, agora) + intervaloNanos;
+            long liberadoEm = novo - janelaNanos;
+            if (liberadoEm > agora) {
+                return liberadoEm - agora;
+            }
+            if (tat.compareAndSet(atual, novo)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Remove os baldes que já estão cheios (clientes ociosos).
+     *
+     * @return quantidade de baldes removidos
+     */
+    public int removerInativos() {
+        return removerInativos(System.nanoTime());
+    }
+
+    int removerInativos(long agora) {
+        int antes = baldes.size();
+        baldes.values().removeIf(tat -> tat.get() <= agora);
+        return antes - baldes.size();
+    }
+
+    /**
+     * @return a espera arredondada para cima em segundos inteiros (mínimo 1), como no header Retry-After
+     */
+    public static long segundos(long esperaNanos) {
+        long segundo = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, (esperaNanos + segundo - 1) / segundo);
+    }
+
+    /**
+     * @return quantidade de chaves com balde ativo
+     */
+    public int tamanho() {
+        return baldes.size();
+    }
+}
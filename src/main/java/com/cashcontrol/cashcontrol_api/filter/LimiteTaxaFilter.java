@@ -0,0 +1,105 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Filtro que limita a taxa de requisições de escrita antes de qualquer acesso ao banco.
+ *
+ * <ul>
+ *     <li><b>POST /api/transacoes</b>: limite por IP de origem, mais folgado. O limite por usuário
+ *     é aplicado depois da validação do token ({@link LimiteTaxaUsuario}): o header sozinho não
+ *     identifica ninguém, e cada token inventado abriria um balde novo.</li>
+ *     <li><b>Login e cadastro</b>: limite por IP de origem.</li>
+ * </ul>
+ *
+ * <p>Ao exceder o limite, responde <b>429 Too Many Requests</b> com o header <b>Retry-After</b> (segundos).</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LimiteTaxaFilter extends OncePerRequestFilter {
+
+    private static final Set<String> ROTAS_AUTENTICACAO = Set.of(
+            "/api/users/login", "/api/users/register", "/api/auth/login");
+
+    private final LimitadorTaxa limitadorTransacoes;
+    private final LimitadorTaxa limitadorAutenticacao;
+    private final Counter rejeitadasTransacoes;
+    private final Counter rejeitadasAutenticacao;
+
+    public LimiteTaxaFilter(
+            @Value("${cashcontrol.limite-taxa.transacoes-ip.por-segundo:50}") double transacoesPorSegundo,
+            @Value("${cashcontrol.limite-taxa.transacoes-ip.capacidade:100}") int transacoesCapacidade,
+            @Value("${cashcontrol.limite-taxa.autenticacao.por-segundo:1}") double autenticacaoPorSegundo,
+            @Value("${cashcontrol.limite-taxa.autenticacao.capacidade:5}") int autenticacaoCapacidade,
+            MeterRegistry registry) {
+        this.limitadorTransacoes = new LimitadorTaxa(transacoesPorSegundo, transacoesCapacidade);
+        this.limitadorAutenticacao = new LimitadorTaxa(autenticacaoPorSegundo, autenticacaoCapacidade);
+        this.rejeitadasTransacoes = contador(registry, "transacoes-ip");
+        this.rejeitadasAutenticacao = contador(registry, "autenticacao");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String rota = request.getRequestURI().substring(request.getContextPath().length());
+        long esperaNanos = 0;
+
+        if ("/api/transacoes".equals(rota)) {
+            esperaNanos = limitadorTransacoes.tentarConsumir("ip:" + request.getRemoteAddr());
+            if (esperaNanos > 0) {
+                rejeitadasTransacoes.increment();
+            }
+        } else if (ROTAS_AUTENTICACAO.contains(rota)) {
+            esperaNanos = limitadorAutenticacao.tentarConsumir("ip:" + request.getRemoteAddr());
+            if (esperaNanos > 0) {
+                rejeitadasAutenticacao.increment();
+            }
+        }
+
+        if (esperaNanos > 0) {
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(LimitadorTaxa.segundos(esperaNanos)));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write(
+                    "Muitas requisições. Tente novamente em instantes.".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Descarta periodicamente os baldes de clientes ociosos.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.limite-taxa.limpeza-ms:60000}")
+    public void removerInativos() {
+        limitadorTransacoes.removerInativos();
+        limitadorAutenticacao.removerInativos();
+    }
+
+    static Counter contador(MeterRegistry registry, String grupo) {
+        return Counter.builder("cashcontrol.limite-taxa.rejeitadas")
+                .description("Requisições recusadas pelo limitador de taxa")
+                .tag("grupo", grupo)
+                .register(registry);
+    }
+}
@@ -0,0 +1,55 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limite de taxa de POST /api/transacoes por usuário, aplicado pelo controller logo após validar o
+ * token (antes de abrir a transação de escrita).
+ *
+ * <p>
+ * A chave é o ID do usuário autenticado, nunca o header recebido: tokens inventados não ganham
+ * balde próprio (ficam só no limite por IP do {@link LimiteTaxaFilter}) e o mapa cresce no máximo
+ * até a quantidade de usuários ativos.
+ * </p>
+ */
+@Component
+public class LimiteTaxaUsuario {
+
+    private final LimitadorTaxa limitador;
+    private final Counter rejeitadas;
+
+    public LimiteTaxaUsuario(
+            @Value("${cashcontrol.limite-taxa.transacoes.por-segundo:5}") double porSegundo,
+            @Value("${cashcontrol.limite-taxa.transacoes.capacidade:10}") int capacidade,
+            MeterRegistry registry) {
+        this.limitador = new LimitadorTaxa(porSegundo, capacidade);
+        this.rejeitadas = LimiteTaxaFilter.contador(registry, "transacoes");
+    }
+
+    /**
+     * Tenta consumir uma ficha do usuário.
+     *
+     * @param userId usuário já autenticado
+     * @return 0 se permitido; caso contrário, segundos a aguardar (para o header Retry-After)
+     */
+    public long tentarConsumir(long userId) {
+        long esperaNanos = limitador.tentarConsumir("usuario:" + userId);
+        if (esperaNanos == 0) {
+            return 0;
+        }
+        rejeitadas.increment();
+        return LimitadorTaxa.segundos(esperaNanos);
+    }
+
+    /**
+     * Descarta periodicamente os baldes de usuários ociosos.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.limite-taxa.limpeza-ms:60000}")
+    public void removerInativos() {
+        limitador.removerInativos();
+    }
+}
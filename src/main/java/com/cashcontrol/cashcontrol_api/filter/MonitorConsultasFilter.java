@@ -0,0 +1,42 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import com.cashcontrol.cashcontrol_api.config.MonitorConsultas;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Conta os comandos SQL de cada requisição HTTP (ver {@link MonitorConsultas}).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class MonitorConsultasFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MonitorConsultas monitorConsultas;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (monitorConsultas.iniciar(request.getMethod() + " " + request.getRequestURI()) == null) {
+            chain.doFilter(request, response); // Já contada por quem iniciou a medição
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Rota pelo padrão mapeado (ex: /api/transacoes/{id}), para agrupar as ocorrências
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            monitorConsultas.encerrar(padrao != null ? request.getMethod() + " " + padrao : null);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Direciona as rotas de um usuário ({@code {userId}} no caminho) ao shard dono dele, antes de o
+ * controller abrir qualquer transação.
+ *
+ * <p>
+ * Rotas sem o usuário no caminho tratam o shard por conta própria: cadastro e login pelo diretório
+ * de emails, POST de transação pelo {@code userId} do corpo, buscas por ID de transação ou badge e
+ * listagens administrativas consultando todos os shards.
+ * </p>
+ *
+ * @see Shards
+ */
+@Component
+public class ShardUsuarioInterceptor implements HandlerInterceptor {
+
+    static final String VARIAVEL = "userId";
+
+    @Autowired
+    private Shards shards;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!shards.habilitado()) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String userId = variaveis != null ? variaveis.get(VARIAVEL) : null;
+        if (userId != null) {
+            try {
+                Shards.definirAtual(shards.shardComDados(Long.parseLong(userId)));
+            } catch (NumberFormatException e) {
+                // O controller responde 400 ao converter o parâmetro
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Shards.definirAtual(null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Aposta recusada por representar mais de 20% do saldo (intervenção que aplica o cooldown).
+ *
+ * <p>
+ * Fica fora da tabela {@code transacao}: não é movimentação do usuário e não aparece nas
+ * listagens. As novas tentativas durante o cooldown não geram linhas; são somadas em memória e
+ * acumuladas em {@link #tentativasCooldown} do bloqueio mais recente (ver
+ * {@code ApostasBloqueadasService}). Usada nas estatísticas da plataforma.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "aposta_bloqueada",
+        indexes = @Index(name = "idx_aposta_bloqueada_usuario", columnList = "user_id"))
+public class ApostaBloqueada {
+
+    /**
+     * Identificador único do bloqueio.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Id do usuário que tentou apostar.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Valor da aposta recusada, em centavos (ver {@link Centavos}).
+     */
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private long valor;
+
+    /**
+     * Data e hora da tentativa.
+     */
+    private LocalDateTime data;
+
+    /**
+     * Apostas recusadas durante o cooldown aplicado por este bloqueio.
+     */
+    @Column(nullable = false)
+    private long tentativasCooldown;
+}
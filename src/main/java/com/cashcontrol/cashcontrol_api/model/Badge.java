@@ -2,6 +2,8 @@ package com.cashcontrol.cashcontrol_api.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 /**
@@ -9,7 +11,9 @@ import java.time.LocalDate;
  *
  * <p>
  * Cada badge simboliza um marco, feito ou recompensa relacionada ao progresso do usuário,
- * como dias sem apostar, atingir XP, entre outros.
+ * como dias sem apostar, atingir XP, entre outros. Nome e descrição ficam no catálogo
+ * ({@link BadgeDefinition}); a linha guarda apenas usuário, definição e data, e cada usuário
+ * conquista cada definição no máximo uma vez.
  * </p>
  *
  * Exemplos de uso: exibição de conquistas no dashboard, sistema de gamificação, etc.
@@ -19,6 +23,10 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_badge_usuario_definicao",
+        columnNames = {"user_id", "definition_id"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE) // Gravada uma vez; só excluída com o usuário
 public class Badge {
 
     /**
@@ -29,14 +37,13 @@ public class Badge {
     private Long id;
 
     /**
-     * Nome da badge/conquista (exemplo: "1B XP", "10 dias sem apostar").
+     * Definição conquistada. Carregada sob demanda: nome e descrição vêm do catálogo em memória.
      */
-    private String nome;
-
-    /**
-     * Descrição detalhada da conquista.
-     */
-    private String descricao;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "definition_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private BadgeDefinition definicao;
 
     /**
      * Data em que a badge foi conquistada pelo usuário.
@@ -46,7 +53,9 @@ public class Badge {
     /**
      * Usuário ao qual a badge pertence.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 }
@@ -0,0 +1,47 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+/**
+ * Entrada do catálogo de badges: nome, descrição e regra de concessão de uma conquista.
+ *
+ * <p>
+ * Cada badge conquistada ({@link Badge}) referencia uma definição pelo id, em vez de guardar
+ * cópias do nome e da descrição. O catálogo é pequeno e fica em memória (ver {@code BadgeService}).
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "badge_definition")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+public class BadgeDefinition {
+
+    /**
+     * Identificador fixo da definição (atribuído no catálogo, não gerado pelo banco).
+     */
+    @Id
+    private Integer id;
+
+    /**
+     * Nome exibido da badge (exemplo: "7 dias sem apostar").
+     */
+    @Column(nullable = false, unique = true)
+    private String nome;
+
+    /**
+     * Descrição detalhada da conquista.
+     */
+    private String descricao;
+
+    /**
+     * Dias sem apostar necessários para conquistar a badge, ou null se a regra for outra.
+     */
+    private Integer diasSemApostar;
+}
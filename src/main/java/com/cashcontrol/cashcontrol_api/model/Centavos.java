@@ -0,0 +1,55 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversões de valores monetários, representados internamente como {@code long} em centavos.
+ *
+ * <p>
+ * Saldos, rendas, limites e valores de transação são inteiros de centavos em todo o sistema:
+ * somas e subtrações são exatas e não há boxing. Reais aparecem apenas nas bordas: no banco
+ * ({@code numeric(19,2)}, via {@link CentavosConverter}) e no JSON (número decimal, via
+ * {@code @Monetario} nos DTOs).
+ * </p>
+ *
+ * <p>Exemplo: {@code Centavos.deReais("150.75") == 15075L}.</p>
+ */
+public final class Centavos {
+
+    private Centavos() {
+    }
+
+    /**
+     * Converte reais em centavos, arredondando frações de centavo (meio para cima).
+     *
+     * @throws ArithmeticException se o valor não couber em um {@code long}
+     */
+    public static long deReais(BigDecimal reais) {
+        return reais.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converte um texto em reais (ex: "1500.50") em centavos.
+     *
+     * @throws NumberFormatException se o texto não for um número
+     * @throws ArithmeticException   se o valor não couber em um {@code long}
+     */
+    public static long deReais(String reais) {
+        return deReais(new BigDecimal(reais.trim()));
+    }
+
+    /**
+     * @return o valor em reais, exato, com duas casas decimais
+     */
+    public static BigDecimal paraDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * @return o valor em reais como {@code double} (para exibição e JSON)
+     */
+    public static double paraReais(long centavos) {
+        return centavos / 100.0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Grava valores em centavos ({@code long}) como decimal em reais ({@code numeric(19,2)}).
+ *
+ * <p>
+ * O banco continua guardando reais, legíveis em consultas SQL e nas cargas via JDBC.
+ * Não é aplicado automaticamente: cada campo monetário usa
+ * {@code @Convert(converter = CentavosConverter.class)}. Colunas nulas são lidas como zero.
+ * </p>
+ */
+@Converter
+public class CentavosConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long centavos) {
+        return centavos == null ? null : Centavos.paraDecimal(centavos);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal reais) {
+        return reais == null ? 0L : Centavos.deReais(reais);
+    }
+}
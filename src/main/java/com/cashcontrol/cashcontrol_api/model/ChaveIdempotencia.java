@@ -0,0 +1,72 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Chave de idempotência ({@code Idempotency-Key}) já usada por um usuário, com a resposta
+ * devolvida na primeira execução.
+ *
+ * <p>
+ * A linha é gravada antes da execução (sem resposta, reservando a chave) e completada na mesma
+ * transação da ação. A restrição única por usuário e chave garante que duas instâncias nunca
+ * executem a mesma requisição. Ver {@code IdempotenciaService}.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "chave_idempotencia",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chave_idempotencia_usuario_chave",
+                columnNames = {"user_id", "chave"}))
+public class ChaveIdempotencia {
+
+    /**
+     * Identificador interno.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Usuário que enviou a chave (as chaves são únicas por usuário).
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Valor do header {@code Idempotency-Key}.
+     */
+    @Column(nullable = false)
+    private String chave;
+
+    /**
+     * Resumo dos parâmetros da requisição original, para recusar a mesma chave com outro corpo.
+     */
+    private String requisicao;
+
+    /**
+     * Status HTTP da resposta original, ou null enquanto a requisição está em execução.
+     */
+    private Integer status;
+
+    /**
+     * Corpo da resposta original (JSON em caso de sucesso, mensagem nos demais casos).
+     */
+    @Column(length = 4000)
+    private String corpo;
+
+    /**
+     * Momento em que a chave foi reservada (recebida pela primeira vez, ou reserva abandonada assumida).
+     */
+    private LocalDateTime criadaEm;
+
+    /**
+     * Identificador da execução dona da reserva: só ela grava a resposta ou libera a chave.
+     */
+    @Column(length = 36)
+    private String reserva;
+}
@@ -0,0 +1,49 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progresso de um job em lote, para retomar uma execução interrompida de onde parou.
+ *
+ * <p>
+ * Os jobs processam usuários em ordem de id; {@code ultimoId} é o maior id até o qual todos
+ * os lotes já foram gravados na execução de {@code dataReferencia}.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "checkpoint_job")
+public class CheckpointJob {
+
+    /**
+     * Nome do job (ex: "dias-sem-apostar").
+     */
+    @Id
+    private String nome;
+
+    /**
+     * Dia de referência da execução.
+     */
+    private LocalDate dataReferencia;
+
+    /**
+     * Maior id de usuário já processado (todos os anteriores também foram).
+     */
+    private long ultimoId;
+
+    /**
+     * Indica se a execução do dia terminou.
+     */
+    private boolean concluido;
+
+    /**
+     * Momento da última gravação do checkpoint.
+     */
+    private LocalDateTime atualizadoEm;
+}
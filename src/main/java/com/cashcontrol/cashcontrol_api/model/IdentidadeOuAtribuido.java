@@ -0,0 +1,63 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Member;
+
+/**
+ * Chave gerada pela coluna identity do banco, a menos que a entidade já chegue com o ID preenchido.
+ *
+ * <p>
+ * Usada em {@link User}: com sharding, o ID do usuário é reservado antes no diretório global
+ * (ver {@code DiretorioUsuarios}) e gravado como está no shard dono; sem sharding, nada muda.
+ * </p>
+ */
+@IdGeneratorType(IdentidadeOuAtribuido.Gerador.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface IdentidadeOuAtribuido {
+
+    class Gerador extends IdentityGenerator implements BeforeExecutionGenerator {
+
+        public Gerador(IdentidadeOuAtribuido anotacao, Member membro, CustomIdGeneratorCreationContext contexto) {
+            // Mesma coluna de @GeneratedValue(strategy = IDENTITY) na criação do schema
+            contexto.getRootClass().getIdentifier().getColumns().get(0).setIdentity(true);
+        }
+
+        @Override
+        public boolean allowAssignedIdentifiers() {
+            return true;
+        }
+
+        @Override
+        public boolean generatedOnExecution() {
+            return true;
+        }
+
+        @Override
+        public boolean generatedOnExecution(Object entidade, SharedSessionContractImplementor session) {
+            return idAtribuido(entidade, session) == null;
+        }
+
+        /**
+         * Chamado apenas quando o ID já veio preenchido: mantém o valor atribuído.
+         */
+        @Override
+        public Object generate(SharedSessionContractImplementor session, Object entidade, Object valorAtual, EventType tipo) {
+            return idAtribuido(entidade, session);
+        }
+
+        private static Object idAtribuido(Object entidade, SharedSessionContractImplementor session) {
+            return entidade == null ? null : session.getEntityPersister(null, entidade).getIdentifier(entidade, session);
+        }
+    }
+}
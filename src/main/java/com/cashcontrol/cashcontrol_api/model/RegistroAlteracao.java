@@ -0,0 +1,69 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Linha do registro de alterações usado para invalidar os caches locais das demais instâncias.
+ *
+ * <p>
+ * Cada escrita confirmada acrescenta uma linha por usuário afetado, na mesma transação; cada
+ * instância lê as linhas novas pelo {@code id} crescente (ver {@code InvalidacaoCachesJob}).
+ * Com sharding, cada shard tem o seu registro.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "registro_alteracao")
+public class RegistroAlteracao {
+
+    /**
+     * Dados do usuário (saldo, XP, token...), inclusive exclusão.
+     */
+    public static final String USUARIO = "usuario";
+
+    /**
+     * Transações do usuário (novas ou excluídas).
+     */
+    public static final String TRANSACOES = "transacoes";
+
+    /**
+     * Badges do usuário.
+     */
+    public static final String BADGES = "badges";
+
+    /**
+     * Posição no registro: as instâncias leem a partir do maior ID já processado.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * O que mudou: {@link #USUARIO}, {@link #TRANSACOES} ou {@link #BADGES}.
+     */
+    @Column(nullable = false, length = 20)
+    private String entidade;
+
+    /**
+     * ID do usuário afetado.
+     */
+    @Column(nullable = false)
+    private Long entidadeId;
+
+    /**
+     * Instante da gravação (epoch ms) na instância de origem: cresce a cada alteração da mesma
+     * entidade e mede o atraso da invalidação.
+     */
+    @Column(nullable = false)
+    private Long versao;
+
+    /**
+     * Instância que fez a alteração (ela mesma já invalidou os próprios caches).
+     */
+    @Column(nullable = false, length = 64)
+    private String no;
+}
@@ -14,6 +14,8 @@ package com.cashcontrol.cashcontrol_api.model;
  * Transacao t = new Transacao();
  * t.setTipo(TipoTransacao.APOSTA);
  * </pre>
+ *
+ * <p>A ordem das constantes faz parte do contrato CBOR (tipo enviado pelo ordinal): não reordene.</p>
  */
 public enum TipoTransacao {
     APOSTA,
@@ -13,14 +13,40 @@ import java.time.LocalDateTime;
  * </p>
  *
  * Exemplos de uso: registro do histórico financeiro, controle de limites, estatísticas de apostas/investimentos.
+ *
+ * <p>
+ * Os índices compostos atendem as consultas por usuário e período, com ou sem filtro de tipo
+ * (listagem e busca de transações).
+ * </p>
  */
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = {
+        @Index(name = "idx_transacao_usuario_data", columnList = "user_id, data"),
+        @Index(name = "idx_transacao_usuario_tipo_data", columnList = "user_id, tipo, data")
+})
 public class Transacao {
 
+    /**
+     * Transação efetivada (única que altera saldo e entra nos totais do dashboard).
+     */
+    public static final String STATUS_REALIZADA = "REALIZADA";
+
+    /**
+     * Aposta recusada por representar mais de 20% do saldo (gera cooldown). Devolvido por
+     * {@code TransacaoService.criar}, não é gravado na tabela (ver {@link ApostaBloqueada}).
+     */
+    public static final String STATUS_BLOQUEADA_LIMITE = "BLOQUEADA_LIMITE";
+
+    /**
+     * Aposta recusada porque o usuário estava em cooldown. Devolvido por
+     * {@code TransacaoService.criar}, não é gravado na tabela.
+     */
+    public static final String STATUS_BLOQUEADA_COOLDOWN = "BLOQUEADA_COOLDOWN";
+
     /**
      * Identificador único da transação.
      */
@@ -36,9 +62,11 @@ public class Transacao {
     private User user;
 
     /**
-     * Valor financeiro da transação.
+     * Valor financeiro da transação, em centavos (ver {@link Centavos}).
      */
-    private Double valor;
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private long valor;
 
     /**
      * Tipo da transação (aposta, investimento, retorno).
@@ -52,7 +80,8 @@ public class Transacao {
     private LocalDateTime data;
 
     /**
-     * Status atual da transação (exemplo: "PENDENTE", "REALIZADA", "CANCELADA").
+     * Status atual da transação: {@link #STATUS_REALIZADA} ou, para apostas recusadas pela
+     * intervenção, {@link #STATUS_BLOQUEADA_LIMITE} / {@link #STATUS_BLOQUEADA_COOLDOWN}.
      */
     private String status;
 }
@@ -0,0 +1,71 @@
+package com.cashcontrol.cashcontrol_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Transação antiga movida da tabela {@code transacao} para o arquivo ({@code transacao_arquivo}).
+ *
+ * <p>
+ * Mantém o mesmo id e os mesmos campos da {@link Transacao} original. O usuário é guardado só
+ * pelo id (sem associação JPA): o arquivo é lido apenas quando a consulta alcança o período
+ * arquivado. Ver {@code ArquivamentoTransacoesService}.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "transacao_arquivo",
+        indexes = {
+                @Index(name = "idx_transacao_arquivo_usuario_data", columnList = "user_id, data"),
+                @Index(name = "idx_transacao_arquivo_usuario_tipo_data", columnList = "user_id, tipo, data")
+        })
+public class TransacaoArquivada {
+
+    /**
+     * Id da transação original.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * Id do usuário dono da transação.
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Valor financeiro da transação, em centavos (ver {@link Centavos}).
+     */
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private long valor;
+
+    /**
+     * Tipo da transação (aposta, investimento, retorno).
+     */
+    @Enumerated(EnumType.STRING)
+    private TipoTransacao tipo;
+
+    /**
+     * Data e hora em que a transação foi realizada.
+     */
+    private LocalDateTime data;
+
+    /**
+     * Status da transação no momento do arquivamento.
+     */
+    private String status;
+
+    /**
+     * Monta uma {@link Transacao} (não gerenciada) com os dados arquivados, para as listagens.
+     *
+     * @param user usuário dono da transação
+     */
+    public Transacao paraTransacao(User user) {
+        return new Transacao(id, user, valor, tipo, data, status);
+    }
+}
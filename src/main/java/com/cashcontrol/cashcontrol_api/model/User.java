@@ -2,7 +2,10 @@ package com.cashcontrol.cashcontrol_api.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
@@ -11,9 +14,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Table(name = "usuario")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // Lido em quase toda requisição (ver ehcache.xml)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdentidadeOuAtribuido
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -28,27 +33,38 @@ public class User {
     @Column(nullable = false)
     private String senha;
 
-    @Column
-    private Double rendaMensal;
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private long rendaMensal; // Centavos
 
     @Column
     private String perfilRisco; // Ex: "baixo", "moderado", "alto"
 
-    @Column
-    private Double limiteMensalAposta;
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private long limiteMensalAposta; // Centavos
 
-    @Column
-    private Double saldo;
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private long saldo; // Centavos
 
     @Column
     private Integer xp;
 
     @Column
-    private Integer diasSemApostar;
+    private Integer diasSemApostar; // Dias corridos desde a última aposta (job noturno)
+
+    @Column
+    private LocalDate dataCadastro;
 
     @Column
     private String token;
 
+    // Cache READ_WRITE: uma cópia desatualizada (outra instância, job em JDBC) falha no UPDATE em vez de sobrescrever
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Transacao> transacoes;
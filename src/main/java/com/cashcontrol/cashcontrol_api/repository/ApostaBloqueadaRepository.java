@@ -0,0 +1,21 @@
+package com.cashcontrol.cashcontrol_api.repository;
+
+import com.cashcontrol.cashcontrol_api.model.ApostaBloqueada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Repositório JPA para as apostas recusadas pela intervenção.
+ */
+public interface ApostaBloqueadaRepository extends JpaRepository<ApostaBloqueada, Long> {
+
+    /**
+     * Remove os bloqueios de um usuário (exclusão do usuário).
+     *
+     * @param userId id do usuário
+     */
+    @Modifying
+    @Query("delete from ApostaBloqueada a where a.userId = :userId")
+    void deleteByUserId(Long userId);
+}
@@ -0,0 +1,10 @@
+package com.cashcontrol.cashcontrol_api.repository;
+
+import com.cashcontrol.cashcontrol_api.model.BadgeDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositório JPA para o catálogo de badges.
+ */
+public interface BadgeDefinitionRepository extends JpaRepository<BadgeDefinition, Integer> {
+}
@@ -2,7 +2,10 @@ package com.cashcontrol.cashcontrol_api.repository;
 
 import com.cashcontrol.cashcontrol_api.model.Badge;
 import com.cashcontrol.cashcontrol_api.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
@@ -13,11 +16,24 @@ import java.util.List;
  */
 public interface BadgeRepository extends JpaRepository<Badge, Long> {
 
+    /**
+     * Região do cache de consultas com os ids das badges de cada usuário.
+     */
+    String REGIAO_POR_USUARIO = "badges-por-usuario";
+
     /**
      * Busca todas as badges associadas a um usuário específico.
+     * <p>
+     * Resultado em cache de segundo nível: o Hibernate invalida a região quando grava na tabela
+     * {@code badge}; gravações por JDBC precisam invalidá-la explicitamente.
+     * </p>
      *
      * @param user usuário dono das badges
      * @return lista de badges do usuário
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_POR_USUARIO)
+    })
     List<Badge> findByUser(User user);
 }
@@ -0,0 +1,10 @@
+package com.cashcontrol.cashcontrol_api.repository;
+
+import com.cashcontrol.cashcontrol_api.model.CheckpointJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositório JPA para os checkpoints dos jobs em lote.
+ */
+public interface CheckpointJobRepository extends JpaRepository<CheckpointJob, String> {
+}
@@ -0,0 +1,48 @@
+package com.cashcontrol.cashcontrol_api.repository;
+
+import com.cashcontrol.cashcontrol_api.dto.TransacaoFiltroDto;
+import com.cashcontrol.cashcontrol_api.model.TransacaoArquivada;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositório JPA para as transações arquivadas.
+ */
+public interface TransacaoArquivadaRepository extends JpaRepository<TransacaoArquivada, Long>,
+        JpaSpecificationExecutor<TransacaoArquivada> {
+
+    /**
+     * Busca as transações arquivadas de um usuário no intervalo {@code [desde, ate)}.
+     *
+     * @param userId id do usuário dono das transações
+     * @return transações em ordem de data
+     */
+    List<TransacaoArquivada> findByUserIdAndDataGreaterThanEqualAndDataLessThanOrderByDataAscIdAsc(
+            Long userId, LocalDateTime desde, LocalDateTime ate);
+
+    /**
+     * Consulta da busca de transações no arquivo (mesmos filtros de {@link TransacaoRepository#busca}).
+     *
+     * @param userId id do usuário dono das transações
+     * @param filtro filtros opcionais
+     */
+    static Specification<TransacaoArquivada> busca(Long userId, TransacaoFiltroDto filtro) {
+        Specification<TransacaoArquivada> doUsuario = (root, query, cb) -> cb.equal(root.get("userId"), userId);
+        return doUsuario.and(TransacaoRepository.filtros(filtro));
+    }
+
+    /**
+     * Remove todas as transações arquivadas de um usuário (exclusão da conta).
+     *
+     * @param userId id do usuário
+     */
+    @Modifying
+    @Query("delete from TransacaoArquivada t where t.userId = :userId")
+    void deleteByUserId(Long userId);
+}
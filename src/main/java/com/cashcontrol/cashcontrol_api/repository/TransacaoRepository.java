@@ -1,9 +1,14 @@
 package com.cashcontrol.cashcontrol_api.repository;
 
+import com.cashcontrol.cashcontrol_api.dto.TransacaoFiltroDto;
+import com.cashcontrol.cashcontrol_api.model.Centavos;
 import com.cashcontrol.cashcontrol_api.model.Transacao;
 import com.cashcontrol.cashcontrol_api.model.User;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -11,7 +16,7 @@ import java.util.List;
  *
  * Fornece operações CRUD básicas e consultas customizadas relacionadas às transações.
  */
-public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
+public interface TransacaoRepository extends JpaRepository<Transacao, Long>, JpaSpecificationExecutor<Transacao> {
 
     /**
      * Busca todas as transações associadas a um usuário específico.
@@ -20,4 +25,56 @@ public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
      * @return lista de transações do usuário
      */
     List<Transacao> findByUser(User user);
+
+    /**
+     * Busca as transações de um usuário no intervalo {@code [desde, ate)}.
+     *
+     * @param user o usuário dono das transações
+     * @return lista de transações do usuário no intervalo
+     */
+    List<Transacao> findByUserAndDataGreaterThanEqualAndDataLessThan(User user, LocalDateTime desde, LocalDateTime ate);
+
+    /**
+     * Consulta da busca de transações: o usuário e apenas os filtros informados, de modo que a
+     * consulta gerada sempre começa por {@code user_id} (e {@code tipo}, se informado) e usa os
+     * índices declarados em {@link Transacao}.
+     *
+     * @param user   usuário dono das transações
+     * @param filtro filtros opcionais
+     */
+    static Specification<Transacao> busca(User user, TransacaoFiltroDto filtro) {
+        Specification<Transacao> doUsuario = (root, query, cb) -> cb.equal(root.get("user"), user);
+        return doUsuario.and(filtros(filtro));
+    }
+
+    /**
+     * Filtros opcionais comuns às transações recentes e às arquivadas (mesmos atributos).
+     */
+    static <T> Specification<T> filtros(TransacaoFiltroDto filtro) {
+        return (root, query, cb) -> {
+            var predicados = cb.conjunction();
+            if (filtro.getTipo() != null) {
+                predicados = cb.and(predicados, cb.equal(root.get("tipo"), filtro.getTipo()));
+            }
+            if (filtro.getStatus() != null) {
+                predicados = cb.and(predicados, cb.equal(root.get("status"), filtro.getStatus()));
+            }
+            if (filtro.getDesde() != null) {
+                predicados = cb.and(predicados, cb.greaterThanOrEqualTo(root.<LocalDateTime>get("data"), filtro.getDesde()));
+            }
+            if (filtro.getAte() != null) {
+                predicados = cb.and(predicados, cb.lessThan(root.<LocalDateTime>get("data"), filtro.getAte()));
+            }
+            // O conversor da entidade aplica-se aos parâmetros: compara em centavos, grava em reais
+            if (filtro.getValorMinimo() != null) {
+                predicados = cb.and(predicados,
+                        cb.greaterThanOrEqualTo(root.<Long>get("valor"), Centavos.deReais(filtro.getValorMinimo())));
+            }
+            if (filtro.getValorMaximo() != null) {
+                predicados = cb.and(predicados,
+                        cb.lessThanOrEqualTo(root.<Long>get("valor"), Centavos.deReais(filtro.getValorMaximo())));
+            }
+            return predicados;
+        };
+    }
 }
@@ -1,7 +1,9 @@
 package com.cashcontrol.cashcontrol_api.repository;
 
 import com.cashcontrol.cashcontrol_api.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 
 import java.util.Optional;
 
@@ -20,6 +22,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Busca um usuário no banco, sem passar pelo cache de segundo nível, com lock de escrita até
+     * o fim da transação. Usado nas escritas de saldo e cooldown, que não podem partir de uma
+     * cópia desatualizada nem intercalar com outra escrita do mesmo usuário.
+     *
+     * @param id id do usuário
+     * @return Optional contendo o usuário, se encontrado
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<User> findLockedById(Long id);
+
     /**
      * Busca um usuário pelo token de autenticação.
      *
@@ -0,0 +1,103 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.model.ApostaBloqueada;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.ApostaBloqueadaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro das apostas recusadas pela intervenção, fora do histórico de transações.
+ *
+ * <p>
+ * A aposta acima do limite grava um {@link ApostaBloqueada} na mesma transação que aplica o
+ * cooldown. As tentativas seguintes durante o cooldown não escrevem nada na requisição: são
+ * contadas em memória e somadas periodicamente ao bloqueio mais recente de cada usuário, com um
+ * UPDATE por usuário por intervalo. Uma instância que cair perde no máximo a contagem do último
+ * intervalo (usada apenas nas estatísticas).
+ * </p>
+ */
+@Service
+public class ApostasBloqueadasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApostasBloqueadasService.class);
+
+    private static final String SQL_SOMAR_TENTATIVAS =
+            "update aposta_bloqueada set tentativas_cooldown = tentativas_cooldown + ? " +
+                    "where id = (select max(id) from aposta_bloqueada where user_id = ?)";
+
+    private final ApostaBloqueadaRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final Counter bloqueadasLimite;
+    private final Counter bloqueadasCooldown;
+    private final Map<Long, LongAdder> tentativasCooldown = new ConcurrentHashMap<>();
+
+    public ApostasBloqueadasService(ApostaBloqueadaRepository repository, JdbcTemplate jdbcTemplate,
+                                    Shards shards, MeterRegistry registry) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.bloqueadasLimite = registry.counter("cashcontrol.apostas.bloqueadas", "motivo", "limite");
+        this.bloqueadasCooldown = registry.counter("cashcontrol.apostas.bloqueadas", "motivo", "cooldown");
+    }
+
+    /**
+     * Registra a aposta acima do limite, na transação que aplica o cooldown ao usuário.
+     *
+     * @param user  usuário que tentou apostar
+     * @param valor valor da aposta recusada, em centavos
+     */
+    @Transactional
+    public void registrarLimite(User user, long valor) {
+        repository.save(ApostaBloqueada.builder()
+                .userId(user.getId())
+                .valor(valor)
+                .data(LocalDateTime.now())
+                .build());
+        bloqueadasLimite.increment();
+    }
+
+    /**
+     * Conta uma aposta recusada durante o cooldown, sem acesso ao banco.
+     *
+     * @param userId usuário em cooldown
+     */
+    public void contarCooldown(long userId) {
+        tentativasCooldown.computeIfAbsent(userId, id -> new LongAdder()).increment();
+        bloqueadasCooldown.increment();
+    }
+
+    /**
+     * Soma as tentativas contadas desde a última execução aos bloqueios de cada usuário.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.apostas-bloqueadas.intervalo-ms:60000}")
+    @PreDestroy
+    public void gravarTentativas() {
+        for (Long userId : tentativasCooldown.keySet()) {
+            LongAdder contador = tentativasCooldown.remove(userId);
+            long tentativas = contador != null ? contador.sumThenReset() : 0;
+            if (tentativas == 0) {
+                continue;
+            }
+            try {
+                shards.doUsuario(userId, () -> jdbcTemplate.update(SQL_SOMAR_TENTATIVAS, tentativas, userId));
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar {} tentativa(s) em cooldown do usuário {}", tentativas, userId, e);
+            }
+        }
+    }
+}
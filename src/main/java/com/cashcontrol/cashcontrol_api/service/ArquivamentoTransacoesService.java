@@ -0,0 +1,145 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Arquivamento de transações antigas: move para {@code transacao_arquivo} as transações com
+ * data anterior ao horizonte configurado ({@code cashcontrol.arquivamento.horizonte-dias}).
+ *
+ * <p>
+ * A tabela {@code transacao} fica só com o período recente, que é o que as listagens e o
+ * fluxo de apostas consultam. O movimento é feito em segundo plano, em lotes por faixa de id:
+ * cada lote copia e apaga as mesmas linhas na mesma transação, então uma transação está sempre
+ * em exatamente uma das tabelas. As agregações por usuário (histórico do dashboard, dias sem
+ * apostar, estatísticas) leem as duas tabelas; as listagens só leem o arquivo quando o período
+ * pedido começa antes do horizonte ({@link #exigeArquivo}).
+ * </p>
+ *
+ * <p>
+ * O horizonte é a única informação compartilhada entre as instâncias: nenhuma transação com data
+ * posterior a {@code agora - horizonte} é arquivada, então qualquer instância decide sozinha, sem
+ * consultar o banco, se uma listagem precisa do arquivo. Por isso {@code horizonte-dias} deve ser
+ * o mesmo em todas as instâncias. Com sharding, cada shard é arquivado por vez.
+ * </p>
+ */
+@Service
+public class ArquivamentoTransacoesService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoTransacoesService.class);
+
+    private static final String SQL_FIM_LOTE =
+            "select max(id) from (select id from transacao where id > ? and data < ? order by id limit ?)";
+
+    private static final String SQL_COPIAR =
+            "insert into transacao_arquivo (id, user_id, valor, tipo, data, status) " +
+                    "select id, user_id, valor, tipo, data, status from transacao where id > ? and id <= ? and data < ?";
+
+    private static final String SQL_APAGAR =
+            "delete from transacao where id > ? and id <= ? and data < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cashcontrol.arquivamento.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${cashcontrol.arquivamento.horizonte-dias:365}")
+    private int horizonteDias;
+
+    @Value("${cashcontrol.arquivamento.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    private TransactionTemplate transacaoLote;
+
+    @PostConstruct
+    void iniciar() {
+        transacaoLote = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Execução periódica; a primeira só acontece um intervalo após a inicialização.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.arquivamento.intervalo-ms:3600000}",
+            initialDelayString = "${cashcontrol.arquivamento.intervalo-ms:3600000}")
+    public void arquivarAgendado() {
+        if (habilitado) {
+            arquivar(LocalDateTime.now().minusDays(horizonteDias));
+        }
+    }
+
+    /**
+     * Move para o arquivo todas as transações com data anterior ao limite. Um limite posterior ao
+     * horizonte é reduzido ao horizonte, para as listagens recentes continuarem sem ler o arquivo.
+     *
+     * @param limite transações com data anterior a este instante são arquivadas
+     * @return quantidade de transações arquivadas
+     */
+    public synchronized long arquivar(LocalDateTime limite) {
+        LocalDateTime horizonte = horizonte();
+        LocalDateTime corte = limite.isAfter(horizonte) ? horizonte : limite;
+        return shards.deCadaShard(shard -> arquivarNoShard(corte)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    private long arquivarNoShard(LocalDateTime limite) {
+        long inicio = System.nanoTime();
+        Timestamp corte = Timestamp.valueOf(limite);
+        long arquivadas = 0;
+        long ultimoId = 0;
+        while (true) {
+            Long fim = jdbcTemplate.queryForObject(SQL_FIM_LOTE, Long.class, ultimoId, corte, tamanhoLote);
+            if (fim == null) {
+                break;
+            }
+            long de = ultimoId;
+            Integer movidas = transacaoLote.execute(status -> {
+                int copiadas = jdbcTemplate.update(SQL_COPIAR, de, fim, corte);
+                int apagadas = jdbcTemplate.update(SQL_APAGAR, de, fim, corte);
+                if (copiadas != apagadas) {
+                    throw new IllegalStateException("Lote de arquivamento inconsistente (" + de + ", " + fim
+                            + "]: " + copiadas + " copiadas, " + apagadas + " apagadas");
+                }
+                return copiadas;
+            });
+            arquivadas += movidas != null ? movidas : 0;
+            ultimoId = fim;
+        }
+        if (arquivadas > 0) {
+            log.info("{} transações anteriores a {} arquivadas em {} ms",
+                    arquivadas, limite, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return arquivadas;
+    }
+
+    /**
+     * Indica se uma consulta a partir de {@code desde} pode alcançar transações arquivadas, por
+     * qualquer instância (ver o horizonte na descrição da classe).
+     *
+     * @param desde início do período consultado, ou null para todo o histórico
+     */
+    public boolean exigeArquivo(LocalDateTime desde) {
+        return desde == null || desde.isBefore(horizonte());
+    }
+
+    private LocalDateTime horizonte() {
+        return LocalDateTime.now().minusDays(horizonteDias);
+    }
+}
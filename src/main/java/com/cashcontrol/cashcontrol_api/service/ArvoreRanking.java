@@ -0,0 +1,244 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Árvore de estatística de ordem (treap com tamanho das subárvores) para o ranking de XP.
+ *
+ * <p>
+ * Os usuários ficam ordenados por XP decrescente e, em caso de empate, por id crescente, de modo
+ * que cada usuário ocupa uma posição única. Inserção, remoção e cálculo da posição de um usuário
+ * custam O(log n); listar {@code k} posições a partir de qualquer ponto custa O(log n + k).
+ * Um mapa auxiliar guarda o nó de cada usuário para localizar sua chave atual.
+ * </p>
+ *
+ * <p>Não é thread-safe: o acesso concorrente é controlado por {@link RankingService}.</p>
+ */
+class ArvoreRanking {
+
+    private final Map<Long, No> porUsuario = new HashMap<>();
+    private final SplittableRandom aleatorio = new SplittableRandom();
+    private No raiz;
+
+    /**
+     * Posição (1 = maior XP) de um usuário no ranking.
+     */
+    record Entrada(int posicao, long userId, String nome, int xp) {
+    }
+
+    int tamanho() {
+        return porUsuario.size();
+    }
+
+    boolean contem(long userId) {
+        return porUsuario.containsKey(userId);
+    }
+
+    /**
+     * Insere o usuário ou atualiza seu XP (e nome).
+     */
+    void atualizar(long userId, String nome, int xp) {
+        No atual = porUsuario.get(userId);
+        if (atual != null) {
+            if (atual.xp == xp) {
+                atual.nome = nome;
+                return;
+            }
+            raiz = remover(raiz, atual.xp, userId);
+        }
+        No novo = new No(userId, nome, xp, aleatorio.nextInt());
+        raiz = inserir(raiz, novo);
+        porUsuario.put(userId, novo);
+    }
+
+    /**
+     * Insere o usuário apenas se ele ainda não estiver no ranking (usado na reconstrução,
+     * para não sobrescrever atualizações mais recentes).
+     */
+    void adicionarSeAusente(long userId, String nome, int xp) {
+        if (!porUsuario.containsKey(userId)) {
+            atualizar(userId, nome, xp);
+        }
+    }
+
+    void remover(long userId) {
+        No atual = porUsuario.remove(userId);
+        if (atual != null) {
+            raiz = remover(raiz, atual.xp, userId);
+        }
+    }
+
+    /**
+     * @return posição do usuário (a partir de 1) ou 0 se ele não estiver no ranking
+     */
+    int posicao(long userId) {
+        No alvo = porUsuario.get(userId);
+        if (alvo == null) {
+            return 0;
+        }
+        int antes = 0;
+        No no = raiz;
+        while (no != null) {
+            int c = comparar(alvo.xp, userId, no);
+            if (c < 0) {
+                no = no.esq;
+            } else if (c > 0) {
+                antes += tamanho(no.esq) + 1;
+                no = no.dir;
+            } else {
+                return antes + tamanho(no.esq) + 1;
+            }
+        }
+        throw new IllegalStateException("Usuário " + userId + " indexado mas ausente da árvore");
+    }
+
+    /**
+     * Percorre as posições {@code [inicio, inicio + quantidade)} (a partir de 1) em ordem.
+     */
+    void listar(int inicio, int quantidade, Consumer<Entrada> consumidor) {
+        if (inicio < 1 || quantidade <= 0 || inicio > tamanho()) {
+            return;
+        }
+        // Desce até a posição inicial guardando os ancestrais cujo sucessor ainda será visitado
+        Deque<No> pilha = new ArrayDeque<>();
+        int k = inicio - 1;
+        No no = raiz;
+        while (no != null) {
+            int esquerda = tamanho(no.esq);
+            if (k < esquerda) {
+                pilha.push(no);
+                no = no.esq;
+            } else if (k == esquerda) {
+                pilha.push(no);
+                break;
+            } else {
+                k -= esquerda + 1;
+                no = no.dir;
+            }
+        }
+
+        int posicao = inicio;
+        while (!pilha.isEmpty() && posicao < inicio + quantidade) {
+            No atual = pilha.pop();
+            consumidor.accept(new Entrada(posicao++, atual.userId, atual.nome, atual.xp));
+            for (No n = atual.dir; n != null; n = n.esq) {
+                pilha.push(n);
+            }
+        }
+    }
+
+    private static No inserir(No no, No novo) {
+        if (no == null) {
+            return novo;
+        }
+        if (novo.prioridade > no.prioridade) {
+            No[] partes = dividir(no, novo.xp, novo.userId);
+            novo.esq = partes[0];
+            novo.dir = partes[1];
+            recalcular(novo);
+            return novo;
+        }
+        if (comparar(novo.xp, novo.userId, no) < 0) {
+            no.esq = inserir(no.esq, novo);
+        } else {
+            no.dir = inserir(no.dir, novo);
+        }
+        recalcular(no);
+        return no;
+    }
+
+    private static No remover(No no, int xp, long userId) {
+        if (no == null) {
+            return null;
+        }
+        int c = comparar(xp, userId, no);
+        if (c == 0) {
+            return unir(no.esq, no.dir);
+        }
+        if (c < 0) {
+            no.esq = remover(no.esq, xp, userId);
+        } else {
+            no.dir = remover(no.dir, xp, userId);
+        }
+        recalcular(no);
+        return no;
+    }
+
+    /**
+     * Divide a subárvore em {nós antes da chave, nós depois da chave}.
+     */
+    private static No[] dividir(No no, int xp, long userId) {
+        if (no == null) {
+            return new No[2];
+        }
+        if (comparar(xp, userId, no) > 0) {
+            No[] partes = dividir(no.dir, xp, userId);
+            no.dir = partes[0];
+            recalcular(no);
+            partes[0] = no;
+            return partes;
+        }
+        No[] partes = dividir(no.esq, xp, userId);
+        no.esq = partes[1];
+        recalcular(no);
+        partes[1] = no;
+        return partes;
+    }
+
+    private static No unir(No esq, No dir) {
+        if (esq == null) {
+            return dir;
+        }
+        if (dir == null) {
+            return esq;
+        }
+        if (esq.prioridade > dir.prioridade) {
+            esq.dir = unir(esq.dir, dir);
+            recalcular(esq);
+            return esq;
+        }
+        dir.esq = unir(esq, dir.esq);
+        recalcular(dir);
+        return dir;
+    }
+
+    /**
+     * Ordem do ranking: XP decrescente, depois id crescente.
+     */
+    private static int comparar(int xp, long userId, No no) {
+        if (xp != no.xp) {
+            return xp > no.xp ? -1 : 1;
+        }
+        return Long.compare(userId, no.userId);
+    }
+
+    private static int tamanho(No no) {
+        return no == null ? 0 : no.tamanho;
+    }
+
+    private static void recalcular(No no) {
+        no.tamanho = 1 + tamanho(no.esq) + tamanho(no.dir);
+    }
+
+    private static final class No {
+        final long userId;
+        final int xp;
+        final int prioridade;
+        String nome;
+        int tamanho = 1;
+        No esq;
+        No dir;
+
+        No(long userId, String nome, int xp, int prioridade) {
+            this.userId = userId;
+            this.nome = nome;
+            this.xp = xp;
+            this.prioridade = prioridade;
+        }
+    }
+}
@@ -1,32 +1,114 @@
 package com.cashcontrol.cashcontrol_api.service;
 
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.BadgeDto;
 import com.cashcontrol.cashcontrol_api.model.Badge;
+import com.cashcontrol.cashcontrol_api.model.BadgeDefinition;
 import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.BadgeDefinitionRepository;
 import com.cashcontrol.cashcontrol_api.repository.BadgeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Serviço para gerenciar operações relacionadas às badges (conquistas).
  *
- * Responsável pela lógica de negócio e interação com o repositório de badges.
+ * Responsável pela lógica de negócio e interação com o repositório de badges. Mantém em memória
+ * o catálogo ({@link BadgeDefinition}), usado para preencher nome e descrição das badges sem
+ * consultar a tabela de definições.
  */
 @Service
 public class BadgeService {
 
+    /**
+     * Definições padrão, gravadas no catálogo na inicialização se ainda não existirem.
+     */
+    static final List<BadgeDefinition> CATALOGO_PADRAO = List.of(
+            new BadgeDefinition(1, "7 dias sem apostar", "Parabéns! Você ficou uma semana sem apostas.", 7),
+            new BadgeDefinition(2, "30 dias sem apostar", "Incrível! Um mês sem apostas!", 30)
+    );
+
     @Autowired
     private BadgeRepository badgeRepository;
 
+    @Autowired
+    private BadgeDefinitionRepository badgeDefinitionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private volatile Map<Integer, BadgeDefinition> catalogo = Map.of();
+    private volatile List<BadgeDefinition> porDiasSemApostar = List.of();
+
     /**
-     * Lista todas as badges cadastradas.
+     * Grava as definições padrão que faltam e carrega o catálogo em memória (no banco primário).
+     * Com sharding, o catálogo é gravado em todos os shards (as badges o referenciam) e lido do 0.
+     */
+    @PostConstruct
+    void carregarCatalogo() {
+        List<BadgeDefinition> definicoes = shards.deCadaShard(shard -> new TransactionTemplate(transactionManager).execute(status -> {
+            // O cache de segundo nível é um só para todos os shards: sem isto, o save do shard
+            // seguinte acharia a definição no cache e não a gravaria
+            entityManagerFactory.getCache().evict(BadgeDefinition.class);
+            for (BadgeDefinition padrao : CATALOGO_PADRAO) {
+                if (!badgeDefinitionRepository.existsById(padrao.getId())) {
+                    badgeDefinitionRepository.save(padrao);
+                }
+            }
+            return badgeDefinitionRepository.findAll();
+        })).get(0);
+
+        Map<Integer, BadgeDefinition> porId = new HashMap<>();
+        definicoes.forEach(d -> porId.put(d.getId(), d));
+        catalogo = Map.copyOf(porId);
+        porDiasSemApostar = definicoes.stream()
+                .filter(d -> d.getDiasSemApostar() != null)
+                .sorted(Comparator.comparing(BadgeDefinition::getDiasSemApostar))
+                .toList();
+    }
+
+    /**
+     * Busca uma definição no catálogo em memória.
+     *
+     * @param id identificador da definição
+     * @return definição, ou null se não existir
+     */
+    public BadgeDefinition definicao(int id) {
+        return catalogo.get(id);
+    }
+
+    /**
+     * Definições concedidas por dias sem apostar, em ordem crescente de dias.
+     */
+    public List<BadgeDefinition> definicoesPorDiasSemApostar() {
+        return porDiasSemApostar;
+    }
+
+    /**
+     * Lista todas as badges cadastradas (em todos os shards).
      *
      * @return lista de todas as badges
      */
+    @Transactional(readOnly = true)
     public List<Badge> listarTodos() {
-        return badgeRepository.findAll();
+        return shards.juntar(badgeRepository::findAll);
     }
 
     /**
@@ -35,18 +117,20 @@ public class BadgeService {
      * @param user usuário dono das badges
      * @return lista de badges do usuário
      */
+    @Transactional(readOnly = true)
     public List<Badge> listarPorUsuario(User user) {
         return badgeRepository.findByUser(user);
     }
 
     /**
-     * Busca uma badge pelo seu ID.
+     * Busca uma badge pelo seu ID (em todos os shards, já que o ID não indica o usuário).
      *
      * @param id identificador da badge
      * @return Optional com a badge, se encontrada
      */
+    @Transactional(readOnly = true)
     public Optional<Badge> buscarPorId(Long id) {
-        return badgeRepository.findById(id);
+        return shards.procurar(() -> badgeRepository.findById(id));
     }
 
     /**
@@ -55,6 +139,7 @@ public class BadgeService {
      * @param badge objeto badge a ser salvo
      * @return badge salva no banco
      */
+    @Transactional
     public Badge salvar(Badge badge) {
         return badgeRepository.save(badge);
     }
@@ -64,7 +149,29 @@ public class BadgeService {
      *
      * @param id identificador da badge a ser deletada
      */
+    @Transactional
     public void deletar(Long id) {
         badgeRepository.deleteById(id);
     }
+
+    /**
+     * Converte a badge para DTO com nome e descrição do catálogo em memória
+     * (sem inicializar as associações preguiçosas).
+     *
+     * @param badge  badge conquistada
+     * @param userId ID do usuário dono da badge
+     * @return BadgeDto preenchido
+     */
+    public BadgeDto toDto(Badge badge, long userId) {
+        BadgeDefinition definicao = catalogo.get(badge.getDefinicao().getId());
+        BadgeDto dto = new BadgeDto();
+        dto.setId(badge.getId());
+        if (definicao != null) {
+            dto.setNome(definicao.getNome());
+            dto.setDescricao(definicao.getDescricao());
+        }
+        dto.setDataConquista(badge.getDataConquista());
+        dto.setUserId(userId);
+        return dto;
+    }
 }
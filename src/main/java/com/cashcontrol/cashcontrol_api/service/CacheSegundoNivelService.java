@@ -0,0 +1,64 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.dto.CacheEstatisticasDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Consulta as estatísticas do cache de segundo nível do Hibernate (regiões em {@code ehcache.xml}).
+ */
+@Service
+public class CacheSegundoNivelService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Monta os contadores de acertos e faltas das regiões de entidades e de consultas.
+     * A região de timestamps, usada só para invalidar consultas, não é listada.
+     *
+     * @return estatísticas acumuladas desde a inicialização
+     */
+    public CacheEstatisticasDto estatisticas() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        CacheImplementor cache = sessionFactory.getCache();
+        Statistics statistics = sessionFactory.getStatistics();
+
+        CacheEstatisticasDto dto = new CacheEstatisticasDto();
+        cache.getCacheRegionNames().stream().sorted().forEach(nome -> {
+            Region region = cache.getRegion(nome);
+            if (region instanceof DomainDataRegion) {
+                adicionar(dto, statistics.getDomainDataRegionStatistics(nome), false);
+            } else if (region instanceof QueryResultsRegion) {
+                adicionar(dto, statistics.getQueryRegionStatistics(nome), true);
+            }
+        });
+        dto.setTaxaAcerto(taxa(dto.getAcertos(), dto.getFaltas()));
+        return dto;
+    }
+
+    private static void adicionar(CacheEstatisticasDto dto, CacheRegionStatistics regiao, boolean consulta) {
+        if (regiao == null) {
+            return;
+        }
+        dto.getRegioes().add(new CacheEstatisticasDto.Regiao(
+                regiao.getRegionName(), consulta, regiao.getHitCount(), regiao.getMissCount(),
+                regiao.getPutCount(), regiao.getElementCountInMemory(),
+                taxa(regiao.getHitCount(), regiao.getMissCount())));
+        dto.setAcertos(dto.getAcertos() + regiao.getHitCount());
+        dto.setFaltas(dto.getFaltas() + regiao.getMissCount());
+    }
+
+    private static double taxa(long acertos, long faltas) {
+        long leituras = acertos + faltas;
+        return leituras == 0 ? 0 : (double) acertos / leituras;
+    }
+}
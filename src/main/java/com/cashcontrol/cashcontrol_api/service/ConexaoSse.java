@@ -0,0 +1,160 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Uma conexão SSE aberta, escrita com I/O não bloqueante do Servlet ({@link WriteListener}).
+ *
+ * <p>
+ * Os eventos ficam em um buffer limitado e são escritos apenas enquanto
+ * {@link ServletOutputStream#isReady()} permite; quando o socket não aceita mais dados, o
+ * container chama {@link #onWritePossible()} mais tarde. Assim, quem enfileira (o dispatcher)
+ * nunca bloqueia por causa de um cliente lento. Se o buffer enche, o conteúdo pendente é
+ * descartado e substituído por um único evento {@code resync}: o cliente deve recarregar o
+ * dashboard completo.
+ * </p>
+ */
+class ConexaoSse implements WriteListener, AsyncListener {
+
+    static final byte[] RESYNC = "event: resync\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8);
+    static final byte[] HEARTBEAT = ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final long userId;
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+    private final int capacidade;
+    private final Consumer<ConexaoSse> aoFechar;
+
+    private final ArrayDeque<byte[]> pendentes = new ArrayDeque<>();
+    private final AtomicBoolean fechada = new AtomicBoolean();
+    private boolean pronta;
+    private boolean flushPendente;
+    private boolean aguardandoResync;
+
+    ConexaoSse(long userId, AsyncContext async, int capacidade, Consumer<ConexaoSse> aoFechar) throws IOException {
+        this.userId = userId;
+        this.async = async;
+        this.out = async.getResponse().getOutputStream();
+        this.capacidade = capacidade;
+        this.aoFechar = aoFechar;
+        async.addListener(this);
+        out.setWriteListener(this);
+    }
+
+    long userId() {
+        return userId;
+    }
+
+    boolean fechada() {
+        return fechada.get();
+    }
+
+    /**
+     * Enfileira um evento já serializado.
+     *
+     * @return false se o buffer estava cheio e a conexão passou a aguardar um {@code resync}
+     */
+    synchronized boolean enviar(byte[] evento) {
+        if (fechada.get() || aguardandoResync) {
+            return true;
+        }
+        if (pendentes.size() >= capacidade) {
+            pendentes.clear();
+            pendentes.add(RESYNC);
+            aguardandoResync = true;
+            escrever();
+            return false;
+        }
+        pendentes.add(evento);
+        escrever();
+        return true;
+    }
+
+    /**
+     * Envia um heartbeat se não houver nada pendente (evita que proxies encerrem a conexão
+     * ociosa e detecta clientes desconectados).
+     */
+    synchronized void heartbeat() {
+        if (pendentes.isEmpty() && !fechada.get()) {
+            pendentes.add(HEARTBEAT);
+            escrever();
+        }
+    }
+
+    @Override
+    public synchronized void onWritePossible() {
+        pronta = true;
+        escrever();
+    }
+
+    private void escrever() {
+        if (!pronta || fechada.get()) {
+            return;
+        }
+        try {
+            while (out.isReady()) {
+                byte[] evento = pendentes.poll();
+                if (evento == null) {
+                    if (!flushPendente) {
+                        return;
+                    }
+                    flushPendente = false;
+                    out.flush();
+                    continue;
+                }
+                if (evento == RESYNC) {
+                    aguardandoResync = false;
+                }
+                out.write(evento);
+                flushPendente = true;
+            }
+        } catch (IOException | IllegalStateException e) {
+            fechar();
+        }
+    }
+
+    void fechar() {
+        if (fechada.compareAndSet(false, true)) {
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Já concluída pelo container
+            }
+            aoFechar.accept(this);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        fechar();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        fechar();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        fechar();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        fechar();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+/**
+ * Conjunto de {@code long} com endereçamento aberto (sondagem linear), sem boxing.
+ *
+ * <p>
+ * Usado para contar ids distintos em varreduras grandes: cada elemento ocupa 8 bytes no array,
+ * contra dezenas de bytes de um {@code HashSet<Long>}. Não depende de os ids serem densos ou
+ * positivos. Não é thread-safe.
+ * </p>
+ */
+class ConjuntoLong {
+
+    private static final long VAZIO = 0L;
+
+    private long[] tabela;
+    private int tamanho;
+    private boolean contemZero;
+
+    ConjuntoLong() {
+        this(16);
+    }
+
+    ConjuntoLong(int capacidadeInicial) {
+        tabela = new long[Math.max(16, Integer.highestOneBit(Math.max(1, capacidadeInicial - 1)) << 1)];
+    }
+
+    /**
+     * @return true se o valor ainda não estava no conjunto
+     */
+    boolean adicionar(long valor) {
+        if (valor == VAZIO) {
+            if (contemZero) {
+                return false;
+            }
+            contemZero = true;
+            tamanho++;
+            return true;
+        }
+        int mascara = tabela.length - 1;
+        int i = espalhar(valor) & mascara;
+        while (tabela[i] != VAZIO) {
+            if (tabela[i] == valor) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        tabela[i] = valor;
+        tamanho++;
+        // Fator de carga máximo de 0,5: sondagens curtas
+        if (tamanho * 2 > tabela.length) {
+            redimensionar();
+        }
+        return true;
+    }
+
+    void adicionarTodos(ConjuntoLong outro) {
+        if (outro.contemZero) {
+            adicionar(VAZIO);
+        }
+        for (long valor : outro.tabela) {
+            if (valor != VAZIO) {
+                adicionar(valor);
+            }
+        }
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    private void redimensionar() {
+        long[] antiga = tabela;
+        tabela = new long[antiga.length * 2];
+        int mascara = tabela.length - 1;
+        for (long valor : antiga) {
+            if (valor != VAZIO) {
+                int i = espalhar(valor) & mascara;
+                while (tabela[i] != VAZIO) {
+                    i = (i + 1) & mascara;
+                }
+                tabela[i] = valor;
+            }
+        }
+    }
+
+    /**
+     * Finalizador do MurmurHash3: ids sequenciais não ficam agrupados na tabela.
+     */
+    private static int espalhar(long valor) {
+        long h = valor;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,21 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.model.Badge;
+
+import java.util.List;
+
+/**
+ * Evento publicado quando o estado exibido no dashboard de um usuário muda (saldo, XP,
+ * dias sem apostar ou novas badges).
+ *
+ * <p>Consumido após o commit por {@link DashboardEventosService}, que envia o delta às conexões SSE.</p>
+ *
+ * @param userId         identificador do usuário
+ * @param saldo          saldo atual, em centavos
+ * @param xp             XP atual
+ * @param diasSemApostar dias sem apostar atuais
+ * @param novasBadges    badges conquistadas nesta alteração (vazia se nenhuma)
+ */
+public record DashboardAlteradoEvent(long userId, long saldo, Integer xp, Integer diasSemApostar,
+                                     List<Badge> novasBadges) {
+}
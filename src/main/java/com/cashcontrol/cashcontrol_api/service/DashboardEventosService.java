@@ -0,0 +1,274 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.dto.DashboardDeltaDto;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envio das atualizações do dashboard por Server-Sent Events.
+ *
+ * <p>
+ * Uma única thread ("sse-dispatcher") é dona de todo o estado: conexões por usuário e o último
+ * estado enviado a cada usuário. Alterações ({@link DashboardAlteradoEvent}), novas conexões e
+ * desconexões chegam a ela por uma fila; para cada alteração, o delta é serializado uma vez e
+ * entregue ao buffer de cada conexão do usuário, sem bloquear (ver {@link ConexaoSse}). A mesma
+ * thread envia heartbeats periódicos.
+ * </p>
+ *
+ * <p>
+ * Conexões ociosas não ocupam threads do Tomcat (requisições assíncronas), de modo que o limite
+ * prático é {@code server.tomcat.max-connections}. Se a fila de alterações passar da capacidade,
+ * os usuários afetados recebem um {@code resync}. Alterações de usuários sem conexão aberta são
+ * descartadas antes de entrar na fila (jobs em lote, como o {@link DiasSemApostarJob}).
+ * </p>
+ */
+@Service
+public class DashboardEventosService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardEventosService.class);
+
+    private final ObjectMapper objectMapper;
+    private final BadgeService badgeService;
+    private final BlockingQueue<Object> fila = new LinkedBlockingQueue<>();
+    private final int capacidadeFila;
+    private final AtomicInteger eventosNaFila = new AtomicInteger();
+    private final Set<Long> resyncPendente = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Integer> conexoesPorUsuario = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConexoes = new AtomicInteger();
+    private final Counter resyncs;
+
+    // Estado abaixo é acessado apenas pela thread do dispatcher
+    private final Map<Long, List<ConexaoSse>> conexoes = new HashMap<>();
+    private final Map<Long, Estado> ultimoEstado = new HashMap<>();
+
+    @Value("${cashcontrol.sse.buffer-por-conexao:32}")
+    private int bufferPorConexao;
+
+    @Value("${cashcontrol.sse.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${cashcontrol.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private Thread dispatcher;
+    private volatile boolean ativo;
+
+    public DashboardEventosService(ObjectMapper objectMapper, BadgeService badgeService, MeterRegistry registry,
+                                   @Value("${cashcontrol.sse.fila-eventos:100000}") int capacidadeFila) {
+        this.objectMapper = objectMapper;
+        this.badgeService = badgeService;
+        this.capacidadeFila = capacidadeFila;
+        this.resyncs = registry.counter("cashcontrol.sse.resync");
+        registry.gauge("cashcontrol.sse.conexoes", totalConexoes);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        ativo = true;
+        dispatcher = new Thread(this::despachar, "sse-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void parar() throws InterruptedException {
+        ativo = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        conexoes.values().forEach(lista -> List.copyOf(lista).forEach(ConexaoSse::fechar));
+    }
+
+    /**
+     * Abre a conexão SSE do usuário (já autenticado) e envia o estado atual como primeiro evento.
+     *
+     * @param user usuário dono do dashboard
+     */
+    public void conectar(User user, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no"); // Desliga o buffer de proxies nginx
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(timeoutMs);
+        ConexaoSse conexao = new ConexaoSse(user.getId(), async, bufferPorConexao, c -> fila.add(new Remocao(c)));
+        conexoesPorUsuario.merge(user.getId(), 1, Integer::sum);
+        fila.add(new Registro(conexao, new Estado(user.getSaldo(), user.getXp(), user.getDiasSemApostar())));
+    }
+
+    /**
+     * Encaminha ao dispatcher uma alteração já confirmada no banco.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDashboard(DashboardAlteradoEvent evento) {
+        if (!conexoesPorUsuario.containsKey(evento.userId())) {
+            return;
+        }
+        if (eventosNaFila.incrementAndGet() > capacidadeFila) {
+            eventosNaFila.decrementAndGet();
+            resyncPendente.add(evento.userId());
+            return;
+        }
+        fila.add(evento);
+    }
+
+    /**
+     * @return quantidade de conexões SSE abertas
+     */
+    public int totalConexoes() {
+        return totalConexoes.get();
+    }
+
+    private void despachar() {
+        long intervalo = TimeUnit.MILLISECONDS.toNanos(heartbeatMs);
+        long proximoHeartbeat = System.nanoTime() + intervalo;
+        List<Object> lote = new ArrayList<>();
+        while (ativo) {
+            try {
+                Object mensagem = fila.poll(Math.max(0, proximoHeartbeat - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (mensagem != null) {
+                    lote.add(mensagem);
+                    fila.drainTo(lote, 1024);
+                    lote.forEach(this::processar);
+                    lote.clear();
+                }
+                if (!resyncPendente.isEmpty()) {
+                    enviarResyncPendentes();
+                }
+                if (System.nanoTime() >= proximoHeartbeat) {
+                    conexoes.values().forEach(lista -> lista.forEach(ConexaoSse::heartbeat));
+                    proximoHeartbeat = System.nanoTime() + intervalo;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Erro no dispatcher de eventos do dashboard", e);
+                lote.clear();
+            }
+        }
+    }
+
+    private void processar(Object mensagem) {
+        if (mensagem instanceof DashboardAlteradoEvent evento) {
+            eventosNaFila.decrementAndGet();
+            enviarDelta(evento);
+        } else if (mensagem instanceof Registro registro) {
+            if (registro.conexao().fechada()) {
+                return;
+            }
+            long userId = registro.conexao().userId();
+            conexoes.computeIfAbsent(userId, k -> new ArrayList<>(1)).add(registro.conexao());
+            totalConexoes.incrementAndGet();
+            ultimoEstado.put(userId, registro.estado());
+            registro.conexao().enviar(evento("estado", registro.estado().comoDelta()));
+        } else if (mensagem instanceof Remocao remocao) {
+            long userId = remocao.conexao().userId();
+            conexoesPorUsuario.computeIfPresent(userId, (id, n) -> n > 1 ? n - 1 : null);
+            List<ConexaoSse> lista = conexoes.get(userId);
+            if (lista != null && lista.remove(remocao.conexao())) {
+                totalConexoes.decrementAndGet();
+                if (lista.isEmpty()) {
+                    conexoes.remove(userId);
+                    ultimoEstado.remove(userId);
+                }
+            }
+        }
+    }
+
+    private void enviarDelta(DashboardAlteradoEvent evento) {
+        List<ConexaoSse> lista = conexoes.get(evento.userId());
+        if (lista == null) {
+            return;
+        }
+        Estado novo = new Estado(evento.saldo(), evento.xp(), evento.diasSemApostar());
+        Estado anterior = ultimoEstado.put(evento.userId(), novo);
+
+        DashboardDeltaDto delta = new DashboardDeltaDto();
+        if (anterior == null || anterior.saldo() != novo.saldo()) {
+            delta.setSaldo(novo.saldo());
+        }
+        if (anterior == null || !Objects.equals(anterior.xp(), novo.xp())) {
+            delta.setXp(novo.xp());
+        }
+        if (anterior == null || !Objects.equals(anterior.diasSemApostar(), novo.diasSemApostar())) {
+            delta.setDiasSemApostar(novo.diasSemApostar());
+        }
+        if (!evento.novasBadges().isEmpty()) {
+            delta.setNovasBadges(evento.novasBadges().stream().map(b -> badgeService.toDto(b, evento.userId())).toList());
+        }
+        if (delta.getSaldo() == null && delta.getXp() == null && delta.getDiasSemApostar() == null
+                && delta.getNovasBadges() == null) {
+            return;
+        }
+
+        byte[] bytes = evento("delta", delta);
+        for (ConexaoSse conexao : lista) {
+            if (!conexao.enviar(bytes)) {
+                resyncs.increment();
+            }
+        }
+    }
+
+    private void enviarResyncPendentes() {
+        for (Iterator<Long> it = resyncPendente.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            List<ConexaoSse> lista = conexoes.get(userId);
+            if (lista != null) {
+                // O último estado enviado deixou de ser confiável: o próximo delta será completo
+                ultimoEstado.remove(userId);
+                lista.forEach(c -> c.enviar(ConexaoSse.RESYNC));
+                resyncs.increment();
+            }
+        }
+    }
+
+    private byte[] evento(String nome, Object dados) {
+        try {
+            return ("event: " + nome + "\ndata: " + objectMapper.writeValueAsString(dados) + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Estado(long saldo, Integer xp, Integer diasSemApostar) {
+
+        DashboardDeltaDto comoDelta() {
+            DashboardDeltaDto dto = new DashboardDeltaDto();
+            dto.setSaldo(saldo);
+            dto.setXp(xp);
+            dto.setDiasSemApostar(diasSemApostar);
+            return dto;
+        }
+    }
+
+    private record Registro(ConexaoSse conexao, Estado estado) {
+    }
+
+    private record Remocao(ConexaoSse conexao) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.CamposParciaisConfig;
+import com.cashcontrol.cashcontrol_api.dto.BadgeDto;
+import com.cashcontrol.cashcontrol_api.dto.DashboardDto;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Montagem do dashboard do usuário.
+ *
+ * <p>
+ * Os componentes que dependem do banco (soma das apostas e badges) são consultados em paralelo
+ * no pool {@code dashboardExecutor}, então a latência é a do componente mais lento, e não a
+ * soma deles. Limite de aposta e cooldown vêm do próprio usuário, já carregado na autenticação.
+ * </p>
+ *
+ * <p>
+ * Toda a montagem tem um prazo único ({@code cashcontrol.dashboard.prazo-ms}). O componente que
+ * não termina no prazo, falha ou é recusado pelo pool sai como {@code null} e é listado em
+ * {@link DashboardDto#getIndisponiveis()}; o restante do dashboard é devolvido normalmente. A
+ * consulta que estourou o prazo é cancelada (com interrupção), liberando a thread do pool.
+ * </p>
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private final HistoricoTransacoesService historicoTransacoesService;
+    private final BadgeService badgeService;
+    private final ExecutorService dashboardExecutor;
+    private final long prazoNanos;
+    private final Counter parciais;
+
+    public DashboardService(HistoricoTransacoesService historicoTransacoesService, BadgeService badgeService,
+                            @Qualifier("dashboardExecutor") ExecutorService dashboardExecutor,
+                            MeterRegistry meterRegistry,
+                            @Value("${cashcontrol.dashboard.prazo-ms:500}") long prazoMs) {
+        this.historicoTransacoesService = historicoTransacoesService;
+        this.badgeService = badgeService;
+        this.dashboardExecutor = dashboardExecutor;
+        this.prazoNanos = TimeUnit.MILLISECONDS.toNanos(prazoMs);
+        this.parciais = meterRegistry.counter("cashcontrol.dashboard.parciais");
+    }
+
+    /**
+     * Monta o dashboard de um usuário já autenticado.
+     *
+     * @param user usuário dono do dashboard
+     * @return dashboard, possivelmente parcial
+     */
+    public DashboardDto montar(User user) {
+        return montar(user, null);
+    }
+
+    /**
+     * Monta só os campos pedidos do dashboard: componentes não pedidos não são consultados.
+     *
+     * @param user   usuário dono do dashboard
+     * @param campos campos pedidos no parâmetro {@code fields}, ou null para todos
+     * @return dashboard, possivelmente parcial
+     */
+    public DashboardDto montar(User user, Set<String> campos) {
+        long fim = System.nanoTime() + prazoNanos;
+        long userId = user.getId();
+
+        Future<Long> gastos = CamposParciaisConfig.incluir(campos, "gastosTotais")
+                ? iniciar(() -> historicoTransacoesService.somar(userId, TipoTransacao.APOSTA))
+                : null;
+        Future<List<BadgeDto>> badges = CamposParciaisConfig.incluir(campos, "badges")
+                ? iniciar(() -> badgeService.listarPorUsuario(user).stream()
+                        .map(b -> badgeService.toDto(b, userId))
+                        .toList())
+                : null;
+
+        DashboardDto dto = new DashboardDto();
+        dto.setSaldo(user.getSaldo());
+        dto.setDiasSemApostar(user.getDiasSemApostar());
+        dto.setXp(user.getXp());
+        // Mesma regra da intervenção em TransacaoController: aposta até 20% do saldo
+        dto.setLimiteAposta(Math.max(0, user.getSaldo() / 5));
+        LocalDateTime cooldown = user.getCooldownAposta();
+        dto.setCooldownAposta(cooldown != null && cooldown.isAfter(LocalDateTime.now()) ? cooldown : null);
+
+        dto.setGastosTotais(aguardar(gastos, fim, "gastosTotais", dto));
+        dto.setBadges(aguardar(badges, fim, "badges", dto));
+        if (!dto.getIndisponiveis().isEmpty()) {
+            parciais.increment();
+        }
+        return dto;
+    }
+
+    private <T> Future<T> iniciar(Callable<T> consulta) {
+        try {
+            // submit (e não CompletableFuture) para que cancel(true) interrompa a consulta em andamento
+            return dashboardExecutor.submit(consulta);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Espera o componente até o fim do prazo; se não houver resultado, marca-o como indisponível
+     * e cancela a consulta. Componentes não pedidos (futuro null) ficam null.
+     */
+    private <T> T aguardar(Future<T> futuro, long fim, String componente, DashboardDto dto) {
+        if (futuro == null) {
+            return null;
+        }
+        try {
+            return futuro.get(Math.max(0, fim - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            log.warn("Dashboard sem {}: prazo esgotado", componente);
+        } catch (ExecutionException e) {
+            log.warn("Dashboard sem {}: {}", componente, e.getCause().toString());
+        }
+        dto.getIndisponiveis().add(componente);
+        return null;
+    }
+}
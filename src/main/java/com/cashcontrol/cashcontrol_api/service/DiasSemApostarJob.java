@@ -0,0 +1,403 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.model.Badge;
+import com.cashcontrol.cashcontrol_api.model.BadgeDefinition;
+import com.cashcontrol.cashcontrol_api.model.CheckpointJob;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.BadgeRepository;
+import com.cashcontrol.cashcontrol_api.repository.CheckpointJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Job noturno que calcula os dias sem apostar de todos os usuários pelo calendário.
+ *
+ * <p>
+ * O valor é a quantidade de dias entre a data de referência (hoje) e a última aposta realizada;
+ * quem nunca apostou conta a partir do cadastro (ou da primeira transação, para usuários antigos
+ * sem data de cadastro). As badges do catálogo com regra de dias sem apostar ({@link BadgeDefinition})
+ * são concedidas aqui, em lote.
+ * </p>
+ *
+ * <p>
+ * Os usuários são percorridos em lotes por faixa de id (paginação por chave, sem OFFSET) e os
+ * lotes são processados em paralelo, cada um em sua transação: uma consulta agregada para o
+ * lote, um UPDATE em batch dos valores que mudaram e um INSERT em batch das badges novas. O
+ * checkpoint ({@link CheckpointJob}) avança até o último lote contíguo concluído; se a execução
+ * for interrompida, ela é retomada de lá na inicialização seguinte. Reprocessar um lote é
+ * seguro: o cálculo é idempotente e badges já conquistadas não são repetidas.
+ * </p>
+ *
+ * <p>Com sharding, os shards são processados um após o outro, cada um com o seu checkpoint.</p>
+ */
+@Service
+public class DiasSemApostarJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DiasSemApostarJob.class);
+
+    static final String NOME = "dias-sem-apostar";
+
+    private static final String SQL_FIM_LOTE =
+            "select max(id) from (select id from usuario where id > ? order by id limit ?)";
+
+    private static final String SQL_LOTE =
+            "select u.id, u.dias_sem_apostar, u.data_cadastro, cast(u.saldo * 100 as bigint), u.xp, " +
+                    "t.ultima_aposta, t.primeira_transacao " +
+                    "from usuario u left join (" +
+                    "  select user_id, " +
+                    "    max(case when tipo = 'APOSTA' and status = '" + Transacao.STATUS_REALIZADA + "' then data end) ultima_aposta, " +
+                    "    min(data) primeira_transacao " +
+                    "  from (select user_id, tipo, status, data from transacao where user_id > ? and user_id <= ? " +
+                    "    union all " +
+                    "    select user_id, tipo, status, data from transacao_arquivo where user_id > ? and user_id <= ?) " +
+                    "  group by user_id" +
+                    ") t on t.user_id = u.id " +
+                    "where u.id > ? and u.id <= ?";
+
+    private static final String SQL_BADGES_DO_LOTE =
+            "select user_id, definition_id from badge where user_id > ? and user_id <= ?";
+
+    // Não sobrescreve o valor se o usuário apostou depois da leitura do lote; a nova versão faz
+    // falhar a gravação de uma cópia do usuário lida antes (ver User.versao)
+    private static final String SQL_ATUALIZAR =
+            "update usuario u set dias_sem_apostar = ?, versao = versao + 1 where u.id = ? and not exists (" +
+                    "select 1 from transacao t where t.user_id = u.id and t.tipo = 'APOSTA' " +
+                    "and t.status = '" + Transacao.STATUS_REALIZADA + "' and t.data > ?)";
+
+    private static final String SQL_INSERIR_BADGE =
+            "insert into badge (definition_id, data_conquista, user_id) values (?, ?, ?)";
+
+    private static final Timestamp NUNCA = Timestamp.valueOf("1970-01-01 00:00:00");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CheckpointJobRepository checkpointRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private BadgeService badgeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private Shards shards;
+
+    @Value("${cashcontrol.dias-sem-apostar.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${cashcontrol.dias-sem-apostar.paralelismo:0}")
+    private int paralelismo;
+
+    private ExecutorService executor;
+    private TransactionTemplate transacaoLote;
+    private int threads;
+
+    @PostConstruct
+    void iniciar() {
+        // Cada thread ocupa uma conexão do pool durante o lote
+        threads = paralelismo > 0 ? paralelismo : Math.min(4, Runtime.getRuntime().availableProcessors());
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "dias-sem-apostar");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transacaoLote = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void parar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Execução noturna, logo após a virada do dia.
+     */
+    @Scheduled(cron = "${cashcontrol.dias-sem-apostar.cron:0 5 0 * * *}")
+    public void executarAgendado() {
+        executar(LocalDate.now());
+    }
+
+    /**
+     * Retoma a execução de hoje se a aplicação foi interrompida no meio dela.
+     * O checkpoint é lido do primário (transação de escrita): na inicialização a réplica pode
+     * ainda não ter recebido a tabela.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarPendente() {
+        boolean pendente = shards.deCadaShard(shard -> transacaoLote.execute(status -> checkpointRepository.findById(NOME))
+                        .filter(cp -> !cp.isConcluido() && LocalDate.now().equals(cp.getDataReferencia()))
+                        .isPresent())
+                .contains(true);
+        if (pendente) {
+            agendar();
+        }
+    }
+
+    /**
+     * Agenda uma execução imediata, fora da thread chamadora.
+     */
+    public void agendar() {
+        taskScheduler.schedule(this::executarAgendado, Instant.now());
+    }
+
+    /**
+     * Calcula os dias sem apostar de todos os usuários para a data de referência, continuando do
+     * checkpoint se já houver uma execução incompleta para a mesma data.
+     *
+     * @param referencia dia de referência do cálculo
+     * @return totais da execução
+     */
+    public synchronized Resumo executar(LocalDate referencia) {
+        List<Resumo> resumos = shards.deCadaShard(shard -> executarNoShard(referencia));
+        return new Resumo(resumos.stream().mapToLong(Resumo::usuarios).sum(),
+                resumos.stream().mapToLong(Resumo::atualizados).sum(),
+                resumos.stream().mapToLong(Resumo::badges).sum());
+    }
+
+    private Resumo executarNoShard(LocalDate referencia) {
+        long inicio = System.nanoTime();
+        long ultimoId = 0;
+        CheckpointJob checkpoint = checkpointRepository.findById(NOME).orElse(null);
+        if (checkpoint != null && referencia.equals(checkpoint.getDataReferencia())) {
+            if (checkpoint.isConcluido()) {
+                log.info("Dias sem apostar de {} já calculados", referencia);
+                return new Resumo(0, 0, 0);
+            }
+            ultimoId = checkpoint.getUltimoId();
+            log.info("Retomando o cálculo de dias sem apostar de {} a partir do usuário {}", referencia, ultimoId);
+        }
+        salvarCheckpoint(referencia, ultimoId, false);
+
+        ArrayDeque<Future<Lote>> emAndamento = new ArrayDeque<>();
+        long usuarios = 0;
+        long atualizados = 0;
+        long badges = 0;
+        try {
+            long fimAnterior = ultimoId;
+            while (true) {
+                Long fim = jdbcTemplate.queryForObject(SQL_FIM_LOTE, Long.class, fimAnterior, tamanhoLote);
+                if (fim == null) {
+                    break;
+                }
+                long de = fimAnterior;
+                emAndamento.add(executor.submit(Shards.propagar(() -> processarLote(de, fim, referencia))));
+                fimAnterior = fim;
+
+                // Janela limitada de lotes em andamento; o checkpoint só avança na ordem dos lotes
+                while (emAndamento.size() >= threads * 2 || (!emAndamento.isEmpty() && emAndamento.peek().isDone())) {
+                    Lote lote = emAndamento.poll().get();
+                    usuarios += lote.usuarios();
+                    atualizados += lote.atualizados();
+                    badges += lote.badges();
+                    salvarCheckpoint(referencia, lote.fim(), false);
+                }
+            }
+            while (!emAndamento.isEmpty()) {
+                Lote lote = emAndamento.poll().get();
+                usuarios += lote.usuarios();
+                atualizados += lote.atualizados();
+                badges += lote.badges();
+                salvarCheckpoint(referencia, lote.fim(), false);
+            }
+            salvarCheckpoint(referencia, fimAnterior, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emAndamento.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Cálculo de dias sem apostar interrompido", e);
+        } catch (ExecutionException e) {
+            emAndamento.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Falha no cálculo de dias sem apostar", e.getCause());
+        }
+
+        log.info("Dias sem apostar de {} calculados: {} usuários, {} atualizados, {} badges em {} ms",
+                referencia, usuarios, atualizados, badges, (System.nanoTime() - inicio) / 1_000_000);
+        return new Resumo(usuarios, atualizados, badges);
+    }
+
+    private Lote processarLote(long de, long ate, LocalDate referencia) {
+        return transacaoLote.execute(status -> {
+            Map<Long, Set<Integer>> badgesExistentes = new HashMap<>();
+            jdbcTemplate.query(SQL_BADGES_DO_LOTE, rs -> {
+                badgesExistentes.computeIfAbsent(rs.getLong(1), k -> new HashSet<>(2)).add(rs.getInt(2));
+            }, de, ate);
+
+            List<Calculo> calculos = new ArrayList<>();
+            jdbcTemplate.query(SQL_LOTE, rs -> {
+                Date cadastro = rs.getDate(3);
+                Timestamp ultimaAposta = rs.getTimestamp(6);
+                Timestamp primeiraTransacao = rs.getTimestamp(7);
+                LocalDate desde = ultimaAposta != null ? ultimaAposta.toLocalDateTime().toLocalDate()
+                        : cadastro != null ? cadastro.toLocalDate()
+                        : primeiraTransacao != null ? primeiraTransacao.toLocalDateTime().toLocalDate()
+                        : referencia;
+                int dias = (int) Math.max(0, ChronoUnit.DAYS.between(desde, referencia));
+                int anteriores = rs.getObject(2) != null ? rs.getInt(2) : -1;
+                calculos.add(new Calculo(rs.getLong(1), anteriores, dias, rs.getLong(4), rs.getInt(5),
+                        ultimaAposta != null ? ultimaAposta : NUNCA));
+            }, de, ate, de, ate, de, ate);
+
+            // UPDATE em batch apenas dos valores que mudaram
+            List<Calculo> alterados = calculos.stream().filter(c -> c.dias() != c.diasAnteriores()).toList();
+            Set<Long> atualizados = new HashSet<>();
+            if (!alterados.isEmpty()) {
+                int[] linhas = jdbcTemplate.batchUpdate(SQL_ATUALIZAR, alterados, alterados.size(), (ps, c) -> {
+                    ps.setInt(1, c.dias());
+                    ps.setLong(2, c.userId());
+                    ps.setTimestamp(3, c.ultimaAposta());
+                })[0];
+                for (int i = 0; i < alterados.size(); i++) {
+                    if (i >= linhas.length || linhas[i] != 0) { // 0: apostou durante o job, prevalece a aposta
+                        atualizados.add(alterados.get(i).userId());
+                    }
+                }
+            }
+
+            // INSERT em batch das badges ainda não conquistadas
+            List<BadgeDefinition> definicoes = badgeService.definicoesPorDiasSemApostar();
+            List<Badge> novas = new ArrayList<>();
+            List<Long> donos = new ArrayList<>();
+            Map<Long, List<Badge>> novasPorUsuario = new HashMap<>();
+            for (Calculo c : calculos) {
+                Set<Integer> existentes = badgesExistentes.getOrDefault(c.userId(), Set.of());
+                for (BadgeDefinition definicao : definicoes) {
+                    if (c.dias() >= definicao.getDiasSemApostar() && !existentes.contains(definicao.getId())) {
+                        Badge nova = new Badge(null, definicao, referencia, null);
+                        novas.add(nova);
+                        donos.add(c.userId());
+                        novasPorUsuario.computeIfAbsent(c.userId(), k -> new ArrayList<>(2)).add(nova);
+                    }
+                }
+            }
+            inserirBadges(novas, donos);
+            invalidarCacheAposCommit(atualizados, !novas.isEmpty());
+
+            // Notifica as conexões SSE após o commit do lote
+            for (Calculo c : calculos) {
+                List<Badge> badges = novasPorUsuario.get(c.userId());
+                if (atualizados.contains(c.userId()) || badges != null) {
+                    eventPublisher.publishEvent(new DashboardAlteradoEvent(c.userId(), c.saldo(), c.xp(), c.dias(),
+                            badges != null ? badges : List.of()));
+                }
+            }
+            return new Lote(ate, calculos.size(), atualizados.size(), novas.size());
+        });
+    }
+
+    /**
+     * As escritas por JDBC não passam pelo cache de segundo nível do Hibernate: após o commit do
+     * lote, descarta os usuários alterados e, se houve badges novas, as listas de badges em cache.
+     */
+    private void invalidarCacheAposCommit(Set<Long> usuarios, boolean badgesNovas) {
+        if (usuarios.isEmpty() && !badgesNovas) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = entityManagerFactory.getCache();
+                usuarios.forEach(id -> cache.evict(User.class, id));
+                if (badgesNovas) {
+                    entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                            .evictQueryRegion(BadgeRepository.REGIAO_POR_USUARIO);
+                }
+            }
+        });
+    }
+
+    private void inserirBadges(List<Badge> novas, List<Long> donos) {
+        if (novas.isEmpty()) {
+            return;
+        }
+        GeneratedKeyHolder chaves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(SQL_INSERIR_BADGE, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Badge badge = novas.get(i);
+                        ps.setInt(1, badge.getDefinicao().getId());
+                        ps.setObject(2, badge.getDataConquista());
+                        ps.setLong(3, donos.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return novas.size();
+                    }
+                }, chaves);
+        // Ids gerados, para o evento SSE das badges novas
+        List<Map<String, Object>> ids = chaves.getKeyList();
+        for (int i = 0; i < novas.size() && i < ids.size(); i++) {
+            novas.get(i).setId(((Number) ids.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    private void salvarCheckpoint(LocalDate referencia, long ultimoId, boolean concluido) {
+        checkpointRepository.save(new CheckpointJob(NOME, referencia, ultimoId, concluido, LocalDateTime.now()));
+    }
+
+    /**
+     * Totais de uma execução.
+     */
+    public record Resumo(long usuarios, long atualizados, long badges) {
+    }
+
+    private record Lote(long fim, int usuarios, int atualizados, int badges) {
+    }
+
+    private record Calculo(long userId, int diasAnteriores, int dias, long saldo, int xp, Timestamp ultimaAposta) {
+    }
+}
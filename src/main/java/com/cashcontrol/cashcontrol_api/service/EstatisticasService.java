@@ -0,0 +1,287 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.EstatisticasDto;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Estatísticas globais da plataforma, calculadas fora do caminho das requisições.
+ *
+ * <p>
+ * Periodicamente, a tabela {@code transacao} é varrida em faixas de id processadas em paralelo
+ * num {@link ForkJoinPool} próprio: cada faixa é lida via JDBC (em transação somente leitura,
+ * ou seja, na réplica quando configurada) e acumulada em arrays e contadores primitivos, com
+ * valores em centavos; os acumuladores são combinados na volta da recursão. O resultado fica em
+ * cache e é devolvido pelo endpoint administrativo sem nenhum acesso ao banco.
+ * </p>
+ *
+ * <p>Com sharding, cada shard é varrido na sua própria faixa de ids e os totais são combinados.</p>
+ */
+@Service
+public class EstatisticasService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasService.class);
+
+    // Transações recentes e arquivadas: o arquivamento mantém os ids originais
+    private static final String SQL_LIMITES =
+            "select min(id), max(id), min(data), max(data) from (" +
+                    "select id, data from transacao union all select id, data from transacao_arquivo)";
+
+    private static final String SQL_FAIXA =
+            "select user_id, data, tipo, cast(valor * 100 as bigint), status from transacao where id between ? and ? " +
+                    "union all " +
+                    "select user_id, data, tipo, cast(valor * 100 as bigint), status from transacao_arquivo where id between ? and ?";
+
+    // Apostas recusadas ficam fora de transacao: um bloqueio por intervenção, com as tentativas em cooldown somadas
+    private static final String SQL_BLOQUEIOS =
+            "select count(*), coalesce(sum(tentativas_cooldown), 0) from aposta_bloqueada";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Shards shards;
+
+    @Value("${cashcontrol.estatisticas.tamanho-faixa:50000}")
+    private long tamanhoFaixa;
+
+    @Value("${cashcontrol.estatisticas.paralelismo:0}")
+    private int paralelismo;
+
+    @Value("${cashcontrol.estatisticas.janela-ativos-dias:30}")
+    private int janelaAtivosDias;
+
+    private final AtomicReference<EstatisticasDto> ultimo = new AtomicReference<>();
+    private ForkJoinPool pool;
+    private TransactionTemplate leitura;
+
+    @PostConstruct
+    void iniciar() {
+        // Cada thread ocupa uma conexão do pool durante a leitura da faixa
+        int threads = paralelismo > 0 ? paralelismo : Math.min(4, Runtime.getRuntime().availableProcessors());
+        pool = new ForkJoinPool(threads);
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void parar() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return últimas estatísticas calculadas, ou vazio se a primeira varredura ainda não terminou
+     */
+    public Optional<EstatisticasDto> obter() {
+        return Optional.ofNullable(ultimo.get());
+    }
+
+    /**
+     * Recalcula as estatísticas e substitui o resultado em cache.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.estatisticas.intervalo-ms:300000}")
+    public synchronized void atualizar() {
+        long inicio = System.nanoTime();
+        LocalDateTime agora = LocalDateTime.now();
+        List<Limites> porShard = shards.deCadaShard(shard -> jdbcTemplate.queryForObject(SQL_LIMITES, (rs, n) -> new Limites(
+                rs.getLong(1), rs.getLong(2), rs.getTimestamp(3), rs.getTimestamp(4))));
+        Timestamp dataMinima = null;
+        Timestamp dataMaxima = null;
+        for (Limites limites : porShard) {
+            if (limites != null && limites.dataMinima() != null) {
+                dataMinima = dataMinima == null || limites.dataMinima().before(dataMinima) ? limites.dataMinima() : dataMinima;
+                dataMaxima = dataMaxima == null || limites.dataMaxima().after(dataMaxima) ? limites.dataMaxima() : dataMaxima;
+            }
+        }
+
+        Acumulador total;
+        if (dataMinima == null) {
+            total = new Acumulador(agora.toLocalDate().toEpochDay(), 0, agora.minusDays(janelaAtivosDias));
+        } else {
+            // Mesmo intervalo de dias em todos os shards, para os totais por dia poderem ser somados
+            long diaInicial = dataMinima.toLocalDateTime().toLocalDate().toEpochDay();
+            int dias = (int) (dataMaxima.toLocalDateTime().toLocalDate().toEpochDay() - diaInicial + 1);
+            total = null;
+            for (int shard = 0; shard < porShard.size(); shard++) {
+                Limites limites = porShard.get(shard);
+                if (limites == null || limites.dataMinima() == null) {
+                    continue;
+                }
+                Acumulador parcial = pool.invoke(new Varredura(limites.idMinimo(), limites.idMaximo(),
+                        new Parametros(shard, diaInicial, dias, agora.minusDays(janelaAtivosDias))));
+                total = total == null ? parcial : total.combinar(parcial);
+            }
+        }
+
+        for (long[] bloqueios : shards.deCadaShard(shard -> jdbcTemplate.queryForObject(SQL_BLOQUEIOS,
+                (rs, n) -> new long[]{rs.getLong(1), rs.getLong(2)}))) {
+            total.bloqueadasLimite += bloqueios[0];
+            total.bloqueadasCooldown += bloqueios[1];
+        }
+
+        EstatisticasDto dto = total.resultado();
+        dto.setJanelaUsuariosAtivosDias(janelaAtivosDias);
+        dto.setGeradoEm(LocalDateTime.now());
+        dto.setDuracaoMs((System.nanoTime() - inicio) / 1_000_000);
+        ultimo.set(dto);
+        log.info("Estatísticas da plataforma atualizadas: {} transações em {} ms",
+                dto.getTransacoesAnalisadas(), dto.getDuracaoMs());
+    }
+
+    private Acumulador lerFaixa(long idInicial, long idFinal, Parametros parametros) {
+        Acumulador acumulador = new Acumulador(parametros.diaInicial(), parametros.dias(), parametros.ativosDesde());
+        return shards.noShard(parametros.shard(), () -> {
+            leitura.executeWithoutResult(status -> jdbcTemplate.query(SQL_FAIXA, rs -> {
+                acumulador.registrar(rs.getLong(1), rs.getTimestamp(2), rs.getString(3), rs.getLong(4), rs.getString(5));
+            }, idInicial, idFinal, idInicial, idFinal));
+            return acumulador;
+        });
+    }
+
+    /**
+     * Divide a faixa de ids ao meio até o tamanho configurado e combina os resultados.
+     */
+    private class Varredura extends RecursiveTask<Acumulador> {
+
+        private final long idInicial;
+        private final long idFinal;
+        private final Parametros parametros;
+
+        Varredura(long idInicial, long idFinal, Parametros parametros) {
+            this.idInicial = idInicial;
+            this.idFinal = idFinal;
+            this.parametros = parametros;
+        }
+
+        @Override
+        protected Acumulador compute() {
+            if (idFinal - idInicial < tamanhoFaixa) {
+                return lerFaixa(idInicial, idFinal, parametros);
+            }
+            long meio = idInicial + (idFinal - idInicial) / 2;
+            Varredura esquerda = new Varredura(idInicial, meio, parametros);
+            esquerda.fork();
+            Acumulador direita = new Varredura(meio + 1, idFinal, parametros).compute();
+            return esquerda.join().combinar(direita);
+        }
+    }
+
+    /**
+     * Totais parciais de uma faixa, apenas com tipos primitivos (sem boxing por linha).
+     */
+    private static class Acumulador {
+
+        private final long diaInicial;
+        private final long[] apostadoPorDia; // Centavos
+        private final long[] investidoPorDia;
+        private final Timestamp ativosDesde;
+        private final ConjuntoLong usuariosAtivos = new ConjuntoLong();
+        private long linhas;
+        private long apostas;
+        private long somaApostas;
+        private long somaInvestimentos;
+        private long bloqueadasLimite;
+        private long bloqueadasCooldown;
+
+        Acumulador(long diaInicial, int dias, LocalDateTime ativosDesde) {
+            this.diaInicial = diaInicial;
+            this.apostadoPorDia = new long[dias];
+            this.investidoPorDia = new long[dias];
+            this.ativosDesde = Timestamp.valueOf(ativosDesde);
+        }
+
+        void registrar(long userId, Timestamp data, String tipo, long valor, String status) {
+            linhas++;
+            if (data == null) {
+                return;
+            }
+            if (!data.before(ativosDesde)) {
+                usuariosAtivos.adicionar(userId);
+            }
+            if (!Transacao.STATUS_REALIZADA.equals(status)) {
+                return;
+            }
+
+            int dia = (int) (data.toLocalDateTime().toLocalDate().toEpochDay() - diaInicial);
+            boolean diaValido = dia >= 0 && dia < apostadoPorDia.length; // Linhas gravadas durante a varredura
+            if ("APOSTA".equals(tipo)) {
+                apostas++;
+                somaApostas += valor;
+                if (diaValido) {
+                    apostadoPorDia[dia] += valor;
+                }
+            } else if ("INVESTIMENTO".equals(tipo)) {
+                somaInvestimentos += valor;
+                if (diaValido) {
+                    investidoPorDia[dia] += valor;
+                }
+            }
+        }
+
+        Acumulador combinar(Acumulador outro) {
+            for (int i = 0; i < apostadoPorDia.length; i++) {
+                apostadoPorDia[i] += outro.apostadoPorDia[i];
+                investidoPorDia[i] += outro.investidoPorDia[i];
+            }
+            usuariosAtivos.adicionarTodos(outro.usuariosAtivos);
+            linhas += outro.linhas;
+            apostas += outro.apostas;
+            somaApostas += outro.somaApostas;
+            somaInvestimentos += outro.somaInvestimentos;
+            bloqueadasLimite += outro.bloqueadasLimite;
+            bloqueadasCooldown += outro.bloqueadasCooldown;
+            return this;
+        }
+
+        EstatisticasDto resultado() {
+            EstatisticasDto dto = new EstatisticasDto();
+            dto.setTransacoesAnalisadas(linhas);
+            dto.setTotalApostado(somaApostas);
+            dto.setTotalInvestido(somaInvestimentos);
+            dto.setApostasRealizadas(apostas);
+            dto.setApostasBloqueadasLimite(bloqueadasLimite);
+            dto.setApostasBloqueadasCooldown(bloqueadasCooldown);
+            dto.setApostaMedia(apostas > 0 ? Math.round((double) somaApostas / apostas) : 0);
+            long tentativas = apostas + bloqueadasLimite + bloqueadasCooldown;
+            dto.setPercentualApostasBloqueadas(
+                    tentativas > 0 ? 100.0 * (bloqueadasLimite + bloqueadasCooldown) / tentativas : 0);
+            dto.setUsuariosAtivos(usuariosAtivos.tamanho());
+            for (int i = 0; i < apostadoPorDia.length; i++) {
+                if (apostadoPorDia[i] != 0 || investidoPorDia[i] != 0) {
+                    dto.getPorDia().add(new EstatisticasDto.Dia(
+                            LocalDate.ofEpochDay(diaInicial + i), apostadoPorDia[i], investidoPorDia[i]));
+                }
+            }
+            return dto;
+        }
+    }
+
+    private record Limites(long idMinimo, long idMaximo, Timestamp dataMinima, Timestamp dataMaxima) {
+    }
+
+    private record Parametros(int shard, long diaInicial, int dias, LocalDateTime ativosDesde) {
+    }
+}
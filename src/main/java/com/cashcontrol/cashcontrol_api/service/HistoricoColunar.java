@@ -0,0 +1,99 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import java.util.Arrays;
+
+/**
+ * Histórico de transações realizadas de um usuário, em colunas de tipos primitivos.
+ *
+ * <p>
+ * Cada transação ocupa 17 bytes (instante em epoch millis, valor em centavos e ordinal do tipo),
+ * sem objetos por linha. As colunas ficam ordenadas pelo instante, então uma janela de tempo é
+ * localizada por busca binária e agregada com um laço simples sobre arrays, que o JIT consegue
+ * desenrolar/vetorizar.
+ * </p>
+ */
+class HistoricoColunar {
+
+    private long[] instantes;
+    private long[] valores;
+    private byte[] tipos;
+    private int tamanho;
+
+    HistoricoColunar(int capacidadeInicial) {
+        int capacidade = Math.max(8, capacidadeInicial);
+        instantes = new long[capacidade];
+        valores = new long[capacidade];
+        tipos = new byte[capacidade];
+    }
+
+    /**
+     * Adiciona uma transação mantendo a ordem por instante (normalmente no final).
+     */
+    synchronized void adicionar(long instante, long valor, byte tipo) {
+        if (tamanho == instantes.length) {
+            int capacidade = tamanho + (tamanho >> 1);
+            instantes = Arrays.copyOf(instantes, capacidade);
+            valores = Arrays.copyOf(valores, capacidade);
+            tipos = Arrays.copyOf(tipos, capacidade);
+        }
+        int posicao = tamanho;
+        if (tamanho > 0 && instantes[tamanho - 1] > instante) {
+            // Commits fora de ordem: desloca o final das colunas
+            posicao = primeiraPosicao(instante);
+            System.arraycopy(instantes, posicao, instantes, posicao + 1, tamanho - posicao);
+            System.arraycopy(valores, posicao, valores, posicao + 1, tamanho - posicao);
+            System.arraycopy(tipos, posicao, tipos, posicao + 1, tamanho - posicao);
+        }
+        instantes[posicao] = instante;
+        valores[posicao] = valor;
+        tipos[posicao] = tipo;
+        tamanho++;
+    }
+
+    /**
+     * Soma os valores do tipo informado no intervalo {@code [desde, ate)}.
+     */
+    synchronized long somar(byte tipo, long desde, long ate) {
+        int inicio = primeiraPosicao(desde);
+        int fim = primeiraPosicao(ate);
+        long soma = 0;
+        for (int i = inicio; i < fim; i++) {
+            soma += tipos[i] == tipo ? valores[i] : 0;
+        }
+        return soma;
+    }
+
+    /**
+     * Conta as transações do tipo informado no intervalo {@code [desde, ate)}.
+     */
+    synchronized int contar(byte tipo, long desde, long ate) {
+        int inicio = primeiraPosicao(desde);
+        int fim = primeiraPosicao(ate);
+        int quantidade = 0;
+        for (int i = inicio; i < fim; i++) {
+            quantidade += tipos[i] == tipo ? 1 : 0;
+        }
+        return quantidade;
+    }
+
+    synchronized int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @return primeira posição com instante maior ou igual ao informado
+     */
+    private int primeiraPosicao(long instante) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (instantes[meio] < instante) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,275 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.model.Centavos;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Histórico de transações realizadas por usuário, mantido em memória em formato colunar
+ * ({@link HistoricoColunar}) para agregações por janela de tempo (dashboard, gráficos, simulações).
+ *
+ * <p>
+ * O histórico de um usuário é carregado do banco primário no primeiro acesso (uma consulta JDBC,
+ * sem montar entidades, sobre as transações recentes e as arquivadas) e depois mantido pelos {@link TransacaoRealizadaEvent}, após o commit.
+ * Transações que chegam durante o carregamento são aplicadas ao final, sem duplicar as que a
+ * consulta já trouxe. No máximo {@code cashcontrol.historico.max-usuarios} usuários ficam em
+ * memória; os acessados há mais tempo são descartados (LRU).
+ * </p>
+ *
+ * <p>
+ * Com {@code cashcontrol.historico.habilitado=false}, as mesmas consultas são respondidas com
+ * agregações SQL.
+ * </p>
+ */
+@Service
+public class HistoricoTransacoesService {
+
+    // Transações recentes e arquivadas (ver ArquivamentoTransacoesService)
+    private static final String SQL_HISTORICO =
+            "select id, data, cast(valor * 100 as bigint), tipo from transacao " +
+                    "where user_id = ? and status = '" + Transacao.STATUS_REALIZADA + "' " +
+                    "union all " +
+                    "select id, data, cast(valor * 100 as bigint), tipo from transacao_arquivo " +
+                    "where user_id = ? and status = '" + Transacao.STATUS_REALIZADA + "' order by 2, 1";
+
+    private static final String FILTRO_JANELA =
+            "where user_id = ? and tipo = ? and status = '" + Transacao.STATUS_REALIZADA + "' and data >= ? and data < ?";
+
+    private static final String SQL_SOMA =
+            "select coalesce(sum(valor), 0) from (" +
+                    "select valor from transacao " + FILTRO_JANELA +
+                    " union all select valor from transacao_arquivo " + FILTRO_JANELA + ")";
+
+    private static final String SQL_CONTAGEM =
+            "select count(*) from (" +
+                    "select id from transacao " + FILTRO_JANELA +
+                    " union all select id from transacao_arquivo " + FILTRO_JANELA + ")";
+
+    private static final Timestamp INICIO = Timestamp.valueOf("1970-01-01 00:00:00");
+    private static final Timestamp FIM = Timestamp.valueOf("9999-12-31 23:59:59");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final Map<Long, Entrada> cache;
+    private final Counter carregamentos;
+
+    public HistoricoTransacoesService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                      @Value("${cashcontrol.historico.habilitado:true}") boolean habilitado,
+                                      @Value("${cashcontrol.historico.max-usuarios:10000}") int maxUsuarios) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> maisAntiga) {
+                return size() > maxUsuarios;
+            }
+        };
+        this.carregamentos = meterRegistry.counter("cashcontrol.historico.carregamentos");
+        Gauge.builder("cashcontrol.historico.usuarios", this, HistoricoTransacoesService::usuariosEmMemoria)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Soma os valores realizados de um tipo em todo o histórico do usuário.
+     *
+     * @return total em centavos
+     */
+    public long somar(long userId, TipoTransacao tipo) {
+        return somar(userId, tipo, null, null);
+    }
+
+    /**
+     * Soma os valores realizados de um tipo no intervalo {@code [desde, ate)}.
+     *
+     * @param desde início do intervalo (inclusivo), ou null para desde o início
+     * @param ate   fim do intervalo (exclusivo), ou null para sem limite
+     * @return total em centavos
+     */
+    public long somar(long userId, TipoTransacao tipo, LocalDateTime desde, LocalDateTime ate) {
+        if (!habilitado) {
+            Timestamp inicio = timestamp(desde, INICIO);
+            Timestamp fim = timestamp(ate, FIM);
+            BigDecimal soma = jdbcTemplate.queryForObject(SQL_SOMA, BigDecimal.class,
+                    userId, tipo.name(), inicio, fim, userId, tipo.name(), inicio, fim);
+            return soma != null ? Centavos.deReais(soma) : 0;
+        }
+        return historico(userId).somar((byte) tipo.ordinal(), inicio(desde), fim(ate));
+    }
+
+    /**
+     * Conta as transações realizadas de um tipo no intervalo {@code [desde, ate)}.
+     *
+     * @param desde início do intervalo (inclusivo), ou null para desde o início
+     * @param ate   fim do intervalo (exclusivo), ou null para sem limite
+     */
+    public int contar(long userId, TipoTransacao tipo, LocalDateTime desde, LocalDateTime ate) {
+        if (!habilitado) {
+            Timestamp inicio = timestamp(desde, INICIO);
+            Timestamp fim = timestamp(ate, FIM);
+            Integer quantidade = jdbcTemplate.queryForObject(SQL_CONTAGEM, Integer.class,
+                    userId, tipo.name(), inicio, fim, userId, tipo.name(), inicio, fim);
+            return quantidade != null ? quantidade : 0;
+        }
+        return historico(userId).contar((byte) tipo.ordinal(), inicio(desde), fim(ate));
+    }
+
+    /**
+     * Acrescenta a transação ao histórico do usuário, se ele estiver em memória.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRealizarTransacao(TransacaoRealizadaEvent evento) {
+        Entrada entrada;
+        synchronized (cache) {
+            entrada = cache.get(evento.userId());
+        }
+        if (entrada != null) {
+            entrada.adicionar(evento);
+        }
+    }
+
+    /**
+     * Descarta o histórico em memória; o próximo acesso recarrega do banco.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemoverTransacoes(TransacoesRemovidasEvent evento) {
+        synchronized (cache) {
+            cache.remove(evento.userId());
+        }
+    }
+
+    /**
+     * Descarta o histórico em memória de vários usuários (alterados por outra instância).
+     */
+    public void descartar(Collection<Long> userIds) {
+        synchronized (cache) {
+            userIds.forEach(cache::remove);
+        }
+    }
+
+    /**
+     * Descarta o histórico de usuários excluídos.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarXp(XpAlteradoEvent evento) {
+        if (evento.removido()) {
+            aoRemoverTransacoes(new TransacoesRemovidasEvent(evento.userId()));
+        }
+    }
+
+    /**
+     * Converte uma data para o instante usado nas colunas (epoch millis no fuso do servidor,
+     * o mesmo de {@code LocalDateTime.now()} ao gravar as transações).
+     */
+    static long instante(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    int usuariosEmMemoria() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private HistoricoColunar historico(long userId) {
+        Entrada entrada;
+        boolean carregar = false;
+        synchronized (cache) {
+            entrada = cache.get(userId);
+            if (entrada == null) {
+                entrada = new Entrada();
+                cache.put(userId, entrada);
+                carregar = true;
+            }
+        }
+        if (carregar) {
+            // Fora do lock do cache: outros usuários não esperam por este carregamento
+            try {
+                carregar(userId, entrada);
+            } catch (RuntimeException e) {
+                synchronized (cache) {
+                    cache.remove(userId, entrada);
+                }
+                entrada.historico.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return entrada.historico.join();
+    }
+
+    private void carregar(long userId, Entrada entrada) {
+        HistoricoColunar historico = new HistoricoColunar(64);
+        long[][] ids = {new long[64]};
+        int[] quantidade = {0};
+        jdbcTemplate.query(SQL_HISTORICO, rs -> {
+            if (quantidade[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], quantidade[0] * 2);
+            }
+            ids[0][quantidade[0]++] = rs.getLong(1);
+            historico.adicionar(rs.getTimestamp(2).getTime(), rs.getLong(3),
+                    (byte) TipoTransacao.valueOf(rs.getString(4)).ordinal());
+        }, userId, userId);
+
+        long[] carregados = Arrays.copyOf(ids[0], quantidade[0]);
+        Arrays.sort(carregados);
+        entrada.concluir(historico, carregados);
+        carregamentos.increment();
+    }
+
+    private static long inicio(LocalDateTime desde) {
+        return desde != null ? instante(desde) : Long.MIN_VALUE;
+    }
+
+    private static long fim(LocalDateTime ate) {
+        return ate != null ? instante(ate) : Long.MAX_VALUE;
+    }
+
+    private static Timestamp timestamp(LocalDateTime data, Timestamp padrao) {
+        return data != null ? Timestamp.valueOf(data) : padrao;
+    }
+
+    /**
+     * Histórico de um usuário no cache: enquanto carrega, guarda as transações que chegam.
+     */
+    private static final class Entrada {
+
+        private final CompletableFuture<HistoricoColunar> historico = new CompletableFuture<>();
+        private List<TransacaoRealizadaEvent> pendentes = new ArrayList<>();
+
+        synchronized void adicionar(TransacaoRealizadaEvent evento) {
+            if (pendentes != null) {
+                pendentes.add(evento);
+            } else {
+                historico.join().adicionar(evento.instante(), evento.valor(), evento.tipo());
+            }
+        }
+
+        synchronized void concluir(HistoricoColunar carregado, long[] idsCarregados) {
+            for (TransacaoRealizadaEvent evento : pendentes) {
+                if (Arrays.binarySearch(idsCarregados, evento.transacaoId()) < 0) {
+                    carregado.adicionar(evento.instante(), evento.valor(), evento.tipo());
+                }
+            }
+            pendentes = null;
+            historico.complete(carregado);
+        }
+    }
+}
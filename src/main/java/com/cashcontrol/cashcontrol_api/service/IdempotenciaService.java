@@ -0,0 +1,340 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Execução idempotente de requisições com o header {@code Idempotency-Key}.
+ *
+ * <p>
+ * A primeira requisição com uma chave é executada e sua resposta (status e corpo) é guardada;
+ * repetições da mesma chave pelo mesmo usuário recebem a resposta original, com o header
+ * {@code Idempotent-Replayed: true}, sem executar a ação de novo.
+ * </p>
+ *
+ * <p>
+ * As respostas recentes ficam num cache em memória limitado a
+ * {@code cashcontrol.idempotencia.max-chaves} entradas (LRU), e todas ficam na tabela
+ * {@code chave_idempotencia}, gravada no banco primário: a chave é reservada antes da execução
+ * (restrição única por usuário e chave) e a resposta é gravada na mesma transação de banco da
+ * ação. Assim uma repetição é respondida da memória, ou do banco após reinício ou em outra
+ * instância. Enquanto a primeira execução não termina, repetições na mesma instância aguardam o
+ * resultado; em outra instância recebem 409. Chaves expiram após
+ * {@code cashcontrol.idempotencia.ttl-horas}.
+ * </p>
+ *
+ * <p>
+ * Como ação e resposta são confirmadas juntas, uma chave sem resposta nunca tem efeito gravado:
+ * se a ação falhar, a chave é liberada; se a instância cair no meio, a reserva é assumida por uma
+ * repetição depois de {@code cashcontrol.idempotencia.reserva-expira-ms}. Cada reserva tem um
+ * identificador próprio, e a resposta só é gravada (ou a chave liberada) pela reserva vigente:
+ * uma execução cuja reserva foi assumida desfaz a própria transação.
+ * </p>
+ */
+@Service
+public class IdempotenciaService {
+
+    /**
+     * Header marcando uma resposta repetida a partir da chave de idempotência.
+     */
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private static final long ESPERA_MS = 10_000;
+
+    private static final String SQL_RESERVAR =
+            "insert into chave_idempotencia (user_id, chave, requisicao, criada_em, reserva) values (?, ?, ?, ?, ?)";
+
+    private static final String SQL_BUSCAR =
+            "select requisicao, status, corpo, criada_em, reserva from chave_idempotencia where user_id = ? and chave = ?";
+
+    private static final String SQL_ASSUMIR =
+            "update chave_idempotencia set criada_em = ?, reserva = ? " +
+                    "where user_id = ? and chave = ? and status is null and reserva = ?";
+
+    private static final String SQL_CONCLUIR =
+            "update chave_idempotencia set status = ?, corpo = ? where user_id = ? and chave = ? and reserva = ?";
+
+    private static final String SQL_LIBERAR =
+            "delete from chave_idempotencia where user_id = ? and chave = ? and status is null and reserva = ?";
+
+    private static final String SQL_EXPIRAR = "delete from chave_idempotencia where criada_em < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transacao;
+    private final int ttlHoras;
+    private final long reservaExpiraMs;
+    private final Map<Chave, Entrada> cache;
+    private final Counter repeticoes;
+
+    public IdempotenciaService(JdbcTemplate jdbcTemplate, Shards shards, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${cashcontrol.idempotencia.max-chaves:100000}") int maxChaves,
+                               @Value("${cashcontrol.idempotencia.ttl-horas:24}") int ttlHoras,
+                               @Value("${cashcontrol.idempotencia.reserva-expira-ms:60000}") long reservaExpiraMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.objectMapper = objectMapper;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.ttlHoras = ttlHoras;
+        this.reservaExpiraMs = reservaExpiraMs;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, Entrada> maisAntiga) {
+                return size() > maxChaves;
+            }
+        };
+        this.repeticoes = meterRegistry.counter("cashcontrol.idempotencia.repeticoes");
+    }
+
+    /**
+     * Executa a ação uma única vez por usuário e chave.
+     *
+     * @param userId       usuário autenticado
+     * @param chave        valor do header {@code Idempotency-Key}
+     * @param requisicao   resumo dos parâmetros (mesma chave com outro resumo é recusada com 422)
+     * @param tipoSucesso  tipo do corpo das respostas 2xx, para reconstruí-lo a partir do banco
+     * @param acao         execução real da requisição
+     * @return resposta da ação, ou a resposta original se a chave já foi usada
+     */
+    public ResponseEntity<?> executar(long userId, String chave, String requisicao,
+                                      Class<?> tipoSucesso, Supplier<ResponseEntity<?>> acao) {
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            return ResponseEntity.badRequest().body(
+                    "Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+
+        Chave id = new Chave(userId, chave);
+        Entrada entrada;
+        boolean dono = false;
+        synchronized (cache) {
+            entrada = cache.get(id);
+            if (entrada == null || entrada.expirada(ttlHoras)) {
+                entrada = new Entrada(requisicao);
+                cache.put(id, entrada);
+                dono = true;
+            }
+        }
+        if (!dono) {
+            return aguardar(entrada, requisicao);
+        }
+
+        String reserva = UUID.randomUUID().toString();
+        try {
+            Resposta anterior = reservar(id, requisicao, tipoSucesso, reserva);
+            if (anterior != null) {
+                // Chave já usada (reinício ou outra instância): a resposta vem do banco
+                entrada.resposta.complete(anterior);
+                repeticoes.increment();
+                return anterior.comoRepetida();
+            }
+
+            // A ação participa desta transação: efeito e resposta gravada são confirmados juntos
+            ResponseEntity<?> resposta = transacao.execute(status -> {
+                ResponseEntity<?> executada = acao.get();
+                Resposta original = new Resposta(executada.getStatusCode().value(), executada.getBody());
+                if (jdbcTemplate.update(SQL_CONCLUIR, original.status(), serializar(original), userId, chave, reserva) != 1) {
+                    throw new IllegalStateException("Reserva da Idempotency-Key assumida por outra execução");
+                }
+                return executada;
+            });
+            entrada.resposta.complete(new Resposta(resposta.getStatusCode().value(), resposta.getBody()));
+            return resposta;
+        } catch (ConflitoChave conflito) {
+            descartar(id, entrada);
+            entrada.resposta.completeExceptionally(conflito);
+            return conflito.resposta;
+        } catch (RuntimeException e) {
+            // A transação da ação foi desfeita: libera a chave (se ainda for desta reserva) para uma nova tentativa
+            descartar(id, entrada);
+            jdbcTemplate.update(SQL_LIBERAR, userId, chave, reserva);
+            entrada.resposta.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Remove as chaves expiradas do banco (de todos os shards).
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.idempotencia.limpeza-ms:3600000}")
+    public void removerExpiradas() {
+        Timestamp limite = Timestamp.valueOf(LocalDateTime.now().minusHours(ttlHoras));
+        shards.emCadaShard(shard -> jdbcTemplate.update(SQL_EXPIRAR, limite));
+    }
+
+    void limparCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private ResponseEntity<?> aguardar(Entrada entrada, String requisicao) {
+        if (!entrada.requisicao.equals(requisicao)) {
+            return outraRequisicao();
+        }
+        try {
+            Resposta resposta = entrada.resposta.get(ESPERA_MS, TimeUnit.MILLISECONDS);
+            repeticoes.increment();
+            return resposta.comoRepetida();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return emExecucao();
+        } catch (TimeoutException | ExecutionException e) {
+            return emExecucao();
+        }
+    }
+
+    /**
+     * Reserva a chave no banco, ou assume uma reserva abandonada (sem resposta há mais de
+     * {@code reserva-expira-ms}: a execução original não confirmou nada).
+     *
+     * @return null se a chave foi reservada agora, ou a resposta gravada se já tinha sido usada
+     */
+    private Resposta reservar(Chave id, String requisicao, Class<?> tipoSucesso, String reserva) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.update(SQL_RESERVAR, id.userId(), id.chave(), requisicao, agora, reserva);
+            return null;
+        } catch (DuplicateKeyException e) {
+            List<Gravada> gravadas = jdbcTemplate.query(SQL_BUSCAR, (rs, n) -> {
+                int status = rs.getInt(2);
+                return new Gravada(rs.getString(1), rs.wasNull() ? null : status, rs.getString(3),
+                        rs.getTimestamp(4), rs.getString(5));
+            }, id.userId(), id.chave());
+            if (gravadas.isEmpty()) {
+                throw new ConflitoChave(emExecucao()); // Liberada entre o insert e a consulta
+            }
+            Gravada gravada = gravadas.get(0);
+            if (!requisicao.equals(gravada.requisicao())) {
+                throw new ConflitoChave(outraRequisicao());
+            }
+            if (gravada.status() != null) {
+                return new Resposta(gravada.status(), desserializar(gravada.status(), gravada.corpo(), tipoSucesso));
+            }
+            boolean abandonada = gravada.reservadaEm().getTime() < agora.getTime() - reservaExpiraMs;
+            if (abandonada && jdbcTemplate.update(SQL_ASSUMIR, agora, reserva, id.userId(), id.chave(), gravada.reserva()) == 1) {
+                return null;
+            }
+            throw new ConflitoChave(emExecucao());
+        }
+    }
+
+    private void descartar(Chave id, Entrada entrada) {
+        synchronized (cache) {
+            cache.remove(id, entrada);
+        }
+    }
+
+    private String serializar(Resposta resposta) {
+        if (resposta.corpo() == null) {
+            return null;
+        }
+        if (!sucesso(resposta.status())) {
+            return resposta.corpo().toString();
+        }
+        try {
+            return objectMapper.writeValueAsString(resposta.corpo());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object desserializar(int status, String corpo, Class<?> tipoSucesso) {
+        if (corpo == null || !sucesso(status)) {
+            return corpo;
+        }
+        try {
+            return objectMapper.readValue(corpo, tipoSucesso);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean sucesso(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    private static ResponseEntity<?> outraRequisicao() {
+        return ResponseEntity.status(422).body("Idempotency-Key já usada com outros parâmetros.");
+    }
+
+    private static ResponseEntity<?> emExecucao() {
+        return ResponseEntity.status(409).body("Requisição com esta Idempotency-Key ainda em processamento.");
+    }
+
+    private record Chave(long userId, String chave) {
+    }
+
+    /**
+     * Linha da chave no banco; {@code status} null enquanto a execução não foi confirmada.
+     */
+    private record Gravada(String requisicao, Integer status, String corpo, Timestamp reservadaEm, String reserva) {
+    }
+
+    /**
+     * Resposta original de uma chave.
+     */
+    private record Resposta(int status, Object corpo) {
+
+        ResponseEntity<?> comoRepetida() {
+            return ResponseEntity.status(status).header(HEADER_REPETIDA, "true").body(corpo);
+        }
+    }
+
+    /**
+     * Chave no cache: a resposta é completada quando a primeira execução termina.
+     */
+    private static final class Entrada {
+
+        private final String requisicao;
+        private final long criadaEm = System.currentTimeMillis();
+        private final CompletableFuture<Resposta> resposta = new CompletableFuture<>();
+
+        Entrada(String requisicao) {
+            this.requisicao = requisicao;
+        }
+
+        boolean expirada(int ttlHoras) {
+            return System.currentTimeMillis() - criadaEm > TimeUnit.HOURS.toMillis(ttlHoras);
+        }
+    }
+
+    /**
+     * Chave já usada com outros parâmetros ou ainda em execução em outra instância.
+     */
+    private static final class ConflitoChave extends RuntimeException {
+
+        private final transient ResponseEntity<?> resposta;
+
+        ConflitoChave(ResponseEntity<?> resposta) {
+            super(null, null, false, false);
+            this.resposta = resposta;
+        }
+    }
+}
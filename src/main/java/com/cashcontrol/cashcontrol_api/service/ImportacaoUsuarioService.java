@@ -0,0 +1,421 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.DiretorioUsuarios;
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.ImportacaoResultadoDto;
+import com.cashcontrol.cashcontrol_api.dto.UserCreateDto;
+import com.cashcontrol.cashcontrol_api.model.Centavos;
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Serviço de importação em lote de usuários a partir de CSV.
+ *
+ * <p>
+ * O arquivo é lido em streaming, linha a linha, no formato {@code nome,email,senha,rendaMensal}
+ * (cabeçalho opcional: a primeira linha só é tratada como cabeçalho se tiver exatamente esses nomes). As linhas válidas são acumuladas em lotes de tamanho fixo; cada lote
+ * faz uma única consulta de emails já cadastrados e é inserido via JDBC batch em sua própria
+ * transação. Assim a memória usada não depende do tamanho do arquivo.
+ * </p>
+ *
+ * <p>
+ * Emails são comparados sem diferenciar maiúsculas, tanto dentro do arquivo quanto contra o banco.
+ * Repetições dentro do mesmo lote são detectadas em memória; as de lotes anteriores já estão
+ * gravadas e aparecem na consulta de emails existentes do lote.
+ * </p>
+ *
+ * <p>
+ * Senhas em texto puro são convertidas em hash BCrypt em paralelo, no pool
+ * {@code importacaoSenhaExecutor} (fora do pool de login), só para as linhas de cada lote que
+ * serão gravadas; senhas que já chegam no formato {@code {bcrypt}...} são gravadas como estão.
+ * </p>
+ *
+ * <p>
+ * Com sharding, os emails existentes vêm do diretório global, os IDs do lote são reservados nele
+ * de uma só vez e cada shard grava os seus usuários na própria transação (ver {@link #inserirNosShards}).
+ * </p>
+ */
+@Service
+public class ImportacaoUsuarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoUsuarioService.class);
+
+    private static final List<String> CABECALHO = List.of("nome", "email", "senha", "rendamensal");
+
+    private static final Pattern EMAIL_VALIDO = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final String SQL_INSERT =
+            "insert into usuario (nome, email, senha, renda_mensal, perfil_risco, limite_mensal_aposta, saldo, xp, dias_sem_apostar, data_cadastro, versao) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String SQL_INSERT_COM_ID =
+            "insert into usuario (nome, email, senha, renda_mensal, perfil_risco, limite_mensal_aposta, saldo, xp, dias_sem_apostar, data_cadastro, versao, id) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+
+    private static final String SQL_EMAILS_EXISTENTES =
+            "select lower(email) from usuario where lower(email) in (:emails)";
+
+    private static final String SQL_IMPORTADOS = "select id, nome, xp from usuario where email in (:emails)";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("importacaoSenhaExecutor")
+    private ExecutorService importacaoSenhaExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired(required = false)
+    private DiretorioUsuarios diretorio;
+
+    @Value("${cashcontrol.importacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${cashcontrol.importacao.max-rejeicoes-relatorio:1000}")
+    private int maxRejeicoesRelatorio;
+
+    /**
+     * Importa os usuários do CSV informado.
+     *
+     * @param csv conteúdo do arquivo (UTF-8)
+     * @return resumo com quantidades importadas e linhas rejeitadas
+     * @throws IOException caso haja erro de leitura do arquivo
+     */
+    public ImportacaoResultadoDto importar(InputStream csv) throws IOException {
+        ImportacaoResultadoDto resultado = new ImportacaoResultadoDto();
+        Set<String> emailsVistos = new HashSet<>();
+        List<LinhaImportacao> lote = new ArrayList<>(tamanhoLote);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String linha;
+        long numeroLinha = 0;
+        while ((linha = reader.readLine()) != null) {
+            numeroLinha++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            if (numeroLinha == 1 && ehCabecalho(linha)) {
+                continue;
+            }
+            resultado.setLinhasLidas(resultado.getLinhasLidas() + 1);
+
+            List<String> campos = separarCampos(linha);
+            String email = campos.size() > 1 ? campos.get(1).trim() : null;
+            String motivo = validar(campos);
+            if (motivo == null && !emailsVistos.add(normalizar(email))) {
+                motivo = "Email duplicado no arquivo";
+            }
+            if (motivo != null) {
+                rejeitar(resultado, numeroLinha, email, motivo);
+                continue;
+            }
+
+            UserCreateDto dto = new UserCreateDto();
+            dto.setNome(campos.get(0).trim());
+            dto.setEmail(email);
+            dto.setSenha(campos.get(2)); // Hash gerado em gravarLote
+            dto.setRendaMensal(Centavos.deReais(campos.get(3)));
+            lote.add(new LinhaImportacao(numeroLinha, userService.montarNovoUsuario(dto)));
+
+            if (lote.size() >= tamanhoLote) {
+                gravarLote(lote, resultado);
+                lote.clear();
+                emailsVistos.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravarLote(lote, resultado);
+        }
+
+        log.info("Importação de usuários concluída: {} linhas lidas, {} importadas, {} rejeitadas",
+                resultado.getLinhasLidas(), resultado.getImportados(), resultado.getRejeitados());
+        return resultado;
+    }
+
+    /**
+     * Grava um lote em uma única transação (com sharding, uma por shard), descartando emails que
+     * já existem no banco. Se outro processo cadastrar um dos emails entre a consulta e o insert, as
+     * linhas não gravadas são refeitas uma vez com a lista de existentes atualizada.
+     */
+    private void gravarLote(List<LinhaImportacao> lote, ImportacaoResultadoDto resultado) {
+        List<LinhaImportacao> pendentes = lote;
+        for (int tentativa = 1; !pendentes.isEmpty(); tentativa++) {
+            Set<String> existentes = emailsExistentes(pendentes);
+            List<LinhaImportacao> novos = new ArrayList<>(pendentes.size());
+            for (LinhaImportacao item : pendentes) {
+                if (existentes.contains(normalizar(item.user().getEmail()))) {
+                    rejeitar(resultado, item.linha(), item.user().getEmail(), "Email já cadastrado");
+                } else {
+                    novos.add(item);
+                }
+            }
+
+            gerarHashes(novos);
+            if (diretorio != null) {
+                pendentes = inserirNosShards(novos, resultado, tentativa > 1);
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> inserir(novos));
+                resultado.setImportados(resultado.getImportados() + novos.size());
+                pendentes = List.of();
+            } catch (DataIntegrityViolationException e) {
+                if (tentativa > 1) {
+                    throw e;
+                }
+                pendentes = novos;
+            }
+        }
+
+        log.info("Importação de usuários em andamento: {} linhas lidas, {} importadas, {} rejeitadas",
+                resultado.getLinhasLidas(), resultado.getImportados(), resultado.getRejeitados());
+    }
+
+    /**
+     * Converte em paralelo as senhas em texto puro do lote em hash BCrypt e espera todas.
+     * As que já chegaram com {@code {bcrypt}} (ou já convertidas numa tentativa anterior) ficam como estão.
+     */
+    private void gerarHashes(List<LinhaImportacao> lote) {
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (LinhaImportacao item : lote) {
+            User user = item.user();
+            if (!user.getSenha().startsWith("{bcrypt}")) {
+                tarefas.add(importacaoSenhaExecutor.submit(() -> user.setSenha(passwordEncoder.encode(user.getSenha()))));
+            }
+        }
+        try {
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } catch (InterruptedException e) {
+            tarefas.forEach(tarefa -> tarefa.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importação interrompida", e);
+        } catch (ExecutionException e) {
+            tarefas.forEach(tarefa -> tarefa.cancel(true));
+            throw new IllegalStateException("Erro ao gerar hash de senha", e.getCause());
+        }
+    }
+
+    /**
+     * @return emails do lote já cadastrados, em minúsculas
+     */
+    private Set<String> emailsExistentes(List<LinhaImportacao> lote) {
+        List<String> emails = lote.stream().map(item -> normalizar(item.user().getEmail())).toList();
+        if (diretorio != null) {
+            return diretorio.emailsCadastrados(emails);
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                SQL_EMAILS_EXISTENTES, new MapSqlParameterSource("emails", emails), String.class));
+    }
+
+    /**
+     * Reserva os IDs do lote no diretório (todos ou nenhum) e grava cada usuário no shard dono, uma
+     * transação por shard. Cada shard confirmado conta como importado na hora; se um shard falhar,
+     * os IDs dele são liberados e os demais shards seguem. As linhas de um shard recusado por
+     * unicidade (email cadastrado por outro processo no meio) são devolvidas para a nova tentativa;
+     * as de qualquer outra falha, ou da última tentativa, são rejeitadas no relatório.
+     *
+     * @return linhas a gravar de novo
+     */
+    private List<LinhaImportacao> inserirNosShards(List<LinhaImportacao> lote, ImportacaoResultadoDto resultado,
+                                                   boolean ultimaTentativa) {
+        if (lote.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Long> ids;
+        try {
+            ids = diretorio.reservar(lote.stream().map(item -> item.user().getEmail()).toList());
+        } catch (DataIntegrityViolationException e) {
+            if (ultimaTentativa) {
+                throw e;
+            }
+            return lote; // Nenhum ID reservado
+        }
+        Map<Integer, List<LinhaImportacao>> porShard = new TreeMap<>();
+        for (LinhaImportacao item : lote) {
+            long id = ids.get(item.user().getEmail());
+            item.user().setId(id);
+            porShard.computeIfAbsent(shards.shardDoUsuario(id), k -> new ArrayList<>()).add(item);
+        }
+
+        List<LinhaImportacao> repetir = new ArrayList<>();
+        for (Map.Entry<Integer, List<LinhaImportacao>> doShard : porShard.entrySet()) {
+            List<LinhaImportacao> linhas = doShard.getValue();
+            try {
+                shards.noShard(doShard.getKey(), () -> {
+                    transactionTemplate.executeWithoutResult(status -> inserir(linhas));
+                    return null;
+                });
+                resultado.setImportados(resultado.getImportados() + linhas.size());
+            } catch (RuntimeException e) {
+                diretorio.liberar(linhas.stream().map(item -> item.user().getId()).toList());
+                linhas.forEach(item -> item.user().setId(null));
+                if (e instanceof DataIntegrityViolationException && !ultimaTentativa) {
+                    repetir.addAll(linhas);
+                } else {
+                    log.warn("Falha ao gravar {} usuários importados no shard {}", linhas.size(), doShard.getKey(), e);
+                    linhas.forEach(item -> rejeitar(resultado, item.linha(), item.user().getEmail(), "Erro ao gravar"));
+                }
+            }
+        }
+        return repetir;
+    }
+
+    private void inserir(List<LinhaImportacao> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        boolean comId = lote.get(0).user().getId() != null;
+        jdbcTemplate.batchUpdate(comId ? SQL_INSERT_COM_ID : SQL_INSERT, lote, lote.size(), (ps, item) -> {
+            User user = item.user();
+            ps.setString(1, user.getNome());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getSenha());
+            ps.setBigDecimal(4, Centavos.paraDecimal(user.getRendaMensal()));
+            ps.setString(5, user.getPerfilRisco());
+            ps.setBigDecimal(6, Centavos.paraDecimal(user.getLimiteMensalAposta()));
+            ps.setBigDecimal(7, Centavos.paraDecimal(user.getSaldo()));
+            ps.setInt(8, user.getXp());
+            ps.setInt(9, user.getDiasSemApostar());
+            ps.setObject(10, user.getDataCadastro());
+            if (comId) {
+                ps.setLong(11, user.getId());
+            }
+        });
+
+        // Ids gerados pelo banco, para incluir os novos usuários no ranking após o commit
+        List<String> emails = lote.stream().map(item -> item.user().getEmail()).toList();
+        namedParameterJdbcTemplate.query(SQL_IMPORTADOS, new MapSqlParameterSource("emails", emails), rs -> {
+            eventPublisher.publishEvent(new XpAlteradoEvent(rs.getLong(1), rs.getString(2), rs.getInt(3), false));
+        });
+    }
+
+    private void rejeitar(ImportacaoResultadoDto resultado, long linha, String email, String motivo) {
+        resultado.setRejeitados(resultado.getRejeitados() + 1);
+        if (resultado.getRejeicoes().size() < maxRejeicoesRelatorio) {
+            resultado.getRejeicoes().add(new ImportacaoResultadoDto.LinhaRejeitada(linha, email, motivo));
+        } else {
+            resultado.setRejeicoesOmitidas(resultado.getRejeicoesOmitidas() + 1);
+        }
+    }
+
+    /**
+     * A primeira linha é cabeçalho só se as colunas forem os nomes esperados (sem diferenciar
+     * maiúsculas); uma linha de dados com "email" no endereço continua sendo importada.
+     */
+    private static boolean ehCabecalho(String linha) {
+        List<String> campos = separarCampos(linha.replace("\uFEFF", ""));
+        return campos.stream().map(campo -> campo.trim().toLowerCase(Locale.ROOT)).toList().equals(CABECALHO);
+    }
+
+    private static String normalizar(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Valida os campos de uma linha.
+     *
+     * @return motivo da rejeição, ou null se a linha for válida
+     */
+    private String validar(List<String> campos) {
+        if (campos.size() != 4) {
+            return "Quantidade de colunas inválida (esperado: nome,email,senha,rendaMensal)";
+        }
+        if (campos.get(0).isBlank()) {
+            return "Nome obrigatório";
+        }
+        if (!EMAIL_VALIDO.matcher(campos.get(1).trim()).matches()) {
+            return "Email inválido";
+        }
+        if (campos.get(2).isEmpty()) {
+            return "Senha obrigatória";
+        }
+        try {
+            if (Centavos.deReais(campos.get(3)) < 0) {
+                return "Renda mensal inválida";
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            return "Renda mensal inválida";
+        }
+        return null;
+    }
+
+    /**
+     * Separa os campos de uma linha CSV, aceitando valores entre aspas duplas
+     * (com "" representando uma aspa literal).
+     */
+    static List<String> separarCampos(String linha) {
+        List<String> campos = new ArrayList<>(4);
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    /**
+     * Usuário pronto para inserção, junto com o número da linha de origem.
+     */
+    private record LinhaImportacao(long linha, User user) {
+    }
+}
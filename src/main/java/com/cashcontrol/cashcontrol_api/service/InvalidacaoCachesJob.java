@@ -0,0 +1,229 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.model.RegistroAlteracao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.BadgeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acompanha o registro de alterações ({@link RegistroAlteracao}) e invalida os caches locais
+ * com o que as outras instâncias alteraram.
+ *
+ * <p>
+ * A cada {@code cashcontrol.alteracoes.intervalo-ms}, lê de cada shard as linhas com {@code id}
+ * acima da marca já processada (consulta pela chave primária, até {@code cashcontrol.alteracoes.lote}
+ * linhas) e aplica o lote de uma vez:
+ * </p>
+ * <ul>
+ *     <li>usuários: saem do cache de segundo nível (token, saldo, XP) e têm XP e dashboard
+ *     recarregados do banco para o ranking e as conexões SSE desta instância;</li>
+ *     <li>transações: o histórico em memória do usuário é descartado;</li>
+ *     <li>badges: a região de consultas de badges por usuário é descartada.</li>
+ * </ul>
+ *
+ * <p>
+ * Os IDs são atribuídos no INSERT, mas as transações confirmam fora de ordem: uma lacuna logo
+ * acima da marca segura o avanço por até {@code cashcontrol.alteracoes.espera-lacuna-ms}, à espera
+ * do commit (depois disso é tratada como rollback). As linhas acima da lacuna já são aplicadas.
+ * As linhas gravadas por esta instância só avançam a marca: os eventos locais já atualizaram os
+ * caches. O atraso entre a gravação e a invalidação vai para o timer
+ * {@code cashcontrol.alteracoes.atraso} (depende dos relógios das instâncias estarem sincronizados).
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "cashcontrol.alteracoes.habilitado", havingValue = "true")
+public class InvalidacaoCachesJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidacaoCachesJob.class);
+
+    private static final String SQL_NOVAS =
+            "select id, entidade, entidade_id, versao, no from registro_alteracao where id > ? order by id limit ?";
+
+    private static final String SQL_USUARIOS =
+            "select id, nome, xp, cast(saldo * 100 as bigint), dias_sem_apostar from usuario where id in (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final Shards shards;
+    private final EntityManagerFactory entityManagerFactory;
+    private final HistoricoTransacoesService historicoTransacoesService;
+    private final RankingService rankingService;
+    private final DashboardEventosService dashboardEventosService;
+    private final String no;
+    private final int lote;
+    private final long esperaLacunaNanos;
+    private final Timer atraso;
+    private final Counter lacunasDescartadas;
+    private final Marca[] marcas;
+
+    public InvalidacaoCachesJob(JdbcTemplate jdbcTemplate, Shards shards, EntityManagerFactory entityManagerFactory,
+                                HistoricoTransacoesService historicoTransacoesService, RankingService rankingService,
+                                DashboardEventosService dashboardEventosService,
+                                RegistroAlteracoesService registroAlteracoesService, MeterRegistry meterRegistry,
+                                @Value("${cashcontrol.alteracoes.lote:1000}") int lote,
+                                @Value("${cashcontrol.alteracoes.espera-lacuna-ms:5000}") long esperaLacunaMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.shards = shards;
+        this.entityManagerFactory = entityManagerFactory;
+        this.historicoTransacoesService = historicoTransacoesService;
+        this.rankingService = rankingService;
+        this.dashboardEventosService = dashboardEventosService;
+        this.no = registroAlteracoesService.no();
+        this.lote = lote;
+        this.esperaLacunaNanos = TimeUnit.MILLISECONDS.toNanos(esperaLacunaMs);
+        this.atraso = Timer.builder("cashcontrol.alteracoes.atraso")
+                .description("Tempo entre a gravação de uma alteração em outra instância e a invalidação local")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.lacunasDescartadas = Counter.builder("cashcontrol.alteracoes.lacunas-descartadas")
+                .description("IDs do registro de alterações nunca confirmados (rollback)")
+                .register(meterRegistry);
+
+        // Os caches começam vazios: só interessa o que for gravado daqui em diante
+        this.marcas = shards.deCadaShard(shard -> {
+            Long maior = jdbcTemplate.queryForObject("select max(id) from registro_alteracao", Long.class);
+            return new Marca(maior != null ? maior : 0);
+        }).toArray(new Marca[0]);
+    }
+
+    /**
+     * Lê e aplica as alterações novas de todos os shards.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.alteracoes.intervalo-ms:500}")
+    public synchronized void verificar() {
+        shards.emCadaShard(shard -> {
+            try {
+                verificar(shard, marcas[shard]);
+            } catch (RuntimeException e) {
+                log.warn("Erro ao ler o registro de alterações do shard {}", shard, e);
+            }
+        });
+    }
+
+    /**
+     * @return maior ID do registro do shard já processado, sem lacunas abaixo dele
+     */
+    long marca(int shard) {
+        return marcas[shard].id;
+    }
+
+    private void verificar(int shard, Marca marca) {
+        Set<Long> usuarios = new HashSet<>();
+        Set<Long> transacoes = new HashSet<>();
+        boolean badges = false;
+        List<Long> versoes = new ArrayList<>();
+        for (Object[] linha : jdbcTemplate.query(SQL_NOVAS, (rs, i) -> new Object[]{
+                rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getString(5)}, marca.id, lote)) {
+            if (!marca.acima.add((Long) linha[0]) || no.equals(linha[4])) {
+                continue;
+            }
+            long userId = (Long) linha[2];
+            switch ((String) linha[1]) {
+                case RegistroAlteracao.USUARIO -> usuarios.add(userId);
+                case RegistroAlteracao.TRANSACOES -> transacoes.add(userId);
+                case RegistroAlteracao.BADGES -> badges = true;
+                default -> log.warn("Entidade desconhecida no registro de alterações: {}", linha[1]);
+            }
+            versoes.add((Long) linha[3]);
+        }
+
+        if (!usuarios.isEmpty() || !transacoes.isEmpty() || badges) {
+            invalidar(usuarios, transacoes, badges);
+            long agora = System.currentTimeMillis();
+            versoes.forEach(versao -> atraso.record(Math.max(0, agora - versao), TimeUnit.MILLISECONDS));
+        }
+        avancar(marca);
+    }
+
+    private void invalidar(Set<Long> usuarios, Set<Long> transacoes, boolean badges) {
+        Cache cache = entityManagerFactory.getCache();
+        usuarios.forEach(id -> cache.evict(User.class, id));
+        historicoTransacoesService.descartar(transacoes);
+        if (badges) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(BadgeRepository.REGIAO_POR_USUARIO);
+        }
+        if (usuarios.isEmpty()) {
+            return;
+        }
+
+        // Ranking e dashboards abertos nesta instância com os valores já confirmados
+        Set<Long> encontrados = new HashSet<>();
+        namedParameterJdbcTemplate.query(SQL_USUARIOS, new MapSqlParameterSource("ids", usuarios), rs -> {
+            long userId = rs.getLong(1);
+            int xp = rs.getInt(3);
+            encontrados.add(userId);
+            rankingService.aoAlterarXp(new XpAlteradoEvent(userId, rs.getString(2), xp, false));
+            dashboardEventosService.aoAlterarDashboard(new DashboardAlteradoEvent(userId, rs.getLong(4), xp,
+                    (Integer) rs.getObject(5), List.of()));
+        });
+        for (Long userId : usuarios) {
+            if (!encontrados.contains(userId)) {
+                rankingService.aoAlterarXp(XpAlteradoEvent.removido(userId));
+                historicoTransacoesService.descartar(List.of(userId));
+            }
+        }
+    }
+
+    /**
+     * Avança a marca pelos IDs consecutivos já processados; uma lacuna só é pulada depois da espera.
+     */
+    private void avancar(Marca marca) {
+        while (!marca.acima.isEmpty()) {
+            if (marca.acima.first() == marca.id + 1) {
+                marca.id = marca.acima.pollFirst();
+                marca.lacunaDesde = 0;
+            } else if (marca.lacunaDesde == 0) {
+                marca.lacunaDesde = System.nanoTime();
+                return;
+            } else if (System.nanoTime() - marca.lacunaDesde >= esperaLacunaNanos) {
+                lacunasDescartadas.increment(marca.acima.first() - marca.id - 1);
+                marca.id = marca.acima.first() - 1;
+                marca.lacunaDesde = 0;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static final class Marca {
+
+        private long id;
+
+        /**
+         * IDs acima da marca já processados, à espera de uma lacuna abaixo deles.
+         */
+        private final TreeSet<Long> acima = new TreeSet<>();
+
+        /**
+         * Quando a lacuna atual logo acima da marca foi vista (System.nanoTime), ou 0.
+         */
+        private long lacunaDesde;
+
+        private Marca(long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.RankingPosicaoDto;
+import com.cashcontrol.cashcontrol_api.dto.RankingUsuarioDto;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking global de XP mantido em memória.
+ *
+ * <p>
+ * Os usuários ficam em uma {@link ArvoreRanking} (árvore de estatística de ordem), protegida por
+ * um {@link ReadWriteLock}: consultas de top-K e de posição rodam em paralelo entre si e custam
+ * O(log n + k), sem {@code ORDER BY} no banco. A árvore é atualizada a cada
+ * {@link XpAlteradoEvent}, depois do commit da transação que alterou o usuário.
+ * </p>
+ *
+ * <p>
+ * Na inicialização, a árvore é reconstruída a partir da tabela {@code usuario}. Atualizações que
+ * chegam durante a reconstrução têm prioridade sobre as linhas lidas do banco. Usuários que ainda
+ * não estejam na árvore são carregados do banco sob demanda, na consulta de posição.
+ * </p>
+ */
+@Service
+public class RankingService {
+
+    private static final Logger log = LoggerFactory.getLogger(RankingService.class);
+
+    private final ArvoreRanking arvore = new ArvoreRanking();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private Shards shards;
+
+    /**
+     * Reconstrói o ranking a partir do banco (de todos os shards) quando a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.nanoTime();
+        shards.emCadaShard(shard -> jdbcTemplate.query("select id, nome, xp from usuario", rs -> {
+            long userId = rs.getLong(1);
+            String nome = rs.getString(2);
+            int xp = rs.getInt(3);
+            lock.writeLock().lock();
+            try {
+                arvore.adicionarSeAusente(userId, nome, xp);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }));
+        log.info("Ranking de XP reconstruído com {} usuários em {} ms",
+                tamanho(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Aplica uma alteração de XP após o commit (ou imediatamente, se publicada fora de transação).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarXp(XpAlteradoEvent evento) {
+        lock.writeLock().lock();
+        try {
+            if (evento.removido()) {
+                arvore.remover(evento.userId());
+            } else {
+                arvore.atualizar(evento.userId(), evento.nome(), evento.xp());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lista as primeiras posições do ranking, sem identificar os usuários (só posição e XP).
+     *
+     * @param limite quantidade de posições
+     * @return posições em ordem, a partir da primeira
+     */
+    public List<RankingPosicaoDto> top(int limite) {
+        List<RankingPosicaoDto> posicoes = new ArrayList<>(limite);
+        lock.readLock().lock();
+        try {
+            arvore.listar(1, limite, e -> posicoes.add(toDto(e, false)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return posicoes;
+    }
+
+    /**
+     * Busca a posição de um usuário e as posições vizinhas. Só a posição do próprio usuário traz
+     * ID e nome; as vizinhas trazem apenas posição e XP.
+     *
+     * @param userId   ID do usuário
+     * @param vizinhos quantidade de posições exibidas acima e abaixo do usuário
+     * @return Optional vazio se o usuário não existir
+     */
+    public Optional<RankingUsuarioDto> buscarPosicao(long userId, int vizinhos) {
+        lock.readLock().lock();
+        try {
+            if (arvore.contem(userId)) {
+                return Optional.of(montarPosicao(userId, vizinhos));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Usuário ainda não indexado (ex.: cadastrado durante a reconstrução): carrega do banco
+        Optional<User> userOpt = userRepository.findById(userId);
+        if (userOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        aoAlterarXp(XpAlteradoEvent.de(userOpt.get()));
+        lock.readLock().lock();
+        try {
+            return arvore.contem(userId) ? Optional.of(montarPosicao(userId, vizinhos)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return quantidade de usuários no ranking
+     */
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return arvore.tamanho();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RankingUsuarioDto montarPosicao(long userId, int vizinhos) {
+        int posicao = arvore.posicao(userId);
+        int inicio = Math.max(1, posicao - vizinhos);
+        List<RankingPosicaoDto> lista = new ArrayList<>(2 * vizinhos + 1);
+        arvore.listar(inicio, posicao - inicio + vizinhos + 1, e -> lista.add(toDto(e, e.userId() == userId)));
+
+        RankingUsuarioDto dto = new RankingUsuarioDto();
+        dto.setUserId(userId);
+        dto.setPosicao(posicao);
+        dto.setTotalUsuarios(arvore.tamanho());
+        dto.setVizinhos(lista);
+        lista.stream().filter(p -> p.getUserId() != null).findFirst().ifPresent(p -> dto.setXp(p.getXp()));
+        return dto;
+    }
+
+    private RankingPosicaoDto toDto(ArvoreRanking.Entrada entrada, boolean identificado) {
+        return identificado
+                ? new RankingPosicaoDto(entrada.posicao(), entrada.userId(), entrada.nome(), entrada.xp())
+                : new RankingPosicaoDto(entrada.posicao(), null, null, entrada.xp());
+    }
+}
@@ -0,0 +1,185 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.ShardRoutingDataSource;
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.RebalanceamentoDto;
+import com.cashcontrol.cashcontrol_api.dto.ShardDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Move os usuários que estão gravados fora do shard dono (ver {@link Shards}).
+ *
+ * <p>
+ * Ao acrescentar uma URL em {@code cashcontrol.sharding.urls}, o anel passa a apontar cerca de
+ * 1/N dos usuários para o novo shard, mas os dados continuam no antigo. A subida com o novo shard
+ * deve informar também {@code cashcontrol.sharding.quantidade-anterior}: até serem movidos, esses
+ * usuários são atendidos pelo dono anterior ({@link Shards#shardComDados}).
+ * </p>
+ *
+ * <p>
+ * Cada usuário é movido com a sua linha bloqueada na origem (as escritas roteadas para lá esperam):
+ * cópia do usuário e de todas as suas linhas para o shard dono, numa transação local, e remoção na
+ * origem, na transação que segura o bloqueio. Assim que a cópia é confirmada, o roteamento passa
+ * para o dono. Se a remoção falhar depois disso, o usuário fica nos dois shards; a próxima execução
+ * mantém a cópia do dono (a única que recebe escritas desde então) e só limpa a origem. Nada que já
+ * esteja no destino é apagado. Os IDs não mudam: são únicos entre os shards.
+ * </p>
+ */
+@Service
+public class RebalanceamentoShardsService {
+
+    private static final Logger log = LoggerFactory.getLogger(RebalanceamentoShardsService.class);
+
+    /**
+     * Tabelas por usuário e a coluna que aponta para ele, na ordem de cópia (a remoção é na ordem
+     * inversa, por causa das chaves estrangeiras).
+     */
+    private static final List<String[]> TABELAS = List.of(
+            new String[]{"usuario", "id"},
+            new String[]{"transacao", "user_id"},
+            new String[]{"transacao_arquivo", "user_id"},
+            new String[]{"badge", "user_id"},
+            new String[]{"aposta_bloqueada", "user_id"},
+            new String[]{"chave_idempotencia", "user_id"});
+
+    private static final String SQL_BLOQUEAR = "select id from usuario where id = ? for update";
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource dataSourceShards;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Ocupação de cada shard e quantos usuários estão fora do shard dono.
+     */
+    public List<ShardDto> resumo() {
+        return shards.deCadaShard(shard -> {
+            List<Long> ids = jdbcTemplate.queryForList("select id from usuario", Long.class);
+            Long transacoes = jdbcTemplate.queryForObject("select count(*) from transacao", Long.class);
+            long fora = ids.stream().filter(id -> shards.shardDoUsuario(id) != shard).count();
+            return new ShardDto(shard, ids.size(), transacoes != null ? transacoes : 0, fora);
+        });
+    }
+
+    /**
+     * Move para o shard dono todos os usuários gravados em outro shard, com as suas transações
+     * (ativas e arquivadas), badges e chaves de idempotência.
+     *
+     * @return quantidades movidas; sem sharding, nada é movido
+     */
+    public synchronized RebalanceamentoDto rebalancear() {
+        long inicio = System.nanoTime();
+        RebalanceamentoDto resultado = new RebalanceamentoDto();
+        if (dataSourceShards != null) {
+            for (int origem = 0; origem < shards.quantidade(); origem++) {
+                JdbcTemplate jdbcOrigem = new JdbcTemplate(dataSourceShards.shard(origem));
+                for (Long userId : jdbcOrigem.queryForList("select id from usuario order by id", Long.class)) {
+                    int destino = shards.shardDoUsuario(userId);
+                    if (destino != origem) {
+                        resultado.setTransacoesMovidas(resultado.getTransacoesMovidas()
+                                + mover(userId, dataSourceShards.shard(origem), dataSourceShards.shard(destino)));
+                        resultado.setUsuariosMovidos(resultado.getUsuariosMovidos() + 1);
+                    }
+                }
+            }
+            if (resultado.getUsuariosMovidos() > 0) {
+                // Consultas em cache podem ter sido resolvidas no shard antigo
+                entityManagerFactory.getCache().evictAll();
+            }
+        }
+        resultado.setDuracaoMs((System.nanoTime() - inicio) / 1_000_000);
+        log.info("Rebalanceamento de shards: {} usuários e {} transações movidos em {} ms",
+                resultado.getUsuariosMovidos(), resultado.getTransacoesMovidas(), resultado.getDuracaoMs());
+        return resultado;
+    }
+
+    /**
+     * Copia o usuário para o destino, se ele ainda não estiver lá, e depois o remove da origem.
+     *
+     * @return quantidade de transações movidas
+     */
+    private long mover(long userId, DataSource origem, DataSource destino) {
+        JdbcTemplate jdbcOrigem = new JdbcTemplate(origem);
+        JdbcTemplate jdbcDestino = new JdbcTemplate(destino);
+
+        Long transacoes = new TransactionTemplate(new DataSourceTransactionManager(origem)).execute(statusOrigem -> {
+            if (jdbcOrigem.queryForList(SQL_BLOQUEAR, Long.class, userId).isEmpty()) {
+                return 0L; // Excluído depois da listagem
+            }
+            Integer noDestino = jdbcDestino.queryForObject("select count(*) from usuario where id = ?", Integer.class, userId);
+            long copiadas = 0;
+            if (noDestino != null && noDestino > 0) {
+                log.warn("Usuário {} já está no shard dono (remoção interrompida): só a origem é limpa", userId);
+            } else {
+                copiadas = new TransactionTemplate(new DataSourceTransactionManager(destino)).execute(status -> {
+                    long linhasTransacoes = 0;
+                    for (String[] tabela : TABELAS) {
+                        int linhas = copiar(jdbcOrigem, jdbcDestino, tabela[0], tabela[1], userId);
+                        if (tabela[0].startsWith("transacao")) {
+                            linhasTransacoes += linhas;
+                        }
+                    }
+                    return linhasTransacoes;
+                });
+            }
+            remover(jdbcOrigem, userId);
+            return copiadas;
+        });
+        return transacoes != null ? transacoes : 0;
+    }
+
+    /**
+     * Copia as linhas do usuário com todas as colunas, na ordem em que o schema as define.
+     */
+    private static int copiar(JdbcTemplate origem, JdbcTemplate destino, String tabela, String coluna, long userId) {
+        List<String> colunas = new ArrayList<>();
+        List<Object[]> linhas = origem.query("select * from " + tabela + " where " + coluna + " = ?", rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                colunas.add(metaData.getColumnName(i));
+            }
+            List<Object[]> lidas = new ArrayList<>();
+            while (rs.next()) {
+                Object[] valores = new Object[colunas.size()];
+                for (int i = 0; i < valores.length; i++) {
+                    valores[i] = rs.getObject(i + 1);
+                }
+                lidas.add(valores);
+            }
+            return lidas;
+        }, userId);
+        if (linhas == null || linhas.isEmpty()) {
+            return 0;
+        }
+        String sql = "insert into " + tabela + " (" + String.join(", ", colunas) + ") values ("
+                + String.join(", ", colunas.stream().map(c -> "?").toList()) + ")";
+        destino.batchUpdate(sql, linhas);
+        return linhas.size();
+    }
+
+    private static void remover(JdbcTemplate jdbcTemplate, long userId) {
+        for (int i = TABELAS.size() - 1; i >= 0; i--) {
+            String[] tabela = TABELAS.get(i);
+            jdbcTemplate.update("delete from " + tabela[0] + " where " + tabela[1] + " = ?", userId);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.model.RegistroAlteracao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Grava no registro de alterações ({@link RegistroAlteracao}) o que cada escrita mudou, para que
+ * as outras instâncias invalidem os seus caches locais ({@link InvalidacaoCachesJob}).
+ *
+ * <p>
+ * Ouve os mesmos eventos que atualizam os caches desta instância, no momento em que são
+ * publicados: as alterações de uma transação são acumuladas e gravadas em um único batch antes do
+ * commit, na mesma transação (se ela for desfeita, nada é registrado). Eventos publicados fora de
+ * transação são gravados na hora.
+ * </p>
+ *
+ * <p>Ativado com {@code cashcontrol.alteracoes.habilitado=true}, quando há mais de uma instância.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "cashcontrol.alteracoes.habilitado", havingValue = "true")
+public class RegistroAlteracoesService {
+
+    private static final String SQL_INSERIR =
+            "insert into registro_alteracao (entidade, entidade_id, versao, no) values (?, ?, ?, ?)";
+
+    private static final String SQL_REMOVER_ANTIGAS = "delete from registro_alteracao where versao < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final String no;
+    private final long retencaoMs;
+
+    public RegistroAlteracoesService(JdbcTemplate jdbcTemplate, Shards shards,
+                                     @Value("${cashcontrol.alteracoes.no:}") String no,
+                                     @Value("${cashcontrol.alteracoes.retencao-minutos:60}") long retencaoMinutos) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.no = no.isBlank() ? UUID.randomUUID().toString() : no;
+        this.retencaoMs = retencaoMinutos * 60_000;
+    }
+
+    /**
+     * @return identificador desta instância no registro
+     */
+    public String no() {
+        return no;
+    }
+
+    @EventListener
+    public void aoAlterarXp(XpAlteradoEvent evento) {
+        registrar(RegistroAlteracao.USUARIO, evento.userId());
+    }
+
+    @EventListener
+    public void aoAlterarDashboard(DashboardAlteradoEvent evento) {
+        registrar(RegistroAlteracao.USUARIO, evento.userId());
+        if (!evento.novasBadges().isEmpty()) {
+            registrar(RegistroAlteracao.BADGES, evento.userId());
+        }
+    }
+
+    @EventListener
+    public void aoRealizarTransacao(TransacaoRealizadaEvent evento) {
+        registrar(RegistroAlteracao.TRANSACOES, evento.userId());
+    }
+
+    @EventListener
+    public void aoRemoverTransacoes(TransacoesRemovidasEvent evento) {
+        registrar(RegistroAlteracao.TRANSACOES, evento.userId());
+    }
+
+    /**
+     * Remove as linhas mais antigas que a retenção ({@code cashcontrol.alteracoes.retencao-minutos}),
+     * já lidas por todas as instâncias ativas.
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.alteracoes.intervalo-limpeza-ms:600000}")
+    public void removerAntigas() {
+        long limite = System.currentTimeMillis() - retencaoMs;
+        shards.emCadaShard(shard -> jdbcTemplate.update(SQL_REMOVER_ANTIGAS, limite));
+    }
+
+    private void registrar(String entidade, long userId) {
+        Alteracao alteracao = new Alteracao(entidade, userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            gravar(List.of(alteracao));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Alteracao> pendentes = (Set<Alteracao>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Set<Alteracao> novas = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    inserir(novas, System.currentTimeMillis());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RegistroAlteracoesService.this);
+                }
+            });
+            pendentes = novas;
+        }
+        pendentes.add(alteracao);
+    }
+
+    /**
+     * Grava, fora de transação, as alterações no shard de cada usuário.
+     */
+    private void gravar(Collection<Alteracao> alteracoes) {
+        Map<Integer, List<Alteracao>> porShard = new TreeMap<>();
+        for (Alteracao alteracao : alteracoes) {
+            porShard.computeIfAbsent(shards.shardDoUsuario(alteracao.userId()), s -> new ArrayList<>()).add(alteracao);
+        }
+        long versao = System.currentTimeMillis();
+        porShard.forEach((shard, lista) -> shards.noShard(shard, () -> {
+            inserir(lista, versao);
+            return null;
+        }));
+    }
+
+    /**
+     * Insere as alterações pela conexão atual: dentro de uma transação, no shard dela (as outras
+     * instâncias leem todos os shards).
+     */
+    private void inserir(Collection<Alteracao> alteracoes, long versao) {
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERIR, alteracoes, alteracoes.size(), (ps, alteracao) -> {
+            ps.setString(1, alteracao.entidade());
+            ps.setLong(2, alteracao.userId());
+            ps.setLong(3, versao);
+            ps.setString(4, no);
+        });
+    }
+
+    private record Alteracao(String entidade, long userId) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+
+/**
+ * Serviço responsável por gerar e verificar hashes de senha.
+ *
+ * <p>
+ * Todo o trabalho de hash é executado no pool dedicado {@code senhaExecutor}. Se o pool
+ * estiver saturado (fila cheia) ou a resposta demorar mais que o tempo limite, é lançada
+ * {@link RejectedExecutionException} para que o controller responda 503 rapidamente.
+ * </p>
+ *
+ * <p>Métricas publicadas (Micrometer):</p>
+ * <ul>
+ *     <li>{@code cashcontrol.senha.hash} – tempo de CPU do hash, por operação (gerar/verificar);</li>
+ *     <li>{@code cashcontrol.senha.fila} – tempo de espera na fila do pool;</li>
+ *     <li>{@code cashcontrol.senha.rejeitadas} – requisições recusadas por saturação ou tempo limite;</li>
+ *     <li>{@code cashcontrol.senha.legadas} – logins com senha legada (texto puro), convertida em seguida.</li>
+ * </ul>
+ */
+@Service
+public class SenhaService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("senhaExecutor")
+    private ExecutorService senhaExecutor;
+
+    @Value("${cashcontrol.senha.tempo-limite-ms:2000}")
+    private long tempoLimiteMs;
+
+    private final Timer tempoGerar;
+    private final Timer tempoVerificar;
+    private final Timer tempoFila;
+    private final Counter rejeitadas;
+    private final Counter legadas;
+
+    public SenhaService(MeterRegistry registry) {
+        this.tempoGerar = timerHash(registry, "gerar");
+        this.tempoVerificar = timerHash(registry, "verificar");
+        this.tempoFila = Timer.builder("cashcontrol.senha.fila")
+                .description("Tempo de espera na fila do pool de senhas")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.rejeitadas = Counter.builder("cashcontrol.senha.rejeitadas")
+                .description("Operações de senha recusadas por saturação ou tempo limite")
+                .register(registry);
+        this.legadas = Counter.builder("cashcontrol.senha.legadas")
+                .description("Logins com senha legada em texto puro (convertida para BCrypt)")
+                .register(registry);
+    }
+
+    /**
+     * Gera o hash de uma senha nova.
+     *
+     * @param senha senha em texto puro
+     * @return hash no formato {@code {bcrypt}...}
+     * @throws RejectedExecutionException se o pool estiver saturado
+     */
+    public String gerarHash(String senha) {
+        return executar(() -> tempoGerar.record(() -> passwordEncoder.encode(senha)));
+    }
+
+    /**
+     * Verifica a senha informada contra a senha gravada do usuário.
+     *
+     * <p>
+     * Se a senha estiver correta e o valor gravado estiver em formato antigo (texto puro ou
+     * custo menor que o configurado), o hash é regerado e atribuído ao usuário; cabe ao
+     * chamador persistir o usuário.
+     * </p>
+     *
+     * @param user           usuário com a senha gravada
+     * @param senhaInformada senha recebida no login
+     * @return true se a senha confere
+     * @throws RejectedExecutionException se o pool estiver saturado
+     */
+    public boolean verificar(User user, String senhaInformada) {
+        String gravada = user.getSenha();
+        if (gravada == null || senhaInformada == null) {
+            return false;
+        }
+        String novoHash = executar(() -> {
+            boolean confere = tempoVerificar.record(() -> passwordEncoder.matches(senhaInformada, gravada));
+            if (!confere) {
+                return null;
+            }
+            return passwordEncoder.upgradeEncoding(gravada)
+                    ? tempoGerar.record(() -> passwordEncoder.encode(senhaInformada))
+                    : gravada;
+        });
+        if (novoHash == null) {
+            return false;
+        }
+        if (!gravada.startsWith("{")) {
+            legadas.increment();
+        }
+        user.setSenha(novoHash);
+        return true;
+    }
+
+    /**
+     * Executa a tarefa no pool dedicado, aguardando no máximo o tempo limite.
+     */
+    private String executar(Callable<String> tarefa) {
+        long enfileirado = System.nanoTime();
+        Future<String> futuro;
+        try {
+            futuro = senhaExecutor.submit(() -> {
+                tempoFila.record(System.nanoTime() - enfileirado, TimeUnit.NANOSECONDS);
+                return tarefa.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejeitadas.increment();
+            throw e;
+        }
+
+        try {
+            return futuro.get(tempoLimiteMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rejeitadas.increment();
+            throw new RejectedExecutionException("Tempo limite excedido na verificação de senha", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Verificação de senha interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro ao processar senha", e.getCause());
+        }
+    }
+
+    private static Timer timerHash(MeterRegistry registry, String operacao) {
+        return Timer.builder("cashcontrol.senha.hash")
+                .description("Tempo de cálculo do hash de senha")
+                .tag("operacao", operacao)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
@@ -0,0 +1,108 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tickets de conexão ao SSE do dashboard, para clientes {@code EventSource} de navegador (que não
+ * enviam headers customizados).
+ *
+ * <p>
+ * O ticket vai na URL ({@code ?ticket=}) no lugar do token: vale poucos segundos e uma única
+ * conexão, de modo que o valor que fica em logs de acesso e de proxies não serve para mais nada.
+ * Formato: {@code expiraEm.nonce.assinatura}, com a assinatura HMAC-SHA256 calculada com o token
+ * atual do usuário. Qualquer instância valida o ticket só com o usuário já carregado, e um novo
+ * login invalida os tickets anteriores. O uso único é controlado pela instância que recebe a
+ * conexão (nonces usados ficam em memória até expirarem).
+ * </p>
+ */
+@Service
+public class TicketEventosService {
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Long> usados = new ConcurrentHashMap<>();
+
+    @Value("${cashcontrol.sse.ticket-validade-segundos:30}")
+    private long validadeSegundos;
+
+    /**
+     * Emite um ticket para o usuário já autenticado.
+     *
+     * @param user usuário dono do token
+     * @return ticket de uso único
+     */
+    public String emitir(User user) {
+        long expiraEm = Instant.now().getEpochSecond() + validadeSegundos;
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        String nonce = BASE64.encodeToString(bytes);
+        return expiraEm + "." + nonce + "." + assinar(user, expiraEm + "." + nonce);
+    }
+
+    /**
+     * Consome o ticket: válido se foi emitido para o usuário com o token atual, não expirou e
+     * ainda não foi usado nesta instância.
+     *
+     * @param user   usuário da conexão
+     * @param ticket ticket recebido na URL
+     * @return true se a conexão pode ser aberta
+     */
+    public boolean consumir(User user, String ticket) {
+        if (ticket == null || user.getToken() == null) {
+            return false;
+        }
+        int fimExpiracao = ticket.indexOf('.');
+        int fimNonce = ticket.indexOf('.', fimExpiracao + 1);
+        if (fimExpiracao < 1 || fimNonce < 0) {
+            return false;
+        }
+        long expiraEm;
+        try {
+            expiraEm = Long.parseLong(ticket.substring(0, fimExpiracao));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expiraEm < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        byte[] esperada = assinar(user, ticket.substring(0, fimNonce)).getBytes(StandardCharsets.US_ASCII);
+        byte[] recebida = ticket.substring(fimNonce + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(esperada, recebida)) {
+            return false;
+        }
+        return usados.putIfAbsent(ticket.substring(fimExpiracao + 1, fimNonce), expiraEm) == null;
+    }
+
+    /**
+     * Descarta os nonces de tickets já expirados (não podem mais ser usados de qualquer forma).
+     */
+    @Scheduled(fixedDelayString = "${cashcontrol.sse.ticket-validade-segundos:30}000")
+    public void removerExpirados() {
+        long agora = Instant.now().getEpochSecond();
+        usados.values().removeIf(expiraEm -> expiraEm < agora);
+    }
+
+    private static String assinar(User user, String conteudo) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(user.getToken().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return BASE64.encodeToString(mac.doFinal((user.getId() + "." + conteudo).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+
+/**
+ * Evento publicado quando uma transação é efetivada (status {@code REALIZADA}).
+ *
+ * <p>Consumido após o commit por {@link HistoricoTransacoesService}, que acrescenta a linha ao histórico em memória.</p>
+ *
+ * @param userId      identificador do usuário
+ * @param transacaoId identificador da transação
+ * @param instante    data da transação, em epoch millis (fuso do servidor)
+ * @param valor       valor em centavos
+ * @param tipo        ordinal de {@link com.cashcontrol.cashcontrol_api.model.TipoTransacao}
+ */
+public record TransacaoRealizadaEvent(long userId, long transacaoId, long instante, long valor, byte tipo) {
+
+    public static TransacaoRealizadaEvent de(Transacao transacao) {
+        return new TransacaoRealizadaEvent(transacao.getUser().getId(), transacao.getId(),
+                HistoricoTransacoesService.instante(transacao.getData()), transacao.getValor(),
+                (byte) transacao.getTipo().ordinal());
+    }
+}
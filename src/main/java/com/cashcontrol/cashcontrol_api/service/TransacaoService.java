@@ -1,42 +1,92 @@
 package com.cashcontrol.cashcontrol_api.service;
 
-import com.cashcontrol.cashcontrol_api.model.Badge;
+import com.cashcontrol.cashcontrol_api.config.LeituraPrimaria;
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.TransacaoFiltroDto;
+import com.cashcontrol.cashcontrol_api.dto.TransacaoLinha;
 import com.cashcontrol.cashcontrol_api.model.Transacao;
 import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
 import com.cashcontrol.cashcontrol_api.model.User;
-import com.cashcontrol.cashcontrol_api.repository.BadgeRepository;
+import com.cashcontrol.cashcontrol_api.repository.TransacaoArquivadaRepository;
 import com.cashcontrol.cashcontrol_api.repository.TransacaoRepository;
 import com.cashcontrol.cashcontrol_api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Serviço responsável pelas operações relacionadas às transações financeiras.
- * Controla atualizações de saldo, XP e badges dos usuários.
+ * Controla atualizações de saldo e XP dos usuários.
  */
 @Service
 public class TransacaoService {
 
+    private static final LocalDateTime INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime FIM = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // Projeção das listagens em streaming (ver TransacaoLinha); valor já em centavos
+    private static final String COLUNAS = "select id, cast(valor * 100 as bigint), tipo, data, status, user_id from ";
+
+    private static final String SQL_TODAS = COLUNAS + "transacao order by id";
+
+    private static final String FILTRO_USUARIO = " where user_id = ? and data >= ? and data < ?";
+
+    private static final String SQL_POR_USUARIO = COLUNAS + "transacao" + FILTRO_USUARIO + " order by 4, 1";
+
+    private static final String SQL_POR_USUARIO_COM_ARQUIVO = COLUNAS + "transacao" + FILTRO_USUARIO +
+            " union all " + COLUNAS + "transacao_arquivo" + FILTRO_USUARIO + " order by 4, 1";
+
     @Autowired
     private TransacaoRepository transacaoRepository;
 
+    @Autowired
+    private TransacaoArquivadaRepository transacaoArquivadaRepository;
+
+    @Autowired
+    private ArquivamentoTransacoesService arquivamentoService;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private BadgeRepository badgeRepository;
+    private ApostasBloqueadasService apostasBloqueadasService;
 
-    /**
-     * Lista todas as transações registradas.
-     *
-     * @return lista com todas as transações
-     */
-    public List<Transacao> listarTodas() {
-        return transacaoRepository.findAll();
+    @Autowired
+    private LeituraPrimaria leituraPrimaria;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Shards shards;
+
+    @Value("${cashcontrol.transacoes.fetch-size:500}")
+    private int fetchSize;
+
+    private JdbcTemplate jdbcListagem;
+
+    @PostConstruct
+    void iniciar() {
+        // Lê as listagens em blocos, sem o driver carregar o resultado inteiro na memória
+        jdbcListagem = new JdbcTemplate(jdbcTemplate.getDataSource());
+        jdbcListagem.setFetchSize(fetchSize);
     }
 
     /**
@@ -45,30 +95,189 @@ public class TransacaoService {
      * @param user usuário dono das transações
      * @return lista de transações do usuário
      */
+    @Transactional(readOnly = true)
     public List<Transacao> listarPorUsuario(User user) {
-        return transacaoRepository.findByUser(user);
+        return listarPorUsuario(user, null, null);
+    }
+
+    /**
+     * Lista as transações de um usuário no intervalo {@code [desde, ate)}, em ordem de data.
+     * O arquivo só é consultado se o intervalo alcançar o período arquivado.
+     *
+     * @param user  usuário dono das transações
+     * @param desde início do intervalo (inclusivo), ou null para desde o início
+     * @param ate   fim do intervalo (exclusivo), ou null para sem limite
+     * @return lista de transações do usuário
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> listarPorUsuario(User user, LocalDateTime desde, LocalDateTime ate) {
+        LocalDateTime inicio = desde != null ? desde : INICIO;
+        LocalDateTime fim = ate != null ? ate : FIM;
+        List<Transacao> recentes = desde == null && ate == null
+                ? transacaoRepository.findByUser(user)
+                : transacaoRepository.findByUserAndDataGreaterThanEqualAndDataLessThan(user, inicio, fim);
+        if (!arquivamentoService.exigeArquivo(desde)) {
+            return recentes;
+        }
+
+        List<Transacao> todas = new ArrayList<>();
+        transacaoArquivadaRepository.findByUserIdAndDataGreaterThanEqualAndDataLessThanOrderByDataAscIdAsc(
+                user.getId(), inicio, fim).forEach(t -> todas.add(t.paraTransacao(user)));
+        todas.addAll(recentes);
+        todas.sort(Comparator.comparing(Transacao::getData).thenComparing(Transacao::getId));
+        return todas;
     }
 
     /**
-     * Busca uma transação pelo seu ID.
+     * Percorre todas as transações recentes, em ordem de id, entregando cada linha sem montar
+     * entidades (a mesma {@link TransacaoLinha} é reaproveitada). Com sharding, os shards são lidos
+     * um após o outro, cada um em ordem de id.
+     *
+     * @param destino recebe cada linha, enquanto a consulta é lida
+     */
+    @Transactional(readOnly = true)
+    public void percorrerTodas(Consumer<TransacaoLinha> destino) {
+        shards.lerEmCadaShard(() -> jdbcListagem.query(SQL_TODAS, projecao(destino)));
+    }
+
+    /**
+     * Percorre as transações de um usuário no intervalo {@code [desde, ate)}, em ordem de data,
+     * entregando cada linha sem montar entidades. O arquivo entra na mesma consulta só se o
+     * intervalo alcançar o período arquivado.
+     *
+     * @param userId  usuário dono das transações
+     * @param desde   início do intervalo (inclusivo), ou null para desde o início
+     * @param ate     fim do intervalo (exclusivo), ou null para sem limite
+     * @param destino recebe cada linha, enquanto a consulta é lida
+     */
+    @Transactional(readOnly = true)
+    public void percorrerPorUsuario(long userId, LocalDateTime desde, LocalDateTime ate, Consumer<TransacaoLinha> destino) {
+        Timestamp inicio = Timestamp.valueOf(desde != null ? desde : INICIO);
+        Timestamp fim = Timestamp.valueOf(ate != null ? ate : FIM);
+        if (arquivamentoService.exigeArquivo(desde)) {
+            jdbcListagem.query(SQL_POR_USUARIO_COM_ARQUIVO, projecao(destino), userId, inicio, fim, userId, inicio, fim);
+        } else {
+            jdbcListagem.query(SQL_POR_USUARIO, projecao(destino), userId, inicio, fim);
+        }
+    }
+
+    private static RowCallbackHandler projecao(Consumer<TransacaoLinha> destino) {
+        TransacaoLinha linha = new TransacaoLinha();
+        return rs -> {
+            String tipo = rs.getString(3);
+            Timestamp data = rs.getTimestamp(4);
+            destino.accept(linha.preencher(rs.getLong(1), rs.getLong(2),
+                    tipo != null ? TipoTransacao.valueOf(tipo) : null,
+                    data != null ? data.toLocalDateTime() : null,
+                    rs.getString(5), rs.getLong(6)));
+        };
+    }
+
+    /**
+     * Busca as transações de um usuário que atendem aos filtros, em ordem de data, com uma única
+     * consulta parametrizada (e outra no arquivo, se o período alcançar transações arquivadas).
+     *
+     * @param user   usuário dono das transações
+     * @param filtro filtros opcionais (tipo, status, período e faixa de valor)
+     * @return transações encontradas
+     */
+    @Transactional(readOnly = true)
+    public List<Transacao> buscar(User user, TransacaoFiltroDto filtro) {
+        Sort ordem = Sort.by("data", "id");
+        List<Transacao> recentes = transacaoRepository.findAll(TransacaoRepository.busca(user, filtro), ordem);
+        if (!arquivamentoService.exigeArquivo(filtro.getDesde())) {
+            return recentes;
+        }
+
+        List<Transacao> todas = new ArrayList<>();
+        transacaoArquivadaRepository.findAll(TransacaoArquivadaRepository.busca(user.getId(), filtro), ordem)
+                .forEach(t -> todas.add(t.paraTransacao(user)));
+        todas.addAll(recentes);
+        todas.sort(Comparator.comparing(Transacao::getData).thenComparing(Transacao::getId));
+        return todas;
+    }
+
+    /**
+     * Busca uma transação pelo seu ID, no período recente ou no arquivo (em todos os shards, já
+     * que o ID não indica o usuário).
      *
      * @param id identificador da transação
      * @return Optional contendo a transação, se encontrada
      */
+    @Transactional(readOnly = true)
     public Optional<Transacao> buscarPorId(Long id) {
-        return transacaoRepository.findById(id);
+        return shards.procurar(() -> transacaoRepository.findById(id)
+                .or(() -> transacaoArquivadaRepository.findById(id)
+                        .flatMap(arquivada -> userRepository.findById(arquivada.getUserId())
+                                .map(arquivada::paraTransacao))));
+    }
+
+    /**
+     * Cria uma transação pedida pelo usuário, aplicando as regras de intervenção, em uma única
+     * unidade de trabalho: o usuário é lido do banco nesta transação, com lock de escrita (nunca
+     * do cache, que pode estar atrasado em relação a outra instância), e todas as alterações dele
+     * (cooldown liberado ou aplicado, saldo, XP, dias sem apostar) saem em um único UPDATE no
+     * commit, junto com o INSERT da transação.
+     * <ul>
+     *     <li>Aposta durante o cooldown: recusada com {@link Transacao#STATUS_BLOQUEADA_COOLDOWN}, sem
+     *     nenhuma escrita (apenas contada, ver {@link ApostasBloqueadasService#contarCooldown}).</li>
+     *     <li>Aposta acima de 20% do saldo: aplica cooldown de 5 minutos, registra o bloqueio fora do
+     *     histórico e é recusada com {@link Transacao#STATUS_BLOQUEADA_LIMITE}.</li>
+     *     <li>Caso contrário, é gravada como realizada (ver {@link #salvar}).</li>
+     * </ul>
+     *
+     * @param userId usuário já autenticado
+     * @param tipo   tipo da transação
+     * @param valor  valor em centavos
+     * @return transação gravada ou, se bloqueada, transação não gravada com o status do bloqueio
+     */
+    @Transactional
+    public Transacao criar(Long userId, TipoTransacao tipo, long valor) {
+        User user = userRepository.findLockedById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + userId));
+        LocalDateTime agora = LocalDateTime.now();
+
+        if (tipo == TipoTransacao.APOSTA && user.getCooldownAposta() != null) {
+            if (user.getCooldownAposta().isAfter(agora)) {
+                apostasBloqueadasService.contarCooldown(user.getId());
+                return recusada(user, valor, Transacao.STATUS_BLOQUEADA_COOLDOWN);
+            }
+            // Cooldown expirou: liberado na mesma escrita da aposta
+            user.setCooldownAposta(null);
+        }
+
+        // Intervenção: valor > 20% do saldo, em aritmética inteira (centavos)
+        if (tipo == TipoTransacao.APOSTA && valor * 5 > user.getSaldo()) {
+            user.setCooldownAposta(agora.plusMinutes(5));
+            leituraPrimaria.registrarEscrita(user.getToken());
+            // Toda escrita do usuário é publicada: as outras instâncias descartam a cópia em cache,
+            // que ainda não tem o cooldown
+            eventPublisher.publishEvent(XpAlteradoEvent.de(user));
+            apostasBloqueadasService.registrarLimite(user, valor);
+            return recusada(user, valor, Transacao.STATUS_BLOQUEADA_LIMITE);
+        }
+
+        Transacao transacao = new Transacao();
+        transacao.setUser(user);
+        transacao.setValor(valor);
+        transacao.setTipo(tipo);
+        transacao.setData(agora);
+        transacao.setStatus(Transacao.STATUS_REALIZADA);
+        return salvar(transacao);
     }
 
     /**
      * Salva uma transação e atualiza o estado do usuário conforme o tipo da transação.
-     * - Para apostas, deduz o valor do saldo e reseta dias sem apostar.
+     * - Para apostas, deduz o valor do saldo e zera dias sem apostar.
      * - Para investimentos, incrementa XP.
      * - Para retorno, acrescenta saldo.
-     * Também atribui badges de acordo com dias sem apostar.
+     * Após o commit, atualiza o ranking de XP, o histórico em memória e notifica as conexões SSE
+     * do dashboard. A contagem de dias sem apostar e as badges ficam com o {@link DiasSemApostarJob}.
      *
      * @param transacao transação a ser salva
      * @return transação salva no banco
      */
+    @Transactional
     public Transacao salvar(Transacao transacao) {
         User user = transacao.getUser();
 
@@ -84,52 +293,46 @@ public class TransacaoService {
             user.setSaldo(user.getSaldo() + transacao.getValor());
         }
 
-        // Incrementa dias sem apostar e XP se não for aposta
+        // XP extra se não for aposta (os dias sem apostar são calculados pelo DiasSemApostarJob)
         if (transacao.getTipo() != TipoTransacao.APOSTA) {
-            user.setDiasSemApostar(user.getDiasSemApostar() + 1);
             user.setXp(user.getXp() + 10);
         }
 
-        // Adiciona badges ao atingir metas de dias sem apostar
-        if (user.getDiasSemApostar() == 7 && !badgeJaConquistado(user, "7 dias sem apostar")) {
-            Badge badge = new Badge();
-            badge.setNome("7 dias sem apostar");
-            badge.setDescricao("Parabéns! Você ficou uma semana sem apostas.");
-            badge.setDataConquista(LocalDate.now());
-            badge.setUser(user);
-            badgeRepository.save(badge);
-        }
-        if (user.getDiasSemApostar() == 30 && !badgeJaConquistado(user, "30 dias sem apostar")) {
-            Badge badge = new Badge();
-            badge.setNome("30 dias sem apostar");
-            badge.setDescricao("Incrível! Um mês sem apostas!");
-            badge.setDataConquista(LocalDate.now());
-            badge.setUser(user);
-            badgeRepository.save(badge);
-        }
-
         userRepository.save(user);
-        return transacaoRepository.save(transacao);
+        leituraPrimaria.registrarEscrita(user.getToken());
+        eventPublisher.publishEvent(XpAlteradoEvent.de(user));
+        eventPublisher.publishEvent(new DashboardAlteradoEvent(
+                user.getId(), user.getSaldo(), user.getXp(), user.getDiasSemApostar(), List.of()));
+        Transacao salva = transacaoRepository.save(transacao);
+        eventPublisher.publishEvent(TransacaoRealizadaEvent.de(salva));
+        return salva;
     }
 
     /**
-     * Deleta uma transação pelo seu ID.
-     *
-     * @param id identificador da transação a ser deletada
+     * Monta a resposta de uma aposta recusada pela intervenção (não gravada como transação).
      */
-    public void deletar(Long id) {
-        transacaoRepository.deleteById(id);
+    private static Transacao recusada(User user, long valor, String status) {
+        Transacao transacao = new Transacao();
+        transacao.setUser(user);
+        transacao.setValor(valor);
+        transacao.setTipo(TipoTransacao.APOSTA);
+        transacao.setData(LocalDateTime.now());
+        transacao.setStatus(status);
+        return transacao;
     }
 
     /**
-     * Verifica se o usuário já conquistou uma badge específica para evitar duplicação.
+     * Deleta uma transação pelo seu ID.
      *
-     * @param user usuário em questão
-     * @param nomeBadge nome da badge a verificar
-     * @return true se a badge já foi conquistada, false caso contrário
+     * @param id identificador da transação a ser deletada
      */
-    private boolean badgeJaConquistado(User user, String nomeBadge) {
-        List<Badge> badges = badgeRepository.findByUser(user);
-        return badges.stream().anyMatch(b -> b.getNome().equalsIgnoreCase(nomeBadge));
+    @Transactional
+    public void deletar(Long id) {
+        transacaoRepository.findById(id).ifPresent(transacao ->
+                eventPublisher.publishEvent(new TransacoesRemovidasEvent(transacao.getUser().getId())));
+        transacaoArquivadaRepository.findById(id).ifPresent(arquivada ->
+                eventPublisher.publishEvent(new TransacoesRemovidasEvent(arquivada.getUserId())));
+        transacaoRepository.deleteById(id);
+        transacaoArquivadaRepository.deleteById(id);
     }
 }
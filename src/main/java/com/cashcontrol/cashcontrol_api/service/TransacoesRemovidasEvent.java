@@ -0,0 +1,11 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+/**
+ * Evento publicado quando transações de um usuário são excluídas.
+ *
+ * <p>Consumido após o commit por {@link HistoricoTransacoesService}, que descarta o histórico em memória do usuário.</p>
+ *
+ * @param userId identificador do usuário
+ */
+public record TransacoesRemovidasEvent(long userId) {
+}
@@ -1,15 +1,31 @@
 package com.cashcontrol.cashcontrol_api.service;
 
+import com.cashcontrol.cashcontrol_api.config.DiretorioUsuarios;
+import com.cashcontrol.cashcontrol_api.config.LeituraPrimaria;
+import com.cashcontrol.cashcontrol_api.config.Shards;
+import com.cashcontrol.cashcontrol_api.dto.UserCreateDto;
 import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.ApostaBloqueadaRepository;
+import com.cashcontrol.cashcontrol_api.repository.TransacaoArquivadaRepository;
 import com.cashcontrol.cashcontrol_api.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Serviço responsável pelas operações relacionadas aos usuários.
+ *
+ * <p>
+ * Com sharding, cada operação vai ao shard dono do usuário (ver {@link Shards}); as que chegam só
+ * com o email consultam antes o diretório global ({@link DiretorioUsuarios}).
+ * </p>
  */
 @Service
 public class UserService {
@@ -17,13 +33,32 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TransacaoArquivadaRepository transacaoArquivadaRepository;
+
+    @Autowired
+    private ApostaBloqueadaRepository apostaBloqueadaRepository;
+
+    @Autowired
+    private LeituraPrimaria leituraPrimaria;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired(required = false)
+    private DiretorioUsuarios diretorio;
+
     /**
-     * Lista todos os usuários cadastrados.
+     * Lista todos os usuários cadastrados (em todos os shards).
      *
      * @return lista de usuários
      */
+    @Transactional(readOnly = true)
     public List<User> listarTodos() {
-        return userRepository.findAll();
+        return shards.juntar(userRepository::findAll);
     }
 
     /**
@@ -32,46 +67,141 @@ public class UserService {
      * @param id identificador do usuário
      * @return Optional com o usuário, se encontrado
      */
+    @Transactional(readOnly = true)
     public Optional<User> buscarPorId(Long id) {
-        return userRepository.findById(id);
+        return shards.doUsuario(id, () -> userRepository.findById(id));
     }
 
     /**
      * Busca usuário pelo email.
      *
+     * <p>Lê sempre do banco primário (transação de escrita): é usado no login,
+     * que pode acontecer logo após o cadastro, antes da réplica receber o usuário.</p>
+     *
      * @param email email do usuário
      * @return Optional com o usuário, se encontrado
      */
+    @Transactional
     public Optional<User> buscarPorEmail(String email) {
-        return userRepository.findByEmail(email);
+        if (diretorio == null) {
+            return userRepository.findByEmail(email);
+        }
+        return diretorio.idPorEmail(email).flatMap(id -> shards.doUsuario(id, () -> userRepository.findByEmail(email)));
+    }
+
+    /**
+     * Monta um novo usuário a partir dos dados de cadastro, derivando os campos iniciais:
+     * perfil "moderado", limite mensal de aposta de 10% da renda, saldo igual à renda,
+     * XP e dias sem apostar zerados e data de cadastro de hoje.
+     *
+     * <p>Usado tanto no cadastro individual quanto na importação em lote.</p>
+     *
+     * @param dto dados de cadastro (nome, email, senha e rendaMensal)
+     * @return usuário ainda não persistido
+     */
+    public User montarNovoUsuario(UserCreateDto dto) {
+        User user = new User();
+        user.setNome(dto.getNome());
+        user.setEmail(dto.getEmail());
+        user.setSenha(dto.getSenha());
+        user.setRendaMensal(dto.getRendaMensal());
+        user.setPerfilRisco("moderado");
+        user.setLimiteMensalAposta(dto.getRendaMensal() / 10); // 10% da renda
+        user.setSaldo(dto.getRendaMensal());
+        user.setXp(0);
+        user.setDiasSemApostar(0);
+        user.setDataCadastro(LocalDate.now());
+        return user;
     }
 
     /**
      * Salva um usuário no banco.
      *
+     * <p>As próximas leituras do dono do token passam pelo primário até a réplica alcançá-lo.
+     * O ranking de XP é atualizado após o commit.</p>
+     *
+     * <p>Com sharding, um usuário novo recebe o ID reservado no diretório e é gravado no shard dono
+     * desse ID; se a gravação falhar, a reserva é desfeita.</p>
+     *
      * @param user objeto usuário para salvar
      * @return usuário salvo
      */
+    @Transactional
     public User salvar(User user) {
-        return userRepository.save(user);
+        User salvo;
+        if (diretorio != null && user.getId() == null) {
+            long id = diretorio.reservar(user.getEmail());
+            user.setId(id);
+            try {
+                // Usuário novo vai direto ao dono, mesmo durante uma migração
+                salvo = shards.noShard(shards.shardDoUsuario(id), () -> userRepository.saveAndFlush(user));
+            } catch (RuntimeException e) {
+                user.setId(null);
+                diretorio.liberar(id);
+                throw e;
+            }
+        } else {
+            // O UPDATE pode sair só no commit, fora do bloco: a transação fica presa ao shard do usuário
+            salvo = shards.doUsuario(user.getId(), () -> userRepository.save(user));
+        }
+        leituraPrimaria.registrarEscrita(salvo.getToken());
+        eventPublisher.publishEvent(XpAlteradoEvent.de(salvo));
+        return salvo;
     }
 
     /**
-     * Deleta um usuário pelo ID.
+     * Deleta um usuário pelo ID, junto com as transações arquivadas (as recentes são removidas em cascata).
+     *
+     * <p>Com sharding, o registro no diretório é removido após o commit.</p>
      *
      * @param id identificador do usuário a ser deletado
      */
+    @Transactional
     public void deletar(Long id) {
-        userRepository.deleteById(id);
+        shards.doUsuario(id, () -> {
+            transacaoArquivadaRepository.deleteByUserId(id);
+            apostaBloqueadaRepository.deleteByUserId(id);
+            userRepository.deleteById(id);
+            return null;
+        });
+        if (diretorio != null) {
+            liberarAposCommit(id);
+        }
+        eventPublisher.publishEvent(XpAlteradoEvent.removido(id));
+    }
+
+    /**
+     * Libera o email no diretório só depois do commit no shard do usuário: o diretório grava em
+     * auto-commit no shard 0, e liberá-lo antes deixaria um usuário ainda existente (se o commit
+     * falhar) com o email disponível para outro cadastro.
+     */
+    private void liberarAposCommit(long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            diretorio.liberar(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                diretorio.liberar(id);
+            }
+        });
     }
 
     /**
      * Verifica se um usuário com determinado email já existe.
      *
+     * <p>Lê sempre do banco primário, pois decide se o cadastro pode ser gravado. Com sharding,
+     * consulta o diretório global.</p>
+     *
      * @param email email a verificar
      * @return true se existir, false caso contrário
      */
+    @Transactional
     public boolean existePorEmail(String email) {
+        if (diretorio != null) {
+            return diretorio.idPorEmail(email).isPresent();
+        }
         return userRepository.existsByEmail(email);
     }
 }
@@ -0,0 +1,25 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.model.User;
+
+/**
+ * Evento publicado pelos services quando o XP de um usuário pode ter mudado (cadastro,
+ * transação, importação) ou quando o usuário foi removido.
+ *
+ * <p>Consumido após o commit da transação por {@link RankingService}.</p>
+ *
+ * @param userId   identificador do usuário
+ * @param nome     nome do usuário (exibido no ranking)
+ * @param xp       XP atual
+ * @param removido true se o usuário foi excluído
+ */
+public record XpAlteradoEvent(long userId, String nome, int xp, boolean removido) {
+
+    public static XpAlteradoEvent de(User user) {
+        return new XpAlteradoEvent(user.getId(), user.getNome(), user.getXp() != null ? user.getXp() : 0, false);
+    }
+
+    public static XpAlteradoEvent removido(long userId) {
+        return new XpAlteradoEvent(userId, null, 0, true);
+    }
+}
@@ -1,9 +1,8 @@
 package com.cashcontrol.cashcontrol_api;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@TesteIntegracao
 class CashcontrolApiApplicationTests {
 
 	@Test
@@ -0,0 +1,218 @@
+package com.cashcontrol.cashcontrol_api;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.config.MonitorConsultas;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Orçamento de consultas: cada endpoint da API é chamado contra usuários com históricos grandes
+ * e não pode passar do número de comandos SQL nem de linhas lidas do seu orçamento.
+ *
+ * <p>
+ * Os orçamentos são os valores atuais. Uma mudança que aumente algum deles (um N+1, uma listagem
+ * que passe a ler o histórico inteiro, um SELECT a mais) quebra o build; uma mudança que reduza
+ * deve baixar o orçamento junto. Cada chamada é medida com o cache de segundo nível vazio (pior
+ * caso) e com o histórico em memória desligado, para as agregações irem ao banco.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_orcamento",
+        "cashcontrol.consultas.contar-linhas=true",
+        "cashcontrol.historico.habilitado=false",
+        "cashcontrol.senha.bcrypt-custo=4"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrcamentoConsultasTest {
+
+    private static final int HISTORICO = 2_000;
+    private static final int USUARIOS = 3;
+    private static final String SENHA = "senha-orcamento";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MonitorConsultas monitorConsultas;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> usuarios = new ArrayList<>();
+    private User user;
+    private long transacaoId;
+    private long badgeId;
+
+    @BeforeAll
+    void semear() {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Integer> definicoes = jdbcTemplate.queryForList("select id from badge_definition order by id", Integer.class);
+        for (int u = 0; u < USUARIOS; u++) {
+            User novo = UsuariosTeste.criar(userService, "historico");
+            List<Object[]> transacoes = new ArrayList<>();
+            for (int i = 0; i < HISTORICO; i++) {
+                String tipo = i % 3 == 0 ? "APOSTA" : i % 3 == 1 ? "INVESTIMENTO" : "RETORNO";
+                transacoes.add(new Object[]{novo.getId(), tipo, 1.0 + i % 50, Transacao.STATUS_REALIZADA,
+                        Timestamp.valueOf(agora.minusMinutes(HISTORICO - i))});
+            }
+            jdbcTemplate.batchUpdate("insert into transacao (user_id, tipo, valor, status, data) values (?, ?, ?, ?, ?)",
+                    transacoes);
+            for (Integer definicao : definicoes) {
+                jdbcTemplate.update("insert into badge (user_id, definition_id, data_conquista) values (?, ?, ?)",
+                        novo.getId(), definicao, Date.valueOf(LocalDate.now()));
+            }
+            usuarios.add(novo);
+        }
+        user = usuarios.get(0);
+        transacaoId = jdbcTemplate.queryForObject("select max(id) from transacao where user_id = ?", Long.class, user.getId());
+        badgeId = jdbcTemplate.queryForObject("select max(id) from badge where user_id = ?", Long.class, user.getId());
+    }
+
+    @Test
+    void usuarios() throws Exception {
+        verificar("POST /api/users/register", post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nome\":\"Nova\",\"email\":\"nova@orcamento.com\",\"senha\":\"" + SENHA + "\",\"rendaMensal\":1000.0}"),
+                2, 0);
+        verificar("POST /api/users/login", post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"nova@orcamento.com\",\"senha\":\"" + SENHA + "\"}"),
+                2, 1);
+        verificar("GET /api/users/{id}", get("/api/users/{id}", user.getId())
+                        .header("Authorization", user.getToken()).with(user("admin")),
+                1, 1);
+    }
+
+    @Test
+    void autenticacao() throws Exception {
+        User login = userService.salvar(UsuariosTeste.montar(userService, "auth@orcamento.com"));
+        jdbcTemplate.update("update usuario set senha = ? where id = ?", passwordEncoder.encode(SENHA), login.getId());
+        verificar("POST /api/auth/login", post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"auth@orcamento.com\",\"senha\":\"" + SENHA + "\"}"),
+                2, 1);
+    }
+
+    @Test
+    void transacoes() throws Exception {
+        User apostador = UsuariosTeste.criar(userService, "apostador");
+        verificar("POST /api/transacoes", post("/api/transacoes")
+                .header("Authorization", apostador.getToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"valor\":10.0,\"tipo\":\"APOSTA\",\"userId\":" + apostador.getId() + "}"),
+                4, 2); // Autenticação e releitura com lock na escrita (ver TransacaoService.criar)
+        verificar("GET /api/transacoes", get("/api/transacoes").with(user("admin")),
+                1, USUARIOS * HISTORICO + 1);
+        verificar("GET /api/transacoes/usuario/{id}", get("/api/transacoes/usuario/{id}", user.getId())
+                        .header("Authorization", user.getToken()),
+                2, HISTORICO + 1);
+        verificar("GET /api/transacoes/usuario/{id}/busca", get("/api/transacoes/usuario/{id}/busca", user.getId())
+                        .header("Authorization", user.getToken())
+                        .param("tipo", "APOSTA")
+                        .param("desde", LocalDateTime.now().minusMinutes(300).toString()),
+                2, 100 + 1); // Uma aposta a cada 3 minutos nos últimos 300
+        verificar("GET /api/transacoes/{id}", get("/api/transacoes/{id}", transacaoId)
+                        .header("Authorization", user.getToken()),
+                1, 1);
+    }
+
+    @Test
+    void badges() throws Exception {
+        long catalogo = jdbcTemplate.queryForObject("select count(*) from badge_definition", Long.class);
+        verificar("GET /api/badges", get("/api/badges").with(user("admin")),
+                1, USUARIOS * catalogo);
+        verificar("GET /api/badges/usuario/{id}", get("/api/badges/usuario/{id}", user.getId())
+                        .header("Authorization", user.getToken()),
+                2, catalogo + 1);
+        verificar("GET /api/badges/{id}", get("/api/badges/{id}", badgeId).with(user("admin")),
+                1, 1);
+    }
+
+    @Test
+    void dashboard() throws Exception {
+        long catalogo = jdbcTemplate.queryForObject("select count(*) from badge_definition", Long.class);
+        verificar("GET /api/dashboard/{id}", get("/api/dashboard/{id}", user.getId())
+                        .header("Authorization", user.getToken()),
+                3, catalogo + 2);
+        verificar("GET /api/dashboard/{id}?fields=saldo,xp", get("/api/dashboard/{id}", user.getId())
+                        .header("Authorization", user.getToken())
+                        .param("fields", "saldo,xp"),
+                1, 1);
+    }
+
+    @Test
+    void simulador() throws Exception {
+        verificar("POST /api/simulador/usuario/{id}", post("/api/simulador/usuario/{id}", user.getId())
+                        .header("Authorization", user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"valorInicial\":500.0,\"meses\":12,\"rendimentoMensal\":0.008}"),
+                1, 1);
+    }
+
+    @Test
+    void ranking() throws Exception {
+        verificar("GET /api/ranking", get("/api/ranking"),
+                0, 0);
+        verificar("GET /api/ranking/usuario/{id}", get("/api/ranking/usuario/{id}", user.getId())
+                        .header("Authorization", user.getToken()),
+                1, 1);
+    }
+
+    /**
+     * Executa a chamada com o cache de segundo nível vazio e confere o orçamento.
+     */
+    private void verificar(String endpoint, MockHttpServletRequestBuilder requisicao,
+                           long maxComandos, long maxLinhas) throws Exception {
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        MockHttpServletResponse resposta;
+        MonitorConsultas.Requisicao medida = monitorConsultas.iniciar(endpoint);
+        assertNotNull(medida, "medição já em andamento na thread do teste");
+        try {
+            resposta = mvc.perform(requisicao).andReturn().getResponse();
+        } finally {
+            monitorConsultas.encerrar(null);
+        }
+        assertEquals(2, resposta.getStatus() / 100, endpoint + ": " + resposta.getStatus() + " " + resposta.getContentAsString());
+        assertTrue(medida.comandos() <= maxComandos,
+                endpoint + ": " + medida.comandos() + " comandos SQL (orçamento " + maxComandos + ")");
+        assertTrue(medida.linhas() <= maxLinhas,
+                endpoint + ": " + medida.linhas() + " linhas lidas (orçamento " + maxLinhas + ")");
+    }
+}
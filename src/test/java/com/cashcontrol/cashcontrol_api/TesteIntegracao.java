@@ -0,0 +1,39 @@
+package com.cashcontrol.cashcontrol_api;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Contexto Spring compartilhado pelos testes de integração.
+ *
+ * <p>
+ * Todas as classes anotadas reutilizam o mesmo contexto e o mesmo banco H2 em memória. Por isso
+ * cada teste cria os próprios usuários com {@link UsuariosTeste} (emails únicos) e só confere os
+ * dados deles. Ajustes usados por testes específicos ficam aqui para não quebrar o compartilhamento:
+ * </p>
+ *
+ * <ul>
+ *     <li>BCrypt de custo 5, mais rápido que o padrão e acima do mínimo, para testar a regeração de
+ *     hashes de custo menor;</li>
+ *     <li>importação em lotes de 2 linhas, para exercitar a passagem entre lotes.</li>
+ * </ul>
+ *
+ * <p>
+ * Testes que precisam de outras propriedades ou que conferem dados globais (contagens, jobs sobre
+ * todos os usuários) declaram o próprio {@code @SpringBootTest} com um banco exclusivo.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(properties = {
+        "cashcontrol.senha.bcrypt-custo=5",
+        "cashcontrol.importacao.tamanho-lote=2"
+})
+@AutoConfigureMockMvc
+public @interface TesteIntegracao {
+}
@@ -0,0 +1,57 @@
+package com.cashcontrol.cashcontrol_api;
+
+import com.cashcontrol.cashcontrol_api.dto.UserCreateDto;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Usuários de teste: renda de R$ 1.000,00, senha já em hash e token {@code token-<email>}.
+ */
+public final class UsuariosTeste {
+
+    private static final AtomicLong SEQUENCIA = new AtomicLong();
+
+    private UsuariosTeste() {
+    }
+
+    /**
+     * Email único na execução dos testes.
+     *
+     * @param prefixo identifica o teste que criou o usuário
+     * @return email ainda não usado
+     */
+    public static String email(String prefixo) {
+        return prefixo + "-" + SEQUENCIA.incrementAndGet() + "@teste.com";
+    }
+
+    /**
+     * Monta o usuário sem gravar, para o teste ajustar campos antes do primeiro save.
+     *
+     * @param userService serviço de usuários do contexto
+     * @param email       email do usuário
+     * @return usuário novo, sem ID
+     */
+    public static User montar(UserService userService, String email) {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setNome("Teste");
+        dto.setEmail(email);
+        dto.setSenha("{bcrypt}hash");
+        dto.setRendaMensal(100_000);
+        User user = userService.montarNovoUsuario(dto);
+        user.setToken("token-" + email);
+        return user;
+    }
+
+    /**
+     * Grava um usuário novo com email único.
+     *
+     * @param userService serviço de usuários do contexto
+     * @param prefixo     identifica o teste que criou o usuário
+     * @return usuário gravado
+     */
+    public static User criar(UserService userService, String prefixo) {
+        return userService.salvar(montar(userService, email(prefixo)));
+    }
+}
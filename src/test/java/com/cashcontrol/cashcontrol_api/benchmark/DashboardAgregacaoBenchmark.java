@@ -0,0 +1,116 @@
+package com.cashcontrol.cashcontrol_api.benchmark;
+
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH do cálculo de "gastosTotais" do dashboard para um usuário com 5 mil transações,
+ * comparando o valor em {@code Double} (representação anterior) com {@code long} em centavos.
+ *
+ * <p>
+ * Cada operação monta as entidades a partir de valores brutos (como o Hibernate faz ao ler
+ * as linhas) e soma as apostas realizadas. Com {@code -prof gc}, a métrica
+ * {@code gc.alloc.rate.norm} mostra os bytes alocados por operação em cada versão.
+ * </p>
+ *
+ * <p>Execução:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.cashcontrol.cashcontrol_api.benchmark.DashboardAgregacaoBenchmark"
+ * </pre>
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardAgregacaoBenchmark {
+
+    private static final int QUANTIDADE = 5_000;
+
+    private long[] valores;
+    private TipoTransacao[] tipos;
+    private String[] status;
+
+    @Setup
+    public void setup() {
+        valores = new long[QUANTIDADE];
+        tipos = new TipoTransacao[QUANTIDADE];
+        status = new String[QUANTIDADE];
+        TipoTransacao[] todos = TipoTransacao.values();
+        for (int i = 0; i < QUANTIDADE; i++) {
+            valores[i] = 1_000 + (i * 37L) % 50_000;
+            tipos[i] = todos[i % todos.length];
+            status[i] = i % 10 == 0 ? Transacao.STATUS_BLOQUEADA_LIMITE : Transacao.STATUS_REALIZADA;
+        }
+    }
+
+    @Benchmark
+    public double valorDouble() {
+        List<TransacaoDouble> transacoes = new ArrayList<>(QUANTIDADE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            transacoes.add(new TransacaoDouble(valores[i] / 100.0, tipos[i], status[i]));
+        }
+        return transacoes.stream()
+                .filter(t -> t.tipo == TipoTransacao.APOSTA && Transacao.STATUS_REALIZADA.equals(t.status))
+                .mapToDouble(t -> t.valor)
+                .sum();
+    }
+
+    @Benchmark
+    public long valorCentavos() {
+        List<Transacao> transacoes = new ArrayList<>(QUANTIDADE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            Transacao t = new Transacao();
+            t.setValor(valores[i]);
+            t.setTipo(tipos[i]);
+            t.setStatus(status[i]);
+            transacoes.add(t);
+        }
+        long gastosTotais = 0;
+        for (Transacao t : transacoes) {
+            if (t.getTipo() == TipoTransacao.APOSTA && Transacao.STATUS_REALIZADA.equals(t.getStatus())) {
+                gastosTotais += t.getValor();
+            }
+        }
+        return gastosTotais;
+    }
+
+    /**
+     * Mesmos campos da entidade {@link Transacao} antes da mudança para centavos.
+     */
+    @SuppressWarnings("unused")
+    private static final class TransacaoDouble {
+        private Long id;
+        private User user;
+        private final Double valor;
+        private final TipoTransacao tipo;
+        private LocalDateTime data;
+        private final String status;
+
+        TransacaoDouble(Double valor, TipoTransacao tipo, String status) {
+            this.valor = valor;
+            this.tipo = tipo;
+            this.status = status;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DashboardAgregacaoBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.cashcontrol.cashcontrol_api.benchmark;
+
+import com.cashcontrol.cashcontrol_api.filter.LimitadorTaxa;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH do custo do limitador de taxa por requisição.
+ *
+ * <ul>
+ *     <li>{@code muitosUsuarios}: 10 mil chaves distintas, caso típico de produção;</li>
+ *     <li>{@code mesmoUsuario}: todas as threads disputando o mesmo balde (pior caso de CAS).</li>
+ * </ul>
+ *
+ * <p>Execução:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.cashcontrol.cashcontrol_api.benchmark.LimitadorTaxaBenchmark"
+ * </pre>
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LimitadorTaxaBenchmark {
+
+    private static final int USUARIOS = 10_000;
+
+    private LimitadorTaxa limitador;
+    private String[] chaves;
+
+    @Setup
+    public void setup() {
+        // Taxa alta para medir o caminho de aceitação, não o de recusa
+        limitador = new LimitadorTaxa(1_000_000, 1_000);
+        chaves = new String[USUARIOS];
+        for (int i = 0; i < USUARIOS; i++) {
+            chaves[i] = "token:" + java.util.UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public long muitosUsuarios() {
+        return limitador.tentarConsumir(chaves[ThreadLocalRandom.current().nextInt(USUARIOS)]);
+    }
+
+    @Benchmark
+    public long mesmoUsuario() {
+        return limitador.tentarConsumir(chaves[0]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LimitadorTaxaBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
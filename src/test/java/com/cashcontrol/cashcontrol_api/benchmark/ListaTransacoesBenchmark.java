@@ -0,0 +1,126 @@
+package com.cashcontrol.cashcontrol_api.benchmark;
+
+import com.cashcontrol.cashcontrol_api.config.CamposParciaisConfig;
+import com.cashcontrol.cashcontrol_api.dto.ListaTransacoes;
+import com.cashcontrol.cashcontrol_api.dto.TransacaoDto;
+import com.cashcontrol.cashcontrol_api.dto.TransacaoLinha;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH da listagem de transações em JSON: caminho anterior (entidades, lista de
+ * {@link TransacaoDto} e serialização reflexiva do Jackson) contra a escrita em streaming de
+ * {@link ListaTransacoes} a partir das colunas, com 1 mil e 100 mil linhas.
+ *
+ * <p>
+ * As duas variantes partem de dados já em memória (entidades como o Hibernate as entregaria e
+ * colunas como o ResultSet), então só a montagem e a escrita da resposta são comparadas. Para ver
+ * a alocação por operação, rode com {@code -prof gc}.
+ * </p>
+ *
+ * <p>Execução:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.cashcontrol.cashcontrol_api.benchmark.ListaTransacoesBenchmark"
+ * </pre>
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListaTransacoesBenchmark {
+
+    @Param({"1000", "100000"})
+    private int quantidade;
+
+    private ObjectMapper jsonMapper;
+    private List<Transacao> entidades;
+
+    // Colunas, como lidas do ResultSet
+    private long[] ids;
+    private long[] valores;
+    private TipoTransacao[] tipos;
+    private LocalDateTime[] datas;
+    private long[] userIds;
+
+    @Setup
+    public void setup() {
+        // Mesmo ObjectMapper JSON que o Spring Boot monta (datas ISO, filtro de campos)
+        jsonMapper = CamposParciaisConfig.aplicar(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+
+        User user = new User();
+        user.setId(1L);
+        TipoTransacao[] todosTipos = TipoTransacao.values();
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000);
+        entidades = new ArrayList<>(quantidade);
+        ids = new long[quantidade];
+        valores = new long[quantidade];
+        tipos = new TipoTransacao[quantidade];
+        datas = new LocalDateTime[quantidade];
+        userIds = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ids[i] = i + 1;
+            valores[i] = 1_000 + (i % 500) * 100L;
+            tipos[i] = todosTipos[i % todosTipos.length];
+            datas[i] = base.plusMinutes(i);
+            userIds[i] = user.getId();
+            entidades.add(new Transacao(ids[i], user, valores[i], tipos[i], datas[i], Transacao.STATUS_REALIZADA));
+        }
+    }
+
+    @Benchmark
+    public byte[] dtos() throws Exception {
+        List<TransacaoDto> lista = new ArrayList<>(entidades.size());
+        for (Transacao t : entidades) {
+            TransacaoDto dto = new TransacaoDto();
+            dto.setId(t.getId());
+            dto.setValor(t.getValor());
+            dto.setTipo(t.getTipo());
+            dto.setData(t.getData());
+            dto.setStatus(t.getStatus());
+            dto.setUserId(t.getUser().getId());
+            lista.add(dto);
+        }
+        return jsonMapper.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public byte[] streaming() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ListaTransacoes lista = new ListaTransacoes(destino -> {
+            TransacaoLinha linha = new TransacaoLinha();
+            for (int i = 0; i < quantidade; i++) {
+                destino.accept(linha.preencher(ids[i], valores[i], tipos[i], datas[i], Transacao.STATUS_REALIZADA, userIds[i]));
+            }
+        }, null);
+        try (JsonGenerator gen = jsonMapper.getFactory().createGenerator(saida)) {
+            lista.escrever(gen, false);
+        }
+        return saida.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListaTransacoesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.cashcontrol.cashcontrol_api.benchmark;
+
+import com.cashcontrol.cashcontrol_api.config.CborConfig;
+import com.cashcontrol.cashcontrol_api.dto.TransacaoDto;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH comparando JSON e CBOR na serialização de 10 mil transações.
+ *
+ * <p>
+ * O JMH mede só o tempo de codificação; a diferença de tamanho entre os formatos
+ * é conferida em {@code ListaTransacoesTest}.
+ * </p>
+ *
+ * <p>Execução:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.cashcontrol.cashcontrol_api.benchmark.SerializacaoTransacaoBenchmark"
+ * </pre>
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoTransacaoBenchmark {
+
+    private static final int QUANTIDADE = 10_000;
+
+    private List<TransacaoDto> transacoes;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+
+    @Setup
+    public void setup() {
+        // Mesmo ObjectMapper JSON que o Spring Boot monta (datas ISO, enums por nome)
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = CborConfig.cborMapper();
+
+        TipoTransacao[] tipos = TipoTransacao.values();
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 12, 0);
+        transacoes = new ArrayList<>(QUANTIDADE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            TransacaoDto dto = new TransacaoDto();
+            dto.setId((long) i + 1);
+            dto.setValor(1_000 + (i % 500) * 100L);
+            dto.setTipo(tipos[i % tipos.length]);
+            dto.setData(base.plusMinutes(i));
+            dto.setStatus("REALIZADA");
+            dto.setUserId((long) (i % 100) + 1);
+            transacoes.add(dto);
+        }
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return jsonMapper.writeValueAsBytes(transacoes);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws Exception {
+        return cborMapper.writeValueAsBytes(transacoes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializacaoTransacaoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
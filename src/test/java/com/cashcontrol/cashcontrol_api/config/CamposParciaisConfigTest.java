@@ -0,0 +1,95 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Parâmetro {@code fields}: só os campos pedidos são escritos, e o dashboard não consulta os
+ * componentes que não foram pedidos.
+ */
+@TesteIntegracao
+class CamposParciaisConfigTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void criarUsuario() {
+        user = UsuariosTeste.criar(userService, "campos");
+    }
+
+    @Test
+    void usuarioETransacoesSoComOsCamposPedidos() throws Exception {
+        assertEquals(List.of("id", "saldo"), nomes(json("/api/users/" + user.getId() + "?fields=id,saldo,inexistente")));
+        assertEquals(9, nomes(json("/api/users/" + user.getId())).size(), "sem fields, todos os campos");
+
+        mvc.perform(post("/api/transacoes").header("Authorization", user.getToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"valor\":100,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}"));
+        JsonNode lista = json("/api/transacoes/usuario/" + user.getId() + "?fields=valor,tipo");
+        assertEquals(1, lista.size());
+        assertEquals(List.of("valor", "tipo"), nomes(lista.get(0)));
+        assertEquals(100.0, lista.get(0).get("valor").asDouble());
+    }
+
+    @Test
+    void dashboardNaoConsultaComponentesNaoPedidos() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        JsonNode parcial = json("/api/dashboard/" + user.getId() + "?fields=saldo,xp");
+        assertEquals(List.of("saldo", "xp"), nomes(parcial));
+        assertEquals(0, consultasDeBadges(statistics), "badges não pedidas não são consultadas");
+
+        JsonNode comBadges = json("/api/dashboard/" + user.getId() + "?fields=badges");
+        assertEquals(List.of("badges"), nomes(comBadges));
+        assertEquals(1, consultasDeBadges(statistics));
+    }
+
+    private long consultasDeBadges(Statistics statistics) {
+        return statistics.getQueryCacheHitCount() + statistics.getQueryCacheMissCount();
+    }
+
+    private JsonNode json(String url) throws Exception {
+        String corpo = mvc.perform(get(url).header("Authorization", user.getToken()).with(user("admin")))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo);
+    }
+
+    private static List<String> nomes(JsonNode objeto) {
+        List<String> nomes = new ArrayList<>();
+        objeto.fieldNames().forEachRemaining(nomes::add);
+        return nomes;
+    }
+}
@@ -0,0 +1,102 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.dto.ConsultaEstatisticaDto;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.TransacaoRepository;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Instrumentação JDBC: formas de comando, contagem por requisição e detecção de N+1 no
+ * carregamento eager de {@code Transacao.user} (que a listagem HTTP em streaming não faz).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_consultas",
+        "cashcontrol.consultas.n-mais-um.repeticoes=3"
+})
+@AutoConfigureMockMvc
+class MonitorConsultasTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MonitorConsultas monitorConsultas;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void normalizaLiteraisEListasDeParametros() {
+        assertEquals("select * from t where id in (?...) and nome = ? limit ?",
+                MonitorConsultas.forma("select *\n  from t where id in (1, 2, 3) and nome = 'O''Brien' limit 10"));
+        assertEquals("insert into badge (definition_id, data_conquista, user_id) values (?...)",
+                MonitorConsultas.forma("insert into badge (definition_id, data_conquista, user_id) values (?, ?, ?)"));
+    }
+
+    @Test
+    void marcaRequisicaoComMesmoComandoRepetidoComoNMaisUm() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            User user = UsuariosTeste.criar(userService, "n1");
+            jdbcTemplate.update("insert into transacao (user_id, tipo, valor, status, data) values (?, ?, ?, ?, ?)",
+                    user.getId(), "INVESTIMENTO", 10.0, Transacao.STATUS_REALIZADA, Timestamp.valueOf(LocalDateTime.now()));
+        }
+        entityManagerFactory.getCache().evictAll();
+        monitorConsultas.limpar();
+        long requisicoesAntes = meterRegistry.get("cashcontrol.consultas.por-requisicao").summary().count();
+
+        monitorConsultas.iniciar("listagem");
+        try {
+            assertEquals(5, transacaoRepository.findAll().size());
+        } finally {
+            monitorConsultas.encerrar("GET /teste/transacoes");
+        }
+
+        List<ConsultaEstatisticaDto> consultas = monitorConsultas.maisCustosas(50);
+        ConsultaEstatisticaDto porUsuario = consultas.stream()
+                .filter(c -> c.getSql().contains("from usuario") && c.getSql().endsWith("where u1_0.id=?"))
+                .findFirst().orElseThrow();
+        assertEquals(5, porUsuario.getExecucoes(), "um SELECT do usuário por transação listada");
+        assertEquals(1, porUsuario.getOcorrenciasNMaisUm());
+        assertEquals("GET /teste/transacoes", porUsuario.getUltimaRotaNMaisUm());
+        assertTrue(consultas.stream().anyMatch(c -> c.getSql().contains("from transacao") && c.getOcorrenciasNMaisUm() == 0));
+        assertEquals(requisicoesAntes + 1, meterRegistry.get("cashcontrol.consultas.por-requisicao").summary().count());
+
+        // A listagem HTTP lê a projeção em streaming: nenhum SELECT do usuário por transação
+        entityManagerFactory.getCache().evictAll();
+        assertEquals(200, mvc.perform(get("/api/transacoes").with(user("admin"))).andReturn().getResponse().getStatus());
+        assertEquals(requisicoesAntes + 2, meterRegistry.get("cashcontrol.consultas.por-requisicao").summary().count());
+        assertEquals(5, monitorConsultas.maisCustosas(50).stream()
+                .filter(c -> c.getSql().equals(porUsuario.getSql()))
+                .findFirst().orElseThrow().getExecucoes());
+    }
+}
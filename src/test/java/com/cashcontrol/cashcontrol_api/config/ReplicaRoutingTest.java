@@ -0,0 +1,76 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Roteamento leitura/escrita com dois H2 em memória e o replicador local
+ * (replicação automática desligada: o teste chama {@link ReplicadorLocalH2#replicar()}).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_rota_primario",
+        "cashcontrol.datasource.replica.url=jdbc:h2:mem:cashdb_rota_replica",
+        "cashcontrol.datasource.replica.replicador-local=true",
+        "cashcontrol.datasource.replica.intervalo-replicacao-ms=3600000",
+        // Sem o cache de segundo nível, para que as leituras cheguem de fato ao banco roteado
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class ReplicaRoutingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LeituraPrimaria leituraPrimaria;
+
+    @Autowired
+    private ReplicadorLocalH2 replicador;
+
+    @BeforeEach
+    void sincronizarReplica() {
+        replicador.replicar();
+    }
+
+    @Test
+    void leiturasVaoParaReplicaAteAReplicacao() {
+        User salvo = UsuariosTeste.criar(userService, "replica");
+
+        assertTrue(userService.buscarPorId(salvo.getId()).isEmpty(), "réplica ainda não recebeu o usuário");
+
+        replicador.replicar();
+        assertTrue(userService.buscarPorId(salvo.getId()).isPresent());
+    }
+
+    @Test
+    void escritaRecenteDoTokenLeDoPrimario() {
+        User user = UsuariosTeste.montar(userService, "ryw@email.com");
+        user.setToken("token-ryw");
+        User salvo = userService.salvar(user);
+
+        assertTrue(leituraPrimaria.exigePrimario("token-ryw"));
+        assertFalse(leituraPrimaria.exigePrimario("outro-token"));
+
+        LeituraPrimaria.forcarPrimario(true);
+        try {
+            assertTrue(userService.buscarPorId(salvo.getId()).isPresent());
+        } finally {
+            LeituraPrimaria.forcarPrimario(false);
+        }
+    }
+
+    @Test
+    void loginLeDoPrimarioLogoAposOCadastro() {
+        userService.salvar(UsuariosTeste.montar(userService, "login@email.com"));
+
+        assertTrue(userService.buscarPorEmail("login@email.com").isPresent());
+        assertTrue(userService.existePorEmail("login@email.com"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Regras de acesso: dados de um usuário só com o token dele, consulta de usuário e listagens globais
+ * só com HTTP Basic e ranking público sem identificar usuários.
+ */
+@TesteIntegracao
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService userService;
+
+    private User dono;
+    private User outro;
+
+    @BeforeEach
+    void criarUsuarios() {
+        dono = UsuariosTeste.criar(userService, "seguranca");
+        outro = UsuariosTeste.criar(userService, "seguranca");
+    }
+
+    @Test
+    void consultaDeUsuarioContinuaAtrasDoHttpBasic() throws Exception {
+        assertEquals(401, mvc.perform(get("/api/users/{id}", dono.getId()).header("Authorization", dono.getToken()))
+                .andReturn().getResponse().getStatus());
+        assertEquals(200, mvc.perform(get("/api/users/{id}", dono.getId()).with(user("admin")))
+                .andReturn().getResponse().getStatus(), "token continua opcional");
+        assertEquals(401, mvc.perform(get("/api/users/{id}", dono.getId()).header("Authorization", outro.getToken())
+                        .with(user("admin")))
+                .andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void listagensGlobaisExigemAutenticacao() throws Exception {
+        for (String url : new String[]{"/api/transacoes", "/api/badges", "/api/badges/1"}) {
+            assertEquals(401, mvc.perform(get(url).header("Authorization", dono.getToken()))
+                    .andReturn().getResponse().getStatus(), url);
+        }
+        assertEquals(200, mvc.perform(get("/api/transacoes").with(user("admin")))
+                .andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void rankingSoIdentificaOProprioUsuario() throws Exception {
+        String top = mvc.perform(get("/api/ranking")).andReturn().getResponse().getContentAsString();
+        assertFalse(top.contains("userId") || top.contains("nome"), top);
+
+        assertEquals(401, mvc.perform(get("/api/ranking/usuario/{id}", dono.getId()).header("Authorization", outro.getToken()))
+                .andReturn().getResponse().getStatus());
+        String posicao = mvc.perform(get("/api/ranking/usuario/{id}", dono.getId()).header("Authorization", dono.getToken()))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(posicao.contains("\"userId\":" + dono.getId() + ",\"nome\""), posicao);
+        assertFalse(posicao.contains("\"userId\":" + outro.getId() + ","), posicao);
+    }
+}
@@ -0,0 +1,274 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.dto.ImportacaoResultadoDto;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.ImportacaoUsuarioService;
+import com.cashcontrol.cashcontrol_api.service.RebalanceamentoShardsService;
+import com.cashcontrol.cashcontrol_api.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Sharding com três H2 em memória: usuários e transações ficam no shard dono, as listagens
+ * juntam todos os shards e o rebalanceamento leva de volta um usuário gravado no shard errado.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_shard_0",
+        "cashcontrol.sharding.urls=jdbc:h2:mem:cashdb_shard_1,jdbc:h2:mem:cashdb_shard_2"
+})
+@AutoConfigureMockMvc
+class ShardingTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private ShardRoutingDataSource dataSourceShards;
+
+    @Autowired
+    private RebalanceamentoShardsService rebalanceamento;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ImportacaoUsuarioService importacaoService;
+
+    @Autowired
+    private DiretorioUsuarios diretorio;
+
+    @Test
+    void usuariosETransacoesFicamNoShardDono() throws Exception {
+        List<User> usuarios = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            usuarios.add(userService.salvar(novoUsuario("dono" + i + "@shard.com")));
+        }
+
+        Set<Integer> usados = new HashSet<>();
+        for (User user : usuarios) {
+            int dono = shards.shardDoUsuario(user.getId());
+            usados.add(dono);
+            for (int shard = 0; shard < 3; shard++) {
+                assertEquals(shard == dono ? 1 : 0, contar(shard, "usuario where id = " + user.getId()));
+            }
+        }
+        assertEquals(3, usados.size(), "usuários distribuídos entre os três shards");
+
+        User user = usuarios.get(0);
+        mvc.perform(post("/api/transacoes").header("Authorization", user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"valor\":10,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}"))
+                .andExpect(result -> assertEquals(200, result.getResponse().getStatus()));
+        int dono = shards.shardDoUsuario(user.getId());
+        for (int shard = 0; shard < 3; shard++) {
+            assertEquals(shard == dono ? 1 : 0, contar(shard, "transacao where user_id = " + user.getId()));
+        }
+
+        assertTrue(userService.buscarPorId(user.getId()).isPresent());
+        assertEquals(user.getId(), userService.buscarPorEmail(user.getEmail()).orElseThrow().getId());
+        assertTrue(userService.existePorEmail(user.getEmail()));
+        assertTrue(userService.listarTodos().size() >= 30);
+
+        // Atualização de um usuário lido do cache (como no login), fora de qualquer requisição com userId
+        User foraDoShardZero = usuarios.stream().filter(u -> shards.shardDoUsuario(u.getId()) != 0).findFirst().orElseThrow();
+        User lido = userService.buscarPorId(foraDoShardZero.getId()).orElseThrow();
+        lido.setToken("token-novo");
+        userService.salvar(lido);
+        assertEquals(1, contar(shards.shardDoUsuario(lido.getId()), "usuario where token = 'token-novo'"));
+    }
+
+    @Test
+    void listagemJuntaTodosOsShardsComIdsUnicos() throws Exception {
+        Set<Long> idsTransacoes = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            User user = userService.salvar(novoUsuario("lista" + i + "@shard.com"));
+            mvc.perform(post("/api/transacoes").header("Authorization", user.getToken())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"valor\":10,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}"));
+        }
+        for (int shard = 0; shard < 3; shard++) {
+            idsTransacoes.addAll(new JdbcTemplate(dataSourceShards.shard(shard)).queryForList("select id from transacao", Long.class));
+        }
+        int total = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            total += contar(shard, "transacao");
+        }
+        assertEquals(total, idsTransacoes.size(), "IDs de transação não se repetem entre shards");
+
+        String corpo = mvc.perform(get("/api/transacoes").with(user("admin"))).andReturn().getResponse().getContentAsString();
+        for (Long id : idsTransacoes) {
+            assertTrue(corpo.contains("\"id\":" + id + ","), "transação " + id + " na listagem");
+        }
+    }
+
+    @Test
+    void rebalanceamentoMoveUsuarioParaOShardDono() throws Exception {
+        User user = userService.salvar(novoUsuario("mover@shard.com"));
+        mvc.perform(post("/api/transacoes").header("Authorization", user.getToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"valor\":10,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}"));
+        int dono = shards.shardDoUsuario(user.getId());
+        int errado = (dono + 1) % 3;
+
+        // Simula um anel alterado: os dados do usuário estão em outro shard
+        JdbcTemplate jdbcDono = new JdbcTemplate(dataSourceShards.shard(dono));
+        JdbcTemplate jdbcErrado = new JdbcTemplate(dataSourceShards.shard(errado));
+        for (String tabela : List.of("usuario", "transacao")) {
+            String coluna = tabela.equals("usuario") ? "id" : "user_id";
+            for (var linha : jdbcDono.queryForList("select * from " + tabela + " where " + coluna + " = ?", user.getId())) {
+                String colunas = String.join(", ", linha.keySet());
+                String valores = String.join(", ", linha.keySet().stream().map(c -> "?").toList());
+                jdbcErrado.update("insert into " + tabela + " (" + colunas + ") values (" + valores + ")", linha.values().toArray());
+            }
+        }
+        jdbcDono.update("delete from transacao where user_id = ?", user.getId());
+        jdbcDono.update("delete from usuario where id = ?", user.getId());
+        assertEquals(1, rebalanceamento.resumo().get(errado).getUsuariosForaDoShard());
+
+        var resultado = rebalanceamento.rebalancear();
+
+        assertEquals(1, resultado.getUsuariosMovidos());
+        assertEquals(1, resultado.getTransacoesMovidas());
+        assertEquals(1, contar(dono, "usuario where id = " + user.getId()));
+        assertEquals(1, contar(dono, "transacao where user_id = " + user.getId()));
+        assertEquals(0, contar(errado, "usuario where id = " + user.getId()));
+        assertEquals(0, contar(errado, "transacao where user_id = " + user.getId()));
+        assertTrue(userService.buscarPorId(user.getId()).isPresent());
+        assertEquals(0, rebalanceamento.rebalancear().getUsuariosMovidos());
+    }
+
+    @Test
+    void rebalanceamentoNaoApagaDadosJaNoShardDono() throws Exception {
+        User user = userService.salvar(novoUsuario("repetido@shard.com"));
+        mvc.perform(post("/api/transacoes").header("Authorization", user.getToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"valor\":10,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}"));
+        int dono = shards.shardDoUsuario(user.getId());
+        int errado = (dono + 1) % 3;
+
+        // Remoção interrompida: uma cópia antiga do usuário (sem a transação) ficou na origem
+        JdbcTemplate jdbcDono = new JdbcTemplate(dataSourceShards.shard(dono));
+        var linha = jdbcDono.queryForMap("select * from usuario where id = ?", user.getId());
+        new JdbcTemplate(dataSourceShards.shard(errado)).update("insert into usuario (" + String.join(", ", linha.keySet())
+                + ") values (" + String.join(", ", linha.keySet().stream().map(c -> "?").toList()) + ")", linha.values().toArray());
+
+        var resultado = rebalanceamento.rebalancear();
+
+        assertEquals(1, resultado.getUsuariosMovidos());
+        assertEquals(0, resultado.getTransacoesMovidas());
+        assertEquals(1, contar(dono, "usuario where id = " + user.getId()));
+        assertEquals(1, contar(dono, "transacao where user_id = " + user.getId()), "transação do dono preservada");
+        assertEquals(0, contar(errado, "usuario where id = " + user.getId()));
+    }
+
+    @Test
+    void transacaoFicaPresaAoPrimeiroShard() {
+        User user = userService.salvar(novoUsuario("presa@shard.com"));
+        int dono = shards.shardDoUsuario(user.getId());
+        int outro = (dono + 1) % 3;
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User lido = shards.doUsuario(user.getId(), () -> userService.buscarPorId(user.getId()).orElseThrow());
+            lido.setToken("token-presa");
+            assertThrows(IllegalStateException.class, () -> shards.noShard(outro, () -> null));
+            assertTrue(userService.listarTodos().size() > 1, "listagens usam transações próprias");
+        });
+
+        assertEquals(1, contar(dono, "usuario where token = 'token-presa'"), "flush do commit no shard do usuário");
+    }
+
+    @Test
+    void importacaoContaOsShardsGravadosERejeitaSoOQueFalhou() throws Exception {
+        int falho = 2;
+        JdbcTemplate jdbcFalho = new JdbcTemplate(dataSourceShards.shard(falho));
+        jdbcFalho.execute("alter table usuario add constraint importacao_falha check (email not like 'importado%')");
+        ImportacaoResultadoDto resultado;
+        try {
+            StringBuilder csv = new StringBuilder();
+            for (int i = 0; i < 30; i++) {
+                csv.append("Importado,importado").append(i).append("@shard.com,{bcrypt}hash,1000\n");
+            }
+            resultado = importacaoService.importar(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            jdbcFalho.execute("alter table usuario drop constraint importacao_falha");
+        }
+
+        int gravados = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            gravados += contar(shard, "usuario where email like 'importado%'");
+        }
+        assertEquals(gravados, resultado.getImportados(), "shards confirmados contam como importados");
+        assertTrue(gravados > 0 && resultado.getRejeitados() > 0, gravados + " gravados");
+        assertEquals(30, resultado.getImportados() + resultado.getRejeitados());
+        for (ImportacaoResultadoDto.LinhaRejeitada rejeitada : resultado.getRejeicoes()) {
+            assertEquals("Erro ao gravar", rejeitada.getMotivo(), "linha " + rejeitada.getLinha());
+            assertFalse(userService.existePorEmail(rejeitada.getEmail()), "ID liberado no diretório");
+        }
+    }
+
+    @Test
+    void exclusaoSoLiberaOEmailDepoisDoCommit() {
+        User user = userService.salvar(novoUsuario("excluir@shard.com"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.deletar(user.getId());
+            assertTrue(userService.existePorEmail(user.getEmail()), "email reservado até o commit");
+            status.setRollbackOnly();
+        });
+        assertTrue(userService.existePorEmail(user.getEmail()), "exclusão desfeita mantém o email");
+        assertEquals(1, contar(shards.shardDoUsuario(user.getId()), "usuario where id = " + user.getId()));
+
+        userService.deletar(user.getId());
+        assertFalse(userService.existePorEmail(user.getEmail()));
+        assertEquals(0, contar(shards.shardDoUsuario(user.getId()), "usuario where id = " + user.getId()));
+    }
+
+    @Test
+    void idLiberadoNaoEReutilizadoAposPreparar() {
+        User user = userService.salvar(novoUsuario("liberado@shard.com"));
+        userService.deletar(user.getId());
+
+        // Nova subida: o diretório é preparado de novo, já sem o maior ID
+        diretorio.preparar(List.of(dataSourceShards.shard(0), dataSourceShards.shard(1), dataSourceShards.shard(2)));
+
+        User seguinte = userService.salvar(novoUsuario("seguinte@shard.com"));
+        assertTrue(seguinte.getId() > user.getId(), seguinte.getId() + " depois de " + user.getId());
+    }
+
+    private int contar(int shard, String tabelaEFiltro) {
+        return new JdbcTemplate(dataSourceShards.shard(shard)).queryForObject("select count(*) from " + tabelaEFiltro, Integer.class);
+    }
+
+    private User novoUsuario(String email) {
+        User user = UsuariosTeste.montar(userService, email);
+        user.setCooldownAposta(LocalDateTime.now().minusMinutes(1));
+        return user;
+    }
+}
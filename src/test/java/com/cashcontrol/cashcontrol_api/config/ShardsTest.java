@@ -0,0 +1,107 @@
+package com.cashcontrol.cashcontrol_api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Anel de hash consistente: distribuição equilibrada de IDs sequenciais e, ao acrescentar um
+ * shard, só cerca de 1/N dos usuários mudam de dono, todos para o shard novo, atendidos pelo dono
+ * anterior até serem movidos.
+ */
+class ShardsTest {
+
+    private static final int USUARIOS = 100_000;
+
+    @Test
+    void distribuiIdsSequenciaisDeFormaEquilibrada() {
+        Shards shards = new Shards(4, 64, 64, null);
+        int[] porShard = new int[4];
+        for (long id = 1; id <= USUARIOS; id++) {
+            porShard[shards.shardDoUsuario(id)]++;
+        }
+        for (int quantidade : porShard) {
+            assertTrue(quantidade > USUARIOS * 0.17 && quantidade < USUARIOS * 0.33, "shard com " + quantidade);
+        }
+
+        // Os primeiros IDs também se espalham (os pontos do anel não coincidem com eles)
+        int[] primeiros = new int[4];
+        for (long id = 1; id <= 100; id++) {
+            primeiros[shards.shardDoUsuario(id)]++;
+        }
+        for (int quantidade : primeiros) {
+            assertTrue(quantidade > 10, "shard com " + quantidade + " dos 100 primeiros IDs");
+        }
+    }
+
+    @Test
+    void mesmoIdSempreNoMesmoShard() {
+        Shards a = new Shards(3, 64, 64, null);
+        Shards b = new Shards(3, 64, 64, null);
+        for (long id = 1; id <= 1_000; id++) {
+            assertEquals(a.shardDoUsuario(id), b.shardDoUsuario(id));
+        }
+    }
+
+    @Test
+    void novoShardRecebeCercaDeUmEnesimoESoEle() {
+        Shards antes = new Shards(3, 64, 64, null);
+        Shards depois = new Shards(4, 64, 64, null);
+        int movidos = 0;
+        for (long id = 1; id <= USUARIOS; id++) {
+            int anterior = antes.shardDoUsuario(id);
+            int atual = depois.shardDoUsuario(id);
+            if (anterior != atual) {
+                assertEquals(3, atual, "usuário " + id + " mudou entre shards antigos");
+                movidos++;
+            }
+        }
+        assertTrue(movidos > USUARIOS * 0.17 && movidos < USUARIOS * 0.33, movidos + " usuários movidos");
+    }
+
+    @Test
+    void semShardingTudoNoShardZero() {
+        Shards shards = new Shards(1, 64, 64, null);
+        assertFalse(shards.habilitado());
+        assertEquals(0, shards.shardDoUsuario(42));
+    }
+
+    @Test
+    void recusaMaisShardsQueOPassoDosIds() {
+        assertThrows(IllegalStateException.class, () -> new Shards(5, 64, 4, null));
+        assertThrows(IllegalStateException.class, () -> new Shards(3, 3, 64, 64, null, null));
+    }
+
+    @Test
+    void duranteMigracaoUsuarioAindaNaoMovidoFicaNoDonoAnterior() {
+        List<DataSource> pools = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            DataSource pool = new DriverManagerDataSource("jdbc:h2:mem:cashdb_migracao_" + i + ";DB_CLOSE_DELAY=-1");
+            new JdbcTemplate(pool).execute("create table if not exists usuario (id bigint primary key)");
+            pools.add(pool);
+        }
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("dataSourceShards", new ShardRoutingDataSource(pools)));
+        Shards antes = new Shards(3, 64, 64, null);
+        Shards migrando = new Shards(4, 3, 64, 64, null, beans.getBeanProvider(ShardRoutingDataSource.class));
+
+        long mudou = LongStream.rangeClosed(1, 1_000)
+                .filter(id -> migrando.shardDoUsuario(id) != antes.shardDoUsuario(id)).findFirst().orElseThrow();
+        long ficou = LongStream.rangeClosed(1, 1_000)
+                .filter(id -> migrando.shardDoUsuario(id) == antes.shardDoUsuario(id)).findFirst().orElseThrow();
+
+        assertEquals(3, migrando.shardDoUsuario(mudou));
+        assertEquals(antes.shardDoUsuario(mudou), migrando.shardComDados(mudou), "ainda não movido: dono anterior");
+        new JdbcTemplate(pools.get(3)).update("insert into usuario (id) values (?)", mudou);
+        assertEquals(3, migrando.shardComDados(mudou), "já movido: novo dono");
+        assertEquals(antes.shardDoUsuario(ficou), migrando.shardComDados(ficou));
+    }
+}
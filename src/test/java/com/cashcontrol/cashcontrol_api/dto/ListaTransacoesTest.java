@@ -0,0 +1,104 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.cashcontrol.cashcontrol_api.config.CamposParciaisConfig;
+import com.cashcontrol.cashcontrol_api.config.CborConfig;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A listagem em streaming escreve exatamente o que o Jackson escreveria para a mesma
+ * {@code List<TransacaoDto>}, em JSON e CBOR, com e sem o parâmetro {@code fields}, e o CBOR
+ * ocupa menos bytes que o JSON.
+ */
+class ListaTransacoesTest {
+
+    // Como o ObjectMapper do Spring Boot: datas em ISO-8601
+    private final ObjectMapper jsonMapper = CamposParciaisConfig.aplicar(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+    private final ObjectMapper cborMapper = CborConfig.cborMapper();
+
+    private final List<TransacaoDto> transacoes = List.of(
+            dto(1, 15_075, TipoTransacao.APOSTA, LocalDateTime.of(2025, 6, 16, 20, 55), "REALIZADA", 3),
+            dto(2, 100, TipoTransacao.INVESTIMENTO, LocalDateTime.of(2025, 6, 16, 20, 55, 7, 120_000_000), "BLOQUEADA_LIMITE", 3),
+            dto(3, 0, TipoTransacao.RETORNO, LocalDateTime.of(999, 1, 2, 3, 4, 5, 123_456_000), null, 4),
+            dto(4, 99_999_999, TipoTransacao.APOSTA, LocalDateTime.of(2024, 12, 31, 23, 59, 59, 1), "REALIZADA", 4));
+
+    @Test
+    void escreveOMesmoJsonQueOJackson() throws Exception {
+        assertEquals(jsonMapper.writeValueAsString(transacoes), json(null));
+        assertEquals("[]", json(null, List.of()));
+    }
+
+    @Test
+    void escreveOMesmoCborQueOJackson() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (JsonGenerator gen = new CBORFactory().createGenerator(saida)) {
+            lista(transacoes, null).escrever(gen, true);
+        }
+        assertEquals(cborMapper.readTree(cborMapper.writeValueAsBytes(transacoes)), cborMapper.readTree(saida.toByteArray()));
+    }
+
+    @Test
+    void cborOcupaMenosBytesQueJson() throws Exception {
+        int json = jsonMapper.writeValueAsBytes(transacoes).length;
+        int cbor = cborMapper.writeValueAsBytes(transacoes).length;
+        assertTrue(cbor < json, "CBOR=" + cbor + " bytes, JSON=" + json + " bytes");
+    }
+
+    @Test
+    void respeitaOsCamposPedidos() throws Exception {
+        Set<String> campos = CamposParciaisConfig.campos("valor,tipo,desconhecido");
+        String esperado = jsonMapper.writer(CamposParciaisConfig.somente(campos)).writeValueAsString(transacoes);
+        assertEquals(esperado, json(campos));
+        assertTrue(esperado.startsWith("[{\"valor\":150.75,\"tipo\":\"APOSTA\"}"));
+    }
+
+    private String json(Set<String> campos) throws IOException {
+        return json(campos, transacoes);
+    }
+
+    private String json(Set<String> campos, List<TransacaoDto> origem) throws IOException {
+        StringWriter saida = new StringWriter();
+        try (JsonGenerator gen = jsonMapper.getFactory().createGenerator(saida)) {
+            lista(origem, campos).escrever(gen, false);
+        }
+        return saida.toString();
+    }
+
+    /**
+     * Entrega os DTOs como linhas, do mesmo jeito que a consulta (uma única linha reaproveitada).
+     */
+    private static ListaTransacoes lista(List<TransacaoDto> origem, Set<String> campos) {
+        return new ListaTransacoes(destino -> {
+            TransacaoLinha linha = new TransacaoLinha();
+            for (TransacaoDto t : origem) {
+                destino.accept(linha.preencher(t.getId(), t.getValor(), t.getTipo(), t.getData(), t.getStatus(), t.getUserId()));
+            }
+        }, campos);
+    }
+
+    private static TransacaoDto dto(long id, long valor, TipoTransacao tipo, LocalDateTime data, String status, long userId) {
+        TransacaoDto dto = new TransacaoDto();
+        dto.setId(id);
+        dto.setValor(valor);
+        dto.setTipo(tipo);
+        dto.setData(data);
+        dto.setStatus(status);
+        dto.setUserId(userId);
+        return dto;
+    }
+}
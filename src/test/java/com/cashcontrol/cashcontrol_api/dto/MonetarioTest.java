@@ -0,0 +1,53 @@
+package com.cashcontrol.cashcontrol_api.dto;
+
+import com.cashcontrol.cashcontrol_api.model.CentavosConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Valores em centavos nas bordas: JSON em reais (mesmo formato dos antigos {@code Double})
+ * e coluna decimal no banco.
+ */
+class MonetarioTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void serializaCentavosComoReais() throws Exception {
+        DashboardDto dto = new DashboardDto();
+        dto.setSaldo(120_050);
+        dto.setGastosTotais(100_000L);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(dto));
+        assertEquals("1200.5", json.get("saldo").toString());
+        assertEquals("1000.0", json.get("gastosTotais").toString());
+    }
+
+    @Test
+    void leReaisComoCentavos() throws Exception {
+        assertEquals(15_075, objectMapper.readValue("{\"valor\":150.75}", TransacaoCreateDto.class).getValor());
+        assertEquals(10_000, objectMapper.readValue("{\"valor\":100}", TransacaoCreateDto.class).getValor());
+        assertEquals(1, objectMapper.readValue("{\"valor\":0.005}", TransacaoCreateDto.class).getValor());
+        assertEquals(990, objectMapper.readValue("{\"valor\":\"9.90\"}", TransacaoCreateDto.class).getValor());
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"valor\":\"abc\"}", TransacaoCreateDto.class));
+        assertThrows(MismatchedInputException.class,
+                () -> objectMapper.readValue("{\"valor\":null}", TransacaoCreateDto.class));
+    }
+
+    @Test
+    void converterGravaReaisComDuasCasas() {
+        CentavosConverter converter = new CentavosConverter();
+        assertEquals(new BigDecimal("0.10"), converter.convertToDatabaseColumn(10L));
+        assertEquals(12_345L, converter.convertToEntityAttribute(new BigDecimal("123.45")));
+        assertEquals(0L, converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,80 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorTaxaTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void permiteRajadaAteACapacidadeEDepoisRecusa() {
+        LimitadorTaxa limitador = new LimitadorTaxa(2, 3);
+        long agora = 1_000 * SEGUNDO;
+
+        assertEquals(0, limitador.tentarConsumir("u1", agora));
+        assertEquals(0, limitador.tentarConsumir("u1", agora));
+        assertEquals(0, limitador.tentarConsumir("u1", agora));
+
+        long espera = limitador.tentarConsumir("u1", agora);
+        assertEquals(SEGUNDO / 2, espera);
+
+        // Outra chave tem balde próprio
+        assertEquals(0, limitador.tentarConsumir("u2", agora));
+    }
+
+    @Test
+    void repoeFichasComOTempo() {
+        LimitadorTaxa limitador = new LimitadorTaxa(2, 1);
+        long agora = 1_000 * SEGUNDO;
+
+        assertEquals(0, limitador.tentarConsumir("u1", agora));
+        assertTrue(limitador.tentarConsumir("u1", agora + SEGUNDO / 4) > 0);
+        assertEquals(0, limitador.tentarConsumir("u1", agora + SEGUNDO / 2));
+    }
+
+    @Test
+    void removeSomenteBaldesCheios() {
+        LimitadorTaxa limitador = new LimitadorTaxa(1, 5);
+        long agora = 1_000 * SEGUNDO;
+        limitador.tentarConsumir("ocioso", agora);
+        limitador.tentarConsumir("ativo", agora + 10 * SEGUNDO);
+
+        assertEquals(1, limitador.removerInativos(agora + 10 * SEGUNDO));
+        assertEquals(1, limitador.tamanho());
+    }
+
+    @Test
+    void naoConcedeMaisFichasQueACapacidadeSobConcorrencia() throws Exception {
+        int capacidade = 100;
+        LimitadorTaxa limitador = new LimitadorTaxa(0.001, capacidade);
+        long agora = System.nanoTime();
+        AtomicInteger permitidas = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                largada.await();
+                for (int i = 0; i < 1_000; i++) {
+                    if (limitador.tentarConsumir("mesmo-usuario", agora) == 0) {
+                        permitidas.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        largada.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(capacidade, permitidas.get());
+    }
+}
@@ -0,0 +1,42 @@
+package com.cashcontrol.cashcontrol_api.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteTaxaFilterTest {
+
+    @Test
+    void tokensDiferentesDoMesmoIpDividemOBalde() throws Exception {
+        LimiteTaxaFilter filtro = new LimiteTaxaFilter(1, 3, 1, 3, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, postarTransacao(filtro, "token-inventado-" + i, "10.0.0.1"));
+        }
+        assertEquals(429, postarTransacao(filtro, "token-inventado-3", "10.0.0.1"));
+        assertEquals(200, postarTransacao(filtro, "token-inventado-4", "10.0.0.2"), "outro IP tem balde próprio");
+    }
+
+    @Test
+    void limitePorUsuarioUsaOIdAutenticado() {
+        LimiteTaxaUsuario limite = new LimiteTaxaUsuario(1, 2, new SimpleMeterRegistry());
+
+        assertEquals(0, limite.tentarConsumir(1L));
+        assertEquals(0, limite.tentarConsumir(1L));
+        assertEquals(1, limite.tentarConsumir(1L));
+        assertEquals(0, limite.tentarConsumir(2L));
+    }
+
+    private static int postarTransacao(LimiteTaxaFilter filtro, String token, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transacoes");
+        request.addHeader("Authorization", token);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,124 @@
+package com.cashcontrol.cashcontrol_api.repository;
+
+import com.cashcontrol.cashcontrol_api.dto.TransacaoFiltroDto;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.service.TransacaoService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Busca de transações com filtros: resultado e plano de execução da consulta gerada
+ * (capturada do Hibernate e submetida ao EXPLAIN do H2).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_busca",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.cashcontrol.cashcontrol_api.repository.TransacaoRepositoryTest$ConsultasExecutadas"
+})
+class TransacaoRepositoryTest {
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private LocalDateTime agora;
+
+    @BeforeEach
+    void inserirTransacoes() {
+        user = new User();
+        user.setNome("Teste");
+        user.setEmail("busca" + System.nanoTime() + "@teste.com");
+        user.setSenha("{bcrypt}hash");
+        user = userRepository.save(user);
+        agora = LocalDateTime.now();
+        inserir("APOSTA", 10.0, Transacao.STATUS_REALIZADA, agora.minusDays(40));
+        inserir("APOSTA", 80.0, Transacao.STATUS_REALIZADA, agora.minusDays(5));
+        inserir("APOSTA", 500.0, Transacao.STATUS_BLOQUEADA_LIMITE, agora.minusDays(4));
+        inserir("APOSTA", 60.0, Transacao.STATUS_REALIZADA, agora.minusDays(2));
+        inserir("INVESTIMENTO", 70.0, Transacao.STATUS_REALIZADA, agora.minusDays(1));
+        ConsultasExecutadas.SQL.clear();
+    }
+
+    @Test
+    void filtraPorTipoStatusPeriodoEValor() {
+        TransacaoFiltroDto filtro = new TransacaoFiltroDto();
+        filtro.setTipo(TipoTransacao.APOSTA);
+        filtro.setStatus(Transacao.STATUS_REALIZADA);
+        filtro.setDesde(agora.minusDays(30));
+        filtro.setValorMinimo(new BigDecimal("50"));
+        filtro.setValorMaximo(new BigDecimal("80.00"));
+
+        List<Transacao> encontradas = transacaoService.buscar(user, filtro);
+
+        assertEquals(List.of(8000L, 6000L), encontradas.stream().map(Transacao::getValor).toList());
+        assertEquals(1, ConsultasExecutadas.SQL.size(), "uma única consulta, sem o arquivo");
+    }
+
+    @Test
+    void planoUsaIndicePorUsuarioTipoEData() {
+        TransacaoFiltroDto filtro = new TransacaoFiltroDto();
+        filtro.setTipo(TipoTransacao.APOSTA);
+        filtro.setDesde(agora.minusDays(30));
+        filtro.setAte(agora);
+        transacaoService.buscar(user, filtro);
+
+        String plano = explicar(ConsultasExecutadas.SQL.get(0), user.getId(), "APOSTA",
+                Timestamp.valueOf(filtro.getDesde()), Timestamp.valueOf(filtro.getAte()));
+        assertTrue(plano.contains("IDX_TRANSACAO_USUARIO_TIPO_DATA"), plano);
+    }
+
+    @Test
+    void planoSemTipoUsaIndicePorUsuarioEData() {
+        TransacaoFiltroDto filtro = new TransacaoFiltroDto();
+        filtro.setDesde(agora.minusDays(30));
+        transacaoService.buscar(user, filtro);
+
+        String plano = explicar(ConsultasExecutadas.SQL.get(0), user.getId(), Timestamp.valueOf(filtro.getDesde()));
+        assertTrue(plano.contains("IDX_TRANSACAO_USUARIO_DATA"), plano);
+    }
+
+    private String explicar(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, parametros).toUpperCase();
+    }
+
+    private void inserir(String tipo, double valor, String status, LocalDateTime data) {
+        jdbcTemplate.update("insert into transacao (user_id, tipo, valor, status, data) values (?, ?, ?, ?, ?)",
+                user.getId(), tipo, valor, status, Timestamp.valueOf(data));
+    }
+
+    /**
+     * Guarda o SQL das consultas de transações geradas pelo Hibernate.
+     */
+    public static class ConsultasExecutadas implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("from transacao") && sql.startsWith("select")) {
+                SQL.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arquivamento em vários lotes pequenos: as transações antigas mudam de tabela sem alterar
+ * listagens completas nem agregações por usuário.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_arquivamento",
+        "cashcontrol.arquivamento.tamanho-lote=2",
+        "cashcontrol.historico.habilitado=false"
+})
+class ArquivamentoTransacoesServiceTest {
+
+    @Autowired
+    private ArquivamentoTransacoesService arquivamentoService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private HistoricoTransacoesService historicoService;
+
+    @Autowired
+    private DiasSemApostarJob diasSemApostarJob;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void moveTransacoesAntigasMantendoListagensEAgregacoes() {
+        User user = UsuariosTeste.criar(userService, "ana");
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime limite = agora.minusDays(365);
+        long apostaAntiga = inserir(user, "APOSTA", 10.0, agora.minusDays(500));
+        inserir(user, "INVESTIMENTO", 20.0, agora.minusDays(400));
+        inserir(user, "APOSTA", 30.0, agora.minusDays(380));
+        inserir(user, "APOSTA", 40.0, agora.minusDays(10));
+        inserir(user, "RETORNO", 5.0, agora.minusDays(1));
+        long apostadoAntes = historicoService.somar(user.getId(), TipoTransacao.APOSTA);
+
+        assertEquals(3, arquivamentoService.arquivar(limite));
+
+        assertEquals(2, contar("transacao", user));
+        assertEquals(3, contar("transacao_arquivo", user));
+        assertEquals(0, arquivamentoService.arquivar(limite), "nada a mover na segunda execução");
+        assertEquals(0, arquivamentoService.arquivar(agora), "limite além do horizonte é reduzido ao horizonte");
+
+        // Listagem completa: recentes + arquivo, em ordem de data
+        List<Transacao> todas = transacaoService.listarPorUsuario(user);
+        assertEquals(5, todas.size());
+        assertEquals(apostaAntiga, todas.get(0).getId());
+        assertEquals(500, todas.get(4).getValor());
+
+        // Listagem em streaming: mesma ordem, com o arquivo na mesma consulta
+        List<Long> ids = new ArrayList<>();
+        transacaoService.percorrerPorUsuario(user.getId(), null, null, linha -> ids.add(linha.getId()));
+        assertEquals(todas.stream().map(Transacao::getId).toList(), ids);
+        List<Long> valores = new ArrayList<>();
+        transacaoService.percorrerPorUsuario(user.getId(), agora.minusDays(30), null, linha -> valores.add(linha.getValor()));
+        assertEquals(List.of(4000L, 500L), valores);
+
+        // Período recente: o arquivo não é consultado (decisão pelo horizonte, igual em toda instância)
+        assertFalse(arquivamentoService.exigeArquivo(agora.minusDays(30)));
+        assertTrue(arquivamentoService.exigeArquivo(null));
+        assertEquals(2, transacaoService.listarPorUsuario(user, agora.minusDays(30), null).size());
+        assertTrue(arquivamentoService.exigeArquivo(agora.minusDays(450)));
+        assertEquals(2, transacaoService.listarPorUsuario(user, agora.minusDays(450), agora.minusDays(370)).size());
+
+        Transacao arquivada = transacaoService.buscarPorId(apostaAntiga).orElseThrow();
+        assertEquals(user.getId(), arquivada.getUser().getId());
+        assertEquals(1000, arquivada.getValor());
+
+        assertEquals(apostadoAntes, historicoService.somar(user.getId(), TipoTransacao.APOSTA));
+        assertEquals(8000, apostadoAntes);
+    }
+
+    @Test
+    void diasSemApostarConsideramApostasArquivadas() {
+        User user = UsuariosTeste.criar(userService, "bia");
+        LocalDateTime agora = LocalDateTime.now();
+        inserir(user, "APOSTA", 10.0, agora.minusDays(400));
+        jdbcTemplate.update("update usuario set data_cadastro = ? where id = ?",
+                Date.valueOf(LocalDate.now().minusDays(600)), user.getId());
+
+        arquivamentoService.arquivar(agora.minusDays(365));
+        LocalDate referencia = LocalDate.now().plusYears(5);
+        diasSemApostarJob.executar(referencia);
+
+        int dias = jdbcTemplate.queryForObject("select dias_sem_apostar from usuario where id = ?",
+                Integer.class, user.getId());
+        assertEquals(agora.minusDays(400).toLocalDate().until(referencia, ChronoUnit.DAYS), dias,
+                "conta a partir da aposta arquivada, não do cadastro");
+    }
+
+    private long contar(String tabela, User user) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tabela + " where user_id = ?", Long.class, user.getId());
+    }
+
+    private long inserir(User user, String tipo, double valor, LocalDateTime data) {
+        jdbcTemplate.update("insert into transacao (user_id, tipo, valor, status, data) values (?, ?, ?, ?, ?)",
+                user.getId(), tipo, valor, Transacao.STATUS_REALIZADA, Timestamp.valueOf(data));
+        return jdbcTemplate.queryForObject("select max(id) from transacao", Long.class);
+    }
+}
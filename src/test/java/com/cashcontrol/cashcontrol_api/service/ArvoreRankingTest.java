@@ -0,0 +1,82 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArvoreRankingTest {
+
+    @Test
+    void ordenaPorXpDecrescenteDesempatandoPorId() {
+        ArvoreRanking arvore = new ArvoreRanking();
+        arvore.atualizar(3, "c", 50);
+        arvore.atualizar(1, "a", 50);
+        arvore.atualizar(2, "b", 80);
+        arvore.atualizar(4, "d", 10);
+
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(arvore, 1, 10));
+        assertEquals(1, arvore.posicao(2));
+        assertEquals(3, arvore.posicao(3));
+        assertEquals(0, arvore.posicao(99));
+
+        arvore.atualizar(4, "d", 90);
+        assertEquals(1, arvore.posicao(4));
+        assertEquals(List.of(2L, 1L), ids(arvore, 2, 2));
+
+        arvore.remover(2);
+        assertEquals(3, arvore.tamanho());
+        assertEquals(List.of(4L, 1L, 3L), ids(arvore, 1, 10));
+    }
+
+    @Test
+    void adicionarSeAusenteNaoSobrescreveAtualizacaoMaisRecente() {
+        ArvoreRanking arvore = new ArvoreRanking();
+        arvore.atualizar(1, "a", 30);
+        arvore.adicionarSeAusente(1, "a", 10);
+
+        assertEquals(List.of(30), xps(arvore));
+    }
+
+    @Test
+    void concordaComOrdenacaoCompletaEmOperacoesAleatorias() {
+        ArvoreRanking arvore = new ArvoreRanking();
+        Map<Long, Integer> esperado = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long userId = random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                arvore.remover(userId);
+                esperado.remove(userId);
+            } else {
+                int xp = random.nextInt(200);
+                arvore.atualizar(userId, "u" + userId, xp);
+                esperado.put(userId, xp);
+            }
+        }
+
+        List<Long> ordem = esperado.keySet().stream()
+                .sorted(Comparator.comparing((Long id) -> -esperado.get(id)).thenComparing(id -> id))
+                .toList();
+        assertEquals(ordem.size(), arvore.tamanho());
+        assertEquals(ordem, ids(arvore, 1, ordem.size()));
+        for (int i = 0; i < ordem.size(); i++) {
+            assertEquals(i + 1, arvore.posicao(ordem.get(i)));
+        }
+        assertEquals(ordem.subList(100, 111), ids(arvore, 101, 11));
+    }
+
+    private static List<Long> ids(ArvoreRanking arvore, int inicio, int quantidade) {
+        List<Long> ids = new ArrayList<>();
+        arvore.listar(inicio, quantidade, e -> ids.add(e.userId()));
+        return ids;
+    }
+
+    private static List<Integer> xps(ArvoreRanking arvore) {
+        List<Integer> xps = new ArrayList<>();
+        arvore.listar(1, arvore.tamanho(), e -> xps.add(e.xp()));
+        return xps;
+    }
+}
@@ -0,0 +1,53 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.dto.BadgeDto;
+import com.cashcontrol.cashcontrol_api.model.Badge;
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Catálogo de badges em memória e badges do usuário referenciando as definições.
+ */
+@TesteIntegracao
+class BadgeServiceTest {
+
+    @Autowired
+    private BadgeService badgeService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void listaBadgesComNomeDoCatalogoERecusaDuplicadas() {
+        assertEquals(List.of(7, 30), badgeService.definicoesPorDiasSemApostar().stream()
+                .map(d -> d.getDiasSemApostar()).toList());
+
+        User user = UsuariosTeste.criar(userService, "badges");
+        LocalDate hoje = LocalDate.now();
+        jdbcTemplate.update("insert into badge (definition_id, data_conquista, user_id) values (2, ?, ?)", hoje, user.getId());
+
+        List<Badge> badges = badgeService.listarPorUsuario(user);
+        assertEquals(1, badges.size());
+        // Fora da transação: a conversão usa só o id da definição e o catálogo em memória
+        BadgeDto dto = badgeService.toDto(badges.get(0), user.getId());
+        assertEquals("30 dias sem apostar", dto.getNome());
+        assertEquals("Incrível! Um mês sem apostas!", dto.getDescricao());
+        assertEquals(hoje, dto.getDataConquista());
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "insert into badge (definition_id, data_conquista, user_id) values (2, ?, ?)", hoje, user.getId()));
+    }
+}
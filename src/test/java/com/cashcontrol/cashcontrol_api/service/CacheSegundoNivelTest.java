@@ -0,0 +1,110 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.dto.CacheEstatisticasDto;
+import com.cashcontrol.cashcontrol_api.model.Badge;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.BadgeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de segundo nível: leituras repetidas não vão ao banco, as escritas (pelo Hibernate ou
+ * pelo job em JDBC) não deixam usuários nem listas de badges desatualizados no cache, e uma cópia
+ * desatualizada não sobrescreve o usuário.
+ */
+@TesteIntegracao
+class CacheSegundoNivelTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2031, 6, 1);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BadgeService badgeService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private DiasSemApostarJob diasSemApostarJob;
+
+    @Autowired
+    private CacheSegundoNivelService cacheSegundoNivelService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void leiturasRepetidasVemDoCacheEEscritasInvalidam() {
+        User user = UsuariosTeste.criar(userService, "cache");
+        jdbcTemplate.update("update usuario set data_cadastro = ? where id = ?",
+                Date.valueOf(HOJE.minusDays(30)), user.getId());
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userService.buscarPorId(user.getId()).orElseThrow();
+        User emCache = userService.buscarPorId(user.getId()).orElseThrow();
+        assertEquals(1, statistics.getDomainDataRegionStatistics(User.class.getName()).getHitCount());
+
+        // Escrita pelo Hibernate: a entrada do cache é atualizada junto
+        transacaoService.salvar(investimento(emCache));
+        assertEquals(15, userService.buscarPorId(user.getId()).orElseThrow().getXp());
+
+        assertTrue(badgeService.listarPorUsuario(user).isEmpty());
+        assertTrue(badgeService.listarPorUsuario(user).isEmpty());
+        assertEquals(1, statistics.getQueryRegionStatistics(BadgeRepository.REGIAO_POR_USUARIO).getHitCount());
+
+        // Escrita por JDBC no job: usuário e lista de badges são descartados após o commit
+        diasSemApostarJob.executar(HOJE);
+        assertEquals(30, userService.buscarPorId(user.getId()).orElseThrow().getDiasSemApostar());
+        assertEquals(2, badgeService.listarPorUsuario(user).stream().map(Badge::getId).distinct().count());
+
+        CacheEstatisticasDto estatisticas = cacheSegundoNivelService.estatisticas();
+        assertTrue(estatisticas.getTaxaAcerto() > 0);
+        assertTrue(estatisticas.getRegioes().stream()
+                .anyMatch(r -> r.isConsulta() && r.getNome().equals(BadgeRepository.REGIAO_POR_USUARIO)));
+        assertTrue(estatisticas.getRegioes().stream()
+                .anyMatch(r -> !r.isConsulta() && r.getNome().equals(User.class.getName()) && r.getAcertos() >= 1));
+    }
+
+    @Test
+    void gravacaoAPartirDeCopiaDesatualizadaERecusada() {
+        User user = UsuariosTeste.criar(userService, "cache");
+        User emCache = userService.buscarPorId(user.getId()).orElseThrow();
+        // Outra instância grava sem passar por este cache
+        jdbcTemplate.update("update usuario set xp = 40, versao = versao + 1 where id = ?", user.getId());
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transacaoService.salvar(investimento(emCache)));
+        assertEquals(40, jdbcTemplate.queryForObject("select xp from usuario where id = ?", Integer.class, user.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from transacao where user_id = ?", Long.class, user.getId()));
+    }
+
+    private Transacao investimento(User user) {
+        Transacao transacao = new Transacao();
+        transacao.setUser(user);
+        transacao.setValor(1000);
+        transacao.setTipo(TipoTransacao.INVESTIMENTO);
+        transacao.setData(HOJE.minusDays(40).atStartOfDay());
+        transacao.setStatus(Transacao.STATUS_REALIZADA);
+        return transacao;
+    }
+}
@@ -0,0 +1,115 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConexaoSseTest {
+
+    private SaidaSimulada saida;
+    private AsyncContext async;
+    private final List<ConexaoSse> fechadas = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() throws Exception {
+        saida = new SaidaSimulada();
+        ServletResponse response = mock(ServletResponse.class);
+        when(response.getOutputStream()).thenReturn(saida);
+        async = mock(AsyncContext.class);
+        when(async.getResponse()).thenReturn(response);
+    }
+
+    @Test
+    void escreveEventosQuandoOSocketAceita() throws Exception {
+        ConexaoSse conexao = new ConexaoSse(1L, async, 4, fechadas::add);
+        assertTrue(conexao.enviar(bytes("a")));
+        assertEquals("", saida.texto(), "nada é escrito antes do container liberar a escrita");
+
+        conexao.onWritePossible();
+        assertTrue(conexao.enviar(bytes("b")));
+
+        assertEquals("ab", saida.texto());
+        assertTrue(saida.flushes > 0);
+    }
+
+    @Test
+    void clienteLentoRecebeApenasResync() throws Exception {
+        ConexaoSse conexao = new ConexaoSse(1L, async, 2, fechadas::add);
+        conexao.onWritePossible();
+        saida.pronta = false;
+
+        assertTrue(conexao.enviar(bytes("a")));
+        assertTrue(conexao.enviar(bytes("b")));
+        assertFalse(conexao.enviar(bytes("c")), "buffer cheio vira resync");
+        assertTrue(conexao.enviar(bytes("d")), "eventos seguintes são descartados até o resync sair");
+
+        saida.pronta = true;
+        conexao.onWritePossible();
+        assertEquals(new String(ConexaoSse.RESYNC, StandardCharsets.UTF_8), saida.texto());
+
+        conexao.enviar(bytes("e"));
+        assertTrue(saida.texto().endsWith("e"));
+    }
+
+    @Test
+    void falhaDeEscritaFechaAConexao() throws Exception {
+        ConexaoSse conexao = new ConexaoSse(1L, async, 2, fechadas::add);
+        conexao.onWritePossible();
+        saida.falhar = true;
+
+        conexao.heartbeat();
+
+        assertEquals(List.of(conexao), fechadas);
+        verify(async).complete();
+        conexao.onComplete(null);
+        assertEquals(1, fechadas.size(), "fechamento notificado uma única vez");
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class SaidaSimulada extends ServletOutputStream {
+        final ByteArrayOutputStream escrito = new ByteArrayOutputStream();
+        boolean pronta = true;
+        boolean falhar;
+        int flushes;
+
+        String texto() {
+            return escrito.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean isReady() {
+            return pronta;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(int b) throws java.io.IOException {
+            if (falhar) {
+                throw new java.io.IOException("conexão encerrada");
+            }
+            escrito.write(b);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
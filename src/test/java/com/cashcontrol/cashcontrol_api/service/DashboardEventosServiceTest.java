@@ -0,0 +1,144 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fluxo completo de Server-Sent Events contra o servidor embarcado (o endpoint usa I/O
+ * não bloqueante do Servlet, que o MockMvc não suporta).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_sse",
+        "cashcontrol.sse.heartbeat-ms=200",
+        "cashcontrol.limite-taxa.autenticacao.capacidade=100"
+})
+class DashboardEventosServiceTest {
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CompletableFuture<HttpResponse<Stream<String>>> conexao;
+
+    @LocalServerPort
+    private int porta;
+
+    @AfterEach
+    void fechar() {
+        if (conexao != null) {
+            conexao.thenAccept(resp -> resp.body().close());
+        }
+    }
+
+    @Test
+    void enviaEstadoInicialEDeltasDasTransacoes() throws Exception {
+        JsonNode login = cadastrarEEntrar("sse@email.com");
+        String token = login.get("token").asText();
+        long userId = login.get("userId").asLong();
+
+        BlockingQueue<String> linhas = conectar(userId, token);
+        assertEquals("event: estado", proximaLinha(linhas, "event:"));
+        JsonNode estado = dados(linhas);
+        assertEquals(1000.0, estado.get("saldo").asDouble());
+        assertEquals(0, estado.get("xp").asInt());
+
+        HttpResponse<String> transacao = post("/api/transacoes", token,
+                "{\"valor\":100,\"tipo\":\"INVESTIMENTO\",\"userId\":" + userId + "}");
+        assertEquals(200, transacao.statusCode());
+
+        assertEquals("event: delta", proximaLinha(linhas, "event:"));
+        JsonNode delta = dados(linhas);
+        assertEquals(15, delta.get("xp").asInt());
+        assertFalse(delta.has("diasSemApostar"), "dias sem apostar só mudam no job noturno");
+        assertFalse(delta.has("saldo"), "saldo não mudou e não deve ser enviado");
+
+        assertEquals(": heartbeat", proximaLinha(linhas, ":"));
+    }
+
+    @Test
+    void recusaTokenInvalido() throws Exception {
+        JsonNode login = cadastrarEEntrar("sse-token@email.com");
+        HttpResponse<String> resp = http.send(HttpRequest.newBuilder(uri("/api/dashboard/eventos/" + login.get("userId").asLong()))
+                .header("Authorization", "token-errado").build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(401, resp.statusCode());
+    }
+
+    @Test
+    void conectaComTicketDeUsoUnicoERecusaTokenNaUrl() throws Exception {
+        JsonNode login = cadastrarEEntrar("sse-ticket@email.com");
+        String token = login.get("token").asText();
+        long userId = login.get("userId").asLong();
+
+        String ticket = objectMapper.readTree(post("/api/dashboard/" + userId + "/ticket-eventos", token, "").body())
+                .get("ticket").asText();
+        BlockingQueue<String> linhas = new LinkedBlockingQueue<>();
+        conexao = http.sendAsync(HttpRequest.newBuilder(uri("/api/dashboard/eventos/" + userId + "?ticket=" + ticket)).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        conexao.thenAcceptAsync(resp -> resp.body().forEach(linhas::add));
+        assertEquals("event: estado", proximaLinha(linhas, "event:"));
+
+        assertEquals(401, semHeader("/api/dashboard/eventos/" + userId + "?ticket=" + ticket), "ticket já usado");
+        assertEquals(401, semHeader("/api/dashboard/eventos/" + userId + "?token=" + token), "token na URL não é aceito");
+    }
+
+    private int semHeader(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private JsonNode cadastrarEEntrar(String email) throws Exception {
+        post("/api/users/register", null,
+                "{\"nome\":\"Teste\",\"email\":\"" + email + "\",\"senha\":\"123\",\"rendaMensal\":1000}");
+        return objectMapper.readTree(post("/api/users/login", null,
+                "{\"email\":\"" + email + "\",\"senha\":\"123\"}").body());
+    }
+
+    private BlockingQueue<String> conectar(long userId, String token) {
+        BlockingQueue<String> linhas = new LinkedBlockingQueue<>();
+        conexao = http.sendAsync(HttpRequest.newBuilder(uri("/api/dashboard/eventos/" + userId))
+                .header("Authorization", token).build(), HttpResponse.BodyHandlers.ofLines());
+        conexao.thenAcceptAsync(resp -> resp.body().forEach(linhas::add));
+        return linhas;
+    }
+
+    private static String proximaLinha(BlockingQueue<String> linhas, String prefixo) throws InterruptedException {
+        while (true) {
+            String linha = linhas.poll(5, TimeUnit.SECONDS);
+            assertNotNull(linha, "nenhum evento recebido com prefixo " + prefixo);
+            if (linha.startsWith(prefixo)) {
+                return linha;
+            }
+        }
+    }
+
+    private JsonNode dados(BlockingQueue<String> linhas) throws Exception {
+        return objectMapper.readTree(proximaLinha(linhas, "data:").substring("data:".length()));
+    }
+
+    private HttpResponse<String> post(String path, String token, String json) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            req.header("Authorization", token);
+        }
+        return http.send(req.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + porta + path);
+    }
+}
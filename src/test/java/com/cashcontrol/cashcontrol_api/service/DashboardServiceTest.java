@@ -0,0 +1,121 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.config.DashboardConfig;
+import com.cashcontrol.cashcontrol_api.config.LeituraPrimaria;
+import com.cashcontrol.cashcontrol_api.dto.DashboardDto;
+import com.cashcontrol.cashcontrol_api.model.Badge;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Montagem do dashboard com as consultas em paralelo, prazo total e resposta parcial.
+ */
+class DashboardServiceTest {
+
+    private final HistoricoTransacoesService historico = mock(HistoricoTransacoesService.class);
+    private final BadgeService badgeService = mock(BadgeService.class);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private ExecutorService executor;
+    private User user;
+
+    @BeforeEach
+    void preparar() {
+        executor = new DashboardConfig().dashboardExecutor(2, 10, new SimpleMeterRegistry());
+        user = new User();
+        user.setId(7L);
+        user.setSaldo(100_000);
+        user.setXp(30);
+        user.setDiasSemApostar(3);
+        user.setCooldownAposta(LocalDateTime.now().minusMinutes(1));
+    }
+
+    @AfterEach
+    void encerrar() {
+        liberar.countDown();
+        executor.shutdownNow();
+        LeituraPrimaria.forcarPrimario(false);
+    }
+
+    @Test
+    void consultasRodamEmParalelo() {
+        // Cada consulta só termina quando as duas já começaram: em sequência, nenhuma terminaria
+        CountDownLatch iniciadas = new CountDownLatch(2);
+        when(historico.somar(7L, TipoTransacao.APOSTA)).thenAnswer(i -> {
+            iniciadas.countDown();
+            assertTrue(iniciadas.await(5, TimeUnit.SECONDS), "badges não começou junto");
+            return 2_500L;
+        });
+        when(badgeService.listarPorUsuario(user)).thenAnswer(i -> {
+            iniciadas.countDown();
+            assertTrue(iniciadas.await(5, TimeUnit.SECONDS), "gastos não começou junto");
+            return List.of(new Badge());
+        });
+
+        DashboardDto dto = servico(10_000).montar(user);
+
+        assertTrue(dto.getIndisponiveis().isEmpty(), "as duas consultas rodaram ao mesmo tempo");
+        assertEquals(2_500L, dto.getGastosTotais());
+        assertEquals(1, dto.getBadges().size());
+        assertEquals(20_000, dto.getLimiteAposta());
+        assertNull(dto.getCooldownAposta(), "cooldown expirado não é informado");
+    }
+
+    @Test
+    void componenteLentoSaiComoIndisponivelEECancelado() throws Exception {
+        CountDownLatch interrompida = new CountDownLatch(1);
+        when(historico.somar(anyLong(), any())).thenAnswer(i -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                interrompida.countDown();
+                throw e;
+            }
+            return 0L;
+        });
+        when(badgeService.listarPorUsuario(user)).thenReturn(List.of());
+        user.setCooldownAposta(LocalDateTime.now().plusMinutes(3));
+
+        DashboardDto dto = servico(200).montar(user);
+
+        assertNull(dto.getGastosTotais());
+        assertEquals(List.of("gastosTotais"), dto.getIndisponiveis());
+        assertEquals(List.of(), dto.getBadges());
+        assertEquals(100_000, dto.getSaldo());
+        assertNotNull(dto.getCooldownAposta());
+        assertTrue(interrompida.await(5, TimeUnit.SECONDS), "consulta fora do prazo é interrompida, liberando a thread");
+    }
+
+    @Test
+    void consultasHerdamLeituraNoPrimario() {
+        AtomicBoolean primario = new AtomicBoolean();
+        when(badgeService.listarPorUsuario(user)).thenAnswer(i -> {
+            primario.set(LeituraPrimaria.primarioForcado());
+            return List.of();
+        });
+
+        LeituraPrimaria.forcarPrimario(true);
+        servico(2_000).montar(user);
+
+        assertTrue(primario.get(), "a thread do pool lê do primário como a requisição");
+    }
+
+    private DashboardService servico(long prazoMs) {
+        return new DashboardService(historico, badgeService, executor, new SimpleMeterRegistry(), prazoMs);
+    }
+}
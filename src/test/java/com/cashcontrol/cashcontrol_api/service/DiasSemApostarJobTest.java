@@ -0,0 +1,129 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.CheckpointJob;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import com.cashcontrol.cashcontrol_api.repository.CheckpointJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Job noturno com lotes pequenos (vários lotes em paralelo por execução), incluindo a retomada
+ * a partir do checkpoint.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_dias",
+        "cashcontrol.dias-sem-apostar.tamanho-lote=2",
+        "cashcontrol.dias-sem-apostar.paralelismo=2"
+})
+class DiasSemApostarJobTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2030, 3, 15);
+
+    @Autowired
+    private DiasSemApostarJob job;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CheckpointJobRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void contaDiasCorridosEConcedeBadgesUmaVez() {
+        User apostouOntem = novoUsuario("ontem@dias.com", HOJE.minusDays(60));
+        apostar(apostouOntem, HOJE.minusDays(1).atTime(23, 50));
+        User semanaSemApostar = novoUsuario("semana@dias.com", HOJE.minusDays(60));
+        apostar(semanaSemApostar, HOJE.minusDays(8).atTime(9, 0));
+        investir(semanaSemApostar, HOJE.minusDays(2).atTime(9, 0));
+        User nuncaApostou = novoUsuario("nunca@dias.com", HOJE.minusDays(45));
+        User novato = novoUsuario("novato@dias.com", HOJE);
+        User antigo = novoUsuario("antigo@dias.com", null);
+        investir(antigo, HOJE.minusDays(10).atTime(12, 0));
+
+        DiasSemApostarJob.Resumo resumo = job.executar(HOJE);
+
+        assertEquals(5, resumo.usuarios());
+        assertEquals(1, dias(apostouOntem));
+        assertEquals(8, dias(semanaSemApostar));
+        assertEquals(45, dias(nuncaApostou));
+        assertEquals(0, dias(novato));
+        assertEquals(10, dias(antigo));
+        assertEquals(List.of("7 dias sem apostar"), badges(semanaSemApostar));
+        assertEquals(List.of("30 dias sem apostar", "7 dias sem apostar"), badges(nuncaApostou));
+        assertEquals(List.of("7 dias sem apostar"), badges(antigo));
+        assertTrue(badges(apostouOntem).isEmpty());
+        assertEquals(4, resumo.badges());
+
+        CheckpointJob checkpoint = checkpointRepository.findById(DiasSemApostarJob.NOME).orElseThrow();
+        assertTrue(checkpoint.isConcluido());
+        assertEquals(HOJE, checkpoint.getDataReferencia());
+
+        // Mesma data: já concluída, nada é refeito
+        assertEquals(0, job.executar(HOJE).usuarios());
+
+        // Dia seguinte: dias avançam e as badges não se repetem
+        DiasSemApostarJob.Resumo amanha = job.executar(HOJE.plusDays(1));
+        assertEquals(9, dias(semanaSemApostar));
+        assertEquals(0, amanha.badges());
+        assertEquals(List.of("7 dias sem apostar"), badges(semanaSemApostar));
+    }
+
+    @Test
+    void retomaDoCheckpointDeUmaExecucaoInterrompida() {
+        LocalDate referencia = HOJE.plusDays(100);
+        User primeiro = novoUsuario("primeiro@dias.com", referencia.minusDays(3));
+        User segundo = novoUsuario("segundo@dias.com", referencia.minusDays(3));
+        checkpointRepository.save(new CheckpointJob(DiasSemApostarJob.NOME, referencia, primeiro.getId(),
+                false, LocalDateTime.now()));
+
+        DiasSemApostarJob.Resumo resumo = job.executar(referencia);
+
+        assertEquals(3, dias(segundo));
+        assertEquals(0, dias(primeiro), "usuários até o checkpoint não são reprocessados");
+        assertTrue(resumo.usuarios() >= 1);
+        assertTrue(checkpointRepository.findById(DiasSemApostarJob.NOME).orElseThrow().isConcluido());
+    }
+
+    private int dias(User user) {
+        return jdbcTemplate.queryForObject("select dias_sem_apostar from usuario where id = ?", Integer.class, user.getId());
+    }
+
+    private List<String> badges(User user) {
+        return jdbcTemplate.queryForList("select d.nome from badge b join badge_definition d on d.id = b.definition_id where b.user_id = ? order by d.nome", String.class, user.getId());
+    }
+
+    private void apostar(User user, LocalDateTime data) {
+        inserir(user, "APOSTA", data);
+    }
+
+    private void investir(User user, LocalDateTime data) {
+        inserir(user, "INVESTIMENTO", data);
+    }
+
+    private void inserir(User user, String tipo, LocalDateTime data) {
+        jdbcTemplate.update("insert into transacao (user_id, tipo, valor, status, data) values (?, ?, ?, ?, ?)",
+                user.getId(), tipo, 10.0, Transacao.STATUS_REALIZADA, Timestamp.valueOf(data));
+    }
+
+    private User novoUsuario(String email, LocalDate cadastro) {
+        User user = userService.salvar(UsuariosTeste.montar(userService, email));
+        jdbcTemplate.update("update usuario set data_cadastro = ? where id = ?",
+                cadastro != null ? Date.valueOf(cadastro) : null, user.getId());
+        return user;
+    }
+}
@@ -0,0 +1,89 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.dto.EstatisticasDto;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Varredura paralela com faixas pequenas (várias tarefas por execução) comparada com os
+ * valores esperados.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_estatisticas",
+        "cashcontrol.estatisticas.tamanho-faixa=3",
+        "cashcontrol.estatisticas.paralelismo=3",
+        "cashcontrol.estatisticas.intervalo-ms=3600000"
+})
+class EstatisticasServiceTest {
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ApostasBloqueadasService apostasBloqueadasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void combinaOsTotaisDeTodasAsFaixas() {
+        User ana = UsuariosTeste.criar(userService, "ana");
+        User bia = UsuariosTeste.criar(userService, "bia");
+        User caio = UsuariosTeste.criar(userService, "caio");
+        LocalDateTime hoje = LocalDate.now().atTime(10, 0);
+        LocalDateTime antiga = hoje.minusDays(90);
+
+        inserir(ana, "APOSTA", 10.0, Transacao.STATUS_REALIZADA, hoje);
+        inserir(ana, "APOSTA", 30.0, Transacao.STATUS_REALIZADA, hoje.minusDays(1));
+        inserir(ana, "INVESTIMENTO", 100.0, Transacao.STATUS_REALIZADA, hoje);
+        inserir(bia, "APOSTA", 20.0, Transacao.STATUS_REALIZADA, hoje.minusDays(1));
+        inserir(bia, "INVESTIMENTO", 50.0, Transacao.STATUS_REALIZADA, hoje.minusDays(1));
+        inserir(caio, "INVESTIMENTO", 40.0, Transacao.STATUS_REALIZADA, antiga);
+        apostasBloqueadasService.registrarLimite(ana, 50_000);
+        apostasBloqueadasService.contarCooldown(ana.getId());
+        apostasBloqueadasService.gravarTentativas();
+
+        estatisticasService.atualizar();
+        EstatisticasDto dto = estatisticasService.obter().orElseThrow();
+
+        assertEquals(6, dto.getTransacoesAnalisadas(), "apostas bloqueadas ficam fora de transacao");
+        assertEquals(6000, dto.getTotalApostado());
+        assertEquals(19000, dto.getTotalInvestido());
+        assertEquals(3, dto.getApostasRealizadas());
+        assertEquals(2000, dto.getApostaMedia());
+        assertEquals(1, dto.getApostasBloqueadasLimite());
+        assertEquals(1, dto.getApostasBloqueadasCooldown());
+        assertEquals(40.0, dto.getPercentualApostasBloqueadas(), 1e-9);
+        assertEquals(2, dto.getUsuariosAtivos(), "caio só tem transação fora da janela");
+
+        assertEquals(3, dto.getPorDia().size());
+        EstatisticasDto.Dia primeiro = dto.getPorDia().get(0);
+        assertEquals(antiga.toLocalDate(), primeiro.getData());
+        assertEquals(4000, primeiro.getTotalInvestido());
+        EstatisticasDto.Dia ontem = dto.getPorDia().get(1);
+        assertEquals(5000, ontem.getTotalApostado());
+        assertEquals(5000, ontem.getTotalInvestido());
+        EstatisticasDto.Dia ultimo = dto.getPorDia().get(2);
+        assertEquals(hoje.toLocalDate(), ultimo.getData());
+        assertEquals(1000, ultimo.getTotalApostado());
+    }
+
+    private void inserir(User user, String tipo, double valor, String status, LocalDateTime data) {
+        jdbcTemplate.update("insert into transacao (user_id, tipo, valor, status, data) values (?, ?, ?, ?, ?)",
+                user.getId(), tipo, valor, status, Timestamp.valueOf(data));
+    }
+}
@@ -0,0 +1,53 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoricoColunarTest {
+
+    private static final byte APOSTA = 0;
+    private static final byte INVESTIMENTO = 1;
+
+    @Test
+    void somaEContaPorJanelaSemiaberta() {
+        HistoricoColunar historico = new HistoricoColunar(1);
+        historico.adicionar(100, 1_000, APOSTA);
+        historico.adicionar(200, 2_000, INVESTIMENTO);
+        historico.adicionar(200, 3_000, APOSTA);
+        historico.adicionar(300, 4_000, APOSTA);
+
+        assertEquals(8_000, historico.somar(APOSTA, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(3_000, historico.somar(APOSTA, 200, 300));
+        assertEquals(1, historico.contar(INVESTIMENTO, 0, 1_000));
+        assertEquals(0, historico.contar(APOSTA, 301, 400));
+    }
+
+    @Test
+    void mantemOrdemComInsercoesForaDeOrdem() {
+        Random random = new Random(7);
+        HistoricoColunar historico = new HistoricoColunar(8);
+        long[] instantes = new long[5_000];
+        long[] valores = new long[instantes.length];
+        for (int i = 0; i < instantes.length; i++) {
+            instantes[i] = i * 10L + random.nextInt(50) - 25; // Cresce, com desordem local
+            valores[i] = 1 + random.nextInt(10_000);
+            historico.adicionar(instantes[i], valores[i], APOSTA);
+        }
+
+        for (int consulta = 0; consulta < 200; consulta++) {
+            long desde = random.nextInt(50_000);
+            long ate = desde + random.nextInt(10_000);
+            long esperado = 0;
+            for (int i = 0; i < instantes.length; i++) {
+                if (instantes[i] >= desde && instantes[i] < ate) {
+                    esperado += valores[i];
+                }
+            }
+            assertEquals(esperado, historico.somar(APOSTA, desde, ate));
+        }
+        assertEquals(instantes.length, historico.tamanho());
+    }
+}
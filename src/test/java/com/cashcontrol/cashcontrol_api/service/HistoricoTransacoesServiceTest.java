@@ -0,0 +1,64 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carregamento do histórico colunar a partir do banco e atualização pelas transações seguintes.
+ */
+@TesteIntegracao
+class HistoricoTransacoesServiceTest {
+
+    @Autowired
+    private HistoricoTransacoesService historicoTransacoesService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ApostasBloqueadasService apostasBloqueadasService;
+
+    @Test
+    void carregaDoBancoEAcompanhaNovasTransacoes() {
+        User user = UsuariosTeste.criar(userService, "historico");
+        LocalDateTime inicio = LocalDateTime.now().minusSeconds(1);
+        salvar(user, TipoTransacao.APOSTA, 1_000);
+        salvar(user, TipoTransacao.INVESTIMENTO, 5_000);
+        apostasBloqueadasService.registrarLimite(user, 90_000);
+
+        assertEquals(1_000, historicoTransacoesService.somar(user.getId(), TipoTransacao.APOSTA));
+        int carregados = historicoTransacoesService.usuariosEmMemoria();
+
+        Transacao ultima = salvar(user, TipoTransacao.APOSTA, 250);
+        assertEquals(1_250, historicoTransacoesService.somar(user.getId(), TipoTransacao.APOSTA));
+        assertEquals(2, historicoTransacoesService.contar(user.getId(), TipoTransacao.APOSTA, inicio, null));
+        assertEquals(250, historicoTransacoesService.somar(user.getId(), TipoTransacao.APOSTA, ultima.getData(), null));
+        assertEquals(0, historicoTransacoesService.somar(user.getId(), TipoTransacao.APOSTA, null, inicio));
+        assertEquals(carregados, historicoTransacoesService.usuariosEmMemoria(), "não deve recarregar");
+
+        transacaoService.deletar(ultima.getId());
+        assertEquals(1_000, historicoTransacoesService.somar(user.getId(), TipoTransacao.APOSTA));
+    }
+
+    private Transacao salvar(User user, TipoTransacao tipo, long valor) {
+        Transacao transacao = new Transacao();
+        transacao.setUser(userService.buscarPorId(user.getId()).orElseThrow());
+        transacao.setValor(valor);
+        transacao.setTipo(tipo);
+        transacao.setData(LocalDateTime.now());
+        transacao.setStatus(Transacao.STATUS_REALIZADA);
+        return transacaoService.salvar(transacao);
+    }
+}
@@ -0,0 +1,132 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * {@code Idempotency-Key} no POST de transações: repetições servidas da memória e do banco,
+ * chave reutilizada com outro corpo, respostas de intervenção e reservas interrompidas.
+ */
+@TesteIntegracao
+class IdempotenciaServiceTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void criarUsuario() {
+        user = UsuariosTeste.criar(userService, "idem");
+    }
+
+    @Test
+    void repeticaoDevolveRespostaOriginalSemNovaTransacao() throws Exception {
+        String corpo = "{\"valor\":100,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}";
+        MockHttpServletResponse primeira = criar(corpo, "chave-1");
+        MockHttpServletResponse repetida = criar(corpo, "chave-1");
+
+        assertEquals(200, primeira.getStatus());
+        assertNull(primeira.getHeader(IdempotenciaService.HEADER_REPETIDA));
+        assertEquals(200, repetida.getStatus());
+        assertEquals("true", repetida.getHeader(IdempotenciaService.HEADER_REPETIDA));
+        assertEquals(primeira.getContentAsString(), repetida.getContentAsString());
+        assertEquals(1, transacoes());
+
+        // Após reinício (memória vazia) a resposta vem da tabela
+        idempotenciaService.limparCache();
+        MockHttpServletResponse doBanco = criar(corpo, "chave-1");
+        assertEquals("true", doBanco.getHeader(IdempotenciaService.HEADER_REPETIDA));
+        assertEquals(primeira.getContentAsString(), doBanco.getContentAsString());
+        assertEquals(1, transacoes());
+
+        // Mesma chave com outro corpo é recusada; outra chave cria nova transação
+        assertEquals(422, criar(corpo.replace("100", "200"), "chave-1").getStatus());
+        assertEquals(200, criar(corpo, "chave-2").getStatus());
+        assertEquals(2, transacoes());
+        assertEquals(200, criar(corpo, null).getStatus());
+        assertEquals(3, transacoes());
+    }
+
+    @Test
+    void repeticaoDeApostaBloqueadaNaoRegistraOutroBloqueio() throws Exception {
+        String corpo = "{\"valor\":900,\"tipo\":\"APOSTA\",\"userId\":" + user.getId() + "}";
+        MockHttpServletResponse primeira = criar(corpo, "aposta-1");
+        idempotenciaService.limparCache();
+        MockHttpServletResponse repetida = criar(corpo, "aposta-1");
+
+        assertEquals(400, primeira.getStatus());
+        assertEquals(400, repetida.getStatus());
+        assertEquals(primeira.getContentAsString(StandardCharsets.UTF_8), repetida.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(0, transacoes(), "bloqueios ficam fora do histórico");
+        assertEquals(1, bloqueios(), "só o registro do bloqueio original");
+    }
+
+    @Test
+    void reservaSemRespostaSoEAssumidaDepoisDeExpirar() throws Exception {
+        String corpo = "{\"valor\":100,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}";
+        String requisicao = "INVESTIMENTO:10000";
+        // Execuções interrompidas (instância caiu): nada confirmado além da reserva
+        reservar("recente", requisicao, LocalDateTime.now());
+        reservar("abandonada", requisicao, LocalDateTime.now().minusHours(1));
+
+        assertEquals(409, criar(corpo, "recente").getStatus());
+        assertEquals(0, transacoes());
+
+        MockHttpServletResponse assumida = criar(corpo, "abandonada");
+        assertEquals(200, assumida.getStatus());
+        assertNull(assumida.getHeader(IdempotenciaService.HEADER_REPETIDA));
+        assertEquals(1, transacoes());
+
+        idempotenciaService.limparCache();
+        assertEquals("true", criar(corpo, "abandonada").getHeader(IdempotenciaService.HEADER_REPETIDA));
+        assertEquals(1, transacoes());
+    }
+
+    private void reservar(String chave, String requisicao, LocalDateTime criadaEm) {
+        jdbcTemplate.update("insert into chave_idempotencia (user_id, chave, requisicao, criada_em, reserva) values (?, ?, ?, ?, ?)",
+                user.getId(), chave, requisicao, Timestamp.valueOf(criadaEm), "interrompida");
+    }
+
+    private MockHttpServletResponse criar(String corpo, String chave) throws Exception {
+        var requisicao = post("/api/transacoes")
+                .header("Authorization", user.getToken())
+                .contentType("application/json")
+                .content(corpo);
+        if (chave != null) {
+            requisicao.header("Idempotency-Key", chave);
+        }
+        return mvc.perform(requisicao).andReturn().getResponse();
+    }
+
+    private long bloqueios() {
+        return jdbcTemplate.queryForObject("select count(*) from aposta_bloqueada where user_id = ?", Long.class, user.getId());
+    }
+
+    private long transacoes() {
+        return jdbcTemplate.queryForObject("select count(*) from transacao where user_id = ?", Long.class, user.getId());
+    }
+}
@@ -0,0 +1,93 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.dto.ImportacaoResultadoDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Importação em lote: emails repetidos ou já cadastrados são rejeitados sem diferenciar
+ * maiúsculas, dentro do lote e entre lotes (lotes de 2 linhas), e só o cabeçalho exato é pulado.
+ */
+@TesteIntegracao
+class ImportacaoUsuarioServiceTest {
+
+    @Autowired
+    private ImportacaoUsuarioService importacaoService;
+
+    @Autowired
+    private UserService userService;
+
+    private String sufixo;
+
+    @BeforeEach
+    void gerarSufixo() {
+        sufixo = UsuariosTeste.email("");
+    }
+
+    @Test
+    void emailJaCadastradoComOutraCaixaERejeitado() throws Exception {
+        userService.salvar(UsuariosTeste.montar(userService, "Existente" + sufixo));
+
+        ImportacaoResultadoDto resultado = importar(
+                "Outro,EXISTENTE" + sufixo + ",{bcrypt}hash,1000",
+                "Novo,novo" + sufixo + ",{bcrypt}hash,1000");
+
+        assertEquals(1, resultado.getImportados());
+        assertEquals(List.of("Email já cadastrado"), motivos(resultado));
+        assertTrue(userService.existePorEmail("novo" + sufixo));
+    }
+
+    @Test
+    void emailRepetidoNoArquivoERejeitadoNoLoteEEntreLotes() throws Exception {
+        ImportacaoResultadoDto resultado = importar(
+                "Ana,ana" + sufixo + ",{bcrypt}hash,1000",
+                "Ana,ANA" + sufixo + ",{bcrypt}hash,1000",
+                "Bia,bia" + sufixo + ",{bcrypt}hash,1000",
+                "Ana,Ana" + sufixo + ",{bcrypt}hash,1000");
+
+        assertEquals(4, resultado.getLinhasLidas());
+        assertEquals(2, resultado.getImportados());
+        assertEquals(List.of("Email duplicado no arquivo", "Email já cadastrado"), motivos(resultado));
+        assertEquals(List.of(2L, 4L), resultado.getRejeicoes().stream()
+                .map(ImportacaoResultadoDto.LinhaRejeitada::getLinha).toList());
+    }
+
+    @Test
+    void senhaJaEmHashEGravadaComoEsta() throws Exception {
+        importar("nome,email,senha,rendaMensal", "Caio,caio" + sufixo + ",{bcrypt}$2a$10$abc,2500.50");
+
+        var user = userService.buscarPorEmail("caio" + sufixo).orElseThrow();
+        assertEquals("{bcrypt}$2a$10$abc", user.getSenha());
+        assertEquals(250_050, user.getRendaMensal());
+        assertEquals(250_050, user.getSaldo());
+    }
+
+    @Test
+    void primeiraLinhaComEmailNoEnderecoNaoEConfundidaComCabecalho() throws Exception {
+        ImportacaoResultadoDto resultado = importar(
+                "João,joao.email" + sufixo + ",{bcrypt}hash,2000",
+                "Maria,maria" + sufixo + ",{bcrypt}hash,3500");
+
+        assertEquals(2, resultado.getLinhasLidas());
+        assertEquals(2, resultado.getImportados());
+        assertTrue(userService.existePorEmail("joao.email" + sufixo));
+    }
+
+    private ImportacaoResultadoDto importar(String... linhas) throws Exception {
+        byte[] csv = String.join("\n", linhas).getBytes(StandardCharsets.UTF_8);
+        return importacaoService.importar(new ByteArrayInputStream(csv));
+    }
+
+    private static List<String> motivos(ImportacaoResultadoDto resultado) {
+        return resultado.getRejeicoes().stream().map(ImportacaoResultadoDto.LinhaRejeitada::getMotivo).toList();
+    }
+}
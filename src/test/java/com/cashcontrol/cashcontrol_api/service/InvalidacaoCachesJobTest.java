@@ -0,0 +1,125 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.TipoTransacao;
+import com.cashcontrol.cashcontrol_api.model.Transacao;
+import com.cashcontrol.cashcontrol_api.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Invalidação entre instâncias pelo registro de alterações: as escritas locais gravam o registro
+ * sem reprocessá-lo, as linhas de outra instância descartam o usuário do cache e atualizam o
+ * ranking, e uma lacuna de ID segura a marca até ser preenchida.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cashdb_alteracoes",
+        "cashcontrol.alteracoes.habilitado=true",
+        "cashcontrol.alteracoes.no=no-teste",
+        // O teste chama verificar(); a execução agendada só acontece na subida
+        "cashcontrol.alteracoes.intervalo-ms=3600000",
+        "cashcontrol.alteracoes.espera-lacuna-ms=3600000"
+})
+class InvalidacaoCachesJobTest {
+
+    private static final String SQL_REGISTRAR =
+            "insert into registro_alteracao (entidade, entidade_id, versao, no) values ('usuario', ?, ?, 'outra')";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private InvalidacaoCachesJob job;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void escritaLocalGravaORegistroNaMesmaTransacao() {
+        User user = UsuariosTeste.criar(userService, "local");
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from registro_alteracao where entidade = 'usuario' and entidade_id = ? and no = 'no-teste'",
+                Integer.class, user.getId()));
+
+        job.verificar();
+        assertEquals(maiorId(), job.marca(0));
+    }
+
+    @Test
+    void apostaBloqueadaPeloLimiteGravaORegistroDoUsuario() {
+        User user = UsuariosTeste.criar(userService, "limite");
+        int antes = registrosDoUsuario(user);
+
+        Transacao bloqueada = transacaoService.criar(user.getId(), TipoTransacao.APOSTA, user.getSaldo());
+
+        assertEquals(Transacao.STATUS_BLOQUEADA_LIMITE, bloqueada.getStatus());
+        assertEquals(antes + 1, registrosDoUsuario(user), "cooldown aplicado invalida o usuário nas outras instâncias");
+    }
+
+    @Test
+    void alteracaoDeOutraInstanciaInvalidaOCacheLocal() {
+        User user = UsuariosTeste.criar(userService, "remoto");
+        job.verificar();
+        assertEquals(0, userService.buscarPorId(user.getId()).orElseThrow().getXp());
+
+        // Outra instância altera o usuário: o cache de segundo nível desta continua com o valor antigo
+        jdbcTemplate.update("update usuario set xp = 777 where id = ?", user.getId());
+        assertEquals(0, userService.buscarPorId(user.getId()).orElseThrow().getXp());
+        double antes = meterRegistry.get("cashcontrol.alteracoes.atraso").timer().count();
+        jdbcTemplate.update(SQL_REGISTRAR, user.getId(), System.currentTimeMillis());
+
+        job.verificar();
+
+        assertEquals(777, userService.buscarPorId(user.getId()).orElseThrow().getXp());
+        assertEquals(777, rankingService.buscarPosicao(user.getId(), 0).orElseThrow().getXp());
+        assertEquals(antes + 1, meterRegistry.get("cashcontrol.alteracoes.atraso").timer().count());
+    }
+
+    @Test
+    void lacunaSeguraAMarcaAteOCommit() {
+        User user = UsuariosTeste.criar(userService, "lacuna");
+        job.verificar();
+        long marca = job.marca(0);
+        userService.buscarPorId(user.getId());
+
+        // O ID marca + 1 ainda não foi confirmado; marca + 2 já aparece
+        jdbcTemplate.update("update usuario set xp = 5 where id = ?", user.getId());
+        jdbcTemplate.update("insert into registro_alteracao (id, entidade, entidade_id, versao, no) values (?, 'usuario', ?, ?, 'outra')",
+                marca + 2, user.getId(), System.currentTimeMillis());
+        job.verificar();
+        assertEquals(marca, job.marca(0));
+        assertEquals(5, userService.buscarPorId(user.getId()).orElseThrow().getXp(), "linhas acima da lacuna já são aplicadas");
+
+        jdbcTemplate.update("insert into registro_alteracao (id, entidade, entidade_id, versao, no) values (?, 'usuario', ?, ?, 'outra')",
+                marca + 1, user.getId(), System.currentTimeMillis());
+        job.verificar();
+        assertEquals(marca + 2, job.marca(0));
+
+        jdbcTemplate.execute("alter table registro_alteracao alter column id restart with " + (marca + 3));
+    }
+
+    private int registrosDoUsuario(User user) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from registro_alteracao where entidade = 'usuario' and entidade_id = ?",
+                Integer.class, user.getId());
+    }
+
+    private long maiorId() {
+        return jdbcTemplate.queryForObject("select max(id) from registro_alteracao", Long.class);
+    }
+}
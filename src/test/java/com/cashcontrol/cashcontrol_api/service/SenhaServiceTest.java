@@ -0,0 +1,113 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.config.SenhaConfig;
+import com.cashcontrol.cashcontrol_api.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Hash de senhas: novas senhas em BCrypt, senhas legadas (texto puro) aceitas uma última vez e
+ * convertidas no login, hashes de custo menor regerados, e a opção de recusar as legadas.
+ */
+@TesteIntegracao
+class SenhaServiceTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private SenhaService senhaService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void novaSenhaEGravadaEmBcrypt() {
+        String hash = senhaService.gerarHash("segredo");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$05$"), hash);
+        User user = new User();
+        user.setSenha(hash);
+        assertTrue(senhaService.verificar(user, "segredo"));
+        assertEquals(hash, user.getSenha(), "hash atual não é regerado");
+        assertFalse(senhaService.verificar(user, "outra"));
+    }
+
+    @Test
+    void loginComSenhaLegadaConverteParaBcrypt() throws Exception {
+        User user = novoUsuario();
+        jdbcTemplate.update("update usuario set senha = ? where id = ?", "legada-123", user.getId());
+        entityManagerFactory.getCache().evictAll();
+        double legadasAntes = meterRegistry.get("cashcontrol.senha.legadas").counter().count();
+
+        assertEquals(401, login(user.getEmail(), "errada"));
+        assertEquals("legada-123", senhaGravada(user), "senha errada não altera o valor gravado");
+
+        assertEquals(200, login(user.getEmail(), "legada-123"));
+        String convertida = senhaGravada(user);
+        assertTrue(convertida.startsWith("{bcrypt}"), convertida);
+        assertTrue(passwordEncoder.matches("legada-123", convertida));
+        assertEquals(legadasAntes + 1, meterRegistry.get("cashcontrol.senha.legadas").counter().count());
+
+        assertEquals(200, login(user.getEmail(), "legada-123"));
+        assertEquals(legadasAntes + 1, meterRegistry.get("cashcontrol.senha.legadas").counter().count());
+    }
+
+    @Test
+    void hashDeCustoMenorERegerado() {
+        User user = new User();
+        user.setSenha("{bcrypt}" + new BCryptPasswordEncoder(4).encode("segredo"));
+
+        assertTrue(senhaService.verificar(user, "segredo"));
+        assertTrue(user.getSenha().startsWith("{bcrypt}$2a$05$"), user.getSenha());
+    }
+
+    @Test
+    void senhaLegadaRecusadaQuandoDesligada() {
+        PasswordEncoder semLegadas = new SenhaConfig().passwordEncoder(4, false);
+
+        assertFalse(semLegadas.matches("legada-123", "legada-123"));
+        assertTrue(semLegadas.matches("segredo", semLegadas.encode("segredo")));
+    }
+
+    private User novoUsuario() {
+        User user = UsuariosTeste.montar(userService, UsuariosTeste.email("senha"));
+        user.setSenha(passwordEncoder.encode("inicial"));
+        return userService.salvar(user);
+    }
+
+    private int login(String email, String senha) throws Exception {
+        return mvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"senha\":\"" + senha + "\"}"))
+                .andReturn().getResponse().getStatus();
+    }
+
+    private String senhaGravada(User user) {
+        return jdbcTemplate.queryForObject("select senha from usuario where id = ?", String.class, user.getId());
+    }
+}
@@ -0,0 +1,118 @@
+package com.cashcontrol.cashcontrol_api.service;
+
+import com.cashcontrol.cashcontrol_api.TesteIntegracao;
+import com.cashcontrol.cashcontrol_api.UsuariosTeste;
+import com.cashcontrol.cashcontrol_api.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Criação de transações pelo POST como uma única unidade de trabalho: cada aposta gera um
+ * SELECT do usuário na autenticação (pode vir do cache), um SELECT ... FOR UPDATE do usuário no
+ * banco, um INSERT da transação e no máximo um UPDATE do usuário, com um único commit de escrita.
+ */
+@TesteIntegracao
+class TransacaoServiceTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void criarUsuario() {
+        user = UsuariosTeste.montar(userService, UsuariosTeste.email("uow"));
+        user.setCooldownAposta(LocalDateTime.now().minusMinutes(1));
+        user = userService.salvar(user);
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void apostaComCooldownExpiradoGeraUmUpdateEUmCommit() throws Exception {
+        assertEquals(200, apostar(100));
+
+        assertEquals(4, statistics.getPrepareStatementCount(),
+                "select da autenticação, select com lock, insert da transação, update do usuário");
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityUpdateCount(), "cooldown liberado e saldo no mesmo UPDATE");
+        assertEquals(2, statistics.getSuccessfulTransactionCount(), "leitura da autenticação e um único commit de escrita");
+
+        User atualizado = userService.buscarPorId(user.getId()).orElseThrow();
+        assertNull(atualizado.getCooldownAposta());
+        assertEquals(90_000, atualizado.getSaldo());
+    }
+
+    @Test
+    void apostaAcimaDoLimiteGravaCooldownEBloqueioNoMesmoCommit() throws Exception {
+        assertEquals(400, apostar(500));
+
+        assertEquals(4, statistics.getPrepareStatementCount(),
+                "select da autenticação, select com lock, insert do bloqueio, update do usuário");
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(2, statistics.getSuccessfulTransactionCount());
+
+        User atualizado = userService.buscarPorId(user.getId()).orElseThrow();
+        assertTrue(atualizado.getCooldownAposta().isAfter(LocalDateTime.now()));
+        assertEquals(100_000, atualizado.getSaldo());
+    }
+
+    @Test
+    void apostaDuranteCooldownNaoGravaNadaEBloqueiosFicamForaDoHistorico() throws Exception {
+        assertEquals(400, apostar(500));
+        statistics.clear();
+
+        assertEquals(400, apostar(100));
+        assertEquals(400, apostar(100));
+
+        assertEquals(0, statistics.getEntityInsertCount(), "tentativas em cooldown só são contadas em memória");
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertTrue(transacaoService.listarPorUsuario(user).isEmpty(), "apostas bloqueadas não entram no histórico");
+    }
+
+    @Test
+    void valorAusenteNuloOuNaoPositivoERecusado() throws Exception {
+        assertEquals(400, enviar("{\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}"));
+        assertEquals(400, enviar("{\"valor\":null,\"tipo\":\"INVESTIMENTO\",\"userId\":" + user.getId() + "}"));
+        assertEquals(400, apostar(0));
+        assertEquals(400, apostar(-50));
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(100_000, userService.buscarPorId(user.getId()).orElseThrow().getSaldo());
+    }
+
+    private int apostar(int reais) throws Exception {
+        return enviar("{\"valor\":" + reais + ",\"tipo\":\"APOSTA\",\"userId\":" + user.getId() + "}");
+    }
+
+    private int enviar(String json) throws Exception {
+        return mvc.perform(post("/api/transacoes").header("Authorization", user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andReturn().getResponse().getStatus();
+    }
+}